@@ -1,13 +1,18 @@
 package uk.co.compendiumdev.challenge;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.challenge.apimodel.ChallengeApiModel;
 import uk.co.compendiumdev.challenge.challengers.Challengers;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.application.MainImplementation;
 import uk.co.compendiumdev.thingifier.application.ThingifierRestServer;
+import uk.co.compendiumdev.thingifier.application.httpengine.SparkHttpEngine;
 
 public class ChallengeMain {
 
+    private static final Logger logger = LoggerFactory.getLogger(ChallengeMain.class);
+
     static ChallengeRouteHandler challenger;
 
     public static void main(String[] args) {
@@ -18,6 +23,8 @@ public class ChallengeMain {
 
         // add any additional thingifier configurations here if more needed than model has defined
         app.setDefaultsFromArgs(args);
+        // the challenge routes and hooks are Spark routes and hooks
+        app.setHttpEngine(new SparkHttpEngine());
 
         app.configurePortAndDefaultRoutes();
         app.setupBuiltInConfigurableRoutes();
@@ -27,27 +34,27 @@ public class ChallengeMain {
 
         for (String arg : args) {
             if (arg.toLowerCase().startsWith("-multiplayer")) {
-                System.out.println("Running in multiplayer mode");
+                logger.info("Running in multiplayer mode");
                 challenger.setToMultiPlayerMode();
             }
 
             if (arg.toLowerCase().startsWith("-cloudstorage")) {
-                System.out.println("Setting persistence mechanism to cloud");
+                logger.info("Setting persistence mechanism to cloud");
                 challenger.setToCloudPersistenceMode();
             }
 
             if(arg.toLowerCase().startsWith("-guikeepalive")){
-                System.out.println("Setting GUI to keep session alive through XHR");
+                logger.info("Setting GUI to keep session alive through XHR");
                 challenger.setGuiToKeepSessionAlive();
             }
 
             if (arg.toLowerCase().startsWith("-memory")) {
-                System.out.println("Setting persistence mechanism to no persistence");
+                logger.info("Setting persistence mechanism to no persistence");
                 challenger.setToNoPersistenceMode();
             }
 
             if (arg.toLowerCase().startsWith("-enableadminapi")) {
-                System.out.println("Enabling Admin Api");
+                logger.info("Enabling Admin Api");
                 challenger.enableAdminApi();
             }
         }
@@ -65,7 +72,7 @@ public class ChallengeMain {
 
 
         if(challenger.isSinglePlayerMode()){
-            System.out.println("Running in Single User Mode");
+            logger.info("Running in Single User Mode");
             challenger.getThingifier().ensureCreatedAndPopulatedInstanceDatabaseNamed(Challengers.SINGLE_PLAYER_GUID);
         }
 
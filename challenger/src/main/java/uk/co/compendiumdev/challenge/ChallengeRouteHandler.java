@@ -52,6 +52,7 @@ public class ChallengeRouteHandler {
     public void setToMultiPlayerMode(){
         single_player_mode = false;
         challengers.setMultiPlayerMode();
+        challengers.startPurgingExpiredChallengers();
     }
 
     public boolean isSinglePlayerMode(){
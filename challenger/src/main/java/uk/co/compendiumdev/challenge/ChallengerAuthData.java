@@ -5,6 +5,7 @@ import org.slf4j.MDC;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ChallengerAuthData {
 
@@ -16,6 +17,10 @@ public class ChallengerAuthData {
     private String secretNote;
     private Map<CHALLENGE, Boolean> challengeStatus;
 
+    // versions come from one counter so a recreated challenger never repeats a version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private volatile long statusVersion;
+
     public ChallengerAuthData(){
         this.xChallenger = UUID.randomUUID().toString();
         this.xAuthToken = UUID.randomUUID().toString();
@@ -31,6 +36,7 @@ public class ChallengerAuthData {
         for(CHALLENGE challenge : CHALLENGE.values()){
             challengeStatus.put(challenge, false);
         }
+        statusVersion = VERSIONS.incrementAndGet();
     }
 
     public String getXAuthToken() {
@@ -81,7 +87,16 @@ public class ChallengerAuthData {
     }
 
     public void pass(final CHALLENGE id) {
-        challengeStatus.put(id, true);
+        if(!Boolean.TRUE.equals(challengeStatus.put(id, true))){
+            statusVersion = VERSIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Changes whenever the status of a challenge changes
+     */
+    public long getStatusVersion() {
+        return statusVersion;
     }
 
     public void setXChallengerGUID(final String guid) {
@@ -40,6 +40,7 @@ public class ChallengeApiModel {
         todoList.generateData();
 
         todoList.apiConfig().setResponsesToShowGuids(false);
+        todoList.apiConfig().setApiToStreamXmlResponses(true);
 
         return todoList;
     }
@@ -20,7 +20,6 @@ public class ChallengerInternalHTTPRequestHook  implements InternalHttpRequestHo
     @Override
     public HttpApiResponse run(final HttpApiRequest request) {
         updateAuthTokenFrom(request.getHeader("X-CHALLENGER"));
-        challengers.purgeOldAuthData();
 
         ChallengerAuthData challenger = challengers.getChallenger(request.getHeader("X-CHALLENGER"));
         if(challenger==null){
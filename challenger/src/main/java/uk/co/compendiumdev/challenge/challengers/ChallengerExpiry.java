@@ -0,0 +1,36 @@
+package uk.co.compendiumdev.challenge.challengers;
+
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/*
+    A scheduled expiry check for a challenger, ordered in the DelayQueue by
+    the time the challenger was due to expire when the check was scheduled.
+ */
+final class ChallengerExpiry implements Delayed {
+
+    private final String challengerGuid;
+    private final long checkAt;
+
+    ChallengerExpiry(final String challengerGuid, final long checkAt) {
+        this.challengerGuid = challengerGuid;
+        this.checkAt = checkAt;
+    }
+
+    String getChallengerGuid() {
+        return challengerGuid;
+    }
+
+    @Override
+    public long getDelay(final TimeUnit unit) {
+        return unit.convert(checkAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int compareTo(final Delayed other) {
+        if(other instanceof ChallengerExpiry){
+            return Long.compare(checkAt, ((ChallengerExpiry) other).checkAt);
+        }
+        return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+    }
+}
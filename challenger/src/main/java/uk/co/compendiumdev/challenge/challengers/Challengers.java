@@ -1,5 +1,7 @@
 package uk.co.compendiumdev.challenge.challengers;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.challenge.CHALLENGE;
 import uk.co.compendiumdev.challenge.ChallengerAuthData;
 import uk.co.compendiumdev.challenge.persistence.PersistenceLayer;
@@ -7,13 +9,14 @@ import uk.co.compendiumdev.challenge.persistence.PersistenceResponse;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
 
 public class Challengers {
 
+    private static final Logger logger = LoggerFactory.getLogger(Challengers.class);
+
     private final EntityRelModel erModel;
     private boolean singlePlayerMode;
     Map<String, ChallengerAuthData> authData;
@@ -23,8 +26,16 @@ public class Challengers {
     PersistenceLayer persistenceLayer;
     private ThingifierApiConfig apiConfig;
 
+    // expiry checks ordered by the time the challenger is due to expire,
+    // only the latest scheduled check for a challenger is acted upon
+    private final DelayQueue<ChallengerExpiry> expiries;
+    private final Map<String, ChallengerExpiry> scheduledExpiries;
+    private Thread expiryPurger;
+
     public Challengers(EntityRelModel erModel){
         authData = new ConcurrentHashMap<>();
+        expiries = new DelayQueue<>();
+        scheduledExpiries = new ConcurrentHashMap<>();
         SINGLE_PLAYER = new ChallengerAuthData();
         SINGLE_PLAYER.setXChallengerGUID(SINGLE_PLAYER_GUID);
         this.singlePlayerMode=true;
@@ -70,33 +81,86 @@ public class Challengers {
         return challenger;
     }
 
+    /**
+     * Purge the challengers which have expired, only the challengers whose scheduled
+     * expiry time has been reached are checked rather than scanning every challenger.
+     */
     public void purgeOldAuthData() {
 
         if(singlePlayerMode){
             return;
         }
 
-        List<String> deleteMe = new ArrayList();
-        final long cutOffTime = System.currentTimeMillis();
-        for(ChallengerAuthData data : authData.values()){
-            if(data.expiresAt() < cutOffTime ){
-                System.out.printf("PURGING AUTH: %s%n", data.getXChallenger());
-                deleteMe.add(data.getXChallenger());
-            }else{
-                System.out.printf("PURGE: %s expires in %d%n", data.getXChallenger(), cutOffTime - data.expiresAt());
-            }
+        ChallengerExpiry due;
+        while((due = expiries.poll()) != null){
+            purgeIfExpired(due);
         }
+        logger.debug("Current challenger count: {}", authData.size());
+    }
+
+    /**
+     * Start a single background thread which purges challengers as they expire,
+     * so that purging and database deletion happen off the request threads.
+     */
+    public synchronized void startPurgingExpiredChallengers(){
 
-        for(String deleteKey : deleteMe){
-            authData.remove(deleteKey);
-            if(erModel!=null){
-                if(erModel.getDatabaseNames().contains(deleteKey)){
-                    System.out.printf("DELETING DATABASE: %s%n", deleteKey);
-                    erModel.deleteInstanceDatabase(deleteKey);
+        if(expiryPurger!=null){
+            return;
+        }
+
+        expiryPurger = new Thread(() -> {
+            while(!Thread.currentThread().isInterrupted()){
+                try {
+                    purgeIfExpired(expiries.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    logger.error("Error purging challenger", e);
                 }
             }
+        }, "challenger-expiry-purger");
+        expiryPurger.setDaemon(true);
+        expiryPurger.start();
+    }
+
+    private void purgeIfExpired(final ChallengerExpiry due){
+
+        final String guid = due.getChallengerGuid();
+
+        if(scheduledExpiries.get(guid)!=due){
+            // superseded by a later schedule for the same challenger
+            return;
+        }
+
+        final ChallengerAuthData data = authData.get(guid);
+        if(data==null){
+            scheduledExpiries.remove(guid, due);
+            return;
+        }
+
+        final long cutOffTime = System.currentTimeMillis();
+        if(data.expiresAt() >= cutOffTime){
+            // touched since the check was scheduled
+            logger.trace("Purge: {} expires in {}", guid, data.expiresAt() - cutOffTime);
+            scheduleExpiry(data);
+            return;
+        }
+
+        logger.info("Purging auth: {}", guid);
+        scheduledExpiries.remove(guid, due);
+        authData.remove(guid, data);
+        if(erModel!=null){
+            if(erModel.getDatabaseNames().contains(guid)){
+                logger.info("Deleting database: {}", guid);
+                erModel.deleteInstanceDatabase(guid);
+            }
         }
-        System.out.printf("CURRENT Challenger count: %d%n",authData.values().size());
+    }
+
+    private void scheduleExpiry(final ChallengerAuthData challenger){
+        final ChallengerExpiry expiry = new ChallengerExpiry(challenger.getXChallenger(), challenger.expiresAt());
+        scheduledExpiries.put(challenger.getXChallenger(), expiry);
+        expiries.add(expiry);
     }
 
     public ChallengerAuthData createNewChallenger() {
@@ -110,6 +174,7 @@ public class Challengers {
             SINGLE_PLAYER = challenger; // we just loaded the single player session
         }else {
             authData.put(challenger.getXChallenger(), challenger);
+            scheduleExpiry(challenger);
         }
     }
 
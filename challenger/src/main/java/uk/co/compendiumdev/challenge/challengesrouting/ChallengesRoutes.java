@@ -4,6 +4,7 @@ import uk.co.compendiumdev.challenge.ChallengerAuthData;
 import uk.co.compendiumdev.challenge.apimodel.ChallengeThingifier;
 import uk.co.compendiumdev.challenge.challengers.Challengers;
 import uk.co.compendiumdev.challenge.challenges.ChallengeDefinitions;
+import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.api.restapihandlers.RestApiGetHandler;
@@ -26,6 +27,9 @@ public class ChallengesRoutes {
                           final ThingifierApiDefn apiDefn,
                           final ChallengeDefinitions challengeDefinitions){
 
+        // validates and renders the requests, the challenges are only built when the response is not a 304
+        final Thingifier challengesApi = new ChallengeThingifier().challengeThingifier;
+
         get("/challenges", (request, result) -> {
 
             ChallengerAuthData challenger = challengers.getChallenger(request.headers("X-CHALLENGER"));
@@ -38,13 +42,20 @@ public class ChallengesRoutes {
                 result.raw().setHeader("Location", "/gui/challenges");
             }
 
-            // Todo: use the cloneThingifierWithNewData here and simplify the ChallengeThingifier
-            ChallengeThingifier challengeThingifier = new ChallengeThingifier();
-            final EntityDefinition challengeDefn = challengeThingifier.challengeDefn;
-            challengeThingifier.populateThingifierFrom(challengeDefinitions);
+            final SparkApiRequestResponseHandler handler =
+                    new SparkApiRequestResponseHandler(request, result, challengesApi);
+
+            if(challenger!=null){
+                // the status version is read before the response is built, a challenge passed
+                // while building the response leaves the tag out of date rather than wrong
+                handler.conditionalOn(challenger.getXChallenger(), challenger.getStatusVersion());
+            }
 
-            return new SparkApiRequestResponseHandler(request, result, challengeThingifier.challengeThingifier).
-                    usingHandler((anHttpApiRequest)->{
+            return handler.usingHandler((anHttpApiRequest)->{
+                        // Todo: use the cloneThingifierWithNewData here and simplify the ChallengeThingifier
+                        ChallengeThingifier challengeThingifier = new ChallengeThingifier();
+                        final EntityDefinition challengeDefn = challengeThingifier.challengeDefn;
+                        challengeThingifier.populateThingifierFrom(challengeDefinitions);
                         challengeThingifier.populateThingifierFromStatus(challenger);
                         final Map<String, String> queryParams = anHttpApiRequest.getQueryParams();
                         if(!queryParams.containsKey("sortBy") &&
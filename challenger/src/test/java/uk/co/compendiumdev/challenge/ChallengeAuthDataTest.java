@@ -38,6 +38,20 @@ public class ChallengeAuthDataTest {
         Assertions.assertTrue(authData.statusOfChallenge(CHALLENGE.GET_CHALLENGES));
     }
 
+    @Test
+    void statusVersionChangesOnlyWhenAChallengeIsFirstPassed(){
+
+        ChallengerAuthData authData = new ChallengerAuthData();
+        final long version = authData.getStatusVersion();
+
+        authData.pass(CHALLENGE.GET_CHALLENGES);
+        final long passedVersion = authData.getStatusVersion();
+        Assertions.assertTrue(passedVersion > version);
+
+        authData.pass(CHALLENGE.GET_CHALLENGES);
+        Assertions.assertEquals(passedVersion, authData.getStatusVersion());
+    }
+
     @Test
     void canPassAllChallenges(){
 
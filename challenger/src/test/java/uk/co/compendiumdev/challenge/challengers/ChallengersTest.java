@@ -33,6 +33,8 @@ public class ChallengersTest {
         lastAccessedField.setAccessible(true);
         lastAccessedField.set(challenger, 0L);
         Assertions.assertEquals(0, challenger.getLastAccessed());
+        // expiry is scheduled when a challenger is added, so re-add with the hacked time
+        challengers.put(challenger);
 
         //forget about it
         challenger=null;
@@ -48,4 +50,68 @@ public class ChallengersTest {
         Assertions.assertTrue(erModel.getDatabaseNames().contains("an-active-user"));
         Assertions.assertFalse(erModel.getDatabaseNames().contains(guid));
     }
+
+    private void expireAt(ChallengerAuthData challenger, long lastAccessed) throws NoSuchFieldException, IllegalAccessException {
+        Field lastAccessedField = ChallengerAuthData.class.getDeclaredField("lastAccessed");
+        lastAccessedField.setAccessible(true);
+        lastAccessedField.set(challenger, lastAccessed);
+    }
+
+    @Test
+    void touchedChallengersAreRescheduledNotPurged() throws NoSuchFieldException, IllegalAccessException {
+
+        EntityRelModel erModel = new EntityRelModel( new ERSchema(), new ERInstanceData());
+        Challengers challengers = new Challengers(erModel);
+        challengers.setMultiPlayerMode();
+
+        ChallengerAuthData expired = challengers.createNewChallenger();
+        ChallengerAuthData touched = challengers.createNewChallenger();
+        erModel.createInstanceDatabaseIfNotExisting(expired.getXChallenger());
+        erModel.createInstanceDatabaseIfNotExisting(touched.getXChallenger());
+
+        expireAt(expired, 0L);
+        challengers.put(expired);
+        expireAt(touched, 0L);
+        challengers.put(touched);
+
+        // touched after the expiry was scheduled
+        touched.touch();
+
+        challengers.purgeOldAuthData();
+
+        Assertions.assertNull(challengers.getChallenger(expired.getXChallenger()));
+        Assertions.assertFalse(erModel.getDatabaseNames().contains(expired.getXChallenger()));
+
+        Assertions.assertNotNull(challengers.getChallenger(touched.getXChallenger()));
+        Assertions.assertTrue(erModel.getDatabaseNames().contains(touched.getXChallenger()));
+
+        // rescheduled check is not due yet
+        challengers.purgeOldAuthData();
+        Assertions.assertNotNull(challengers.getChallenger(touched.getXChallenger()));
+    }
+
+    @Test
+    void backgroundPurgerRemovesExpiredChallengers() throws NoSuchFieldException, IllegalAccessException, InterruptedException {
+
+        EntityRelModel erModel = new EntityRelModel( new ERSchema(), new ERInstanceData());
+        Challengers challengers = new Challengers(erModel);
+        challengers.setMultiPlayerMode();
+        challengers.startPurgingExpiredChallengers();
+
+        ChallengerAuthData active = challengers.createNewChallenger();
+        ChallengerAuthData challenger = new ChallengerAuthData();
+        String guid = challenger.getXChallenger();
+        erModel.createInstanceDatabaseIfNotExisting(guid);
+        expireAt(challenger, 0L);
+        challengers.put(challenger);
+
+        long giveUpAt = System.currentTimeMillis() + 5000;
+        while(erModel.getDatabaseNames().contains(guid) && System.currentTimeMillis() < giveUpAt){
+            Thread.sleep(10);
+        }
+
+        Assertions.assertNull(challengers.getChallenger(guid));
+        Assertions.assertFalse(erModel.getDatabaseNames().contains(guid));
+        Assertions.assertNotNull(challengers.getChallenger(active.getXChallenger()));
+    }
 }
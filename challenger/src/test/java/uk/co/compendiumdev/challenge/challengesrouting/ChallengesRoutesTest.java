@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import uk.co.compendiumdev.challenge.CHALLENGE;
 import uk.co.compendiumdev.challenge.ChallengeMain;
 import uk.co.compendiumdev.challenge.ChallengerAuthData;
 import uk.co.compendiumdev.challenger.http.http.HttpMessageSender;
@@ -51,6 +52,30 @@ public class ChallengesRoutesTest {
 
     }
 
+    @Test
+    void unchangedChallengesAreNotModified(){
+        http.clearHeaders();
+
+        http.setHeader("X-CHALLENGER", challenger.getXChallenger());
+        // the first get passes the get challenges challenge so the status changes after it
+        http.send("/challenges", "get");
+        final HttpResponseDetails response = http.send("/challenges", "get");
+
+        Assertions.assertEquals(200, response.statusCode);
+        final String etag = response.getHeader("ETag");
+        Assertions.assertNotNull(etag);
+
+        http.setHeader("If-None-Match", etag);
+        final HttpResponseDetails notModified = http.send("/challenges", "get");
+
+        Assertions.assertEquals(304, notModified.statusCode);
+        Assertions.assertEquals(etag, notModified.getHeader("ETag"));
+
+        // the status changes when a challenge is passed
+        challenger.pass(CHALLENGE.GET_HEARTBEAT_204);
+        Assertions.assertEquals(200, http.send("/challenges", "get").statusCode);
+    }
+
     @Test
     void canOptionsChallenges(){
         http.clearHeaders();
@@ -1,5 +1,6 @@
 package uk.co.compendiumdev.thingifier.core;
 
+import uk.co.compendiumdev.thingifier.core.domain.datapopulator.DataPopulator;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
@@ -9,6 +10,8 @@ import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /*
     The ERM has the 'model' (ERSchema) and the 'instances' (things).
@@ -21,18 +24,21 @@ public class EntityRelModel {
 
     // a Map so that key, database can be used
     // e.g. key from a 'session', or 'custom' or 'default'
-    private final Map<String, ERInstanceData> databases;
+    // databases are created and deleted concurrently from request threads
+    private final ConcurrentMap<String, ERInstanceData> databases;
+    // held while a database is created and populated, only by threads creating the same database
+    private final ConcurrentMap<String, Object> creationLocks = new ConcurrentHashMap<>();
     private final ERSchema schema; // all the definitions
 
     public EntityRelModel(){
         schema = new ERSchema();
-        databases = new HashMap<String,ERInstanceData>();
+        databases = new ConcurrentHashMap<>();
         databases.put(DEFAULT_DATABASE_NAME, new ERInstanceData());
     }
 
     public EntityRelModel(final ERSchema schema, final ERInstanceData erInstanceData) {
         this.schema = schema;
-        this.databases = new HashMap<String, ERInstanceData>();
+        this.databases = new ConcurrentHashMap<>();
         this.databases.put(DEFAULT_DATABASE_NAME,erInstanceData);
     }
 
@@ -114,11 +120,9 @@ public class EntityRelModel {
     // Multiple Databases
     public void createInstanceDatabase(String databaseKey) {
 
-        if(databases.containsKey(databaseKey)){
+        if(!createInstanceDatabaseIfNotExisting(databaseKey)){
             throw new IllegalStateException("ERM Database Already Exists with name " + databaseKey);
         }
-
-        createInstanceDatabaseIfNotExisting(databaseKey);
     }
 
 
@@ -130,15 +134,41 @@ public class EntityRelModel {
     }
 
     public boolean createInstanceDatabaseIfNotExisting(String databaseKey) {
+        return createInstanceDatabaseIfNotExisting(databaseKey, null);
+    }
+
+    /**
+     * Create the database if it does not exist, populating it with the populator (if not null)
+     * before it is made available, so a database is only ever created and populated once and
+     * other threads never see a partially populated database.
+     *
+     * @return true if the database was created by this call
+     */
+    public boolean createInstanceDatabaseIfNotExisting(String databaseKey, DataPopulator populator) {
+
         if(databases.containsKey(databaseKey)){
             return false;
         }
 
-        ERInstanceData aDatabase = new ERInstanceData();
-        aDatabase.createInstanceCollectionFrom(this.schema);
-        databases.put(databaseKey, aDatabase);
-        return true;
+        // populating is done outside the map, so it does not block other databases
+        // being created or looked up, and the populator can use the model
+        final Object creationLock = creationLocks.computeIfAbsent(databaseKey, key -> new Object());
+        try{
+            synchronized (creationLock){
+                if(databases.containsKey(databaseKey)){
+                    return false;
+                }
+
+                ERInstanceData aDatabase = new ERInstanceData();
+                aDatabase.createInstanceCollectionFrom(this.schema);
+                if(populator!=null){
+                    populator.populate(this.schema, aDatabase);
+                }
+                // the first database added is kept
+                return databases.putIfAbsent(databaseKey, aDatabase)==null;
+            }
+        }finally {
+            creationLocks.remove(databaseKey, creationLock);
+        }
     }
-
-
 }
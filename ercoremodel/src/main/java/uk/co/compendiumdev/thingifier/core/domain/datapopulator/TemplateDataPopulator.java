@@ -0,0 +1,59 @@
+package uk.co.compendiumdev.thingifier.core.domain.datapopulator;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceDataTemplate;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+    Runs the wrapped populator once and keeps the instances it created as a template,
+    every later database is populated by copying the template, rather than creating
+    and validating every instance again, e.g. for each new session database.
+ */
+public final class TemplateDataPopulator implements DataPopulator {
+
+    private final DataPopulator populator;
+    private volatile InstanceDataTemplate template;
+
+    public TemplateDataPopulator(final DataPopulator populator) {
+        this.populator = populator;
+    }
+
+    public DataPopulator getWrappedPopulator(){
+        return populator;
+    }
+
+    @Override
+    public void populate(final ERSchema schema, final ERInstanceData database) {
+
+        if(template==null){
+            synchronized (this){
+                if(template==null){
+                    template = populateAndCreateTemplate(schema, database);
+                    return;
+                }
+            }
+        }
+
+        template.copyInto(database);
+    }
+
+    private InstanceDataTemplate populateAndCreateTemplate(final ERSchema schema, final ERInstanceData database){
+
+        // the database might already have data which should not be part of the template
+        final Set<String> existingGuids = new HashSet<>();
+        for(EntityInstanceCollection collection : database.getAllInstanceCollections()){
+            for(EntityInstance instance : collection.getInstances()){
+                existingGuids.add(instance.getGUID());
+            }
+        }
+
+        populator.populate(schema, database);
+
+        return InstanceDataTemplate.from(database, existingGuids);
+    }
+}
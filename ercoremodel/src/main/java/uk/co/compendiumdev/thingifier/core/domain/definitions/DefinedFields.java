@@ -8,6 +8,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class DefinedFields {
 
@@ -15,6 +16,12 @@ public class DefinedFields {
     // to control field order
     private List<String> orderedFieldNames = new ArrayList<>();
 
+    // each field is given a slot, instances store their values in an array indexed by slot
+    // lowercase field name -> slot, and the name as given -> slot to avoid lowercasing for the common case
+    private final Map<String, Integer> slotsByLowerCaseName = new ConcurrentHashMap<>();
+    private final Map<String, Integer> slotsByName = new ConcurrentHashMap<>();
+    private final List<Field> fieldsInSlots = new CopyOnWriteArrayList<>();
+
     @Override
     public String toString() {
         StringBuilder output = new StringBuilder();
@@ -29,8 +36,38 @@ public class DefinedFields {
     }
 
     public void addField(final Field aField) {
-        fields.put(aField.getName().toLowerCase(), aField);
+        final String lowerCaseName = aField.getName().toLowerCase();
+        fields.put(lowerCaseName, aField);
         orderedFieldNames.add(aField.getName());
+
+        // a replaced field keeps the slot of the field it replaces
+        final Integer slot = slotsByLowerCaseName.get(lowerCaseName);
+        if(slot==null){
+            fieldsInSlots.add(aField);
+            slotsByLowerCaseName.put(lowerCaseName, fieldsInSlots.size()-1);
+        }else{
+            fieldsInSlots.set(slot, aField);
+        }
+        slotsByName.put(aField.getName(), slotsByLowerCaseName.get(lowerCaseName));
+    }
+
+    /**
+     * The slot for the field name, case insensitive, or -1 if the field is not defined.
+     */
+    public int slotOf(final String fieldName){
+        Integer slot = slotsByName.get(fieldName);
+        if(slot==null){
+            slot = slotsByLowerCaseName.get(fieldName.toLowerCase());
+        }
+        return slot==null ? -1 : slot;
+    }
+
+    public Field getFieldInSlot(final int slot){
+        return fieldsInSlots.get(slot);
+    }
+
+    public int countSlots(){
+        return fieldsInSlots.size();
     }
 
     public List<String> getFieldNames() {
@@ -40,7 +77,7 @@ public class DefinedFields {
     }
 
     public boolean hasFieldNameDefined(final String fieldName) {
-        return fields.keySet().contains(fieldName.toLowerCase());
+        return slotOf(fieldName)>=0;
     }
 
     public DefinedFields addFields(final Field... theseFields) {
@@ -51,8 +88,9 @@ public class DefinedFields {
     }
 
     public Field getField(final String fieldName) {
-        if (hasFieldNameDefined(fieldName)) {
-            return fields.get(fieldName.toLowerCase());
+        final int slot = slotOf(fieldName);
+        if (slot>=0) {
+            return fieldsInSlots.get(slot);
         }
         return null;
     }
@@ -70,6 +108,17 @@ public class DefinedFields {
         return returnFields;
     }
 
+    public List<Field> getIndexedFields() {
+        List<Field> returnFields = new ArrayList<>();
+
+        for(Field aField : fields.values()){
+            if(aField.isIndexed())
+                returnFields.add(aField);
+        }
+
+        return returnFields;
+    }
+
     public List<String> getFieldNamesOfType(final FieldType... types) {
 
         List<String> fieldNames = new ArrayList<>();
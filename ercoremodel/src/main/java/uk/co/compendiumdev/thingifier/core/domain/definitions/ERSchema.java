@@ -7,20 +7,30 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ERSchema {
 
     private final ConcurrentHashMap<String, RelationshipDefinition> relationships;
     private final ConcurrentHashMap<String, EntityDefinition> entityDefinitions;
 
+    // incremented whenever an entity or relationship is defined so cached query plans can be discarded
+    private final AtomicInteger version;
+
     public ERSchema(){
         relationships = new ConcurrentHashMap<>();
         entityDefinitions = new ConcurrentHashMap<>();
+        version = new AtomicInteger(0);
+    }
+
+    public int getVersion(){
+        return version.get();
     }
 
     public EntityDefinition defineEntity(final String thingName, final String pluralName, final int maxiumNumberOfInstances) {
         EntityDefinition definition = new EntityDefinition(thingName, pluralName, maxiumNumberOfInstances);
         entityDefinitions.put(definition.getName(), definition);
+        version.incrementAndGet();
         return definition;
     }
 
@@ -39,7 +49,9 @@ public class ERSchema {
                                 named,
                                 to,
                                 of));
+        relationship.whenAmended(version::incrementAndGet);
         relationships.put(named, relationship);
+        version.incrementAndGet();
         return relationship;
     }
 
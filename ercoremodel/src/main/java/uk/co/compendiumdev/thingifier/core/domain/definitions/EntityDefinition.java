@@ -77,6 +77,14 @@ public class EntityDefinition {
         return fields.getField(fieldName);
     }
 
+    public int slotOf(String fieldName) {
+        return fields.slotOf(fieldName);
+    }
+
+    public Field getFieldInSlot(int slot) {
+        return fields.getFieldInSlot(slot);
+    }
+
     public List<Field> getFieldsOfType(final FieldType... types) {
         return  fields.getFieldsOfType(types);
     }
@@ -85,6 +93,10 @@ public class EntityDefinition {
         return  fields.getFieldNamesOfType(types);
     }
 
+    public List<Field> getIndexedFields() {
+        return fields.getIndexedFields();
+    }
+
     public DefinedRelationships related(){
         return definedRelationships;
     }
@@ -109,6 +121,12 @@ public class EntityDefinition {
         return new InstanceFields(fields);
     }
 
+    public void resetIdSequences() {
+        for(Field field : fields.getFieldsOfType(FieldType.ID)){
+            field.resetNextId();
+        }
+    }
+
     /*
         given a list of field values,
         if any of those match an id field
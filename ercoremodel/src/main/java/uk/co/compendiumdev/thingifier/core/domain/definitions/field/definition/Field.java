@@ -21,6 +21,8 @@ public final class Field {
     private final Set<String> fieldExamples;
 
     private boolean fieldIsOptional;
+    private boolean fieldIsUnique;
+    private boolean fieldIsRangeIndexed;
 
     // default value for the field
     private String defaultValue;
@@ -47,6 +49,8 @@ public final class Field {
         this.type = type;
         validationRules = new ArrayList<>();
         fieldIsOptional = true;
+        fieldIsUnique = false;
+        fieldIsRangeIndexed = false;
         truncateStringIfTooLong=false;
         truncatedStringLength=-1;
         fieldExamples = new HashSet<>();
@@ -66,14 +70,20 @@ public final class Field {
         return name;
     }
 
-    public String getNextIdValue() {
+    // ids are allocated from the schema definition so can be requested by many databases at once
+    public synchronized String getNextIdValue() {
         int id = nextId;
         nextId++;
         return String.valueOf(id);
     }
 
+    // only safe when no database holds instances with ids from this field
+    public synchronized void resetNextId() {
+        nextId=1;
+    }
+
     // an external way to set the next id
-    public void ensureNextIdAbove(final String value) {
+    public synchronized void ensureNextIdAbove(final String value) {
         try{
             final int desiredId = Integer.parseInt(value);
             if(nextId<=desiredId){
@@ -282,6 +292,42 @@ public final class Field {
         return this;
     }
 
+    /*
+        unique fields are expected to have a different value for every
+        instance in a collection, which allows the collection to index them
+     */
+    public Field makeUnique() {
+        fieldIsUnique = true;
+        return this;
+    }
+
+    public boolean isUnique(){
+        return fieldIsUnique;
+    }
+
+    // ID and GUID fields are always unique so are always indexed
+    public boolean isIndexed(){
+        return fieldIsUnique || type==FieldType.ID || type==FieldType.GUID;
+    }
+
+    /*
+        range indexed fields are held in value order by the collection, so
+        filters like ?priority=>3 and sort_by=priority do not scan and sort every instance
+     */
+    public Field makeRangeIndexed() {
+        fieldIsRangeIndexed = true;
+        return this;
+    }
+
+    // indexed fields are also range indexed when their type has an order
+    public boolean isRangeIndexed(){
+        if(!fieldIsRangeIndexed && !isIndexed()){
+            return false;
+        }
+        return type==FieldType.ID || type==FieldType.INTEGER || type==FieldType.FLOAT ||
+                type==FieldType.STRING || type==FieldType.ENUM;
+    }
+
     /*
        todo: consider adding Formatting Rules
         instead of truncateString To -
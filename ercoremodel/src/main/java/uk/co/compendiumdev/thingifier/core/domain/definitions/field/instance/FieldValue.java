@@ -67,15 +67,16 @@ public final class FieldValue {
         return objectValue;
     }
 
+    // typed values are parsed when asked for rather than kept, a value is held for every field of every instance
     public float asFloat() {
         return Float.valueOf(valueOfField);
     }
 
     public boolean asBoolean() {
-        if (valueOfField.toLowerCase().contentEquals("true")){
+        if (valueOfField.equalsIgnoreCase("true")){
             return true;
         }
-        if(valueOfField.toLowerCase().contentEquals("false")) {
+        if(valueOfField.equalsIgnoreCase("false")) {
             return false;
         }
 
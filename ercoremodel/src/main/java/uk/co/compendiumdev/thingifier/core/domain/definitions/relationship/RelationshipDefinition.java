@@ -11,6 +11,9 @@ public class RelationshipDefinition {
     private RelationshipVectorDefinition fromTo;
     private RelationshipVectorDefinition toFrom;
 
+    // told when the relationship is amended after creation e.g. reversed
+    private Runnable amendmentListener;
+
     //todo: in theory we don't need 'relationship' since we could just have two vectors
 
     private RelationshipDefinition(RelationshipVectorDefinition fromVector) {
@@ -30,9 +33,16 @@ public class RelationshipDefinition {
                 of);
         vector.forRelationship(this);
         toFrom = vector;
+        if(amendmentListener!=null){
+            amendmentListener.run();
+        }
         return this;
     }
 
+    public void whenAmended(final Runnable listener) {
+        this.amendmentListener = listener;
+    }
+
     public String toString() {
 
         StringBuilder output = new StringBuilder();
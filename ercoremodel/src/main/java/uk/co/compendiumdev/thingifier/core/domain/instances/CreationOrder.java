@@ -0,0 +1,33 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.util.Comparator;
+import java.util.List;
+
+/*
+    Instances ordered by creation i.e. by id, then by guid for instances without an id,
+    used to give a consistent order when other orderings do not distinguish instances
+ */
+public final class CreationOrder {
+
+    public static final Comparator<EntityInstance> COMPARATOR =
+            Comparator.comparingLong(CreationOrder::idValueOf).
+                    thenComparing(EntityInstance::getGUID);
+
+    private CreationOrder(){
+    }
+
+    public static long idValueOf(final EntityInstance instance){
+        final List<Field> idFields = instance.getEntity().getFieldsOfType(FieldType.ID);
+        if(idFields.isEmpty()){
+            return 0;
+        }
+        try {
+            return Long.parseLong(instance.getFieldValue(idFields.get(0).getName()).asString());
+        }catch(NumberFormatException e){
+            return Long.MAX_VALUE;
+        }
+    }
+}
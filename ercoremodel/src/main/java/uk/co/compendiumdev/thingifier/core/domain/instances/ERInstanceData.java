@@ -2,24 +2,23 @@ package uk.co.compendiumdev.thingifier.core.domain.instances;
 
 import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
-import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
-import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
-import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
-import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class ERInstanceData {
     private final ConcurrentHashMap<String, EntityInstanceCollection> instanceCollections;
 
+    // GUID -> instance across all collections, maintained by the collections as instances are added and deleted
+    private final ConcurrentHashMap<String, EntityInstance> guidIndex;
+
     public ERInstanceData() {
         instanceCollections = new ConcurrentHashMap<>();
+        guidIndex = new ConcurrentHashMap<>();
     }
 
     public ERInstanceData(final List<EntityInstance> instances) {
-        instanceCollections = new ConcurrentHashMap<>();
+        this();
         final EntityInstanceCollection managedInstances =
                 createInstanceCollectionFor(instances.get(0).getEntity());
         managedInstances.addInstances(instances);
@@ -27,8 +26,14 @@ public class ERInstanceData {
 
     public EntityInstanceCollection createInstanceCollectionFor(
                                         final EntityDefinition definition) {
-        EntityInstanceCollection aCollection = new EntityInstanceCollection(definition);
-        instanceCollections.put(definition.getName(), aCollection);
+        EntityInstanceCollection aCollection = new EntityInstanceCollection(definition, guidIndex);
+        final EntityInstanceCollection replaced = instanceCollections.put(definition.getName(), aCollection);
+        if(replaced!=null){
+            // instances in the replaced collection are no longer part of this database
+            for(EntityInstance instance : replaced.getInstances()){
+                guidIndex.remove(instance.getGUID(), instance);
+            }
+        }
         return aCollection;
     }
 
@@ -42,18 +47,20 @@ public class ERInstanceData {
         return new ArrayList<EntityInstanceCollection>(instanceCollections.values());
     }
 
-    public EntityInstance findEntityInstanceByGUID(final String thingGUID) {
-        for (EntityInstanceCollection anInstanceCollection : instanceCollections.values()) {
-            final List<String> guidFields = anInstanceCollection.definition().getFieldNamesOfType(FieldType.GUID);
-            for(String fieldName : guidFields){
-                EntityInstance instance = anInstanceCollection.
-                        findInstanceByField(FieldValue.is(fieldName, thingGUID));
-                if (instance != null) {
-                    return instance;
-                }
-            }
+    /**
+     * The latest version of any collection in the database, this changes whenever any content
+     * of the database changes. Collection versions are unique so the maximum never repeats.
+     */
+    public long getVersion(){
+        long version = 0;
+        for(EntityInstanceCollection collection : instanceCollections.values()){
+            version = Math.max(version, collection.getVersion());
         }
-        return null;
+        return version;
+    }
+
+    public EntityInstance findEntityInstanceByGUID(final String thingGUID) {
+        return guidIndex.get(thingGUID);
     }
 
     public EntityInstanceCollection getInstanceCollectionForEntityNamed(final String aName) {
@@ -71,27 +78,56 @@ public class ERInstanceData {
             return;
         }
 
-        // we may also have to delete things which are mandatorily related i.e. can't exist on their own
-        final List<EntityInstance> otherInstancesToDelete =
-                anInstanceCollection.deleteInstance(anEntityInstance.getGUID());
+        final Set<EntityInstance> deleteSet = cascadeDeleteSetFor(anEntityInstance);
+
+        // reports an error if the instance is not in the collection, before anything is deleted
+        anInstanceCollection.deleteInstance(anEntityInstance.getGUID());
 
-        // TODO: Warning recursion with no 'cut off' if any cyclical relationships then this might fail
-        for(EntityInstance deleteMe : otherInstancesToDelete){
-            deleteEntityInstance(deleteMe);
+        for(EntityInstance deleteMe : deleteSet){
+            final EntityInstanceCollection collection = instanceCollections.get(deleteMe.getEntity().getName());
+            // only delete if still managed here, it may have been deleted as part of the cycle
+            if(collection!=null && collection.findInstanceByGUID(deleteMe.getGUID())==deleteMe){
+                collection.deleteInstance(deleteMe);
+            }
         }
     }
 
-    //TODO: couldn't this be simpler, if we just clear all the collections then
-    // all instances and relationships would be cleared? Why recurse individually
-    // through them all?
-    public void clearAllData() {
-        // clear all instance data
-        for (EntityInstanceCollection instanceCollection : instanceCollections.values()) {
-            for(EntityInstance instance : instanceCollection.getInstances()) {
-                deleteEntityInstance(instance);
+    /*
+        We may also have to delete things which are mandatorily related i.e. can't exist on their own,
+        and the things mandatorily related to those. A work list is used rather than recursion
+        and each instance is only visited once, so cyclical relationships are handled.
+     */
+    private Set<EntityInstance> cascadeDeleteSetFor(final EntityInstance anEntityInstance){
+
+        final Set<EntityInstance> deleteSet = new LinkedHashSet<>();
+        final Deque<EntityInstance> workList = new ArrayDeque<>();
+        workList.add(anEntityInstance);
+
+        while(!workList.isEmpty()){
+            final EntityInstance instance = workList.poll();
+            if(!deleteSet.add(instance)){
+                continue;
+            }
+            for(RelationshipVectorInstance relationship : instance.getRelationships().vectors()){
+                for(EntityInstance dependent : relationship.instancesSubjectToMandatoryRelationship()){
+                    if(!deleteSet.contains(dependent)){
+                        workList.add(dependent);
+                    }
+                }
             }
         }
-    }
 
+        return deleteSet;
+    }
 
+    /*
+        Every instance and relationship in the database is discarded together, rather than
+        deleting the instances one at a time and unwinding every relationship.
+     */
+    public void clearAllData() {
+        for (EntityInstanceCollection instanceCollection : instanceCollections.values()) {
+            instanceCollection.removeAllInstances();
+        }
+        guidIndex.clear();
+    }
 }
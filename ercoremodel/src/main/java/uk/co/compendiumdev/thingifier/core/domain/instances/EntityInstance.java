@@ -15,6 +15,9 @@ public class EntityInstance {
     private final EntityDefinition entityDefinition;
     private final InstanceFields instanceFields;
 
+    // the collection managing this instance, told about field changes so it can keep indexes in sync
+    private EntityInstanceCollection managingCollection;
+
     public EntityInstance(EntityDefinition eDefn) {
         this.entityDefinition = eDefn;
         this.instanceFields = eDefn.instantiateFields();
@@ -63,17 +66,39 @@ public class EntityInstance {
     }
 
     public EntityInstance setValue(String fieldName, String value) {
-        instanceFields.setValue(fieldName, value);
+        changeFieldValue(fieldName, () -> instanceFields.setValue(fieldName, value));
         return this;
     }
 
 
     public EntityInstance overrideValue(final String key, final String value) {
         // bypass all validation - except, field must exist
-        this.instanceFields.putValue(key, value);
+        changeFieldValue(key, () -> this.instanceFields.putValue(key, value));
         return this;
     }
 
+    private void changeFieldValue(final String fieldName, final Runnable change){
+        if(managingCollection==null){
+            change.run();
+        }else{
+            managingCollection.reindexAround(this, fieldName, change);
+        }
+    }
+
+    /*
+        The relationships are part of the content of the instance, the managing collection has changed
+     */
+    void relationshipsChanged(){
+        final EntityInstanceCollection collection = managingCollection;
+        if(collection!=null){
+            collection.changed();
+        }
+    }
+
+    void setManagingCollection(final EntityInstanceCollection collection){
+        this.managingCollection = collection;
+    }
+
     public FieldValue getFieldValue(String fieldName){
         return instanceFields.getFieldValue(fieldName);
     }
@@ -127,7 +152,12 @@ public class EntityInstance {
                                     FieldType.ID,
                                     FieldType.GUID));
 
-        instanceFields.deleteAllFieldValuesExcept(ignoreFields);
+        if(managingCollection==null){
+            instanceFields.deleteAllFieldValuesExcept(ignoreFields);
+        }else{
+            managingCollection.reindexAllAround(this,
+                    () -> instanceFields.deleteAllFieldValuesExcept(ignoreFields));
+        }
     }
 
     public EntityInstance createDuplicateWithoutRelationships() {
@@ -7,23 +7,49 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 final public class EntityInstanceCollection {
 
     private final EntityDefinition definition;
-    private Map<String, EntityInstance> instances = new ConcurrentHashMap<>();
+    private volatile Map<String, EntityInstance> instances = new ConcurrentHashMap<>();
+
+    // lowercase field name -> (field value -> instance) for fields defined as indexed
+    // indexes are built lazily because fields can be added to the definition after the collection is created
+    private volatile Map<String, Map<String, EntityInstance>> fieldIndexes = new ConcurrentHashMap<>();
+
+    // lowercase field name -> ordered index for range indexed fields
+    // built when first used by a query, then maintained on every change
+    private volatile Map<String, RangeIndex> rangeIndexes = new ConcurrentHashMap<>();
+
+    // GUID -> instance shared by all collections in a database, null when not managed by a database
+    private final Map<String, EntityInstance> databaseGuidIndex;
+
+    // versions are taken from one counter so a recreated collection never repeats a version
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private volatile long version = VERSIONS.incrementAndGet();
 
     public EntityInstanceCollection(EntityDefinition thingDefinition) {
+        this(thingDefinition, (Map<String, EntityInstance>) null);
+    }
+
+    EntityInstanceCollection(final EntityDefinition thingDefinition,
+                             final Map<String, EntityInstance> databaseGuidIndex) {
         this.definition = thingDefinition;
+        this.databaseGuidIndex = databaseGuidIndex;
     }
 
     public EntityInstanceCollection(final EntityDefinition entity, final List<EntityInstance> instances) {
-       this.definition=entity;
+       this(entity);
        addInstances(instances);
     }
 
-    public EntityInstanceCollection addInstances(List<EntityInstance> addInstances) {
+    /*
+        The instances are added while holding the collection lock,
+        so a batch is checked against the maximum limit once and is not interleaved with other additions
+     */
+    public synchronized EntityInstanceCollection addInstances(List<EntityInstance> addInstances) {
 
         if( definition.hasMaxInstanceLimit() &&
             ((instances.size() + addInstances.size()) > definition.getMaxInstanceLimit())){
@@ -39,7 +65,7 @@ final public class EntityInstanceCollection {
         return this;
     }
 
-    public EntityInstanceCollection addInstance(EntityInstance instance) {
+    public synchronized EntityInstanceCollection addInstance(EntityInstance instance) {
 
         if(instance.getEntity()!=definition){
             throw new RuntimeException(String.format(
@@ -55,6 +81,9 @@ final public class EntityInstanceCollection {
         }
 
         instances.put(instance.getGUID(), instance);
+        instance.setManagingCollection(this);
+        addToIndexes(instance);
+        changed();
         return this;
     }
 
@@ -75,6 +104,12 @@ final public class EntityInstanceCollection {
 
     public EntityInstance findInstanceByField(FieldValue fieldValue) {
 
+        final Map<String, EntityInstance> index = getIndexFor(fieldValue.getName());
+        if(index!=null){
+            final String value = fieldValue.asString();
+            return value==null ? null : index.get(value);
+        }
+
         for (EntityInstance thing : instances.values()) {
             if (thing.getFieldValue(fieldValue.getName())
                     .asString().contentEquals(fieldValue.asString())) {
@@ -123,19 +158,239 @@ final public class EntityInstanceCollection {
 
     public List<EntityInstance>  deleteInstance(EntityInstance anInstance) {
 
-        if (!instances.containsValue(anInstance)) {
+        if (instances.get(anInstance.getGUID())!=anInstance) {
             throw new IndexOutOfBoundsException(
                     String.format("Could not find a %s with GUID %s",
                             definition.getName(), anInstance.getGUID()));
         }
 
         instances.remove(anInstance.getGUID());
+        removeFromIndexes(anInstance);
+        anInstance.setManagingCollection(null);
+        changed();
 
         final List<EntityInstance> alsoDelete = anInstance.getRelationships().removeAllRelationships();
 
         return alsoDelete;
     }
 
+    /*
+        Discard all the instances and indexes together, the instances are no longer managed
+        by this collection. The database guid index is cleared by the database.
+     */
+    void removeAllInstances(){
+        instances = new ConcurrentHashMap<>();
+        fieldIndexes = new ConcurrentHashMap<>();
+        rangeIndexes = new ConcurrentHashMap<>();
+        changed();
+    }
+
+    /*
+
+        Versioning
+
+     */
+
+    /**
+     * The version increases whenever an instance is added, removed or amended,
+     * or a relationship of an instance changes. Equal versions mean unchanged content.
+     */
+    public long getVersion(){
+        return version;
+    }
+
+    void changed(){
+        version = VERSIONS.incrementAndGet();
+    }
+
+    /*
+
+        Field Indexes
+
+     */
+
+    private Map<String, EntityInstance> getIndexFor(final String fieldName){
+        final Field field = definition.getField(fieldName);
+        if(field==null || !field.isIndexed()){
+            return null;
+        }
+
+        return fieldIndexes.computeIfAbsent(field.getName().toLowerCase(), (key) -> {
+            final Map<String, EntityInstance> index = new ConcurrentHashMap<>();
+            for(EntityInstance instance : instances.values()){
+                final String value = indexValueOf(instance, field);
+                if(value!=null){
+                    index.put(value, instance);
+                }
+            }
+            return index;
+        });
+    }
+
+    private String indexValueOf(final EntityInstance instance, final Field field){
+        final FieldValue value = instance.getFieldValue(field.getName());
+        if(value==null){
+            return null;
+        }
+        return value.asString();
+    }
+
+    /**
+     * The ordered index for a range indexed field, or null if the field is not range indexed
+     * or the index is being filled by another query
+     */
+    public RangeIndex getRangeIndexFor(final String fieldName){
+        final Field field = definition.getField(fieldName);
+        if(field==null || !field.isRangeIndexed()){
+            return null;
+        }
+
+        /*
+            The index is registered before it is filled, so instances added, amended or deleted
+            while it is filled are also changed in the index. add removes an instance before
+            adding it, so an instance added by both is indexed once.
+
+            Until the index is filled, queries scan the collection.
+         */
+        final RangeIndex index = new RangeIndex(field);
+        final RangeIndex registered = rangeIndexes.putIfAbsent(field.getName().toLowerCase(), index);
+        if(registered!=null){
+            return registered.isFilled() ? registered : null;
+        }
+
+        for(EntityInstance instance : instances.values()){
+            index.add(instance);
+        }
+
+        // an instance deleted while filling may have been added after it was removed
+        for(EntityInstance indexed : index.indexedInstances()){
+            if(instances.get(indexed.getGUID())!=indexed){
+                index.remove(indexed);
+            }
+        }
+
+        index.filled();
+        return index;
+    }
+
+    private void addToIndexes(final EntityInstance instance){
+        for(Field field : definition.getIndexedFields()){
+            indexUnder(field, indexValueOf(instance, field), instance);
+        }
+        for(RangeIndex index : rangeIndexes.values()){
+            index.add(instance);
+        }
+    }
+
+    private void removeFromIndexes(final EntityInstance instance){
+        for(Field field : definition.getIndexedFields()){
+            unindexFrom(field, indexValueOf(instance, field), instance);
+        }
+        for(RangeIndex index : rangeIndexes.values()){
+            index.remove(instance);
+        }
+    }
+
+    private void indexUnder(final Field field, final String value, final EntityInstance instance){
+        if(value==null){
+            return;
+        }
+
+        getIndexFor(field.getName()).put(value, instance);
+
+        if(databaseGuidIndex!=null && field.getType()==FieldType.GUID){
+            databaseGuidIndex.put(value, instance);
+        }
+    }
+
+    private void unindexFrom(final Field field, final String value, final EntityInstance instance){
+        if(value==null){
+            return;
+        }
+
+        // only remove if the index still points at this instance
+        final Map<String, EntityInstance> index = fieldIndexes.get(field.getName().toLowerCase());
+        if(index!=null){
+            index.remove(value, instance);
+        }
+
+        if(databaseGuidIndex!=null && field.getType()==FieldType.GUID){
+            databaseGuidIndex.remove(value, instance);
+        }
+    }
+
+    /*
+        Amending a field value may change the key the instance is indexed under
+        so remove the old key, make the change, then add the new key
+     */
+    void reindexAround(final EntityInstance instance, final String fieldName, final Runnable change){
+
+        // an instance discarded by removeAllInstances is no longer indexed
+        if(instances.get(instance.getGUID())!=instance){
+            change.run();
+            return;
+        }
+
+        // only top level fields are indexed e.g. for person.name we would check person
+        final String topLevelFieldName = fieldName.split("\\.")[0];
+        final Field field = definition.getField(topLevelFieldName);
+        if(field==null || !(field.isIndexed() || field.isRangeIndexed())){
+            try{
+                change.run();
+            }finally{
+                changed();
+            }
+            return;
+        }
+
+        final String oldValue = indexValueOf(instance, field);
+        try{
+            change.run();
+        }finally{
+            changed();
+            if(field.isIndexed()) {
+                unindexFrom(field, oldValue, instance);
+                indexUnder(field, indexValueOf(instance, field), instance);
+            }
+            reindexInRangeIndexes(instance, field);
+        }
+    }
+
+    /*
+        A change to the id changes the creation order of the instance in every range index
+     */
+    private void reindexInRangeIndexes(final EntityInstance instance, final Field field){
+        if(field.getType()==FieldType.ID){
+            for(RangeIndex index : rangeIndexes.values()){
+                index.add(instance);
+            }
+            return;
+        }
+
+        final RangeIndex index = rangeIndexes.get(field.getName().toLowerCase());
+        if(index!=null){
+            index.add(instance);
+        }
+    }
+
+    /*
+        For changes which may amend any of the fields of the instance
+     */
+    void reindexAllAround(final EntityInstance instance, final Runnable change){
+        if(instances.get(instance.getGUID())!=instance){
+            change.run();
+            return;
+        }
+
+        removeFromIndexes(instance);
+        try{
+            change.run();
+        }finally{
+            changed();
+            addToIndexes(instance);
+        }
+    }
+
     /*
 
         Definition abstractions
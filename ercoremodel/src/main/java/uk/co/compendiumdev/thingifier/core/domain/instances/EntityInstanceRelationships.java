@@ -10,12 +10,22 @@ import static uk.co.compendiumdev.thingifier.core.domain.definitions.relationshi
 
 public class EntityInstanceRelationships {
 
-    private final List<RelationshipVectorInstance> relationships;
+    // all the relationships in the order they were added
+    private final Set<RelationshipVectorInstance> relationships;
+
+    // adjacency indexes so traversal and removal do not scan every relationship
+    // vector -> (other instance -> relationships with it)
+    private final Map<RelationshipVectorDefinition, Map<EntityInstance, List<RelationshipVectorInstance>>> byVector;
+    // other instance -> relationships with it
+    private final Map<EntityInstance, List<RelationshipVectorInstance>> byOtherInstance;
+
     private final EntityInstance forThis;
 
     public EntityInstanceRelationships(final EntityInstance thingInstance){
         this.forThis = thingInstance;
-        this.relationships = new ArrayList<>();
+        this.relationships = new LinkedHashSet<>();
+        this.byVector = new LinkedHashMap<>();
+        this.byOtherInstance = new LinkedHashMap<>();
     }
 
     public String toString() {
@@ -96,7 +106,16 @@ public class EntityInstanceRelationships {
             }
         }
 
-        relationships.add(relationship);
+        if(!relationships.add(relationship)){
+            // already known e.g. a two way relationship with itself
+            return;
+        }
+
+        final EntityInstance other = relationship.getOtherThingInstance(forThis);
+        byVector.computeIfAbsent(relationship.getDefinition(), (vector) -> new LinkedHashMap<>()).
+                computeIfAbsent(other, (instance) -> new ArrayList<>()).add(relationship);
+        byOtherInstance.computeIfAbsent(other, (instance) -> new ArrayList<>()).add(relationship);
+        forThis.relationshipsChanged();
     }
 
     public EntityDefinition getTypeOfConnectableItems(final String relationshipName) {
@@ -118,11 +137,10 @@ public class EntityInstanceRelationships {
     }
 
     public Collection<EntityInstance> getConnectedItems(final String relationshipName) {
-        Set<EntityInstance> theConnectedItems = new HashSet<>();
-        for (RelationshipVectorInstance relationship : relationships) {
-            if (relationship.getRelationshipDefinition().isKnownAs(relationshipName)) {
-                theConnectedItems.add(
-                        relationship.getOtherThingInstance(forThis));
+        Set<EntityInstance> theConnectedItems = new LinkedHashSet<>();
+        for (Map.Entry<RelationshipVectorDefinition, Map<EntityInstance, List<RelationshipVectorInstance>>> vector : byVector.entrySet()) {
+            if (vector.getKey().getRelationshipDefinition().isKnownAs(relationshipName)) {
+                theConnectedItems.addAll(vector.getValue().keySet());
             }
         }
 
@@ -131,10 +149,14 @@ public class EntityInstanceRelationships {
 
     public List<EntityInstance> getConnectedItemsOfType(final String type) {
         List<EntityInstance> theConnectedItems = new ArrayList<>();
-        for (RelationshipVectorInstance relationship : relationships) {
-            if (relationship.getTo().getEntity().getName().
-                    toLowerCase().contentEquals(type.toLowerCase())) {
-                theConnectedItems.add(relationship.getTo());
+        for (Map.Entry<RelationshipVectorDefinition, Map<EntityInstance, List<RelationshipVectorInstance>>> vector : byVector.entrySet()) {
+            // every relationship of a vector is to the vector's entity type
+            if (vector.getKey().getTo().getName().equalsIgnoreCase(type)) {
+                for(List<RelationshipVectorInstance> withOther : vector.getValue().values()){
+                    for(RelationshipVectorInstance relationship : withOther){
+                        theConnectedItems.add(relationship.getTo());
+                    }
+                }
             }
         }
         return theConnectedItems;
@@ -146,18 +168,25 @@ public class EntityInstanceRelationships {
         List<EntityInstance> thingsToDelete = new ArrayList<>();
         List<RelationshipVectorInstance> toDelete = new ArrayList<>();
 
-        for (RelationshipVectorInstance relationship : relationships) {
-            if (relationship.getRelationshipDefinition().isKnownAs(relationshipName)) {
-                if (relationship.involves(thing)) {
-                    toDelete.add(relationship);
-                    thingsToDelete.addAll(relationship.instancesSubjectToMandatoryRelationship());
-                    // delete any relationship to or from
-                    thing.getRelationships().remove(relationship);
+        for (Map.Entry<RelationshipVectorDefinition, Map<EntityInstance, List<RelationshipVectorInstance>>> vector : byVector.entrySet()) {
+            if (vector.getKey().getRelationshipDefinition().isKnownAs(relationshipName)) {
+                if(thing==forThis){
+                    // every relationship involves this
+                    for(List<RelationshipVectorInstance> withOther : vector.getValue().values()){
+                        toDelete.addAll(withOther);
+                    }
+                }else{
+                    toDelete.addAll(vector.getValue().getOrDefault(thing, Collections.emptyList()));
                 }
             }
         }
 
-        relationships.removeAll(toDelete);
+        for (RelationshipVectorInstance relationship : toDelete) {
+            thingsToDelete.addAll(relationship.instancesSubjectToMandatoryRelationship());
+            // delete any relationship to or from
+            thing.getRelationships().remove(relationship);
+            remove(relationship);
+        }
 
         return thingsToDelete;
     }
@@ -172,7 +201,7 @@ public class EntityInstanceRelationships {
         final EntityInstance me = forThis;
         EntityInstance them;
 
-        for (RelationshipVectorInstance relationship : relationships) {
+        for (RelationshipVectorInstance relationship : new ArrayList<>(relationships)) {
             if (relationship.getFrom() == forThis) {
                 // me -> them
                 them= relationship.getTo();
@@ -186,32 +215,65 @@ public class EntityInstanceRelationships {
         }
 
         relationships.clear();
+        byVector.clear();
+        byOtherInstance.clear();
+        forThis.relationshipsChanged();
 
         return deleteThese;
     }
 
     private void remove(final RelationshipVectorInstance relationship) {
-        relationships.remove(relationship);
+
+        if(!relationships.remove(relationship)){
+            return;
+        }
+
+        final EntityInstance other = relationship.getOtherThingInstance(forThis);
+
+        final Map<EntityInstance, List<RelationshipVectorInstance>> vector = byVector.get(relationship.getDefinition());
+        if(vector!=null){
+            removeFrom(vector, other, relationship);
+            if(vector.isEmpty()){
+                byVector.remove(relationship.getDefinition());
+            }
+        }
+
+        removeFrom(byOtherInstance, other, relationship);
+        forThis.relationshipsChanged();
+    }
+
+    private void removeFrom(final Map<EntityInstance, List<RelationshipVectorInstance>> index,
+                            final EntityInstance other, final RelationshipVectorInstance relationship){
+        final List<RelationshipVectorInstance> withOther = index.get(other);
+        if(withOther!=null){
+            withOther.remove(relationship);
+            if(withOther.isEmpty()){
+                index.remove(other);
+            }
+        }
     }
 
     public List<EntityInstance> removeAllRelationshipsInvolving(final EntityInstance thing) {
 
         List<EntityInstance> instancesToDelete = new ArrayList<>();
 
-        List<RelationshipVectorInstance> toDelete = new ArrayList<>();
+        final List<RelationshipVectorInstance> toDelete = thing==forThis ?
+                new ArrayList<>(relationships) :
+                new ArrayList<>(byOtherInstance.getOrDefault(thing, Collections.emptyList()));
 
-        for (RelationshipVectorInstance relationship : relationships) {
-            if(relationship.involves(thing)){
-                toDelete.add(relationship);
-                instancesToDelete.addAll(relationship.instancesSubjectToMandatoryRelationship());
-            }
+        for (RelationshipVectorInstance relationship : toDelete) {
+            instancesToDelete.addAll(relationship.instancesSubjectToMandatoryRelationship());
+            remove(relationship);
         }
 
-        relationships.removeAll(toDelete);
-
         return instancesToDelete;
     }
 
+    // the relationship instances in the order they were added, used when copying instances
+    List<RelationshipVectorInstance> vectors() {
+        return Collections.unmodifiableList(new ArrayList<>(relationships));
+    }
+
     public boolean hasAnyRelationshipInstances() {
         return !relationships.isEmpty();
     }
@@ -227,9 +289,11 @@ public class EntityInstanceRelationships {
         for(RelationshipVectorDefinition vector : theRelationshipVectorDefns){
 
             int foundRelationshipCount = 0;
-            for(RelationshipVectorInstance relationship : relationships){
-                if(relationship.getRelationshipDefinition()==vector.getRelationshipDefinition()){
-                    foundRelationshipCount++;
+            for(Map.Entry<RelationshipVectorDefinition, Map<EntityInstance, List<RelationshipVectorInstance>>> vectorInstances : byVector.entrySet()){
+                if(vectorInstances.getKey().getRelationshipDefinition()==vector.getRelationshipDefinition()){
+                    for(List<RelationshipVectorInstance> withOther : vectorInstances.getValue().values()){
+                        foundRelationshipCount += withOther.size();
+                    }
                 }
             }
 
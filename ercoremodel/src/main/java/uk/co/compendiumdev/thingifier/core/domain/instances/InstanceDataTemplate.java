@@ -0,0 +1,156 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    An immutable snapshot of instances and their relationships which can be
+    copied into a database without validating the values again.
+
+    GUID and ID fields are not part of the snapshot, copies are given new GUIDs
+    and IDs in the order the original instances were created so a copy is
+    the same as re-running the code which created the original instances.
+ */
+public final class InstanceDataTemplate {
+
+    private final List<TemplateInstance> instances;
+    private final List<TemplateRelationship> relationships;
+
+    private InstanceDataTemplate(final List<TemplateInstance> instances,
+                                 final List<TemplateRelationship> relationships) {
+        this.instances = Collections.unmodifiableList(instances);
+        this.relationships = Collections.unmodifiableList(relationships);
+    }
+
+    /**
+     * Snapshot the instances in the database, ignoring any instances with a GUID in ignoreGuids
+     */
+    public static InstanceDataTemplate from(final ERInstanceData database, final Set<String> ignoreGuids){
+
+        final List<TemplateInstance> templateInstances = new ArrayList<>();
+        final List<EntityInstance> originals = new ArrayList<>();
+        final Map<EntityInstance, Integer> positions = new HashMap<>();
+
+        for(EntityInstanceCollection collection : database.getAllInstanceCollections()){
+            for(EntityInstance instance : inCreationOrder(collection)){
+                if(ignoreGuids.contains(instance.getGUID())){
+                    continue;
+                }
+                positions.put(instance, originals.size());
+                originals.add(instance);
+                templateInstances.add(new TemplateInstance(instance));
+            }
+        }
+
+        final List<TemplateRelationship> templateRelationships = new ArrayList<>();
+        for(int from=0; from<originals.size(); from++){
+            final EntityInstance original = originals.get(from);
+            for(RelationshipVectorInstance vector : original.getRelationships().vectors()){
+                final Integer to = positions.get(vector.getTo());
+                // two way relationships are held by both instances, only record them from the 'from'
+                if(vector.getFrom()==original && to!=null){
+                    templateRelationships.add(new TemplateRelationship(
+                            from, vector.getDefinition().getName(), to));
+                }
+            }
+        }
+
+        return new InstanceDataTemplate(templateInstances, templateRelationships);
+    }
+
+    // ids are allocated in creation order so order by id to allocate the same ids when copying
+    private static List<EntityInstance> inCreationOrder(final EntityInstanceCollection collection){
+
+        final List<EntityInstance> ordered = new ArrayList<>(collection.getInstances());
+        final List<Field> idFields = collection.definition().getFieldsOfType(FieldType.ID);
+        if(!idFields.isEmpty()){
+            final String idFieldName = idFields.get(0).getName();
+            ordered.sort(Comparator.comparingInt(instance -> idOf(instance, idFieldName)));
+        }
+        return ordered;
+    }
+
+    private static int idOf(final EntityInstance instance, final String idFieldName){
+        try{
+            return Integer.parseInt(instance.getFieldValue(idFieldName).asString());
+        }catch(Exception e){
+            return Integer.MAX_VALUE;
+        }
+    }
+
+    public int countInstances(){
+        return instances.size();
+    }
+
+    /**
+     * Add copies of the template instances, and their relationships, to the database.
+     */
+    public void copyInto(final ERInstanceData database){
+
+        final List<EntityInstance> copies = new ArrayList<>(instances.size());
+
+        for(TemplateInstance templateInstance : instances){
+            final EntityInstance copy = templateInstance.newInstance();
+            database.getInstanceCollectionForEntityNamed(copy.getEntity().getName()).addInstance(copy);
+            copies.add(copy);
+        }
+
+        for(TemplateRelationship relationship : relationships){
+            copies.get(relationship.from).getRelationships().
+                    connect(relationship.name, copies.get(relationship.to));
+        }
+    }
+
+    private static final class TemplateInstance {
+
+        private final EntityDefinition definition;
+        private final List<FieldValue> values;
+
+        TemplateInstance(final EntityInstance instance){
+            this.definition = instance.getEntity();
+            this.values = new ArrayList<>();
+
+            final Collection<String> generatedFields = definition.getFieldNamesOfType(FieldType.ID, FieldType.GUID);
+            for(String fieldName : definition.getFieldNames()){
+                final FieldValue value = instance.getFields().getAssignedValue(fieldName);
+                if(value!=null && !generatedFields.contains(fieldName)){
+                    values.add(value.cloned());
+                }
+            }
+        }
+
+        EntityInstance newInstance(){
+            final EntityInstance instance = new EntityInstance(definition);
+            instance.addGUIDtoInstance();
+            instance.addIdsToInstance();
+            for(FieldValue value : values){
+                instance.getFields().addValue(value.cloned());
+            }
+            return instance;
+        }
+    }
+
+    private static final class TemplateRelationship {
+
+        private final int from;
+        private final String name;
+        private final int to;
+
+        TemplateRelationship(final int from, final String name, final int to) {
+            this.from = from;
+            this.name = name;
+            this.to = to;
+        }
+    }
+}
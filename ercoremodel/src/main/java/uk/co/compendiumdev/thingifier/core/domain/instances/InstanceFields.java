@@ -13,21 +13,28 @@ import java.util.*;
     for a specific field, in which case the default from the DefinedFields
     will be used instead.
 
+    Values are held in an array indexed by the slot DefinedFields gives each field.
+
  */
 public class InstanceFields {
 
+    private static final FieldValue[] NO_VALUES = new FieldValue[0];
+
     private final DefinedFields objectDefinition;
-    private Map<String, FieldValue> values = new HashMap<String, FieldValue>();
+    private FieldValue[] values;
+    // values for names which are not defined, rarely used so only created when needed
+    private Map<String, FieldValue> undefinedValues;
 
     public InstanceFields(final DefinedFields objectDefinition) {
         this.objectDefinition = objectDefinition;
+        this.values = NO_VALUES;
     }
 
     public InstanceFields addIdsToInstance() {
         List<Field>idfields = objectDefinition.getFieldsOfType(FieldType.ID);
         for(Field aField : idfields){
             if(aField.getType()==FieldType.ID){
-                if(!values.containsKey(aField.getName().toLowerCase())) {
+                if(getAssignedValue(aField.getName())==null) {
                     addValue(FieldValue.is(aField.getName(), aField.getNextIdValue()));
                 }
             }
@@ -36,39 +43,75 @@ public class InstanceFields {
     }
 
     public void addValue(final FieldValue value) {
-        values.put(value.getName().toLowerCase(), value);
+        final int slot = objectDefinition.slotOf(value.getName());
+        if(slot<0){
+            if(undefinedValues==null){
+                undefinedValues = new HashMap<>();
+            }
+            undefinedValues.put(value.getName().toLowerCase(), value);
+            return;
+        }
+
+        // fields can be added to the definition after the instance was created
+        if(slot>=values.length){
+            values = Arrays.copyOf(values, Math.max(slot+1, objectDefinition.countSlots()));
+        }
+        values[slot] = value;
     }
 
     public FieldValue getAssignedValue(String fieldName) {
-        return values.get(fieldName.toLowerCase());
+        final int slot = objectDefinition.slotOf(fieldName);
+        if(slot<0){
+            return undefinedValues==null ? null : undefinedValues.get(fieldName.toLowerCase());
+        }
+        return slot<values.length ? values[slot] : null;
+    }
+
+    private List<FieldValue> getAssignedValues(){
+        final List<FieldValue> assigned = new ArrayList<>();
+        for(FieldValue value : values){
+            if(value!=null){
+                assigned.add(value);
+            }
+        }
+        if(undefinedValues!=null){
+            assigned.addAll(undefinedValues.values());
+        }
+        return assigned;
     }
 
     public FieldValue getFieldValue(String fieldName) {
 
         // todo : support complex fieldNames e.g. person.firstname
 
-        if(!objectDefinition.hasFieldNameDefined(fieldName)){
+        final int slot = objectDefinition.slotOf(fieldName);
+        if(slot<0){
             reportCannotFindFieldError(fieldName);
         }
 
-        // bypass default processing for OBJECT, ARRAY - at the moment
+        return getFieldValueInSlot(slot);
+    }
+
+    /**
+     * The value, or default value, for the field in a slot from DefinedFields.slotOf,
+     * allows the slot to be looked up once when reading many instances.
+     */
+    public FieldValue getFieldValueInSlot(final int slot) {
+
         // todo: allow defaults for OBJECT, ARRAY, etc.
-        Field field = objectDefinition.getField(fieldName);
-        if(field.getType()==FieldType.OBJECT){
-            getAssignedValue(fieldName);
-        }
+        final Field field = objectDefinition.getFieldInSlot(slot);
 
         // pass back any defaults setup
-        FieldValue assignedValue = getAssignedValue(fieldName);
+        FieldValue assignedValue = slot<values.length ? values[slot] : null;
         if (assignedValue == null) {
             // does definition have a default value?
-            if (objectDefinition.getField(fieldName).hasDefaultValue()) {
-                return objectDefinition.getField(fieldName).getDefaultValue();
+            if (field.hasDefaultValue()) {
+                return field.getDefaultValue();
             } else {
                 // return the field type default value
-                String defaultVal = objectDefinition.getField(fieldName).getType().getDefault();
+                String defaultVal = field.getType().getDefault();
                 if (defaultVal != null) {
-                    return FieldValue.is(fieldName, defaultVal);
+                    return FieldValue.is(field.getName(), defaultVal);
                 }
             }
         }
@@ -80,8 +123,8 @@ public class InstanceFields {
 
         StringBuilder output = new StringBuilder();
 
-        for (Map.Entry<String, FieldValue> entry : values.entrySet()) {
-            output.append("\n\t\t\t\t" + entry.getKey() + " : " + entry.getValue() + "\n");
+        for (FieldValue value : getAssignedValues()) {
+            output.append("\n\t\t\t\t" + value.getName().toLowerCase() + " : " + value + "\n");
         }
 
         return output.toString();
@@ -91,18 +134,21 @@ public class InstanceFields {
     public void deleteAllFieldValuesExcept(List fieldNamesToIgnore) {
 
         Set<String> ignorekeys = new HashSet<>(fieldNamesToIgnore);
-        Set<String> keys = new HashSet(values.keySet());
 
-        for (String key : keys) {
-            if (!ignorekeys.contains(key)) {
-                values.remove(key);
+        for (int slot=0; slot<values.length; slot++) {
+            if (values[slot]!=null && !ignorekeys.contains(values[slot].getName().toLowerCase())) {
+                values[slot] = null;
             }
         }
+
+        if(undefinedValues!=null){
+            undefinedValues.keySet().retainAll(ignorekeys);
+        }
     }
 
     public InstanceFields cloned(){
         final InstanceFields clone = new InstanceFields(objectDefinition);
-        for(FieldValue value : values.values()){
+        for(FieldValue value : getAssignedValues()){
             clone.addValue(value.cloned());
         }
         return clone;
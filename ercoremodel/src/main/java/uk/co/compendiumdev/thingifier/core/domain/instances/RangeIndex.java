@@ -0,0 +1,209 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/*
+    The instances of a collection ordered by the value of a range indexed field,
+    instances with the same value are kept in creation order.
+
+    Values are compared as the field type i.e. numerically for ID, INTEGER and FLOAT
+    fields, so the order matches sorting and filtering by the field.
+
+    If any instance has a value which can not be parsed as the field type then the index
+    can not be used, and the query falls back to scanning the collection.
+ */
+public final class RangeIndex {
+
+    private final Field field;
+
+    // value -> (creation order -> instance)
+    private final ConcurrentSkipListMap<Comparable<Object>, ConcurrentSkipListMap<CreationKey, EntityInstance>> byValue;
+
+    // where each instance is held, so it can be removed after its values change
+    private final Map<EntityInstance, IndexedAt> indexedAt;
+    private final Set<EntityInstance> unparsable;
+
+    // the index is registered with the collection before it is filled, queries only use it once filled
+    private volatile boolean filled;
+
+    RangeIndex(final Field field){
+        this.field = field;
+        this.byValue = new ConcurrentSkipListMap<>();
+        this.indexedAt = new ConcurrentHashMap<>();
+        this.unparsable = ConcurrentHashMap.newKeySet();
+    }
+
+    public Field getField(){
+        return field;
+    }
+
+    public boolean isUsable(){
+        return unparsable.isEmpty();
+    }
+
+    boolean isFilled(){
+        return filled;
+    }
+
+    void filled(){
+        filled = true;
+    }
+
+    // every instance in the index, including those with values which can not be parsed
+    List<EntityInstance> indexedInstances(){
+        final List<EntityInstance> indexed = new ArrayList<>(indexedAt.keySet());
+        indexed.addAll(unparsable);
+        return indexed;
+    }
+
+    /*
+        Changes are made holding the index lock, so the fill of a new index and a change
+        to the same instance can not interleave and leave the instance at an old value, and
+        an emptied value is not removed while another instance is being added to it.
+        Queries read the concurrent maps without the lock.
+     */
+    synchronized void add(final EntityInstance instance){
+
+        remove(instance);
+
+        final Comparable<Object> value = parse(instance.getFieldValue(field.getName()));
+        if(value==null){
+            unparsable.add(instance);
+            return;
+        }
+
+        final CreationKey key = new CreationKey(instance);
+        byValue.computeIfAbsent(value, (aValue) -> new ConcurrentSkipListMap<>()).put(key, instance);
+        indexedAt.put(instance, new IndexedAt(value, key));
+    }
+
+    synchronized void remove(final EntityInstance instance){
+
+        unparsable.remove(instance);
+
+        final IndexedAt at = indexedAt.remove(instance);
+        if(at==null){
+            return;
+        }
+
+        final ConcurrentSkipListMap<CreationKey, EntityInstance> sameValue = byValue.get(at.value);
+        if(sameValue!=null){
+            sameValue.remove(at.key, instance);
+            if(sameValue.isEmpty()){
+                byValue.remove(at.value, sameValue);
+            }
+        }
+    }
+
+    /**
+     * Can the value be compared with the values in the index i.e. is it a valid value for the field type
+     */
+    public boolean canCompare(final String value){
+        return parse(value)!=null;
+    }
+
+    /**
+     * The instances with values between from and to, in value order.
+     * A null bound is unbounded, and bounds must be values accepted by canCompare.
+     */
+    public List<EntityInstance> range(final String from, final boolean fromInclusive,
+                                      final String to, final boolean toInclusive,
+                                      final boolean ascending){
+
+        NavigableMap<Comparable<Object>, ConcurrentSkipListMap<CreationKey, EntityInstance>> values = byValue;
+        if(from!=null && to!=null){
+            if(parse(from).compareTo(parse(to))>0){
+                return new ArrayList<>();
+            }
+            values = byValue.subMap(parse(from), fromInclusive, parse(to), toInclusive);
+        }else if(from!=null){
+            values = byValue.tailMap(parse(from), fromInclusive);
+        }else if(to!=null){
+            values = byValue.headMap(parse(to), toInclusive);
+        }
+
+        return instancesIn(ascending ? values : values.descendingMap());
+    }
+
+    /**
+     * All the indexed instances in value order
+     */
+    public List<EntityInstance> inOrder(final boolean ascending){
+        return range(null, true, null, true, ascending);
+    }
+
+    private List<EntityInstance> instancesIn(
+            final Map<Comparable<Object>, ConcurrentSkipListMap<CreationKey, EntityInstance>> values){
+
+        final List<EntityInstance> instances = new ArrayList<>();
+        // same values stay in creation order for both directions
+        for(ConcurrentSkipListMap<CreationKey, EntityInstance> sameValue : values.values()){
+            instances.addAll(sameValue.values());
+        }
+        return instances;
+    }
+
+    private Comparable<Object> parse(final FieldValue value){
+        if(value==null){
+            return null;
+        }
+        return parse(value.asString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> parse(final String value){
+
+        if(value==null){
+            return null;
+        }
+
+        try {
+            switch (field.getType()) {
+                case ID:
+                case INTEGER:
+                    return (Comparable) Integer.valueOf(value);
+                case FLOAT:
+                    return (Comparable) Float.valueOf(value);
+                case STRING:
+                case ENUM:
+                    return (Comparable) value;
+                default:
+                    return null;
+            }
+        }catch(NumberFormatException e){
+            return null;
+        }
+    }
+
+    private static final class IndexedAt {
+        private final Comparable<Object> value;
+        private final CreationKey key;
+
+        IndexedAt(final Comparable<Object> value, final CreationKey key) {
+            this.value = value;
+            this.key = key;
+        }
+    }
+
+    // the CreationOrder of an instance when it was indexed
+    private static final class CreationKey implements Comparable<CreationKey> {
+        private final long id;
+        private final String guid;
+
+        CreationKey(final EntityInstance instance){
+            this.id = CreationOrder.idValueOf(instance);
+            this.guid = instance.getGUID();
+        }
+
+        @Override
+        public int compareTo(final CreationKey other) {
+            final int byId = Long.compare(id, other.id);
+            return byId!=0 ? byId : guid.compareTo(other.guid);
+        }
+    }
+}
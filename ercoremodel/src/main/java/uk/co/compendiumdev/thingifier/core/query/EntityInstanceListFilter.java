@@ -18,7 +18,7 @@ public class EntityInstanceListFilter {
         instanceFilter = new EntityListFilterParamParser(queryParams);
     }
 
-    public List<EntityInstance> filter(final List<EntityInstance> foundItems) {
+    public List<EntityInstance> filter(final Collection<EntityInstance> foundItems) {
 
         List<EntityInstance> filtered = new ArrayList<>();
 
@@ -1,13 +1,26 @@
 package uk.co.compendiumdev.thingifier.core.query;
 
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
 import java.util.*;
 
 public class EntityInstanceListSorter {
+
+    // lists larger than this are sorted with Arrays.parallelSort
+    public static final int DEFAULT_PARALLEL_SORT_THRESHOLD = 10000;
+
+    private static final Comparator<EntityInstance> NO_TIE_BREAK = (thing1, thing2) -> 0;
+
     EntityListSortParamParser instanceFilter;
+    private int parallelSortThreshold;
+
+    // the sort keys of the last entity sorted, the sort_by params are only read once per entity
+    private EntityDefinition keysEntity;
+    private List<SortKey> keys;
 
     /*
         Given a Map of
@@ -17,58 +30,389 @@ public class EntityInstanceListSorter {
      */
     public EntityInstanceListSorter(final Map<String, String> queryParams) {
         instanceFilter = new EntityListSortParamParser(queryParams);
+        parallelSortThreshold = DEFAULT_PARALLEL_SORT_THRESHOLD;
+    }
+
+    public EntityInstanceListSorter setParallelSortThreshold(final int threshold){
+        this.parallelSortThreshold = threshold;
+        return this;
+    }
+
+    public boolean hasSortBys(){
+        return !instanceFilter.sortBys().isEmpty();
     }
 
     public List<EntityInstance> sort(final List<EntityInstance> foundItems) {
+        return sortFirst(foundItems.size(), foundItems, NO_TIE_BREAK);
+    }
 
-        List<EntityInstance> sorted = new ArrayList<>(foundItems);
+    /**
+     * Sorted list of instances
+     */
+    public List<EntityInstance> sortByField(String fieldName, int order, final List<EntityInstance> itemsToSort) {
 
-        for(EntityListSortParamParser.SortByFieldName sortBy :instanceFilter.sortBys()){
-            sorted = sortByField(sortBy.fieldName, sortBy.order, sorted);
+        if(itemsToSort.isEmpty()){
+            return new ArrayList<>();
         }
 
-        return sorted;
+        final List<SortKey> keys = new ArrayList<>();
+        final Field fieldDefn = itemsToSort.get(0).getEntity().getField(fieldName);
+        if(fieldDefn!=null){
+            keys.add(new SortKey(fieldDefn, fieldName, order));
+        }
+
+        return sortFirst(itemsToSort.size(), itemsToSort, keys, NO_TIE_BREAK);
     }
 
     /**
-     * Sorted list of instances
+     * Only the first maxItems of the sorted list are returned, when that is a small part
+     * of the list a bounded heap is used rather than sorting the whole list.
+     *
+     * thenBy is applied when the sort_by fields are equal, to give a consistent order for paging.
      */
+    public List<EntityInstance> sortFirst(final int maxItems, final List<EntityInstance> foundItems,
+                                          final Comparator<EntityInstance> thenBy) {
 
-    // TODO: unit tests for sorting
-    public List<EntityInstance> sortByField(String fieldName, int order, final List<EntityInstance> itemsToSort) {
+        if(foundItems.isEmpty()){
+            return new ArrayList<>();
+        }
 
-        List<EntityInstance>sortedList = new ArrayList<>();
-        sortedList.addAll(itemsToSort);
+        return sortFirst(maxItems, foundItems, sortKeysFor(foundItems.get(0)), thenBy);
+    }
 
-        if(sortedList.size()==0)
-            return sortedList;
+    /**
+     * The sort_by fields and directions, highest precedence first e.g. +title, -id
+     */
+    public List<String> sortedBy(){
 
-        Field fieldDefn = sortedList.get(0).getEntity().getField(fieldName);
+        final List<String> sortedBy = new ArrayList<>();
+        final List<EntityListSortParamParser.SortByFieldName> sortBys = instanceFilter.sortBys();
+        for(int sortByIndex = sortBys.size()-1; sortByIndex>=0; sortByIndex--){
+            final EntityListSortParamParser.SortByFieldName sortBy = sortBys.get(sortByIndex);
+            // order < 0 is low to high (asc)
+            sortedBy.add((sortBy.order<0 ? "+" : "-") + sortBy.fieldName.toLowerCase());
+        }
+        return sortedBy;
+    }
 
-        // there is no field of that name
-        if(fieldDefn==null)
-            return sortedList;
+    /**
+     * The values of the sort_by fields of an instance, highest precedence first,
+     * null when the instance has no value
+     */
+    public List<String> sortValuesOf(final EntityInstance instance){
 
-        Comparator<EntityInstance> compareByFieldValue = new Comparator<EntityInstance>() {
-            @Override
-            public int compare(EntityInstance thing1, EntityInstance thing2) {
+        final List<String> values = new ArrayList<>();
+        for(SortKey key : sortKeysFor(instance)){
+            final FieldValue value = instance.getFieldValue(key.fieldName);
+            values.add(value==null ? null : value.asString());
+        }
+        return values;
+    }
 
-                final ComparableFieldValue comparableFieldValue1 = new ComparableFieldValue(fieldDefn, thing1.getFieldValue(fieldName));
-                final ComparableFieldValue comparableFieldValue2 = new ComparableFieldValue(fieldDefn, thing2.getFieldValue(fieldName));
+    /**
+     * Compare an instance with sort_by values from sortValuesOf, in the order that
+     * the instances would be sorted
+     */
+    public int compareWithSortValues(final EntityInstance instance, final List<String> sortValues){
 
-                return comparableFieldValue1.compareTo(comparableFieldValue2);
+        final List<String> values = sortValuesOf(instance);
+        final List<SortKey> sortKeys = sortKeysFor(instance);
+        for(int keyIndex=0; keyIndex<sortKeys.size(); keyIndex++){
+            final int comparison = sortKeys.get(keyIndex).compare(values.get(keyIndex), sortValues.get(keyIndex));
+            if(comparison!=0){
+                return comparison;
             }
-        };
+        }
+        return 0;
+    }
+
+    /*
+        Each sort_by was applied as a stable sort in turn, so the last sort_by
+        has the highest precedence
+     */
+    private List<SortKey> sortKeysFor(final EntityInstance example){
+
+        if(example.getEntity()==keysEntity){
+            return keys;
+        }
+
+        final List<SortKey> keys = new ArrayList<>();
 
+        final List<EntityListSortParamParser.SortByFieldName> sortBys = instanceFilter.sortBys();
+        for(int sortByIndex = sortBys.size()-1; sortByIndex>=0; sortByIndex--){
+            final EntityListSortParamParser.SortByFieldName sortBy = sortBys.get(sortByIndex);
+            final Field fieldDefn = example.getEntity().getField(sortBy.fieldName);
+            // there is no field of that name
+            if(fieldDefn!=null){
+                keys.add(new SortKey(fieldDefn, sortBy.fieldName, sortBy.order));
+            }
+        }
+
+        this.keys = keys;
+        this.keysEntity = example.getEntity();
+        return keys;
+    }
+
+    private List<EntityInstance> sortFirst(final int maxItems, final List<EntityInstance> foundItems,
+                                           final List<SortKey> keys, final Comparator<EntityInstance> thenBy){
+
+        if(keys.isEmpty() && thenBy==NO_TIE_BREAK){
+            return new ArrayList<>(foundItems.subList(0, Math.min(maxItems, foundItems.size())));
+        }
 
-        if(order<0) {
-            // (desc)
-            Collections.sort(sortedList, compareByFieldValue);
+        final SortKeyValues keyValues = new SortKeyValues(keys, foundItems);
+        final Comparator<SortEntry> comparator = keyValues.comparator(thenBy);
+
+        final SortEntry[] entries;
+
+        if(maxItems >= foundItems.size()/2){
+            entries = keyValues.entries();
+            if(entries.length > parallelSortThreshold){
+                Arrays.parallelSort(entries, comparator);
+            }else{
+                Arrays.sort(entries, comparator);
+            }
         }else{
-            // low to high sort (asc)
-            Collections.sort(sortedList, compareByFieldValue.reversed());
+            entries = smallestEntries(maxItems, keyValues.entries(), comparator);
+        }
+
+        final int returnCount = Math.min(maxItems, entries.length);
+        final List<EntityInstance> sorted = new ArrayList<>(returnCount);
+        for(int index=0; index<returnCount; index++){
+            sorted.add(entries[index].instance);
+        }
+        return sorted;
+    }
+
+    // keep the maxItems 'smallest', the head of the heap is the largest of those kept
+    private SortEntry[] smallestEntries(final int maxItems, final SortEntry[] entries,
+                                        final Comparator<SortEntry> comparator){
+
+        final PriorityQueue<SortEntry> heap = new PriorityQueue<>(maxItems+1, comparator.reversed());
+        for(SortEntry entry : entries){
+            if(heap.size()<maxItems){
+                heap.add(entry);
+            }else if(maxItems>0 && comparator.compare(entry, heap.peek())<0){
+                heap.poll();
+                heap.add(entry);
+            }
         }
 
-        return sortedList;
+        final SortEntry[] smallest = heap.toArray(new SortEntry[0]);
+        Arrays.sort(smallest, comparator);
+        return smallest;
+    }
+
+    private static final class SortKey {
+
+        private final String fieldName;
+        private final FieldType type;
+        // 1 low to high (asc), -1 high to low (desc)
+        private final int direction;
+
+        SortKey(final Field fieldDefn, final String fieldName, final int order){
+            this.fieldName = fieldName;
+            this.type = fieldDefn.getType();
+            this.direction = order<0 ? 1 : -1;
+        }
+
+        boolean isNumeric(){
+            return type==FieldType.ID || type==FieldType.INTEGER ||
+                    type==FieldType.FLOAT || type==FieldType.BOOLEAN;
+        }
+
+        boolean isText(){
+            return type==FieldType.STRING || type==FieldType.ENUM;
+        }
+
+        /*
+            compare two field values as SortKeyValues does, missing values are after
+            all other values whatever the direction
+         */
+        int compare(final String value1, final String value2){
+
+            final Comparable<Object> sortValue1 = sortValueOf(value1);
+            final Comparable<Object> sortValue2 = sortValueOf(value2);
+            if(sortValue1==null || sortValue2==null){
+                return Boolean.compare(sortValue1==null, sortValue2==null);
+            }
+
+            return sortValue1.compareTo(sortValue2) * direction;
+        }
+
+        // null when the value is missing or can not be parsed
+        private Comparable<Object> sortValueOf(final String value){
+
+            if(value==null){
+                return null;
+            }
+
+            final FieldValue fieldValue = FieldValue.is(fieldName, value);
+            final Comparable<?> sortValue;
+            try {
+                switch (type) {
+                    case ID:
+                    case INTEGER:
+                        sortValue = (double) fieldValue.asInteger();
+                        break;
+                    case FLOAT:
+                        sortValue = (double) fieldValue.asFloat();
+                        break;
+                    case BOOLEAN:
+                        sortValue = fieldValue.asBoolean() ? 1d : 0d;
+                        break;
+                    case STRING:
+                    case ENUM:
+                        sortValue = value;
+                        break;
+                    default:
+                        // the instances are the same, as they are when sorted
+                        sortValue = "";
+                        break;
+                }
+            }catch(IllegalArgumentException e){
+                return null;
+            }
+            return (Comparable<Object>) sortValue;
+        }
+    }
+
+    private static final class SortEntry {
+        private final EntityInstance instance;
+        private final int position;
+
+        SortEntry(final EntityInstance instance, final int position) {
+            this.instance = instance;
+            this.position = position;
+        }
+    }
+
+    /*
+        The sort key values are read from each instance once, numeric values are parsed into
+        primitive arrays indexed by the position of the instance in the list being sorted.
+
+        Values which can not be parsed sort after all other values.
+     */
+    private static final class SortKeyValues {
+
+        private final List<SortKey> keys;
+        private final List<EntityInstance> instances;
+        private final double[][] numbers;
+        private final String[][] texts;
+        private final boolean[][] missing;
+
+        SortKeyValues(final List<SortKey> keys, final List<EntityInstance> instances){
+            this.keys = keys;
+            this.instances = instances;
+            this.numbers = new double[keys.size()][];
+            this.texts = new String[keys.size()][];
+            this.missing = new boolean[keys.size()][];
+
+            for(int keyIndex=0; keyIndex<keys.size(); keyIndex++){
+                final SortKey key = keys.get(keyIndex);
+                missing[keyIndex] = new boolean[instances.size()];
+                if(key.isNumeric()){
+                    numbers[keyIndex] = new double[instances.size()];
+                }
+                if(key.isText()){
+                    texts[keyIndex] = new String[instances.size()];
+                }
+
+                int position=0;
+                for(EntityInstance instance : instances){
+                    readValue(keyIndex, key, instance.getFieldValue(key.fieldName), position++);
+                }
+            }
+        }
+
+        private void readValue(final int keyIndex, final SortKey key, final FieldValue value, final int position){
+
+            if(value==null || value.asString()==null){
+                missing[keyIndex][position] = true;
+                return;
+            }
+
+            try {
+                switch (key.type) {
+                    case ID:
+                    case INTEGER:
+                        numbers[keyIndex][position] = value.asInteger();
+                        break;
+                    case FLOAT:
+                        numbers[keyIndex][position] = value.asFloat();
+                        break;
+                    case BOOLEAN:
+                        numbers[keyIndex][position] = value.asBoolean() ? 1 : 0;
+                        break;
+                    case STRING:
+                    case ENUM:
+                        texts[keyIndex][position] = value.asString();
+                        break;
+                    default:
+                        // don't know how to handle that field type
+                        // so the instances are by default the same
+                        // TODO: FieldType.OBJECT, FieldType.DATE
+                        break;
+                }
+            }catch(IllegalArgumentException e){
+                // includes NumberFormatException
+                missing[keyIndex][position] = true;
+            }
+        }
+
+        SortEntry[] entries(){
+            final SortEntry[] entries = new SortEntry[instances.size()];
+            int position=0;
+            for(EntityInstance instance : instances){
+                entries[position] = new SortEntry(instance, position);
+                position++;
+            }
+            return entries;
+        }
+
+        Comparator<SortEntry> comparator(final Comparator<EntityInstance> thenBy){
+
+            return (entry1, entry2) -> {
+                for(int keyIndex=0; keyIndex<keys.size(); keyIndex++){
+                    final int comparison = compare(keyIndex, entry1.position, entry2.position);
+                    if(comparison!=0){
+                        return comparison;
+                    }
+                }
+
+                final int tieBreak = thenBy.compare(entry1.instance, entry2.instance);
+                if(tieBreak!=0){
+                    return tieBreak;
+                }
+
+                // keep the original order for equal items
+                return Integer.compare(entry1.position, entry2.position);
+            };
+        }
+
+        private int compare(final int keyIndex, final int position1, final int position2){
+
+            final boolean missing1 = missing[keyIndex][position1];
+            final boolean missing2 = missing[keyIndex][position2];
+            // missing values are after all other values whatever the direction
+            if(missing1 || missing2){
+                return Boolean.compare(missing1, missing2);
+            }
+
+            return compareValues(keyIndex, position1, position2) * keys.get(keyIndex).direction;
+        }
+
+        private int compareValues(final int keyIndex, final int position1, final int position2){
+
+            if(numbers[keyIndex]!=null){
+                return Double.compare(numbers[keyIndex][position1], numbers[keyIndex][position2]);
+            }
+
+            if(texts[keyIndex]!=null){
+                return texts[keyIndex][position1].compareTo(texts[keyIndex][position2]);
+            }
+
+            return 0;
+        }
     }
 }
@@ -1,17 +1,21 @@
 package uk.co.compendiumdev.thingifier.core.query;
 
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Filter;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
 
 public class EntityListFilterParamParser {
     private final Map<String, String> params;
     private final List<FilterBy> filterByConditions;
+    private EntityDefinition compiledForDefinition;
+    private Predicate<EntityInstance> compiledPredicate;
 
     public EntityListFilterParamParser(final Map<String, String> queryParams) {
         // TODO: because  a map is used to set this up we can't handle multiple conditions
@@ -22,63 +26,47 @@ public class EntityListFilterParamParser {
         this.filterByConditions = filterBys();
     }
 
+    /*
+        The filter conditions are compiled into a predicate for the definition of the
+        instances being filtered, so field slots are resolved and the condition values
+        parsed once, rather than for each instance.
+     */
     public boolean matches(final EntityInstance instance) {
-        for(FilterBy filterByCondition : filterByConditions){
+        return predicateFor(instance.getEntity()).test(instance);
+    }
+
+    private Predicate<EntityInstance> predicateFor(final EntityDefinition defn){
+        // a list of instances is almost always of a single definition
+        if(defn!=compiledForDefinition){
+            compiledPredicate = compile(defn);
+            compiledForDefinition = defn;
+        }
+        return compiledPredicate;
+    }
 
-            final EntityDefinition defn = instance.getEntity();
+    private Predicate<EntityInstance> compile(final EntityDefinition defn){
 
-            String fieldName = filterByCondition.fieldName;
+        final List<Predicate<EntityInstance>> conditions = new ArrayList<>();
 
+        for(FilterBy filterByCondition : filterByConditions){
             // TODO: handle - ranges, like, or etc.
             // currently all conditions are treated as an AND clause e.g. ?ID=<10&ID=>5  would be is 6, 7, 8, 9
-            if(defn.hasFieldNameDefined(fieldName)){
-                String value = instance.getFieldValue(fieldName).asString();
-                // get the actual value
-                final ComparableFieldValue actualValue = new ComparableFieldValue(defn.getField(fieldName), instance.getFieldValue(fieldName));
-                // create a comparison value
-                final ComparableFieldValue filterConditionValue = new ComparableFieldValue(defn.getField(fieldName), FieldValue.is(fieldName, filterByCondition.fieldValue));
-
-                switch (filterByCondition.filterOperation){
-                    case "=":
-                        if(!(actualValue.compareTo(filterConditionValue)==0)){
-                            return false;
-                        }
-                        break;
-                    case "<":
-                        if(!(actualValue.compareTo(filterConditionValue)<0)){
-                            return false;
-                        }
-                        break;
-                    case ">":
-                        if(!(actualValue.compareTo(filterConditionValue)>0)){
-                            return false;
-                        }
-                        break;
-                    case "<=":
-                        if(!(actualValue.compareTo(filterConditionValue)<=0)){
-                            return false;
-                        }
-                        break;
-                    case ">=":
-                        if(!(actualValue.compareTo(filterConditionValue)>=0)){
-                            return false;
-                        }
-                        break;
-                    case "!=":
-                    case "!":
-                        if(!(actualValue.compareTo(filterConditionValue)!=0)){
-                            return false;
-                        }
-                        break;
-                    default:
-                        System.out.println(String.format("Unhandled filterby condition %s%s%s",
-                                            fieldName, filterByCondition.filterOperation, value
-                                ));
-                }
+            final int slot = defn.slotOf(filterByCondition.fieldName);
+            if(slot>=0){
+                conditions.add(filterByCondition.compile(defn.getFieldInSlot(slot), slot));
             }
         }
 
-        return true;
+        final Predicate<EntityInstance>[] allConditions = conditions.toArray(new Predicate[0]);
+
+        return instance -> {
+            for(Predicate<EntityInstance> condition : allConditions){
+                if(!condition.test(instance)){
+                    return false;
+                }
+            }
+            return true;
+        };
     }
 
     public class FilterBy{
@@ -96,8 +84,8 @@ public class EntityListFilterParamParser {
                                     "<", // < e.g. ?id=<3 id is less than 3
                                     ">", // < e.g. ?id=>3 id is > than 3
                                     "=", // < e.g. ?id==3 id equals 3
-                                    "!", // < e.g. ?id=!3 id not equals 3
-                                    "!=" // < e.g. ?id=!=3 id not equals 3
+                                    "!=", // < e.g. ?id=!=3 id not equals 3
+                                    "!" // < e.g. ?id=!3 id not equals 3
                                 };  // by default comparison filter will be equals e.g. ?id=3
 
             String operatorToSet = "=";
@@ -114,6 +102,68 @@ public class EntityListFilterParamParser {
             fieldValue = valueToSet;
             filterOperation = operatorToSet;
         }
+
+        /*
+            A predicate comparing the value in the field slot with the filter value
+            parsed as the field type
+         */
+        Predicate<EntityInstance> compile(final Field field, final int slot){
+
+            final IntPredicate comparisonMatches = comparisonOutcome();
+            final FieldValue conditionValue = FieldValue.is(fieldName, fieldValue);
+
+            switch (field.getType()){
+                case ID:
+                case INTEGER:
+                    final int intValue = conditionValue.asInteger();
+                    return instance -> comparisonMatches.test(
+                            Integer.compare(valueIn(instance, slot).asInteger(), intValue));
+                case FLOAT:
+                    final float floatValue = conditionValue.asFloat();
+                    return instance -> comparisonMatches.test(
+                            Float.compare(valueIn(instance, slot).asFloat(), floatValue));
+                case BOOLEAN:
+                    final boolean booleanValue = conditionValue.asBoolean();
+                    return instance -> comparisonMatches.test(
+                            Boolean.compare(valueIn(instance, slot).asBoolean(), booleanValue));
+                case STRING:
+                case ENUM:
+                    return instance -> comparisonMatches.test(
+                            valueIn(instance, slot).asString().compareTo(fieldValue));
+                default:
+                    // don't know how to handle that field type
+                    // so the instances are by default the same
+                    // TODO: FieldType.OBJECT, FieldType.DATE
+                    final boolean matchesSame = comparisonMatches.test(0);
+                    return instance -> matchesSame;
+            }
+        }
+
+        private FieldValue valueIn(final EntityInstance instance, final int slot){
+            return instance.getFields().getFieldValueInSlot(slot);
+        }
+
+        private IntPredicate comparisonOutcome(){
+            switch (filterOperation){
+                case "=":
+                    return comparison -> comparison==0;
+                case "<":
+                    return comparison -> comparison<0;
+                case ">":
+                    return comparison -> comparison>0;
+                case "<=":
+                    return comparison -> comparison<=0;
+                case ">=":
+                    return comparison -> comparison>=0;
+                case "!=":
+                case "!":
+                    return comparison -> comparison!=0;
+                default:
+                    // the constructor only sets the operators above, a new operator needs a comparison here
+                    throw new IllegalArgumentException(String.format("Unhandled filterby condition %s%s%s",
+                            fieldName, filterOperation, fieldValue));
+            }
+        }
     }
 
     public List<FilterBy> filterBys(){
@@ -121,7 +171,8 @@ public class EntityListFilterParamParser {
         List<FilterBy>filterbys = new ArrayList<>();
 
         for(Map.Entry<String,String> field : params.entrySet()) {
-            if (!EntityListSortParamParser.isSortByParam(field.getKey())) {
+            if (!EntityListSortParamParser.isSortByParam(field.getKey()) &&
+                    !EntityListPageParamParser.isPageParam(field.getKey())) {
 
                 FilterBy filterby = new FilterBy(field.getKey(), field.getValue());
                 filterbys.add(filterby);
@@ -0,0 +1,94 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import java.util.Map;
+
+/*
+    Pagination params for a collection
+
+        ?limit=10             the first 10 items
+        ?limit=10&offset=20   items 21 to 30
+        ?limit=10&cursor=xyz  the page after (or before) the cursor returned in a Link header
+
+    a cursor is an opaque PageCursor token for a position in the results, it takes precedence over offset
+ */
+public class EntityListPageParamParser {
+
+    public static final String LIMIT = "limit";
+    public static final String OFFSET = "offset";
+    public static final String CURSOR = "cursor";
+
+    private final int limit;
+    private final int offset;
+    private final PageCursor cursor;
+    private final boolean isPaged;
+
+    public EntityListPageParamParser(final Map<String, String> queryParams) {
+
+        int limitParam = -1;
+        int offsetParam = 0;
+        PageCursor cursorParam = null;
+        boolean foundPageParam = false;
+
+        for(Map.Entry<String,String> param : queryParams.entrySet()){
+            if(param.getKey().equalsIgnoreCase(LIMIT)){
+                limitParam = nonNegativeInteger(LIMIT, param.getValue());
+                foundPageParam = true;
+            }
+            if(param.getKey().equalsIgnoreCase(OFFSET)){
+                offsetParam = nonNegativeInteger(OFFSET, param.getValue());
+                foundPageParam = true;
+            }
+            if(param.getKey().equalsIgnoreCase(CURSOR)){
+                cursorParam = PageCursor.fromToken(param.getValue());
+                foundPageParam = true;
+            }
+        }
+
+        this.limit = limitParam;
+        this.offset = offsetParam;
+        this.cursor = cursorParam;
+        this.isPaged = foundPageParam;
+    }
+
+    private int nonNegativeInteger(final String paramName, final String value){
+        try{
+            final int number = Integer.parseInt(value.trim());
+            if(number>=0){
+                return number;
+            }
+        }catch(NumberFormatException e){
+            // report below
+        }
+        throw new IllegalArgumentException(
+                String.format("Invalid %s %s, expected a number 0 or above", paramName, value));
+    }
+
+    public static boolean isPageParam(final String key) {
+        return (key.equalsIgnoreCase(LIMIT) ||
+                key.equalsIgnoreCase(OFFSET) ||
+                key.equalsIgnoreCase(CURSOR));
+    }
+
+    public boolean isPaged(){
+        return isPaged;
+    }
+
+    public boolean hasLimit(){
+        return limit>=0;
+    }
+
+    public int limit(){
+        return limit;
+    }
+
+    public int offset(){
+        return offset;
+    }
+
+    /**
+     * The cursor to page from, or null when the page is from the offset
+     */
+    public PageCursor cursor(){
+        return cursor;
+    }
+}
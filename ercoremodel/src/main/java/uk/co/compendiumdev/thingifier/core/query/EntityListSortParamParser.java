@@ -26,34 +26,45 @@ public class EntityListSortParamParser {
         currently sortBy=-FieldName or sortBy=+FieldName or sortBy=FieldName
         or sort_by=etc.
 
-        TODO: handle multiple sort fields e.g. sortBy=-FieldName1,+FieldName2
+        multiple sort fields e.g. sortBy=-FieldName1,+FieldName2 are sorted by FieldName1
+        then FieldName2, the last sortBy returned has the highest precedence so they are
+        returned in reverse order
      */
     public List<SortByFieldName> sortBys(){
         List<SortByFieldName>sortbys = new ArrayList<>();
         for(Map.Entry<String,String> field : params.entrySet()){
             if(isSortByParam(field.getKey()) ){
-                final SortByFieldName aSortBy = new SortByFieldName();
-                String sortByValue = field.getValue();
-                switch (sortByValue.charAt(0)){
-                    case '-':
-                        aSortBy.order=1;
-                        aSortBy.fieldName=sortByValue.substring(1);
-                        break;
-                    case '+':
-                        aSortBy.order=-1;
-                        aSortBy.fieldName=sortByValue.substring(1);
-                        break;
-                    default:
-                        aSortBy.order=-1;
-                        aSortBy.fieldName=sortByValue;
-                        break;
+                final String[] sortByValues = field.getValue().split(",");
+                for(int valueIndex=sortByValues.length-1; valueIndex>=0; valueIndex--){
+                    final String sortByValue = sortByValues[valueIndex].trim();
+                    if(!sortByValue.isEmpty()){
+                        sortbys.add(sortByFieldName(sortByValue));
+                    }
                 }
-                sortbys.add(aSortBy);
             }
         }
         return sortbys;
     }
 
+    private SortByFieldName sortByFieldName(final String sortByValue){
+        final SortByFieldName aSortBy = new SortByFieldName();
+        switch (sortByValue.charAt(0)){
+            case '-':
+                aSortBy.order=1;
+                aSortBy.fieldName=sortByValue.substring(1);
+                break;
+            case '+':
+                aSortBy.order=-1;
+                aSortBy.fieldName=sortByValue.substring(1);
+                break;
+            default:
+                aSortBy.order=-1;
+                aSortBy.fieldName=sortByValue;
+                break;
+        }
+        return aSortBy;
+    }
+
     public static boolean isSortByParam(final String key) {
         return (key.equalsIgnoreCase("sortby") ||
                 key.equalsIgnoreCase("sort_by"));
@@ -0,0 +1,172 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.instances.CreationOrder;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/*
+    A position between two items in the sorted results.
+
+    The position is held as the sort_by values, id and guid of an item, so a page
+    follows on from the item it was created from even when items are added or deleted
+    between requests. An offset would skip or repeat items when that happens.
+
+    The sort_by fields and directions are also held, a cursor is only valid for the same sort_by.
+
+        after   - the items sorted after the item, for the next page
+        before  - the items sorted before the item, for the previous page
+        end     - all the items, for the last page
+
+    The cursor is an opaque token in a Link header e.g. ?cursor=YWZ0ZXIuMTAuTm...
+ */
+public final class PageCursor {
+
+    private static final String AFTER = "after";
+    private static final String BEFORE = "before";
+    private static final String END = "end";
+
+    private static final String SEPARATOR = ".";
+    private static final String SORTED_BY_SEPARATOR = ",";
+    // not a base64url character, so it can not be confused with an encoded value
+    private static final String MISSING = "~";
+
+    private final String direction;
+    // the sort_by fields and directions the cursor was created for e.g. +title
+    private final List<String> sortedBy;
+    private final List<String> sortValues;
+    private final long id;
+    private final String guid;
+
+    private PageCursor(final String direction, final List<String> sortedBy, final List<String> sortValues,
+                       final long id, final String guid){
+        this.direction = direction;
+        this.sortedBy = sortedBy;
+        this.sortValues = sortValues;
+        this.id = id;
+        this.guid = guid;
+    }
+
+    public static PageCursor after(final EntityInstance item, final EntityInstanceListSorter sorter){
+        return new PageCursor(AFTER, sorter.sortedBy(), sorter.sortValuesOf(item),
+                                CreationOrder.idValueOf(item), item.getGUID());
+    }
+
+    public static PageCursor before(final EntityInstance item, final EntityInstanceListSorter sorter){
+        return new PageCursor(BEFORE, sorter.sortedBy(), sorter.sortValuesOf(item),
+                                CreationOrder.idValueOf(item), item.getGUID());
+    }
+
+    public static PageCursor beforeTheEnd(){
+        return new PageCursor(END, new ArrayList<>(), new ArrayList<>(), 0, null);
+    }
+
+    /**
+     * true when the page is the items after the cursor, otherwise it is the items before
+     */
+    public boolean isAfter(){
+        return direction.equals(AFTER);
+    }
+
+    /**
+     * Compare an item with the cursor position, in the order the sorter would sort them,
+     * then by creation (id, then guid) as pages are ordered
+     *
+     * less than 0 when the item is before the cursor, 0 for the item the cursor was created from
+     */
+    public int compareWith(final EntityInstance item, final EntityInstanceListSorter sorter){
+
+        if(direction.equals(END)){
+            return -1;
+        }
+
+        final int bySortValues = sorter.compareWithSortValues(item, sortValues);
+        if(bySortValues!=0){
+            return bySortValues;
+        }
+
+        final int byId = Long.compare(CreationOrder.idValueOf(item), id);
+        return byId!=0 ? byId : item.getGUID().compareTo(guid);
+    }
+
+    /**
+     * Is the cursor for these items sorted this way, the cursor may be from a different sort_by
+     * or a different collection. The end of the items is the same whatever the sort.
+     */
+    public boolean isFor(final List<EntityInstance> items, final EntityInstanceListSorter sorter){
+        if(direction.equals(END)){
+            return true;
+        }
+        return sortedBy.equals(sorter.sortedBy()) &&
+                (items.isEmpty() || sorter.sortValuesOf(items.get(0)).size()==sortValues.size());
+    }
+
+    public String token(){
+        final StringBuilder position = new StringBuilder(direction);
+        if(!direction.equals(END)){
+            position.append(SEPARATOR).append(id);
+            position.append(SEPARATOR).append(encoded(guid));
+            position.append(SEPARATOR);
+            for(int sortIndex=0; sortIndex<sortedBy.size(); sortIndex++){
+                position.append(sortIndex==0 ? "" : SORTED_BY_SEPARATOR).append(encoded(sortedBy.get(sortIndex)));
+            }
+            for(String value : sortValues){
+                position.append(SEPARATOR).append(encoded(value));
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                position.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PageCursor fromToken(final String token){
+        try{
+            final String position = decoded(token.trim());
+            if(position.equals(END)){
+                return beforeTheEnd();
+            }
+
+            final String[] parts = position.split("\\" + SEPARATOR, -1);
+            if(parts.length>=4 && (parts[0].equals(AFTER) || parts[0].equals(BEFORE))){
+                final String guid = decodedValue(parts[2]);
+                if(guid!=null){
+                    final List<String> sortedBy = new ArrayList<>();
+                    if(!parts[3].isEmpty()){
+                        for(String sortBy : parts[3].split(SORTED_BY_SEPARATOR, -1)){
+                            sortedBy.add(decoded(sortBy));
+                        }
+                    }
+                    final List<String> sortValues = new ArrayList<>();
+                    for(int part=4; part<parts.length; part++){
+                        sortValues.add(decodedValue(parts[part]));
+                    }
+                    return new PageCursor(parts[0], sortedBy, sortValues, Long.parseLong(parts[1]), guid);
+                }
+            }
+        }catch(IllegalArgumentException e){
+            // NumberFormatException is an IllegalArgumentException, report below
+        }
+        throw new IllegalArgumentException(
+                String.format("Invalid %s %s", EntityListPageParamParser.CURSOR, token));
+    }
+
+    private static String encoded(final String value){
+        if(value==null){
+            return MISSING;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodedValue(final String part){
+        if(part.equals(MISSING)){
+            return null;
+        }
+        return decoded(part);
+    }
+
+    private static String decoded(final String encoded){
+        return new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+    }
+}
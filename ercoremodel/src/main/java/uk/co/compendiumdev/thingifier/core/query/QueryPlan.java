@@ -0,0 +1,28 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/*
+    An immutable list of steps compiled from a query path shape
+    e.g. todos/:id/tasksof
+ */
+final public class QueryPlan {
+
+    private final String shape;
+    private final List<QueryStep> steps;
+
+    public QueryPlan(final String shape, final List<QueryStep> steps) {
+        this.shape = shape;
+        this.steps = Collections.unmodifiableList(new ArrayList<>(steps));
+    }
+
+    public String getShape() {
+        return shape;
+    }
+
+    public List<QueryStep> getSteps() {
+        return steps;
+    }
+}
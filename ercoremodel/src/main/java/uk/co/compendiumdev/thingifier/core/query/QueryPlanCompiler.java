@@ -0,0 +1,171 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+    Compiles query paths into QueryPlans and caches them by path shape.
+
+    The shape of a path replaces any term which could not be an entity
+    or relationship name with a placeholder, so todos/1/tasksof and
+    todos/2/tasksof share the plan todos/:id/tasksof.
+
+    Plans are discarded when the schema changes. A compiler does not hold
+    on to its schema so the compilers map does not keep schemas alive.
+
+    Queries compile without a lock, the names and plans for a schema version
+    are held together and replaced as a whole when the version changes.
+ */
+final public class QueryPlanCompiler {
+
+    public static final String PLACEHOLDER = ":id";
+    public static final int MAXIMUM_CACHED_PLANS = 500;
+
+    private static final Map<ERSchema, QueryPlanCompiler> compilers = new WeakHashMap<>();
+    // an application usually has one schema, so it is found without locking the compilers map
+    private static volatile QueryPlanCompiler lastUsed;
+
+    private final WeakReference<ERSchema> compilingFor;
+    private volatile SchemaVersion compiled;
+
+    private QueryPlanCompiler(final ERSchema schema) {
+        this.compilingFor = new WeakReference<>(schema);
+        this.compiled = new SchemaVersion(schema);
+    }
+
+    public static QueryPlanCompiler forSchema(final ERSchema schema){
+        final QueryPlanCompiler last = lastUsed;
+        if(last!=null && last.compilingFor.get()==schema){
+            return last;
+        }
+
+        final QueryPlanCompiler compiler;
+        synchronized (compilers){
+            compiler = compilers.computeIfAbsent(schema, QueryPlanCompiler::new);
+        }
+        lastUsed = compiler;
+        return compiler;
+    }
+
+    public static QueryPlan planFor(final ERSchema schema, final String[] terms){
+        return forSchema(schema).compile(schema, terms);
+    }
+
+    private QueryPlan compile(final ERSchema schema, final String[] terms){
+
+        SchemaVersion current = compiled;
+        if(current.version != schema.getVersion()){
+            // when queries race to replace it, the last replacement is kept
+            current = new SchemaVersion(schema);
+            compiled = current;
+        }
+
+        return current.planFor(schema, terms);
+    }
+
+    public int countCachedPlans(){
+        return compiled.plans.size();
+    }
+
+    /*
+        The names which might be used in a query and the plans compiled using them,
+        for one version of the schema
+     */
+    private static final class SchemaVersion {
+
+        private final int version;
+        private final ConcurrentHashMap<String, QueryPlan> plans;
+
+        // any term which might be an entity or relationship name is kept in the shape
+        private final Set<String> entityNames;
+        private final Set<String> lowerCaseNames;
+
+        private SchemaVersion(final ERSchema schema) {
+            // read before the names, a change while reading them is seen as a new version next time
+            version = schema.getVersion();
+            plans = new ConcurrentHashMap<>();
+
+            entityNames = new HashSet<>();
+            lowerCaseNames = new HashSet<>();
+
+            for(EntityDefinition defn : schema.getEntityDefinitions()){
+                entityNames.add(defn.getName());
+                lowerCaseNames.add(defn.getPlural().toLowerCase());
+            }
+
+            for(RelationshipDefinition defn : schema.getRelationships()){
+                lowerCaseNames.add(defn.getFromRelationship().getName().toLowerCase());
+                if(defn.isTwoWay()){
+                    lowerCaseNames.add(defn.getReversedRelationship().getName().toLowerCase());
+                }
+            }
+        }
+
+        private QueryPlan planFor(final ERSchema schema, final String[] terms){
+            final String shape = shapeOf(terms);
+
+            final QueryPlan plan = plans.get(shape);
+            if(plan!=null){
+                return plan;
+            }
+
+            if(plans.size() >= MAXIMUM_CACHED_PLANS){
+                // plans are cheap to compile again, so any plan can make room for this one
+                final Iterator<String> cachedShapes = plans.keySet().iterator();
+                if(cachedShapes.hasNext()){
+                    plans.remove(cachedShapes.next());
+                }
+            }
+
+            return plans.computeIfAbsent(shape, newShape -> compilePlan(schema, newShape, terms));
+        }
+
+        private boolean mightBeNamedInSchema(final String term){
+            return entityNames.contains(term) || lowerCaseNames.contains(term.toLowerCase());
+        }
+
+        private String shapeOf(final String[] terms){
+            final StringBuilder shape = new StringBuilder();
+            for(int position=0; position<terms.length; position++){
+                if(position>0){
+                    shape.append('/');
+                }
+                shape.append(mightBeNamedInSchema(terms[position]) ? terms[position] : PLACEHOLDER);
+            }
+            return shape.toString();
+        }
+
+        private QueryPlan compilePlan(final ERSchema schema, final String shape, final String[] terms){
+
+            final List<QueryStep> steps = new ArrayList<>();
+
+            for(int position=0; position<terms.length; position++){
+
+                final String term = terms[position];
+
+                if(!mightBeNamedInSchema(term)){
+                    steps.add(QueryStep.placeholder(position));
+                    continue;
+                }
+
+                EntityDefinition entity = schema.getEntityDefinitionNamed(term);
+                boolean pluralMatch = false;
+                if(entity==null){
+                    entity = schema.getEntityDefinitionWithPluralNamed(term);
+                    pluralMatch = true;
+                }
+
+                steps.add(QueryStep.literal(position, term,
+                                            schema.hasRelationshipNamed(term),
+                                            entity, pluralMatch));
+            }
+
+            return new QueryPlan(shape, steps);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+
+/*
+    A single term of a compiled query path e.g. the `tasksof` in todos/:id/tasksof
+
+    The schema lookups for the term are resolved when the step is compiled.
+    A step compiled from a placeholder (:id) takes its term from the
+    query path being executed.
+
+    How a step is executed depends on the steps before it e.g. a relationship
+    name is only traversed when there is a parent, so SimpleQuery decides
+    from the lookups rather than the step having a fixed type.
+ */
+final public class QueryStep {
+
+    private final int position;
+    private final String term;
+    private final boolean relationshipNamed;
+    private final EntityDefinition entity;
+    private final boolean pluralMatch;
+
+    private QueryStep(final int position, final String term,
+                      final boolean relationshipNamed, final EntityDefinition entity,
+                      final boolean pluralMatch) {
+        this.position = position;
+        this.term = term;
+        this.relationshipNamed = relationshipNamed;
+        this.entity = entity;
+        this.pluralMatch = pluralMatch;
+    }
+
+    public static QueryStep placeholder(final int position){
+        return new QueryStep(position, null, false, null, false);
+    }
+
+    public static QueryStep literal(final int position, final String term,
+                                    final boolean relationshipNamed,
+                                    final EntityDefinition entity,
+                                    final boolean pluralMatch){
+        return new QueryStep(position, term, relationshipNamed, entity, pluralMatch);
+    }
+
+    public boolean isPlaceholder(){
+        return term==null;
+    }
+
+    // the term for this step when executing the given query path terms
+    public String termFrom(final String[] terms){
+        if(isPlaceholder()){
+            return terms[position];
+        }
+        return term;
+    }
+
+    public boolean isRelationshipNamed() {
+        return relationshipNamed;
+    }
+
+    public boolean isEntityNamed() {
+        return entity!=null;
+    }
+
+    public EntityDefinition getEntity() {
+        return entity;
+    }
+
+    public boolean wasPluralMatch() {
+        return pluralMatch;
+    }
+}
@@ -0,0 +1,112 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.RangeIndex;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+    When a query is for a whole collection, range indexed fields can avoid scanning and sorting
+    every instance:
+
+        ?id=>100               only the instances in the range are read from the index
+        ?sort_by=-id           the instances are read in order from the index and not sorted
+        ?id=>100&sort_by=-id   the range is read in order
+
+    The candidates still need to be filtered by all the filter conditions.
+ */
+final class RangeIndexScan {
+
+    private final List<EntityInstance> candidates;
+    private final boolean ordered;
+
+    private RangeIndexScan(final List<EntityInstance> candidates, final boolean ordered) {
+        this.candidates = candidates;
+        this.ordered = ordered;
+    }
+
+    /**
+     * A scan of the range indexes for the query, or null if the indexes can not help
+     */
+    static RangeIndexScan planFor(final EntityInstanceCollection collection, final Map<String, String> queryParams){
+
+        final List<EntityListSortParamParser.SortByFieldName> sortBys =
+                new EntityListSortParamParser(queryParams).sortBys();
+
+        RangeIndex sortIndex = null;
+        boolean ascending = true;
+        if(sortBys.size()==1){
+            sortIndex = usable(collection.getRangeIndexFor(sortBys.get(0).fieldName));
+            // order < 0 is low to high (asc)
+            ascending = sortBys.get(0).order<0;
+        }
+
+        for(EntityListFilterParamParser.FilterBy filterBy : new EntityListFilterParamParser(queryParams).filterBys()){
+            final RangeIndex filterIndex = usable(collection.getRangeIndexFor(filterBy.fieldName));
+            if(filterIndex!=null && filterIndex.canCompare(filterBy.fieldValue) && isRange(filterBy)){
+                // when sorting by a different field, sorting the range is cheaper than filtering the whole order
+                final boolean isOrderedBySort = filterIndex==sortIndex;
+                return new RangeIndexScan(
+                        range(filterIndex, filterBy, !isOrderedBySort || ascending),
+                        isOrderedBySort);
+            }
+        }
+
+        if(sortIndex!=null){
+            return new RangeIndexScan(sortIndex.inOrder(ascending), true);
+        }
+
+        return null;
+    }
+
+    private static RangeIndex usable(final RangeIndex index){
+        return index!=null && index.isUsable() ? index : null;
+    }
+
+    private static boolean isRange(final EntityListFilterParamParser.FilterBy filterBy){
+        switch (filterBy.filterOperation){
+            case "=":
+            case "<":
+            case "<=":
+            case ">":
+            case ">=":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static List<EntityInstance> range(final RangeIndex index,
+                                              final EntityListFilterParamParser.FilterBy filterBy,
+                                              final boolean ascending){
+        final String value = filterBy.fieldValue;
+        switch (filterBy.filterOperation){
+            case "<":
+                return index.range(null, true, value, false, ascending);
+            case "<=":
+                return index.range(null, true, value, true, ascending);
+            case ">":
+                return index.range(value, false, null, true, ascending);
+            case ">=":
+                return index.range(value, true, null, true, ascending);
+            default:
+                return index.range(value, true, value, true, ascending);
+        }
+    }
+
+    /**
+     * The instances which may match the filters
+     */
+    List<EntityInstance> candidates(){
+        return candidates;
+    }
+
+    /**
+     * Are the candidates in the sort_by order
+     */
+    boolean isOrdered(){
+        return ordered;
+    }
+}
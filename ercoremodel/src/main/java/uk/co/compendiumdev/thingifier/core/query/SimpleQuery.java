@@ -2,6 +2,7 @@ package uk.co.compendiumdev.thingifier.core.query;
 
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.instances.CreationOrder;
 import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
@@ -11,6 +12,7 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -35,7 +37,8 @@ final public class SimpleQuery {
     // populated during search
     EntityInstanceCollection currentCollection = null;
     EntityInstance currentInstance = null;
-    List<EntityInstance> foundItems = new ArrayList<EntityInstance>();
+    // may be a live view of a collection, only copied when results are returned
+    Collection<EntityInstance> foundItems = new ArrayList<EntityInstance>();
     RelationshipVectorDefinition lastRelationshipFound = null;
     List<RelationshipVectorDefinition> lastRelationshipsFound = null;
     EntityInstanceCollection parentCollection = null;
@@ -45,6 +48,12 @@ final public class SimpleQuery {
     List<Object> foundItemsHistoryList = new ArrayList<>();
     private EntityDefinition resultContainsDefinition;
 
+    // pagination of the results
+    private EntityListPageParamParser page = null;
+    private int totalCount;
+    private PageCursor nextPage = null;
+    private PageCursor previousPage = null;
+
     public SimpleQuery(ERSchema aSchema, ERInstanceData aDatabase, String query) {
 
         this.schema = aSchema;
@@ -66,15 +75,18 @@ final public class SimpleQuery {
 
         String[] terms = query.split("/");
 
+        // the schema lookups for the terms are cached in a plan for this 'shape' of query
+        final QueryPlan plan = QueryPlanCompiler.planFor(schema, terms);
 
         lastMatch = NOTHING;
 
-        for (String term : terms) {
+        for (QueryStep step : plan.getSteps()) {
+
+            final String term = step.termFrom(terms);
 
             // if we have a parent thing then we want to check for relationships before we check for things
             // if it matches a relationship then get the instances identified by the relationship
-            //if(currentThing != null && currentThing.definition().hasRelationship(term)){
-            if (parentCollection !=null && schema.hasRelationshipNamed(term)) {
+            if (parentCollection !=null && step.isRelationshipNamed()) {
 
                 // what I want to store is the relationship between the parent Thing and the relationship name
                 EntityInstanceCollection thingToCheckForRelationship = currentCollection == null ? parentCollection : currentCollection;
@@ -84,8 +96,8 @@ final public class SimpleQuery {
                 foundItemsHistoryList.add(lastRelationshipFound);
 
 
-                if (foundItems != null && foundItems.size() > 0) {
-                    resultContainsDefinition = foundItems.get(0).getRelationships().getTypeOfConnectableItems(term);
+                if (foundItems != null && !foundItems.isEmpty()) {
+                    resultContainsDefinition = foundItems.iterator().next().getRelationships().getTypeOfConnectableItems(term);
                 }
 
                 List<EntityInstance> newitems = new ArrayList<EntityInstance>();
@@ -108,18 +120,11 @@ final public class SimpleQuery {
             }
 
             // if matches an entity type
-            if (schema.hasEntityNamed(term) || schema.hasEntityWithPluralNamed(term)) {
-                if (currentCollection == null && foundItems.size() == 0) {
+            if (step.isEntityNamed()) {
+                if (currentCollection == null && foundItems.isEmpty()) {
                     // first thing - find it
-                    currentCollection = database.getInstanceCollectionForEntityNamed(term);
-                    pluralMatch = false;
-
-                    if (currentCollection == null) {
-                        // was it the plural?
-                        final EntityDefinition defn = schema.getEntityDefinitionWithPluralNamed(term);
-                        currentCollection = database.getInstanceCollectionForEntityNamed(defn.getName());
-                        pluralMatch = true;
-                    }
+                    currentCollection = database.getInstanceCollectionForEntityNamed(step.getEntity().getName());
+                    pluralMatch = step.wasPluralMatch();
 
                     // entity type is always a collection
                     isCollection = true;
@@ -129,14 +134,14 @@ final public class SimpleQuery {
                     parentCollection = currentCollection;
                     currentInstance = null;
                     lastMatch = CURRENT_THING;
-                    foundItems = new ArrayList<EntityInstance>(currentCollection.getInstances());
+                    foundItems = currentCollection.getInstances();
 
                 } else {
                     // related to another type of thing
                     foundItemsHistoryList.add(database.getInstanceCollectionForEntityNamed(term));
 
-                    if (foundItems != null && foundItems.size() > 0) {
-                        resultContainsDefinition = foundItems.get(0).getRelationships().getTypeOfConnectableItems(term);
+                    if (foundItems != null && !foundItems.isEmpty()) {
+                        resultContainsDefinition = foundItems.iterator().next().getRelationships().getTypeOfConnectableItems(term);
                     }
 
                     List<EntityInstance> newitems = new ArrayList<EntityInstance>();
@@ -160,50 +165,25 @@ final public class SimpleQuery {
 
 
             // is it a GUID or ID?
-            boolean found = false;
-            for (EntityInstance instance : foundItems) {
-
-                boolean matchBasedOnIdOrGUID = false;
-
-                // found based on ID ?
-                final List<Field> idFields = instance.getEntity().
-                        getFieldsOfType(FieldType.ID);
-                if(!idFields.isEmpty()){
-                    final String idValue = instance.getFieldValue(
-                            idFields.get(0).getName()).asString();
-                    if(idValue.contentEquals(term)){
-                        matchBasedOnIdOrGUID=true;
-                    }
-                }
+            final EntityInstance instance = findInstanceWithGuidOrId(term);
+            if (instance != null) {
 
-                if (instance.getGUID().contentEquals(term)) {
-                    matchBasedOnIdOrGUID = true;
-                }
+                foundItemsHistoryList.add(instance);
 
-                if(matchBasedOnIdOrGUID){
+                if (currentCollection != null) {
+                    parentCollection = currentCollection;
+                }
 
-                    foundItemsHistoryList.add(instance);
+                // if we had a plural term then return this as a collection
+                isCollection = pluralMatch;
 
-                    if (currentCollection != null) {
-                        parentCollection = currentCollection;
-                    }
-
-                    // if we had a plural term then return this as a collection
-                    isCollection = pluralMatch;
+                currentCollection = null;
 
-                    currentCollection = null;
+                currentInstance = instance;
+                foundItems = new ArrayList<EntityInstance>();
+                foundItems.add(instance);
+                lastMatch = CURRENT_INSTANCE;
 
-                    currentInstance = instance;
-                    foundItems = new ArrayList<EntityInstance>();
-                    foundItems.add(instance);
-                    lastMatch = CURRENT_INSTANCE;
-                    found = true;
-                }
-                if (found) {
-                    break;
-                }
-            }
-            if (found) {
                 // it was a GUID or id
                 continue;
             }
@@ -216,11 +196,48 @@ final public class SimpleQuery {
         return this;
     }
 
+    private EntityInstance findInstanceWithGuidOrId(final String term) {
+
+        // when the found items are a whole collection we can use the collection indexes
+        if (currentCollection != null) {
+            return currentCollection.findInstanceByGUIDorID(term);
+        }
+
+        // otherwise we have related items which are usually a small set
+        for (EntityInstance instance : foundItems) {
+
+            // found based on ID ?
+            final List<Field> idFields = instance.getEntity().
+                    getFieldsOfType(FieldType.ID);
+            if(!idFields.isEmpty()){
+                final String idValue = instance.getFieldValue(
+                        idFields.get(0).getName()).asString();
+                if(idValue.contentEquals(term)){
+                    return instance;
+                }
+            }
+
+            if (instance.getGUID().contentEquals(term)) {
+                return instance;
+            }
+        }
+
+        return null;
+    }
+
     public boolean isResultACollection() {
         return isCollection;
     }
 
     public SimpleQuery performQuery(final Map<String, String> queryParams) {
+        return performQuery(queryParams, new EntityListPageParamParser(queryParams));
+    }
+
+    /**
+     * Query with page params which have already been parsed from the queryParams
+     */
+    public SimpleQuery performQuery(final Map<String, String> queryParams,
+                                    final EntityListPageParamParser pageParams) {
 
         performQuery();
         //filter the results based on the query
@@ -231,15 +248,154 @@ final public class SimpleQuery {
 
         final EntityInstanceListFilter filterer = new EntityInstanceListFilter(queryParams);
 
-        foundItems = filterer.filter(foundItems);
+        // a whole collection may have range indexes to read the matching items in order
+        final RangeIndexScan indexScan = (lastMatch==CURRENT_THING && currentCollection!=null) ?
+                RangeIndexScan.planFor(currentCollection, queryParams) : null;
+
+        List<EntityInstance> filteredItems = filterer.filter(
+                indexScan==null ? foundItems : indexScan.candidates());
+        final boolean isSorted = indexScan!=null && indexScan.isOrdered();
 
         // support sorting after filtering
         final EntityInstanceListSorter sorter = new EntityInstanceListSorter(queryParams);
-        foundItems = sorter.sort(foundItems);
+
+        if(!pageParams.isPaged()){
+            foundItems = isSorted ? filteredItems : sorter.sort(filteredItems);
+            return this;
+        }
+
+        page = pageParams;
+        totalCount = filteredItems.size();
+        foundItems = pageOf(filteredItems, sorter, isSorted);
 
         return this;
     }
 
+    /*
+        Only the items up to the end of the page are sorted, and only the page is kept.
+        Pages need a consistent order so items are ordered by creation (id, then guid)
+        when sort_by does not distinguish them.
+
+        A page from a cursor is the items after (or before) the cursor position, rather than
+        a count of items, so it is the same page when items are added or deleted.
+
+        Items read in order from a range index are already in that order, and are not sorted.
+     */
+    private List<EntityInstance> pageOf(final List<EntityInstance> items,
+                                        final EntityInstanceListSorter sorter, final boolean isSorted){
+
+        final PageCursor cursor = page.cursor();
+        if(cursor!=null && !cursor.isFor(items, sorter)){
+            throw new IllegalArgumentException("Invalid cursor, it is not for this sort_by");
+        }
+
+        final int limit = page.hasLimit() ? page.limit() : items.size();
+
+        final List<EntityInstance> pageItems;
+        final int itemsBefore;
+        final int itemsAfter;
+
+        if(cursor==null){
+            final int start = Math.min(page.offset(), items.size());
+            final int end = (int)Math.min((long)start + limit, items.size());
+            pageItems = new ArrayList<>(sortedFirst(end, items, sorter, isSorted).subList(start, end));
+            itemsBefore = start;
+            itemsAfter = items.size() - end;
+        }else if(cursor.isAfter()){
+            final List<EntityInstance> after = itemsAround(cursor, items, sorter, isSorted);
+            final int end = Math.min(limit, after.size());
+            pageItems = new ArrayList<>(sortedFirst(end, after, sorter, isSorted).subList(0, end));
+            itemsBefore = items.size() - after.size();
+            itemsAfter = after.size() - end;
+        }else{
+            // the page ends at the cursor, so all the items before the cursor are sorted
+            final List<EntityInstance> before = itemsAround(cursor, items, sorter, isSorted);
+            final List<EntityInstance> sorted = sortedFirst(before.size(), before, sorter, isSorted);
+            final int start = Math.max(0, sorted.size() - limit);
+            pageItems = new ArrayList<>(sorted.subList(start, sorted.size()));
+            itemsBefore = start;
+            itemsAfter = items.size() - before.size();
+        }
+
+        if(!pageItems.isEmpty()){
+            nextPage = itemsAfter>0 ? PageCursor.after(pageItems.get(pageItems.size()-1), sorter) : null;
+            previousPage = itemsBefore>0 ? PageCursor.before(pageItems.get(0), sorter) : null;
+        }else{
+            // past the end of the items, the previous page is the last page
+            previousPage = itemsBefore>0 ? PageCursor.beforeTheEnd() : null;
+        }
+
+        return pageItems;
+    }
+
+    private List<EntityInstance> sortedFirst(final int maxItems, final List<EntityInstance> items,
+                                             final EntityInstanceListSorter sorter, final boolean isSorted){
+        return isSorted ? items : sorter.sortFirst(maxItems, items, CreationOrder.COMPARATOR);
+    }
+
+    /*
+        The items after, or before, the cursor position.
+        Items which are already in order are found with a binary search, rather than
+        comparing every item with the cursor.
+     */
+    private List<EntityInstance> itemsAround(final PageCursor cursor, final List<EntityInstance> items,
+                                             final EntityInstanceListSorter sorter, final boolean isSorted){
+
+        // the item the cursor was created from is on neither side
+        final int side = cursor.isAfter() ? 1 : -1;
+
+        if(!isSorted){
+            final List<EntityInstance> matched = new ArrayList<>();
+            for(EntityInstance item : items){
+                if(Integer.signum(cursor.compareWith(item, sorter))==side){
+                    matched.add(item);
+                }
+            }
+            return matched;
+        }
+
+        // the first item at or after the cursor position for 'before',
+        // the first item after the cursor position for 'after'
+        int low = 0;
+        int high = items.size();
+        while(low<high){
+            final int middle = (low+high) >>> 1;
+            final int comparison = cursor.compareWith(items.get(middle), sorter);
+            if(comparison>0 || (comparison==0 && side<0)){
+                high = middle;
+            }else{
+                low = middle + 1;
+            }
+        }
+
+        return side>0 ? items.subList(low, items.size()) : items.subList(0, low);
+    }
+
+    public boolean isResultPaged(){
+        return page!=null;
+    }
+
+    /**
+     * The number of items matched before the results were paged
+     */
+    public int getTotalCount(){
+        return isResultPaged() ? totalCount : foundItems.size();
+    }
+
+    /**
+     * The cursor for the page after this one, or null if there are no more items
+     */
+    public PageCursor getNextPageCursor(){
+        return nextPage;
+    }
+
+    /**
+     * The cursor for the page before this one, or null if this is the first page
+     */
+    public PageCursor getPreviousPageCursor(){
+        return previousPage;
+    }
+
     public List<EntityInstance> getListEntityInstances() {
         List<EntityInstance> returnThis = new ArrayList<EntityInstance>();
 
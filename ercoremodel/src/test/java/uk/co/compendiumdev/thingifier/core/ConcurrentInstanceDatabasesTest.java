@@ -0,0 +1,191 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.datapopulator.DataPopulator;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentInstanceDatabasesTest {
+
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 500;
+
+    private EntityRelModel createModel(){
+        EntityRelModel erm = new EntityRelModel();
+        EntityDefinition thingDefn = erm.createEntityDefinition("thing", "things");
+        thingDefn.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING));
+        return erm;
+    }
+
+    private void runConcurrently(final Runnable task) throws Exception {
+
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                // rethrows any exception from the task e.g. ConcurrentModificationException
+                future.get(60, TimeUnit.SECONDS);
+            }
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void databaseIsOnlyCreatedAndPopulatedOnceWhenRequestedConcurrently() throws Exception {
+
+        final EntityRelModel erm = createModel();
+        final AtomicInteger populatedCount = new AtomicInteger(0);
+        final AtomicInteger createdCount = new AtomicInteger(0);
+
+        final DataPopulator populator = (schema, database) -> {
+            populatedCount.incrementAndGet();
+            for(int thing=0; thing<10; thing++) {
+                database.getInstanceCollectionForEntityNamed("thing").
+                        createManagedInstance().setValue("title", "thing " + thing);
+            }
+        };
+
+        final Set<ERInstanceData> seen = ConcurrentHashMap.newKeySet();
+
+        runConcurrently(() -> {
+            if(erm.createInstanceDatabaseIfNotExisting("session", populator)){
+                createdCount.incrementAndGet();
+            }
+            final ERInstanceData database = erm.getInstanceData("session");
+            seen.add(database);
+            // never see a partially populated database
+            Assertions.assertEquals(10, database.getInstanceCollectionForEntityNamed("thing").countInstances());
+        });
+
+        Assertions.assertEquals(1, createdCount.get());
+        Assertions.assertEquals(1, populatedCount.get());
+        Assertions.assertEquals(1, seen.size());
+    }
+
+    @Test
+    public void populatingADatabaseDoesNotBlockCreatingOtherDatabases() throws Exception {
+
+        final EntityRelModel erm = createModel();
+        final CountDownLatch otherCreated = new CountDownLatch(1);
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            final Future<Boolean> slow = executor.submit(() ->
+                    erm.createInstanceDatabaseIfNotExisting("slow", (schema, database) -> {
+                        try {
+                            Assertions.assertTrue(otherCreated.await(30, TimeUnit.SECONDS));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+
+            for(int other=0; other<100; other++){
+                Assertions.assertTrue(erm.createInstanceDatabaseIfNotExisting("other-" + other));
+            }
+            otherCreated.countDown();
+
+            Assertions.assertTrue(slow.get(60, TimeUnit.SECONDS));
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void aPopulatorCanCreateOtherDatabases(){
+
+        final EntityRelModel erm = createModel();
+
+        Assertions.assertTrue(erm.createInstanceDatabaseIfNotExisting("outer", (schema, database) -> {
+            for(int inner=0; inner<100; inner++){
+                erm.createInstanceDatabaseIfNotExisting("inner-" + inner);
+            }
+        }));
+
+        Assertions.assertNotNull(erm.getInstanceData("outer"));
+        Assertions.assertNotNull(erm.getInstanceData("inner-99"));
+    }
+
+    @Test
+    public void canCreateDeleteAndLookupDatabasesFromManyThreads() throws Exception {
+
+        final EntityRelModel erm = createModel();
+        final AtomicInteger threadIds = new AtomicInteger(0);
+
+        runConcurrently(() -> {
+            final int threadId = threadIds.incrementAndGet();
+            for(int iteration=0; iteration<ITERATIONS; iteration++){
+                final String mine = "thread-" + threadId + "-" + iteration;
+                final String shared = "shared-" + (iteration % 10);
+
+                Assertions.assertTrue(erm.createInstanceDatabaseIfNotExisting(mine));
+                erm.createInstanceDatabaseIfNotExisting(shared);
+
+                erm.getInstanceData(mine).getInstanceCollectionForEntityNamed("thing").
+                        createManagedInstance().setValue("title", mine);
+
+                // iterating while other threads create and delete
+                for(String name : erm.getDatabaseNames()){
+                    Assertions.assertNotNull(name);
+                }
+
+                Assertions.assertNotNull(erm.getInstanceData(mine));
+                erm.deleteInstanceDatabase(mine);
+                Assertions.assertNull(erm.getInstanceData(mine));
+                erm.deleteInstanceDatabase(shared);
+            }
+        });
+
+        Assertions.assertTrue(erm.getDatabaseNames().contains(EntityRelModel.DEFAULT_DATABASE_NAME));
+        for(String name : erm.getDatabaseNames()){
+            Assertions.assertFalse(name.startsWith("thread-"), name);
+        }
+    }
+
+    @Test
+    public void idsAreUniqueAcrossConcurrentlyPopulatedDatabases() throws Exception {
+
+        final EntityRelModel erm = createModel();
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final AtomicInteger created = new AtomicInteger(0);
+        final AtomicInteger threadIds = new AtomicInteger(0);
+
+        runConcurrently(() -> {
+            final String name = "db-" + threadIds.incrementAndGet();
+            erm.createInstanceDatabaseIfNotExisting(name, (schema, database) -> {
+                for(int thing=0; thing<ITERATIONS; thing++) {
+                    ids.add(database.getInstanceCollectionForEntityNamed("thing").
+                            createManagedInstance().getFieldValue("id").asString());
+                    created.incrementAndGet();
+                }
+            });
+        });
+
+        Assertions.assertEquals(created.get(), ids.size());
+    }
+}
@@ -6,6 +6,8 @@ import uk.co.compendiumdev.thingifier.core.domain.datapopulator.DataPopulator;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.Optionality;
 import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
@@ -217,6 +219,52 @@ public class EntityRelModelTest {
 
     }
 
+    @Test
+    public void canDeleteLongCyclesOfMandatoryRelationships() {
+
+        EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition linkdefn = erm.createEntityDefinition("link", "links");
+        EntityInstanceCollection links = erm.getInstanceData().getInstanceCollectionForEntityNamed("link");
+
+        erm.createRelationshipDefinition(linkdefn, linkdefn, "next", Cardinality.ONE_TO_MANY())
+                .whenReversed(Cardinality.ONE_TO_MANY(),"previous").
+                getReversedRelationship().
+                setOptionality(Optionality.MANDATORY_RELATIONSHIP);
+
+        // deleting a link deletes the next link, which is too deep to delete recursively
+        final EntityInstance first = links.createManagedInstance();
+        EntityInstance previous = first;
+        for(int count=1; count<20000; count++){
+            final EntityInstance link = links.createManagedInstance();
+            previous.getRelationships().connect("next", link);
+            previous = link;
+        }
+        previous.getRelationships().connect("next", first);
+
+        erm.getInstanceData().deleteEntityInstance(first);
+
+        Assertions.assertEquals(0, links.countInstances());
+        Assertions.assertNull(erm.getInstanceData().findEntityInstanceByGUID(previous.getGUID()));
+    }
+
+    @Test
+    public void clearedInstancesAreNoLongerIndexed() {
+
+        EntityRelModel erm = new EntityRelModel();
+        erm.createEntityDefinition("thing", "things").addFields(Field.is("id", FieldType.ID));
+        EntityInstanceCollection thing = erm.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        final EntityInstance instance = thing.createManagedInstance();
+        erm.getInstanceData().clearAllData();
+
+        Assertions.assertNull(erm.getInstanceData().findEntityInstanceByGUID(instance.getGUID()));
+        Assertions.assertNull(thing.findInstanceByGUIDorID("1"));
+
+        // amending a cleared instance does not add it back to the indexes
+        instance.overrideValue("id", "20");
+        Assertions.assertNull(thing.findInstanceByGUIDorID("20"));
+    }
+
     @Test
     public void canFunctionWithoutADataGenerator(){
         EntityRelModel erm = new EntityRelModel();
@@ -124,4 +124,27 @@ public class MultipleEntityInstancesDatabasesTest {
         ERInstanceData isDatabase = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
         Assertions.assertNotNull(isDatabase);
     }
+
+    @Test
+    public void instancesAreOnlyFoundByGuidInTheirOwnDatabase(){
+
+        EntityRelModel erm = new EntityRelModel();
+        EntityDefinition thingDefn = erm.createEntityDefinition("thing", "things");
+        EntityDefinition otherDefn = erm.createEntityDefinition("other", "others");
+        erm.createInstanceDatabase("other_things");
+
+        EntityInstance thing = erm.getInstanceData("other_things").
+                getInstanceCollectionForEntityNamed("thing").createManagedInstance();
+        EntityInstance other = erm.getInstanceData("other_things").
+                getInstanceCollectionForEntityNamed("other").createManagedInstance();
+
+        Assertions.assertEquals(thing, erm.getInstanceData("other_things").findEntityInstanceByGUID(thing.getGUID()));
+        Assertions.assertEquals(other, erm.getInstanceData("other_things").findEntityInstanceByGUID(other.getGUID()));
+        Assertions.assertNull(erm.getInstanceData().findEntityInstanceByGUID(thing.getGUID()));
+
+        // deleted instances are no longer found
+        erm.getInstanceData("other_things").deleteEntityInstance(thing);
+        Assertions.assertNull(erm.getInstanceData("other_things").findEntityInstanceByGUID(thing.getGUID()));
+        Assertions.assertEquals(other, erm.getInstanceData("other_things").findEntityInstanceByGUID(other.getGUID()));
+    }
 }
@@ -0,0 +1,91 @@
+package uk.co.compendiumdev.thingifier.core.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Compare finding an instance by GUID using the database wide GUID index
+    against the scan of every collection that was used before the index existed.
+
+    Run the main method with the test classpath e.g. from the IDE, or:
+        mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+        java -cp target/test-classes:target/classes:$(cat cp.txt) ...benchmarks.GuidLookupBenchmark
+
+    100k instances: scanning ~48000 us/op, index ~0.16 us/op
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GuidLookupBenchmark {
+
+    @Param({"100000"})
+    public int numberOfInstances;
+
+    private ERInstanceData database;
+    private List<String> guids;
+    private Random random;
+
+    @Setup
+    public void createDatabase(){
+        final EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition todo = erm.createEntityDefinition("todo", "todos");
+        todo.addFields(Field.is("id", FieldType.ID), Field.is("title", FieldType.STRING));
+        final EntityDefinition project = erm.createEntityDefinition("project", "projects");
+        project.addFields(Field.is("id", FieldType.ID), Field.is("title", FieldType.STRING));
+
+        database = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
+        guids = new ArrayList<>();
+
+        final EntityInstanceCollection todos = database.getInstanceCollectionForEntityNamed("todo");
+        final EntityInstanceCollection projects = database.getInstanceCollectionForEntityNamed("project");
+        for(int count=0; count<numberOfInstances; count++){
+            final EntityInstanceCollection collection = count%2==0 ? todos : projects;
+            guids.add(collection.createManagedInstance().setValue("title", "title " + count).getGUID());
+        }
+
+        random = new Random(1);
+    }
+
+    @Benchmark
+    public EntityInstance findByGuidUsingIndex(){
+        return database.findEntityInstanceByGUID(guids.get(random.nextInt(guids.size())));
+    }
+
+    @Benchmark
+    public EntityInstance findByGuidScanningCollections(){
+        final String guid = guids.get(random.nextInt(guids.size()));
+        for(EntityInstanceCollection collection : database.getAllInstanceCollections()){
+            for(EntityInstance instance : collection.getInstances()){
+                if(instance.getGUID().contentEquals(guid)){
+                    return instance;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().
+                include(GuidLookupBenchmark.class.getSimpleName()).
+                build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package uk.co.compendiumdev.thingifier.core.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.query.ComparableFieldValue;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceListSorter;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Compare sorting todos by sortBy=+doneStatus,-priority,+title using the
+    precomputed sort keys in EntityInstanceListSorter, against the sort that was used before:
+    a full re-sort per sort_by, comparing ComparableFieldValue objects created on every compare.
+
+    Run the main method with the test classpath e.g. from the IDE, or:
+        mvn test-compile dependency:build-classpath -Dmdep.outputFile=cp.txt
+        java -cp target/test-classes:target/classes:$(cat cp.txt) ...benchmarks.SortBenchmark
+
+    single cpu:
+    10k todos: per compare ~22 ms/op, sort keys ~8.7 ms/op, parallel ~10 ms/op
+    100k todos: per compare ~580 ms/op, sort keys ~230 ms/op, parallel ~245 ms/op
+
+    parallel sorting only helps with more than one cpu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+    @Param({"10000", "100000"})
+    public int numberOfTodos;
+
+    private List<EntityInstance> todos;
+    private Map<String, String> sortParams;
+
+    @Setup
+    public void createTodos(){
+        final EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition todo = erm.createEntityDefinition("todo", "todos");
+        todo.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("priority", FieldType.INTEGER),
+                Field.is("doneStatus", FieldType.BOOLEAN));
+
+        final EntityInstanceCollection collection = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("todo");
+
+        final Random random = new Random(1);
+        todos = new ArrayList<>();
+        for(int count=0; count<numberOfTodos; count++){
+            todos.add(collection.createManagedInstance().
+                    setValue("title", "title " + random.nextInt(numberOfTodos)).
+                    setValue("priority", String.valueOf(random.nextInt(100))).
+                    setValue("doneStatus", String.valueOf(random.nextBoolean())));
+        }
+
+        sortParams = new HashMap<>();
+        sortParams.put("sortBy", "+doneStatus,-priority,+title");
+    }
+
+    @Benchmark
+    public List<EntityInstance> sortUsingSortKeys(){
+        return new EntityInstanceListSorter(sortParams).
+                setParallelSortThreshold(Integer.MAX_VALUE).sort(todos);
+    }
+
+    @Benchmark
+    public List<EntityInstance> sortUsingSortKeysInParallel(){
+        return new EntityInstanceListSorter(sortParams).
+                setParallelSortThreshold(0).sort(todos);
+    }
+
+    @Benchmark
+    public List<EntityInstance> sortComparingFieldValuesPerSortBy(){
+        List<EntityInstance> sorted = new ArrayList<>(todos);
+        // the last sort has the highest precedence
+        sorted = sortComparingFieldValues("title", -1, sorted);
+        sorted = sortComparingFieldValues("priority", 1, sorted);
+        sorted = sortComparingFieldValues("doneStatus", -1, sorted);
+        return sorted;
+    }
+
+    private List<EntityInstance> sortComparingFieldValues(final String fieldName, final int order,
+                                                         final List<EntityInstance> itemsToSort){
+        final List<EntityInstance> sortedList = new ArrayList<>(itemsToSort);
+        final Field fieldDefn = sortedList.get(0).getEntity().getField(fieldName);
+
+        final Comparator<EntityInstance> compareByFieldValue = (thing1, thing2) ->
+                new ComparableFieldValue(fieldDefn, thing1.getFieldValue(fieldName)).compareTo(
+                        new ComparableFieldValue(fieldDefn, thing2.getFieldValue(fieldName)));
+
+        sortedList.sort(order<0 ? compareByFieldValue : compareByFieldValue.reversed());
+        return sortedList;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().
+                include(SortBenchmark.class.getSimpleName()).
+                build();
+        new Runner(options).run();
+    }
+}
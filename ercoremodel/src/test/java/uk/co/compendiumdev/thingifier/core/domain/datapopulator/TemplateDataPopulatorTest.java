@@ -0,0 +1,160 @@
+package uk.co.compendiumdev.thingifier.core.domain.datapopulator;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.Collection;
+
+public class TemplateDataPopulatorTest {
+
+    private EntityRelModel erm;
+    private int populatedCount;
+    private TemplateDataPopulator populator;
+
+    @BeforeEach
+    public void createModel(){
+        erm = new EntityRelModel();
+
+        EntityDefinition todo = erm.createEntityDefinition("todo", "todos");
+        todo.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("person", FieldType.OBJECT).
+                        withField(Field.is("firstname", FieldType.STRING)));
+
+        EntityDefinition project = erm.createEntityDefinition("project", "projects");
+        project.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING));
+
+        erm.createRelationshipDefinition(project, todo, "tasks", Cardinality.ONE_TO_MANY()).
+                whenReversed(Cardinality.ONE_TO_MANY(),"task-of");
+
+        populatedCount = 0;
+        populator = new TemplateDataPopulator((schema, database) -> {
+            populatedCount++;
+            EntityInstanceCollection todos = database.getInstanceCollectionForEntityNamed("todo");
+            EntityInstance paperwork = todos.createManagedInstance().
+                    setValue("title", "scan paperwork").
+                    setValue("person.firstname", "Connie");
+            EntityInstance filework = todos.createManagedInstance().
+                    setValue("title", "file paperwork");
+
+            EntityInstance officeWork = database.getInstanceCollectionForEntityNamed("project").
+                    createManagedInstance().setValue("title", "Office Work");
+
+            officeWork.getRelationships().connect("tasks", paperwork);
+            filework.getRelationships().connect("task-of", officeWork);
+        });
+    }
+
+    private ERInstanceData populated(String databaseName){
+        erm.createInstanceDatabaseIfNotExisting(databaseName, populator);
+        return erm.getInstanceData(databaseName);
+    }
+
+    private EntityInstance todoTitled(ERInstanceData database, String title){
+        for(EntityInstance todo : database.getInstanceCollectionForEntityNamed("todo").getInstances()){
+            if(todo.getFieldValue("title").asString().equals(title)){
+                return todo;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void populatorIsOnlyRunForTheFirstDatabase(){
+
+        populated("first");
+        populated("second");
+        populated("third");
+
+        Assertions.assertEquals(1, populatedCount);
+        for(String name : new String[]{"first", "second", "third"}){
+            Assertions.assertEquals(2, erm.getInstanceData(name).getInstanceCollectionForEntityNamed("todo").countInstances());
+            Assertions.assertEquals(1, erm.getInstanceData(name).getInstanceCollectionForEntityNamed("project").countInstances());
+        }
+    }
+
+    @Test
+    public void copiesHaveNewGuidsAndIdsInCreationOrder(){
+
+        ERInstanceData first = populated("first");
+        ERInstanceData second = populated("second");
+
+        EntityInstance firstPaperwork = todoTitled(first, "scan paperwork");
+        EntityInstance secondPaperwork = todoTitled(second, "scan paperwork");
+
+        Assertions.assertNotEquals(firstPaperwork.getGUID(), secondPaperwork.getGUID());
+        Assertions.assertEquals(secondPaperwork, second.findEntityInstanceByGUID(secondPaperwork.getGUID()));
+        Assertions.assertNull(second.findEntityInstanceByGUID(firstPaperwork.getGUID()));
+
+        // same ids as running the populator again
+        Assertions.assertEquals("1", firstPaperwork.getFieldValue("id").asString());
+        Assertions.assertEquals("2", todoTitled(first, "file paperwork").getFieldValue("id").asString());
+        Assertions.assertEquals("3", secondPaperwork.getFieldValue("id").asString());
+        Assertions.assertEquals("4", todoTitled(second, "file paperwork").getFieldValue("id").asString());
+
+        // id index is maintained for the copies
+        Assertions.assertEquals(secondPaperwork,
+                second.getInstanceCollectionForEntityNamed("todo").findInstanceByGUIDorID("3"));
+    }
+
+    @Test
+    public void relationshipsAreCopiedBetweenTheCopies(){
+
+        populated("first");
+        ERInstanceData second = populated("second");
+
+        EntityInstance project = second.getInstanceCollectionForEntityNamed("project").getInstances().iterator().next();
+        Collection<EntityInstance> tasks = project.getRelationships().getConnectedItems("tasks");
+
+        Assertions.assertEquals(2, tasks.size());
+        Assertions.assertTrue(tasks.contains(todoTitled(second, "scan paperwork")));
+        Assertions.assertTrue(tasks.contains(todoTitled(second, "file paperwork")));
+
+        Assertions.assertTrue(todoTitled(second, "file paperwork").getRelationships().
+                getConnectedItems("task-of").contains(project));
+    }
+
+    @Test
+    public void amendingACopyDoesNotAmendOtherDatabases(){
+
+        ERInstanceData first = populated("first");
+        ERInstanceData second = populated("second");
+        ERInstanceData third = populated("third");
+
+        todoTitled(second, "scan paperwork").setValue("person.firstname", "Bob");
+        second.deleteEntityInstance(todoTitled(second, "file paperwork"));
+
+        Assertions.assertEquals("Connie", todoTitled(first, "scan paperwork").getFieldValue("person").
+                asObject().getFieldValue("firstname").asString());
+        Assertions.assertEquals("Connie", todoTitled(third, "scan paperwork").getFieldValue("person").
+                asObject().getFieldValue("firstname").asString());
+        Assertions.assertEquals(2, third.getInstanceCollectionForEntityNamed("todo").countInstances());
+
+        Assertions.assertEquals(2, populated("fourth").getInstanceCollectionForEntityNamed("todo").countInstances());
+    }
+
+    @Test
+    public void existingDataIsNotPartOfTheTemplate(){
+
+        erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("todo").createManagedInstance().setValue("title", "existing");
+
+        populator.populate(erm.getSchema(), erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME));
+        ERInstanceData copy = populated("copy");
+
+        Assertions.assertEquals(3, erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("todo").countInstances());
+        Assertions.assertEquals(2, copy.getInstanceCollectionForEntityNamed("todo").countInstances());
+        Assertions.assertNull(todoTitled(copy, "existing"));
+    }
+}
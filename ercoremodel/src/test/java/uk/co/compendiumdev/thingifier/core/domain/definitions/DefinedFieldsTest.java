@@ -81,6 +81,37 @@ class DefinedFieldsTest {
         Assertions.assertNull(fields.getField("bob"));
     }
 
+    @Test
+    void fieldsAreGivenSlotsInTheOrderAdded(){
+
+        DefinedFields fields = new DefinedFields();
+        fields.addField(Field.is("zacharay", FieldType.STRING));
+        fields.addField(Field.is("Dobbs", FieldType.STRING));
+
+        Assertions.assertEquals(2, fields.countSlots());
+        Assertions.assertEquals(0, fields.slotOf("zacharay"));
+        Assertions.assertEquals(1, fields.slotOf("Dobbs"));
+        Assertions.assertEquals(1, fields.slotOf("DOBBS"));
+        Assertions.assertEquals(1, fields.slotOf("dobbs"));
+        Assertions.assertEquals(-1, fields.slotOf("bob"));
+
+        Assertions.assertEquals("Dobbs", fields.getFieldInSlot(1).getName());
+        Assertions.assertEquals("Dobbs", fields.getField("dOBBS").getName());
+    }
+
+    @Test
+    void replacedFieldKeepsItsSlot(){
+
+        DefinedFields fields = new DefinedFields();
+        fields.addField(Field.is("zacharay", FieldType.STRING));
+        fields.addField(Field.is("dobbs", FieldType.STRING));
+        fields.addField(Field.is("Zacharay", FieldType.INTEGER));
+
+        Assertions.assertEquals(2, fields.countSlots());
+        Assertions.assertEquals(0, fields.slotOf("zacharay"));
+        Assertions.assertEquals(FieldType.INTEGER, fields.getField("zacharay").getType());
+    }
+
 
     @BeforeEach
     public void multipleFieldsDefined(){
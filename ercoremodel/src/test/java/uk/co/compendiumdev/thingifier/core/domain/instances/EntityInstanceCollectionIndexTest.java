@@ -0,0 +1,248 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class EntityInstanceCollectionIndexTest {
+
+    private EntityDefinition entity;
+    private EntityInstanceCollection collection;
+
+    @BeforeEach
+    public void createCollection(){
+        entity = new EntityDefinition("thing", "things");
+        collection = new EntityInstanceCollection(entity);
+        entity.addFields(
+                Field.is("id", FieldType.ID),
+                Field.is("code", FieldType.STRING).makeUnique(),
+                Field.is("title", FieldType.STRING));
+    }
+
+    @Test
+    public void idGuidAndUniqueFieldsAreIndexed(){
+        Assertions.assertTrue(entity.getField("id").isIndexed());
+        Assertions.assertTrue(entity.getField("guid").isIndexed());
+        Assertions.assertTrue(entity.getField("code").isIndexed());
+        Assertions.assertFalse(entity.getField("title").isIndexed());
+    }
+
+    @Test
+    public void canFindInstancesByIndexedFields(){
+
+        collection.createManagedInstance().setValue("code", "a");
+        final EntityInstance instance = collection.createManagedInstance().setValue("code", "b");
+
+        Assertions.assertEquals(instance, collection.findInstanceByField(FieldValue.is("id", "2")));
+        Assertions.assertEquals(instance, collection.findInstanceByField(FieldValue.is("code", "b")));
+        Assertions.assertEquals(instance, collection.findInstanceByGUIDorID("2"));
+        Assertions.assertEquals(instance, collection.findInstanceByGUIDorID(instance.getGUID()));
+        Assertions.assertNull(collection.findInstanceByField(FieldValue.is("id", "3")));
+    }
+
+    @Test
+    public void nonIndexedFieldsAreStillFound(){
+
+        collection.createManagedInstance().setValue("title", "one");
+        final EntityInstance instance = collection.createManagedInstance().setValue("title", "two");
+
+        Assertions.assertEquals(instance, collection.findInstanceByField(FieldValue.is("title", "two")));
+    }
+
+    @Test
+    public void indexIsUpdatedWhenValuesAreAmended(){
+
+        final EntityInstance instance = collection.createManagedInstance().setValue("code", "a");
+        instance.setValue("code", "b");
+
+        Assertions.assertNull(collection.findInstanceByField(FieldValue.is("code", "a")));
+        Assertions.assertEquals(instance, collection.findInstanceByField(FieldValue.is("code", "b")));
+
+        instance.overrideValue("id", "10");
+
+        Assertions.assertNull(collection.findInstanceByGUIDorID("1"));
+        Assertions.assertEquals(instance, collection.findInstanceByGUIDorID("10"));
+    }
+
+    @Test
+    public void indexIsNotUpdatedWhenAmendIsInvalid(){
+
+        final EntityInstance instance = collection.createManagedInstance();
+
+        Assertions.assertThrows(IllegalArgumentException.class, ()-> {
+            instance.setValue("id", "2");
+        });
+
+        Assertions.assertEquals(instance, collection.findInstanceByGUIDorID("1"));
+    }
+
+    @Test
+    public void deletedInstancesAreRemovedFromTheIndex(){
+
+        final EntityInstance instance = collection.createManagedInstance().setValue("code", "a");
+        collection.deleteInstance(instance);
+
+        Assertions.assertNull(collection.findInstanceByField(FieldValue.is("code", "a")));
+        Assertions.assertNull(collection.findInstanceByGUIDorID("1"));
+
+        // no longer managed so amending it does not re-add it to the index
+        instance.setValue("code", "b");
+        Assertions.assertNull(collection.findInstanceByField(FieldValue.is("code", "b")));
+    }
+
+    @Test
+    public void instancesAddedBeforeFieldIsDefinedAreIndexed(){
+
+        final EntityInstance instance = collection.createManagedInstance();
+        entity.addField(Field.is("ref", FieldType.STRING).makeUnique());
+        instance.setValue("ref", "late");
+
+        Assertions.assertEquals(instance, collection.findInstanceByField(FieldValue.is("ref", "late")));
+    }
+
+    @Test
+    public void rangeIndexesHoldInstancesInValueThenCreationOrder(){
+
+        entity.addFields(Field.is("priority", FieldType.INTEGER).makeRangeIndexed());
+        Assertions.assertTrue(entity.getField("priority").isRangeIndexed());
+        Assertions.assertTrue(entity.getField("id").isRangeIndexed());
+        Assertions.assertFalse(entity.getField("title").isRangeIndexed());
+        Assertions.assertNull(collection.getRangeIndexFor("title"));
+
+        final EntityInstance ten = collection.createManagedInstance().setValue("priority", "10");
+        final EntityInstance nine = collection.createManagedInstance().setValue("priority", "9");
+        final EntityInstance anotherTen = collection.createManagedInstance().setValue("priority", "10");
+
+        final RangeIndex index = collection.getRangeIndexFor("priority");
+        Assertions.assertEquals(Arrays.asList(nine, ten, anotherTen), index.inOrder(true));
+        // same values stay in creation order
+        Assertions.assertEquals(Arrays.asList(ten, anotherTen, nine), index.inOrder(false));
+        Assertions.assertEquals(Arrays.asList(ten, anotherTen), index.range("9", false, null, true, true));
+        Assertions.assertEquals(Arrays.asList(nine), index.range(null, true, "10", false, true));
+        Assertions.assertEquals(Arrays.asList(), index.range("11", true, "10", true, true));
+    }
+
+    @Test
+    public void rangeIndexIsMaintainedOnChanges(){
+
+        final EntityInstance first = collection.createManagedInstance().setValue("code", "b");
+        final EntityInstance second = collection.createManagedInstance().setValue("code", "c");
+
+        final RangeIndex index = collection.getRangeIndexFor("code");
+        Assertions.assertEquals(Arrays.asList(first, second), index.inOrder(true));
+
+        final EntityInstance third = collection.createManagedInstance().setValue("code", "a");
+        Assertions.assertEquals(Arrays.asList(third, first, second), index.inOrder(true));
+
+        second.setValue("code", "0");
+        Assertions.assertEquals(Arrays.asList(second, third, first), index.inOrder(true));
+
+        collection.deleteInstance(third);
+        Assertions.assertEquals(Arrays.asList(second, first), index.inOrder(true));
+
+        first.clearAllFields();
+        Assertions.assertEquals(Arrays.asList(first, second), index.inOrder(true));
+        Assertions.assertNull(collection.findInstanceByField(FieldValue.is("code", "b")));
+    }
+
+    @Test
+    public void rangeIndexIsNotUsableWithUnparsableValues(){
+
+        entity.addFields(Field.is("priority", FieldType.INTEGER).makeRangeIndexed());
+        final EntityInstance instance = collection.createManagedInstance().setValue("priority", "1");
+        final RangeIndex index = collection.getRangeIndexFor("priority");
+        Assertions.assertTrue(index.isUsable());
+
+        instance.overrideValue("priority", "high");
+        Assertions.assertFalse(index.isUsable());
+        Assertions.assertFalse(index.canCompare("high"));
+
+        instance.overrideValue("priority", "2");
+        Assertions.assertTrue(index.isUsable());
+    }
+
+    @Test
+    public void rangeIndexHoldsInstancesAddedAndDeletedWhileItIsFilled() throws InterruptedException {
+
+        for(int round=0; round<20; round++){
+
+            final EntityInstanceCollection things = new EntityInstanceCollection(entity);
+            for(int count=0; count<2000; count++){
+                things.createManagedInstance();
+            }
+
+            final CountDownLatch filling = new CountDownLatch(1);
+            final Thread changes = new Thread(() -> {
+                awaitQuietly(filling);
+                for(int count=0; count<500; count++){
+                    final EntityInstance added = things.createManagedInstance();
+                    if(count%2==0){
+                        things.deleteInstance(added);
+                    }
+                }
+            });
+            changes.start();
+
+            filling.countDown();
+            final RangeIndex index = things.getRangeIndexFor("id");
+            changes.join();
+
+            Assertions.assertEquals(things.countInstances(), index.inOrder(true).size());
+            for(EntityInstance instance : index.inOrder(true)){
+                Assertions.assertSame(instance, things.findInstanceByGUIDorID(instance.getGUID()));
+            }
+        }
+    }
+
+    @Test
+    public void rangeIndexHoldsInstancesAmendedWhileItIsFilled() throws InterruptedException {
+
+        entity.addFields(Field.is("priority", FieldType.INTEGER).makeRangeIndexed());
+
+        for(int round=0; round<20; round++){
+
+            final EntityInstanceCollection things = new EntityInstanceCollection(entity);
+            final List<EntityInstance> instances = new ArrayList<>();
+            for(int count=0; count<2000; count++){
+                instances.add(things.createManagedInstance().setValue("priority", "1"));
+            }
+
+            final CountDownLatch filling = new CountDownLatch(1);
+            final Thread changes = new Thread(() -> {
+                awaitQuietly(filling);
+                for(int amend=0; amend<3; amend++){
+                    for(EntityInstance instance : instances){
+                        instance.setValue("priority", String.valueOf(amend % 2 + 2));
+                    }
+                }
+            });
+            changes.start();
+
+            filling.countDown();
+            final RangeIndex index = things.getRangeIndexFor("priority");
+            changes.join();
+
+            // every instance is held once, at its current value
+            Assertions.assertEquals(2000, index.inOrder(true).size());
+            Assertions.assertEquals(2000, index.range("2", true, "2", true, true).size());
+        }
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
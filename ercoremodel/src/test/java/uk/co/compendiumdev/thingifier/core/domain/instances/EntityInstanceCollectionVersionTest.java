@@ -0,0 +1,109 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
+
+public class EntityInstanceCollectionVersionTest {
+
+    private EntityInstanceCollection things;
+    private EntityInstanceCollection others;
+
+    @BeforeEach
+    public void createCollections(){
+        final EntityDefinition thing = new EntityDefinition("thing", "things");
+        thing.addFields(
+                Field.is("id", FieldType.ID),
+                Field.is("code", FieldType.STRING).makeUnique(),
+                Field.is("title", FieldType.STRING));
+        final EntityDefinition other = new EntityDefinition("other", "others");
+
+        RelationshipDefinition.create(new RelationshipVectorDefinition(
+                thing, "others", other, Cardinality.ONE_TO_MANY())).
+                whenReversed(Cardinality.ONE_TO_ONE(), "thing");
+
+        final ERInstanceData database = new ERInstanceData();
+        things = database.createInstanceCollectionFor(thing);
+        others = database.createInstanceCollectionFor(other);
+    }
+
+    @Test
+    public void versionChangesWhenInstancesAreAddedAmendedAndDeleted(){
+
+        long version = things.getVersion();
+
+        final EntityInstance instance = things.createManagedInstance();
+        Assertions.assertTrue(things.getVersion() > version);
+        version = things.getVersion();
+
+        // indexed and non indexed fields
+        instance.setValue("code", "a");
+        Assertions.assertTrue(things.getVersion() > version);
+        version = things.getVersion();
+
+        instance.setValue("title", "a title");
+        Assertions.assertTrue(things.getVersion() > version);
+        version = things.getVersion();
+
+        instance.clearAllFields();
+        Assertions.assertTrue(things.getVersion() > version);
+        version = things.getVersion();
+
+        things.deleteInstance(instance);
+        Assertions.assertTrue(things.getVersion() > version);
+        version = things.getVersion();
+
+        // no longer managed so no change
+        instance.setValue("title", "unmanaged");
+        Assertions.assertEquals(version, things.getVersion());
+    }
+
+    @Test
+    public void versionDoesNotChangeWhenReading(){
+
+        final EntityInstance instance = things.createManagedInstance().setValue("code", "a");
+        final long version = things.getVersion();
+
+        things.findInstanceByGUIDorID("1");
+        things.getInstances();
+        instance.getRelationships().getConnectedItems("others");
+
+        Assertions.assertEquals(version, things.getVersion());
+    }
+
+    @Test
+    public void versionChangesForBothSidesOfATwoWayRelationship(){
+
+        final EntityInstance thing = things.createManagedInstance();
+        final EntityInstance other = others.createManagedInstance();
+
+        long thingsVersion = things.getVersion();
+        long othersVersion = others.getVersion();
+
+        thing.getRelationships().connect("others", other);
+        Assertions.assertTrue(things.getVersion() > thingsVersion);
+        Assertions.assertTrue(others.getVersion() > othersVersion);
+        thingsVersion = things.getVersion();
+        othersVersion = others.getVersion();
+
+        thing.getRelationships().removeAllRelationships();
+        Assertions.assertTrue(things.getVersion() > thingsVersion);
+        Assertions.assertTrue(others.getVersion() > othersVersion);
+    }
+
+    @Test
+    public void clearingChangesTheVersion(){
+
+        things.createManagedInstance();
+        final long version = things.getVersion();
+
+        things.removeAllInstances();
+        Assertions.assertTrue(things.getVersion() > version);
+    }
+}
@@ -334,4 +334,71 @@ class InstanceFieldsTest {
         List<String> errors = instance.findAnyGuidOrIdDifferences(values);
         Assertions.assertEquals(0, errors.size());
     }
+
+    @Test
+    void fieldNamesAreCaseInsensitive() {
+
+        DefinedFields fieldsDefn = new DefinedFields();
+        fieldsDefn.addField(Field.is("Ref", FieldType.STRING));
+
+        InstanceFields instance = new InstanceFields(fieldsDefn);
+
+        instance.setValue("ref", "Reference");
+
+        Assertions.assertEquals("Reference", instance.getFieldValue("REF").asString());
+        Assertions.assertEquals("Reference", instance.getAssignedValue("Ref").asString());
+
+        instance.setValue("REF", "Amended");
+        Assertions.assertEquals("Amended", instance.getFieldValue("ref").asString());
+    }
+
+    @Test
+    void canSetFieldsDefinedAfterTheInstanceWasCreated() {
+
+        DefinedFields fieldsDefn = new DefinedFields();
+        fieldsDefn.addField(Field.is("firstname", FieldType.STRING));
+
+        InstanceFields instance = new InstanceFields(fieldsDefn);
+        instance.setValue("firstname", "al");
+
+        fieldsDefn.addField(Field.is("surname", FieldType.STRING).withDefaultValue("dobbs"));
+
+        Assertions.assertEquals("dobbs", instance.getFieldValue("surname").asString());
+        Assertions.assertNull(instance.getAssignedValue("surname"));
+
+        instance.setValue("surname", "me");
+
+        Assertions.assertEquals("al", instance.getFieldValue("firstname").asString());
+        Assertions.assertEquals("me", instance.getFieldValue("surname").asString());
+    }
+
+    @Test
+    void canAddValuesForUndefinedFields() {
+
+        InstanceFields instance = new InstanceFields(new DefinedFields());
+
+        instance.addValue(FieldValue.is("guid", "1234"));
+
+        Assertions.assertEquals("1234", instance.getAssignedValue("GUID").asString());
+        Assertions.assertEquals("1234", instance.cloned().getAssignedValue("guid").asString());
+    }
+
+    @Test
+    void typedValuesAreParsedFromTheValue() {
+
+        Assertions.assertEquals(12, FieldValue.is("int", "12").asInteger());
+        Assertions.assertEquals(1.5f, FieldValue.is("float", "1.5").asFloat());
+        Assertions.assertTrue(FieldValue.is("bool", "TRUE").asBoolean());
+        Assertions.assertFalse(FieldValue.is("bool", "false").asBoolean());
+
+        final FieldValue value = FieldValue.is("number", "2");
+        Assertions.assertEquals(2, value.asInteger());
+        Assertions.assertEquals(2.0f, value.asFloat());
+        Assertions.assertEquals(2, value.asInteger());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FieldValue.is("bool", "bob").asBoolean());
+        Assertions.assertThrows(NumberFormatException.class,
+                () -> FieldValue.is("int", "bob").asInteger());
+    }
 }
@@ -273,4 +273,38 @@ class RelationshipsTest {
         final ValidationReport valid = fromInstance.getRelationships().validateRelationships();
         Assertions.assertTrue(valid.isValid());
     }
+
+    @Test
+    void manyConnectedItemsCanBeTraversedAndRemoved(){
+
+        final EntityDefinition project = new EntityDefinition("project", "projects");
+        final EntityDefinition task = new EntityDefinition("task", "tasks");
+        final RelationshipDefinition tasks = RelationshipDefinition.create(
+                new RelationshipVectorDefinition(project, "tasks", task, Cardinality.ONE_TO_MANY()));
+        tasks.whenReversed(Cardinality.ONE_TO_MANY(), "task-of");
+
+        final EntityInstanceCollection projects = new EntityInstanceCollection(project);
+        final EntityInstanceCollection taskInstances = new EntityInstanceCollection(task);
+        final EntityInstance aProject = projects.createManagedInstance();
+
+        for(int count=0; count<2000; count++){
+            aProject.getRelationships().connect("tasks", taskInstances.createManagedInstance());
+        }
+
+        final List<EntityInstance> connected = aProject.getRelationships().getConnectedItemsOfType("task");
+        Assertions.assertEquals(2000, connected.size());
+        Assertions.assertEquals(2000, aProject.getRelationships().getConnectedItems("tasks").size());
+
+        final EntityInstance aTask = connected.get(10);
+        Assertions.assertTrue(aTask.getRelationships().getConnectedItems("task-of").contains(aProject));
+
+        aProject.getRelationships().removeRelationshipsInvolving(aTask, "tasks");
+        Assertions.assertEquals(1999, aProject.getRelationships().getConnectedItems("tasks").size());
+        Assertions.assertFalse(aProject.getRelationships().getConnectedItems("tasks").contains(aTask));
+        Assertions.assertFalse(aTask.getRelationships().hasAnyRelationshipInstances());
+
+        aProject.getRelationships().removeAllRelationships();
+        Assertions.assertFalse(aProject.getRelationships().hasAnyRelationshipInstances());
+        Assertions.assertFalse(connected.get(0).getRelationships().hasAnyRelationshipInstances());
+    }
 }
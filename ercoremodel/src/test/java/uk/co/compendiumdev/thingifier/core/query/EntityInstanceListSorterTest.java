@@ -0,0 +1,119 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EntityInstanceListSorterTest {
+
+    EntityInstanceCollection thing;
+    List<EntityInstance> things;
+
+    @BeforeEach
+    public void setupThings(){
+
+        EntityRelModel erModel = new EntityRelModel();
+        erModel.createEntityDefinition("thing", "things")
+                .addFields(Field.is("id", FieldType.ID),
+                        Field.is("title", FieldType.STRING),
+                        Field.is("int", FieldType.INTEGER),
+                        Field.is("float", FieldType.FLOAT),
+                        Field.is("truefalse", FieldType.BOOLEAN));
+
+        thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+        things = new ArrayList<>();
+    }
+
+    private EntityInstance thing(String title, String intValue, String floatValue, String trueFalse){
+        final EntityInstance instance = thing.createManagedInstance().
+                setValue("title", title).
+                setValue("int", intValue).
+                setValue("float", floatValue).
+                setValue("truefalse", trueFalse);
+        things.add(instance);
+        return instance;
+    }
+
+    private List<EntityInstance> sortBy(String sortBy){
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", sortBy);
+        return new EntityInstanceListSorter(params).sort(things);
+    }
+
+    @Test
+    public void commaSeparatedSortBysAreAppliedInTurn(){
+
+        final EntityInstance bob2 = thing("bob", "2", "1.5", "true");
+        final EntityInstance alice2 = thing("alice", "2", "2.5", "false");
+        final EntityInstance bob1 = thing("bob", "1", "3.5", "true");
+        final EntityInstance alice1 = thing("alice", "1", "4.5", "true");
+
+        Assertions.assertEquals(Arrays.asList(alice1, alice2, bob1, bob2), sortBy("+title,+int"));
+        Assertions.assertEquals(Arrays.asList(bob2, alice2, bob1, alice1), sortBy("-int,-title"));
+
+        // equal keys keep their original order
+        Assertions.assertEquals(Arrays.asList(alice2, bob2, bob1, alice1), sortBy("truefalse"));
+    }
+
+    @Test
+    public void numericFieldsSortByValueNotText(){
+
+        final EntityInstance ten = thing("ten", "10", "10.5", "true");
+        final EntityInstance nine = thing("nine", "9", "9.5", "true");
+        final EntityInstance minus = thing("minus", "-1", "0.5", "true");
+
+        Assertions.assertEquals(Arrays.asList(minus, nine, ten), sortBy("+int"));
+        Assertions.assertEquals(Arrays.asList(ten, nine, minus), sortBy("-float"));
+    }
+
+    @Test
+    public void parallelSortGivesTheSameOrder(){
+
+        for(int count=0; count<500; count++){
+            thing("title " + (count % 7), String.valueOf(count % 13), String.valueOf(count % 3 + 0.5), String.valueOf(count % 2 == 0));
+        }
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "-truefalse,+title,-int");
+
+        final List<EntityInstance> sorted = new EntityInstanceListSorter(params).
+                setParallelSortThreshold(Integer.MAX_VALUE).sort(things);
+        final List<EntityInstance> parallelSorted = new EntityInstanceListSorter(params).
+                setParallelSortThreshold(0).sort(things);
+
+        Assertions.assertEquals(sorted, parallelSorted);
+    }
+
+    @Test
+    public void sortByAnUnknownFieldKeepsTheOrder(){
+
+        thing("b", "2", "1", "true");
+        thing("a", "1", "1", "true");
+
+        Assertions.assertEquals(things, sortBy("+unknown"));
+    }
+
+    @Test
+    public void unparsableValuesSortAfterAllOtherValuesInEitherDirection(){
+
+        final EntityInstance two = thing("two", "2", "2.5", "true");
+        final EntityInstance unparsable = thing("unparsable", "3", "1.5", "true");
+        // bypass the validation to store a value which can not be parsed as an integer
+        unparsable.overrideValue("int", "not a number");
+        final EntityInstance one = thing("one", "1", "1.5", "true");
+
+        Assertions.assertEquals(Arrays.asList(one, two, unparsable), sortBy("+int"));
+        Assertions.assertEquals(Arrays.asList(two, one, unparsable), sortBy("-int"));
+    }
+}
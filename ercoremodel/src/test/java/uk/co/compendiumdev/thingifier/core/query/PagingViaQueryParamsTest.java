@@ -0,0 +1,296 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class PagingViaQueryParamsTest {
+
+    EntityRelModel erModel;
+    List<EntityInstance> things;
+
+    @BeforeEach
+    public void setupThings(){
+
+        erModel = new EntityRelModel();
+        erModel.createEntityDefinition("thing", "things")
+                .addFields(Field.is("id", FieldType.ID),
+                        Field.is("int", FieldType.INTEGER),
+                        Field.is("truefalse", FieldType.BOOLEAN));
+
+        EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        things = new ArrayList<>();
+        for(int count=1; count<=25; count++){
+            things.add(thing.createManagedInstance().
+                    setValue("int", String.valueOf(count % 5)).
+                    setValue("truefalse", String.valueOf(count % 2 == 0)));
+        }
+    }
+
+    private SimpleQuery query(Map<String, String> params){
+        return new SimpleQuery(erModel.getSchema(), erModel.getInstanceData(), "things").performQuery(params);
+    }
+
+    private SimpleQuery queryFrom(PageCursor cursor, Map<String, String> params){
+        Map<String, String> cursorParams = new HashMap<>(params);
+        cursorParams.remove("offset");
+        cursorParams.put("cursor", cursor.token());
+        return query(cursorParams);
+    }
+
+    // follow the next page cursors through all the pages
+    private List<EntityInstance> allPages(Map<String, String> params){
+        List<EntityInstance> allItems = new ArrayList<>();
+        SimpleQuery results = query(params);
+        allItems.addAll(results.getListEntityInstances());
+        while(results.getNextPageCursor()!=null){
+            results = queryFrom(results.getNextPageCursor(), params);
+            allItems.addAll(results.getListEntityInstances());
+        }
+        return allItems;
+    }
+
+    @Test
+    public void limitReturnsTheFirstItemsInCreationOrder(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "10");
+
+        SimpleQuery results = query(params);
+
+        Assertions.assertTrue(results.isResultPaged());
+        Assertions.assertEquals(25, results.getTotalCount());
+        Assertions.assertEquals(things.subList(0, 10), results.getListEntityInstances());
+        Assertions.assertNull(results.getPreviousPageCursor());
+        Assertions.assertEquals(things.subList(10, 20),
+                queryFrom(results.getNextPageCursor(), params).getListEntityInstances());
+    }
+
+    @Test
+    public void offsetSkipsItems(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "10");
+        params.put("offset", "20");
+
+        SimpleQuery results = query(params);
+
+        Assertions.assertEquals(things.subList(20, 25), results.getListEntityInstances());
+        Assertions.assertNull(results.getNextPageCursor());
+        Assertions.assertEquals(things.subList(10, 20),
+                queryFrom(results.getPreviousPageCursor(), params).getListEntityInstances());
+    }
+
+    @Test
+    public void offsetWithoutLimitReturnsTheRemainingItems(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("offset", "22");
+
+        SimpleQuery results = query(params);
+
+        Assertions.assertEquals(things.subList(22, 25), results.getListEntityInstances());
+        Assertions.assertNull(results.getNextPageCursor());
+        Assertions.assertEquals(things.subList(0, 22),
+                queryFrom(results.getPreviousPageCursor(), params).getListEntityInstances());
+    }
+
+    @Test
+    public void offsetAfterTheEndReturnsNoItems(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "5");
+        params.put("offset", "100");
+
+        SimpleQuery results = query(params);
+
+        Assertions.assertEquals(0, results.getListEntityInstances().size());
+        Assertions.assertEquals(25, results.getTotalCount());
+        Assertions.assertNull(results.getNextPageCursor());
+        // the previous page is the last page
+        Assertions.assertEquals(things.subList(20, 25),
+                queryFrom(results.getPreviousPageCursor(), params).getListEntityInstances());
+    }
+
+    @Test
+    public void nextCursorsReturnEveryItemOnce(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "7");
+
+        Assertions.assertEquals(things, allPages(params));
+    }
+
+    @Test
+    public void cursorPagesAreStableWhenItemsAreAddedAndDeleted(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "10");
+
+        SimpleQuery firstPage = query(params);
+        Assertions.assertEquals(things.subList(0, 10), firstPage.getListEntityInstances());
+
+        // an offset of 10 would now skip things.get(10)
+        EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+        thing.deleteInstance(things.get(0));
+        thing.deleteInstance(things.get(1));
+        thing.createManagedInstance().setValue("int", "1");
+
+        SimpleQuery secondPage = queryFrom(firstPage.getNextPageCursor(), params);
+        Assertions.assertEquals(things.subList(10, 20), secondPage.getListEntityInstances());
+        Assertions.assertEquals(24, secondPage.getTotalCount());
+
+        // and the previous page is the items left before it
+        Assertions.assertEquals(things.subList(2, 10),
+                queryFrom(secondPage.getPreviousPageCursor(), params).getListEntityInstances());
+    }
+
+    @Test
+    public void sortedCursorPagesAreStableWhenItemsAreAdded(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "-int");
+        params.put("limit", "10");
+
+        SimpleQuery firstPage = query(params);
+
+        // sorted before the cursor, so not on the next page
+        EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+        thing.createManagedInstance().setValue("int", "4");
+
+        SimpleQuery secondPage = queryFrom(firstPage.getNextPageCursor(), params);
+
+        List<EntityInstance> expected = new EntityInstanceListSorter(params).sort(new ArrayList<>(things)).subList(10, 20);
+        Assertions.assertEquals(expected, secondPage.getListEntityInstances());
+    }
+
+    @Test
+    public void cursorsPageThroughSortedItems(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "4");
+
+        // a single sort_by is read in order from the range index
+        params.put("sortBy", "+int");
+        Assertions.assertEquals(new EntityInstanceListSorter(params).sort(new ArrayList<>(things)), allPages(params));
+
+        params.put("sortBy", "-truefalse,+int");
+        Assertions.assertEquals(new EntityInstanceListSorter(params).sort(new ArrayList<>(things)), allPages(params));
+    }
+
+    @Test
+    public void cursorFromADifferentSortIsReported(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "-truefalse,+int");
+        params.put("limit", "4");
+
+        final PageCursor cursor = query(params).getNextPageCursor();
+
+        params.remove("sortBy");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queryFrom(cursor, params));
+    }
+
+    @Test
+    public void cursorFromADifferentSortWithTheSameNumberOfFieldsIsReported(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "+int");
+        params.put("limit", "4");
+
+        final PageCursor cursor = query(params).getNextPageCursor();
+
+        params.put("sortBy", "-int");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queryFrom(cursor, params));
+
+        params.put("sortBy", "+truefalse");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queryFrom(cursor, params));
+
+        // the same sort_by written differently is the same sort
+        params.put("sort_by", "INT");
+        params.remove("sortBy");
+        Assertions.assertEquals(4, queryFrom(cursor, params).getListEntityInstances().size());
+    }
+
+    @Test
+    public void invalidPageParamsAreReported(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "-1");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EntityListPageParamParser(params));
+
+        params.clear();
+        params.put("offset", "bob");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EntityListPageParamParser(params));
+
+        params.clear();
+        params.put("cursor", "not-a-cursor");
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new EntityListPageParamParser(params));
+    }
+
+    @Test
+    public void pagesAreFilteredThenSortedThenPaged(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("truefalse", "true");
+        params.put("sortBy", "-int");
+        params.put("limit", "4");
+
+        SimpleQuery results = query(params);
+
+        // 12 even items, int values descending, ties in creation order
+        Assertions.assertEquals(12, results.getTotalCount());
+        final List<EntityInstance> page = results.getListEntityInstances();
+        Assertions.assertEquals(4, page.size());
+        Assertions.assertEquals(things.get(3), page.get(0));  // 4 % 5 = 4
+        Assertions.assertEquals(things.get(13), page.get(1)); // 14 % 5 = 4
+        Assertions.assertEquals(things.get(23), page.get(2)); // 24 % 5 = 4
+        Assertions.assertEquals(things.get(7), page.get(3));  // 8 % 5 = 3
+    }
+
+    @Test
+    public void pagedSortMatchesFullSort(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "+int");
+
+        List<EntityInstance> allSorted = new ArrayList<>();
+        for(int offset=0; offset<25; offset+=3){
+            params.put("limit", "3");
+            params.put("offset", String.valueOf(offset));
+            allSorted.addAll(query(params).getListEntityInstances());
+        }
+
+        Assertions.assertEquals(25, allSorted.size());
+        for(int index=1; index<allSorted.size(); index++){
+            final int previous = allSorted.get(index-1).getFieldValue("int").asInteger();
+            final int current = allSorted.get(index).getFieldValue("int").asInteger();
+            Assertions.assertTrue(previous <= current);
+            if(previous==current){
+                Assertions.assertTrue(allSorted.get(index-1).getFieldValue("id").asInteger() <
+                        allSorted.get(index).getFieldValue("id").asInteger());
+            }
+        }
+    }
+
+    @Test
+    public void withoutPageParamsTheResultIsNotPaged(){
+
+        SimpleQuery results = query(new HashMap<>());
+
+        Assertions.assertFalse(results.isResultPaged());
+        Assertions.assertEquals(25, results.getTotalCount());
+        Assertions.assertEquals(25, results.getListEntityInstances().size());
+    }
+}
@@ -222,4 +222,67 @@ public class QueryFiltersTest {
         Assertions.assertEquals(2, instances.get(1).getFieldValue("int").asInteger());
         Assertions.assertEquals(3, instances.get(2).getFieldValue("int").asInteger());
     }
+
+    @Test
+    public void canFilterIntegerNotEqualsWithBangEquals(){
+        Map<String, String> params = new HashMap<>();
+        params.put("int", "!=3");
+        params.put("sortby", "+int");
+
+        SimpleQuery queryResults = new SimpleQuery(erModel.getSchema(), erModel.getInstanceData(), "things").
+                performQuery(params);
+
+        List<EntityInstance> instances = queryResults.getListEntityInstances();
+        Assertions.assertEquals(3, instances.size(), "expected 3 values");
+        Assertions.assertEquals(1, instances.get(0).getFieldValue("int").asInteger());
+        Assertions.assertEquals(2, instances.get(1).getFieldValue("int").asInteger());
+        Assertions.assertEquals(4, instances.get(2).getFieldValue("int").asInteger());
+    }
+
+    @Test
+    public void filterConditionsAreCompiledOncePerDefinition(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("int", ">1");
+        params.put("truefalse", "true");
+
+        final EntityListFilterParamParser filter = new EntityListFilterParamParser(params);
+        final EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        int matched = 0;
+        for(EntityInstance instance : thing.getInstances()){
+            if(filter.matches(instance)){
+                matched++;
+            }
+        }
+        Assertions.assertEquals(2, matched);
+
+        // instances of a different definition use their own field slots
+        erModel.createEntityDefinition("other", "others")
+                .addFields( Field.is("title", FieldType.STRING),
+                            Field.is("int", FieldType.INTEGER));
+        final EntityInstance other = erModel.getInstanceData().getInstanceCollectionForEntityNamed("other").
+                createManagedInstance().setValue("int", "5");
+
+        Assertions.assertTrue(filter.matches(other));
+        other.setValue("int", "0");
+        Assertions.assertFalse(filter.matches(other));
+    }
+
+    @Test
+    public void anUnhandledFilterConditionIsReportedRatherThanMatchingEverything(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("int", "1");
+
+        final EntityListFilterParamParser filter = new EntityListFilterParamParser(params);
+        final EntityListFilterParamParser.FilterBy filterBy = filter.filterBys().get(0);
+        filterBy.filterOperation = "~";
+
+        final EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        final IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> filterBy.compile(thing.definition().getField("int"), thing.definition().slotOf("int")));
+        Assertions.assertEquals("Unhandled filterby condition int~1", e.getMessage());
+    }
 }
@@ -0,0 +1,120 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class QueryPlanCompilerTest {
+
+    private EntityRelModel erm;
+    private EntityDefinition todo;
+    private EntityDefinition project;
+
+    @BeforeEach
+    public void createModel(){
+        erm = new EntityRelModel();
+        todo = erm.createEntityDefinition("todo", "todos").
+                addFields(Field.is("id", FieldType.ID));
+        project = erm.createEntityDefinition("project", "projects").
+                addFields(Field.is("id", FieldType.ID));
+
+        erm.createRelationshipDefinition(project, todo, "tasks", Cardinality.ONE_TO_MANY()).
+                whenReversed(Cardinality.ONE_TO_MANY(),"tasksof");
+    }
+
+    private QueryPlan planFor(String query){
+        return QueryPlanCompiler.planFor(erm.getSchema(), query.split("/"));
+    }
+
+    @Test
+    public void idsAndGuidsAreCompiledAsPlaceholders(){
+
+        final QueryPlan plan = planFor("todos/1/tasksof");
+
+        Assertions.assertEquals("todos/:id/tasksof", plan.getShape());
+
+        final List<QueryStep> steps = plan.getSteps();
+        Assertions.assertEquals(3, steps.size());
+        Assertions.assertTrue(steps.get(0).isEntityNamed());
+        Assertions.assertTrue(steps.get(0).wasPluralMatch());
+        Assertions.assertEquals(todo, steps.get(0).getEntity());
+        Assertions.assertTrue(steps.get(1).isPlaceholder());
+        Assertions.assertTrue(steps.get(2).isRelationshipNamed());
+    }
+
+    @Test
+    public void plansAreSharedByQueriesWithTheSameShape(){
+
+        final QueryPlan plan = planFor("projects/1/tasks");
+
+        Assertions.assertSame(plan, planFor("projects/2/tasks"));
+        Assertions.assertNotSame(plan, planFor("project/2/tasks"));
+
+        // the placeholder term comes from the query being executed
+        Assertions.assertEquals("2", plan.getSteps().get(1).termFrom("projects/2/tasks".split("/")));
+    }
+
+    @Test
+    public void plansAreDiscardedWhenTheSchemaChanges(){
+
+        final ERSchema schema = erm.getSchema();
+        final QueryPlan plan = planFor("todos/estimates");
+        Assertions.assertTrue(plan.getSteps().get(1).isPlaceholder());
+
+        final EntityDefinition estimate = erm.createEntityDefinition("estimate", "estimates");
+        erm.createRelationshipDefinition(todo, estimate, "estimates", Cardinality.ONE_TO_MANY());
+
+        final QueryPlan newPlan = planFor("todos/estimates");
+        Assertions.assertNotSame(plan, newPlan);
+        Assertions.assertTrue(newPlan.getSteps().get(1).isRelationshipNamed());
+        Assertions.assertEquals(1, QueryPlanCompiler.forSchema(schema).countCachedPlans());
+    }
+
+    @Test
+    public void cachedPlansAreBounded(){
+
+        // each query has a different number of terms so a different shape
+        String query = "todos";
+        for(int id=0; id<QueryPlanCompiler.MAXIMUM_CACHED_PLANS + 10; id++){
+            query = query + "/" + id;
+            planFor(query);
+        }
+
+        Assertions.assertEquals(QueryPlanCompiler.MAXIMUM_CACHED_PLANS,
+                QueryPlanCompiler.forSchema(erm.getSchema()).countCachedPlans());
+    }
+
+    @Test
+    public void queriesCompiledAtTheSameTimeShareAPlan() throws InterruptedException {
+
+        final List<QueryPlan> plans = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> queries = new ArrayList<>();
+        for(int query=0; query<8; query++){
+            final String path = "projects/" + query + "/tasks";
+            queries.add(new Thread(() -> plans.add(planFor(path))));
+        }
+
+        for(Thread query : queries){
+            query.start();
+        }
+        for(Thread query : queries){
+            query.join();
+        }
+
+        Assertions.assertEquals(8, plans.size());
+        for(QueryPlan plan : plans){
+            Assertions.assertSame(planFor("projects/1/tasks"), plan);
+        }
+        Assertions.assertEquals(1, QueryPlanCompiler.forSchema(erm.getSchema()).countCachedPlans());
+    }
+}
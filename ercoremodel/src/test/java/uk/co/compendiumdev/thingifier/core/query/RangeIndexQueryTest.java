@@ -0,0 +1,108 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RangeIndexQueryTest {
+
+    EntityRelModel erModel;
+    List<EntityInstance> things;
+
+    @BeforeEach
+    public void setupThings(){
+
+        erModel = new EntityRelModel();
+        erModel.createEntityDefinition("thing", "things")
+                .addFields(Field.is("id", FieldType.ID),
+                        Field.is("priority", FieldType.INTEGER).makeRangeIndexed(),
+                        Field.is("truefalse", FieldType.BOOLEAN));
+
+        EntityInstanceCollection thing = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        things = new ArrayList<>();
+        for(int count=1; count<=20; count++){
+            things.add(thing.createManagedInstance().
+                    setValue("priority", String.valueOf(count % 4)).
+                    setValue("truefalse", String.valueOf(count % 2 == 0)));
+        }
+    }
+
+    private List<EntityInstance> query(Map<String, String> params){
+        return new SimpleQuery(erModel.getSchema(), erModel.getInstanceData(), "things").
+                performQuery(params).getListEntityInstances();
+    }
+
+    @Test
+    public void rangeFilterOnIdReturnsTheRange(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("id", ">15");
+        params.put("sortBy", "+id");
+
+        Assertions.assertEquals(things.subList(15, 20), query(params));
+    }
+
+    @Test
+    public void rangeFilterSortedDescendingByTheSameField(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("id", "<=5");
+        params.put("sortBy", "-id");
+
+        final List<EntityInstance> expected = new ArrayList<>(things.subList(0, 5));
+        Collections.reverse(expected);
+        Assertions.assertEquals(expected, query(params));
+    }
+
+    @Test
+    public void otherFiltersAreAppliedToTheRange(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("priority", ">=2");
+        params.put("truefalse", "true");
+
+        final List<EntityInstance> results = query(params);
+        Assertions.assertEquals(5, results.size());
+        for(EntityInstance result : results){
+            Assertions.assertEquals(2, result.getFieldValue("priority").asInteger());
+            Assertions.assertTrue(result.getFieldValue("truefalse").asBoolean());
+        }
+    }
+
+    @Test
+    public void indexedSortMatchesSortingWithPages(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("sortBy", "-priority");
+        params.put("truefalse", "false");
+        params.put("limit", "3");
+        params.put("offset", "2");
+
+        // odd counts, priority 3 for 3, 7, 11, 15, 19 then 1 for 1, 5, 9, ...
+        Assertions.assertEquals(
+                Arrays.asList(things.get(10), things.get(14), things.get(18)),
+                query(params));
+    }
+
+    @Test
+    public void unparsableRangeValuesAreStillReported(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("priority", ">high");
+
+        Assertions.assertThrows(NumberFormatException.class, () -> query(params));
+    }
+}
@@ -1,5 +1,7 @@
 package uk.co.compendiumdev.thingifier;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.thingifier.api.ThingifierRestAPIHandler;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfile;
@@ -7,6 +9,7 @@ import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfiles;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 import uk.co.compendiumdev.thingifier.core.domain.datapopulator.DataPopulator;
+import uk.co.compendiumdev.thingifier.core.domain.datapopulator.TemplateDataPopulator;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.*;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
@@ -24,6 +27,8 @@ import java.util.*;
  */
 final public class Thingifier {
 
+    private static final Logger logger = LoggerFactory.getLogger(Thingifier.class);
+
     private final EntityRelModel erm;
     private DataPopulator dataPopulator;
     private String title;
@@ -167,6 +172,10 @@ final public class Thingifier {
                 erm.deleteInstanceDatabase(databaseName);
             }
         }
+        // no instances remain in any database so ids can start again
+        for(EntityDefinition definition : erm.getEntityDefinitions()){
+            definition.resetIdSequences();
+        }
     }
 
     public void clearAllData(final String database) {
@@ -197,7 +206,12 @@ final public class Thingifier {
     }
 
     public void setDataGenerator(DataPopulator dataPopulator) {
-        this.dataPopulator = dataPopulator;
+        // populate once then copy the populated data into each new database
+        if(dataPopulator==null || dataPopulator instanceof TemplateDataPopulator){
+            this.dataPopulator = dataPopulator;
+        }else{
+            this.dataPopulator = new TemplateDataPopulator(dataPopulator);
+        }
     }
 
 
@@ -229,7 +243,7 @@ final public class Thingifier {
 
     public void configureWithProfile(final ThingifierApiConfigProfile profileToUse) {
         if(profileToUse==null){
-            System.out.println("API System Defaults Used");
+            logger.info("API System Defaults Used");
         }else {
             apiConfig.setFrom(profileToUse.apiConfig());
         }
@@ -271,16 +285,7 @@ final public class Thingifier {
     }
 
     public void ensureCreatedAndPopulatedInstanceDatabaseNamed(String databaseName) {
-        if(getERmodel().createInstanceDatabaseIfNotExisting(databaseName)){
-            // if we created it then populate it
-            if(getDefaultDataPopulator()!=null){
-                // Use any default data populator to populate the new database
-                getDefaultDataPopulator().
-                        populate(
-                                getERmodel().getSchema(),
-                                getERmodel().getInstanceData(databaseName)
-                        );
-            }
-        }
+        // if we create it then use any default data populator to populate the new database
+        getERmodel().createInstanceDatabaseIfNotExisting(databaseName, getDefaultDataPopulator());
     }
 }
@@ -2,6 +2,7 @@ package uk.co.compendiumdev.thingifier.api;
 
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.api.restapihandlers.*;
 
@@ -12,12 +13,14 @@ public class ThingifierRestAPIHandler {
     private final RestApiPostHandler post;
     private final RestApiPutHandler put;
     private final RestApiGetHandler get;
+    private final RestApiBulkPostHandler bulkPost;
 
     public ThingifierRestAPIHandler(final Thingifier aThingifier) {
         this.get = new RestApiGetHandler(aThingifier);
         this.delete = new RestApiDeleteHandler(aThingifier);
         this.post = new RestApiPostHandler(aThingifier);
         this.put = new RestApiPutHandler(aThingifier);
+        this.bulkPost = new RestApiBulkPostHandler(aThingifier);
     }
 
 
@@ -49,6 +52,10 @@ public class ThingifierRestAPIHandler {
         return post.handle(url, args, headers);
     }
 
+    public ApiResponse bulkPost(final String url, final BulkBodyParser args, Map<String, String> headers) {
+        return bulkPost.handle(url, args, headers);
+    }
+
     public ApiResponse put(final String url, final BodyParser args, Map<String, String> headers) {
         return put.handle(url, args, headers);
     }
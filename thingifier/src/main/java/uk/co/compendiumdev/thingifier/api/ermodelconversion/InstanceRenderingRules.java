@@ -0,0 +1,96 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+
+import java.util.AbstractMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    The output config decisions shared by the streaming JSON and XML writers
+    so that both render the same fields, values and relationships as JsonThing.
+ */
+final class InstanceRenderingRules {
+
+    static final String RELATIONSHIPS = "relationships";
+
+    // an object field which has no value is not rendered
+    static final Object NO_OBJECT_VALUE = new Object();
+
+    private final JsonOutputConfig apiConfig;
+
+    InstanceRenderingRules(final JsonOutputConfig apiConfig) {
+        this.apiConfig = apiConfig;
+    }
+
+    boolean willRender(final Field theField){
+        // if hiding guids then skip them
+        return apiConfig.willRenderGuidsInResponse() || theField.getType()!=FieldType.GUID;
+    }
+
+    /**
+     * The value to render for the field, an InstanceFields for an OBJECT field,
+     * a Boolean or Number when rendering fields as defined types, otherwise a String.
+     * Throws an exception when the value can not be converted, and the field should be skipped.
+     */
+    Object renderedValue(final InstanceFields fields, final Field theField) {
+
+        final String fieldValue = fields.getFieldValue(theField.getName()).asString();
+
+        if(theField.getType()==FieldType.OBJECT){
+            final FieldValue objectFieldValue = fields.getFieldValue(theField.getName());
+            if(objectFieldValue==null){
+                return NO_OBJECT_VALUE;
+            }
+            return objectFieldValue.asObject();
+        }
+
+        if(apiConfig.willRenderFieldsAsDefinedTypes()) {
+            switch (theField.getType()) {
+                case BOOLEAN:
+                    return Boolean.valueOf(fieldValue);
+                case INTEGER:
+                case ID:
+                    return Integer.valueOf(fieldValue);
+                case FLOAT:
+                    return Float.valueOf(fieldValue);
+            }
+        }
+
+        return fieldValue;
+    }
+
+    // compressed relationships are possible when relationship_name is not a field name
+    boolean isCompressed(final EntityInstance thingInstance,
+                         final RelationshipVectorDefinition relationship){
+        return apiConfig.willRenderRelationshipsAsCompressed() &&
+                !thingInstance.getEntity().hasFieldNameDefined(relationship.getName());
+    }
+
+    /**
+     * The field name and value used to identify a related item, throws an exception
+     * if the item can not be identified and should be skipped.
+     */
+    Map.Entry<String, String> uniqueIdOf(final EntityInstance item){
+
+        // todo: warning - we allow multiple guid fields - hardcoding name will not be future proof
+        String fieldNameAsUniqueId = "guid";
+        String valueOfUniqueId = item.getGUID();
+
+        if (apiConfig.willRenderRelationshipsWithIdsIfAvailable()) {
+            final List<Field> idFields = item.getEntity().getFieldsOfType(FieldType.ID);
+            if (!idFields.isEmpty()) {
+                fieldNameAsUniqueId = idFields.get(0).getName();
+                valueOfUniqueId = item.getFieldValue(fieldNameAsUniqueId).asString();
+            }
+        }
+
+        return new AbstractMap.SimpleImmutableEntry<>(fieldNameAsUniqueId, valueOfUniqueId);
+    }
+}
@@ -2,6 +2,8 @@ package uk.co.compendiumdev.thingifier.api.ermodelconversion;
 
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
@@ -12,15 +14,44 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
 
 public class JsonThing {
 
+    private static final Logger logger = LoggerFactory.getLogger(JsonThing.class);
+
 
     private final JsonOutputConfig apiConfig;
+    private final JsonThingWriter jsonWriter;
 
     public JsonThing(final JsonOutputConfig apiConfig) {
         this.apiConfig = apiConfig;
+        this.jsonWriter = new JsonThingWriter(apiConfig, this);
+    }
+
+    JsonOutputConfig outputConfig() {
+        return apiConfig;
+    }
+
+    /**
+     * Streams the same output as asJsonTypedArrayWithContentsUntyped without building a JsonObject tree
+     * @param things
+     * @param typeName
+     * @param writer
+     */
+    public void writeJsonTypedArrayWithContentsUntyped(final Collection<EntityInstance> things, String typeName, Writer writer) throws IOException {
+        jsonWriter.writeTypedArrayWithContentsUntyped(things, typeName, writer);
+    }
+
+    /**
+     * Streams the same output as asJsonObject(EntityInstance).toString()
+     * @param thingInstance
+     * @param writer
+     */
+    public void writeJsonObject(final EntityInstance thingInstance, Writer writer) throws IOException {
+        jsonWriter.writeInstance(thingInstance, writer);
     }
 
     /**
@@ -203,7 +234,7 @@ public class JsonThing {
 
                             arrayOfGuids.add(itemGuidObject);
                         }catch(Exception e){
-                            System.out.println("Error finding relationship");
+                            logger.warn("Error finding relationship for {}", item.getGUID());
                         }
                     }
 
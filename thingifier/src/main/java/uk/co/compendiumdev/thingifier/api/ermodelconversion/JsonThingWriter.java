@@ -0,0 +1,224 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.stream.JsonWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    Streams the same JSON as JsonThing without building a JsonObject tree
+    for every instance.
+
+    The output must be byte identical to the JsonObject toString in JsonThing
+    e.g. lenient, not html escaped, and exceptions for a field or relationship
+    item skip that field or item.
+
+    A JsonObject replaces the value of a duplicate key in its original position.
+    An instance which might render a duplicate key e.g. a field named
+    `relationships`, is rendered with the JsonThing tree to keep that behaviour.
+ */
+final class JsonThingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsonThingWriter.class);
+
+    private final InstanceRenderingRules rules;
+    private final JsonThing jsonThing;
+
+    JsonThingWriter(final JsonOutputConfig apiConfig, final JsonThing jsonThing) {
+        this.rules = new InstanceRenderingRules(apiConfig);
+        this.jsonThing = jsonThing;
+    }
+
+    private JsonWriter jsonWriterFor(final Writer writer){
+        final JsonWriter jsonWriter = new JsonWriter(writer);
+        // match JsonElement.toString
+        jsonWriter.setLenient(true);
+        return jsonWriter;
+    }
+
+    void writeTypedArrayWithContentsUntyped(final Collection<EntityInstance> things,
+                                            final String typeName,
+                                            final Writer writer) throws IOException {
+
+        final JsonWriter jsonWriter = jsonWriterFor(writer);
+
+        jsonWriter.beginObject();
+        jsonWriter.name(typeName);
+        jsonWriter.beginArray();
+        for (EntityInstance thing : things) {
+            writeInstance(thing, jsonWriter);
+        }
+        jsonWriter.endArray();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    void writeInstance(final EntityInstance thingInstance, final Writer writer) throws IOException {
+        final JsonWriter jsonWriter = jsonWriterFor(writer);
+        writeInstance(thingInstance, jsonWriter);
+        jsonWriter.flush();
+    }
+
+    private void writeInstance(final EntityInstance thingInstance, final JsonWriter jsonWriter) throws IOException {
+
+        if (thingInstance == null) {
+            jsonWriter.beginObject();
+            jsonWriter.endObject();
+            return;
+        }
+
+        final Collection<RelationshipVectorDefinition> relationships = thingInstance.getEntity().related().getRelationships();
+        final boolean renderRelationships = relationships.size()>0 &&
+                                    thingInstance.getRelationships().hasAnyRelationshipInstances();
+
+        if(renderRelationships && mightRenderDuplicateKeys(thingInstance, relationships)){
+            jsonWriter.jsonValue(jsonThing.asJsonObject(thingInstance).toString());
+            return;
+        }
+
+        jsonWriter.beginObject();
+
+        writeFieldMembers(thingInstance.getFields(), jsonWriter);
+
+        if(renderRelationships){
+            writeRelationships(thingInstance, relationships, jsonWriter);
+        }
+
+        jsonWriter.endObject();
+    }
+
+    private boolean mightRenderDuplicateKeys(final EntityInstance thingInstance,
+                                             final Collection<RelationshipVectorDefinition> relationships){
+
+        final Set<String> keys = new HashSet<>(thingInstance.getEntity().getFieldNames());
+        boolean mightHaveComplexRelationships = false;
+
+        for(RelationshipVectorDefinition relationship : relationships){
+            if(rules.isCompressed(thingInstance, relationship)){
+                if(!keys.add(relationship.getName())){
+                    return true;
+                }
+            }else{
+                mightHaveComplexRelationships = true;
+            }
+        }
+
+        return mightHaveComplexRelationships && keys.contains(InstanceRenderingRules.RELATIONSHIPS);
+    }
+
+    private void writeFieldMembers(final InstanceFields fields, final JsonWriter jsonWriter) throws IOException {
+
+        if (fields == null) {
+            return;
+        }
+
+        for (String fieldName : fields.getDefinition().getFieldNames()) {
+            Field theField = fields.getDefinition().getField(fieldName);
+            if(!rules.willRender(theField))
+                continue;
+
+            // convert the value before writing the name so an invalid value skips the field
+            final Object value;
+            try {
+                value = rules.renderedValue(fields, theField);
+            }catch(Exception e){
+                // ignore
+                continue;
+            }
+
+            if(value == InstanceRenderingRules.NO_OBJECT_VALUE){
+                continue;
+            }
+
+            jsonWriter.name(fieldName);
+            if(theField.getType()==FieldType.OBJECT){
+                jsonWriter.beginObject();
+                writeFieldMembers((InstanceFields) value, jsonWriter);
+                jsonWriter.endObject();
+            }else if(value instanceof Boolean){
+                jsonWriter.value((Boolean) value);
+            }else if(value instanceof Number){
+                jsonWriter.value((Number) value);
+            }else{
+                jsonWriter.value((String) value);
+            }
+        }
+    }
+
+    private void writeRelationships(final EntityInstance thingInstance,
+                                    final Collection<RelationshipVectorDefinition> relationships,
+                                    final JsonWriter jsonWriter) throws IOException {
+
+        boolean hasAnyComplexRelationships = false;
+
+        // compressed relationships are written as fields
+        // task-of: [{"guid":"..."},{...}]
+        for(RelationshipVectorDefinition relationship : relationships){
+            final Collection<EntityInstance> relatedItems = thingInstance.getRelationships().getConnectedItems(relationship.getName());
+            if(relatedItems.size()>0) {
+                if (rules.isCompressed(thingInstance, relationship)) {
+                    jsonWriter.name(relationship.getName());
+                    writeRelatedItems(relatedItems, jsonWriter);
+                } else {
+                    hasAnyComplexRelationships = true;
+                }
+            }
+        }
+
+        if(!hasAnyComplexRelationships){
+            return;
+        }
+
+        // "relationships" : [{"relationship_name" : [{"typeofthingsplural": [{"guid" : "value"}]}]}]
+        jsonWriter.name(InstanceRenderingRules.RELATIONSHIPS);
+        jsonWriter.beginArray();
+        for(RelationshipVectorDefinition relationship : relationships){
+            final Collection<EntityInstance> relatedItems = thingInstance.getRelationships().getConnectedItems(relationship.getName());
+            if(relatedItems.size()>0 && !rules.isCompressed(thingInstance, relationship)) {
+                jsonWriter.beginObject();
+                jsonWriter.name(relationship.getName());
+                jsonWriter.beginArray();
+                jsonWriter.beginObject();
+                jsonWriter.name(relationship.getTo().getPlural());
+                writeRelatedItems(relatedItems, jsonWriter);
+                jsonWriter.endObject();
+                jsonWriter.endArray();
+                jsonWriter.endObject();
+            }
+        }
+        jsonWriter.endArray();
+    }
+
+    private void writeRelatedItems(final Collection<EntityInstance> relatedItems,
+                                   final JsonWriter jsonWriter) throws IOException {
+
+        jsonWriter.beginArray();
+        for(EntityInstance item : relatedItems) {
+
+            final Map.Entry<String, String> uniqueId;
+            try {
+                uniqueId = rules.uniqueIdOf(item);
+            }catch(Exception e){
+                logger.warn("Error finding relationship for {}", item.getGUID());
+                continue;
+            }
+
+            jsonWriter.beginObject();
+            jsonWriter.name(uniqueId.getKey()).value(uniqueId.getValue());
+            jsonWriter.endObject();
+        }
+        jsonWriter.endArray();
+    }
+}
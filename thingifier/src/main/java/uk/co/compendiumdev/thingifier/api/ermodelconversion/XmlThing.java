@@ -5,24 +5,59 @@ import org.json.XML;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.StringWriter;
 import java.util.*;
 
 
 public class XmlThing {
 
     private final JsonThing jsonConvertor;
+    private final XmlThingWriter xmlWriter;
 
     public XmlThing(final JsonThing jsonThing) {
+        this(jsonThing, false);
+    }
+
+    /**
+     * @param jsonThing
+     * @param streamXml write the xml directly from the instances with a StAX writer
+     *                  rather than converting the json output with org.json
+     */
+    public XmlThing(final JsonThing jsonThing, final boolean streamXml) {
         this.jsonConvertor = jsonThing;
+        this.xmlWriter = streamXml ? new XmlThingWriter(jsonThing.outputConfig()) : null;
     }
 
     public String getSingleObjectXml(final EntityInstance instance) {
+
+        if(xmlWriter!=null){
+            final StringWriter output = new StringWriter();
+            try {
+                xmlWriter.writeSingleObject(instance, output);
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Could not write instance as XML: " + e.getMessage(), e);
+            }
+            return output.toString();
+        }
+
         String parseForXMLOutput = jsonConvertor.asNamedJsonObject(instance).toString();
         //System.out.println(parseForXMLOutput);
         return XML.toString(new JSONObject(parseForXMLOutput));
     }
 
     public String getCollectionOfThings(final List<EntityInstance> thingsToReturn, final EntityDefinition typeOfThingReturned) {
+
+        if(xmlWriter!=null){
+            final StringWriter output = new StringWriter();
+            try {
+                xmlWriter.writeCollectionOfThings(thingsToReturn, typeOfThingReturned, output);
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Could not write instances as XML: " + e.getMessage(), e);
+            }
+            return output.toString();
+        }
+
         String parseForXMLOutput = jsonConvertor.asJsonTypedArrayWithContentsTyped(
                                                 thingsToReturn, typeOfThingReturned);
 
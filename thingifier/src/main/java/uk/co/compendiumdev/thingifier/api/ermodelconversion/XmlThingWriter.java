@@ -0,0 +1,176 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Map;
+
+/*
+    Writes instances as XML with a StAX writer, rendering the same elements
+    as the JsonThing -> org.json -> XML conversion in XmlThing, e.g.
+
+        <todos><todo><id>1</id><title/><task-of><id>1</id></task-of></todo></todos>
+
+    Elements are written in field definition order, the same order as the json output.
+ */
+final class XmlThingWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlThingWriter.class);
+
+    private static final XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
+
+    private final InstanceRenderingRules rules;
+
+    XmlThingWriter(final JsonOutputConfig apiConfig) {
+        this.rules = new InstanceRenderingRules(apiConfig);
+    }
+
+    void writeSingleObject(final EntityInstance instance, final Writer writer) throws XMLStreamException {
+
+        final XMLStreamWriter xmlWriter = xmlOutputFactory.createXMLStreamWriter(writer);
+        writeInstance(instance.getEntity().getName(), instance, xmlWriter);
+        xmlWriter.flush();
+    }
+
+    void writeCollectionOfThings(final Collection<EntityInstance> things,
+                                 final EntityDefinition typeOfThingReturned,
+                                 final Writer writer) throws XMLStreamException {
+
+        final XMLStreamWriter xmlWriter = xmlOutputFactory.createXMLStreamWriter(writer);
+        xmlWriter.writeStartElement(typeOfThingReturned.getPlural());
+        for(EntityInstance thing : things){
+            writeInstance(thing.getEntity().getName(), thing, xmlWriter);
+        }
+        xmlWriter.writeEndElement();
+        xmlWriter.flush();
+    }
+
+    private void writeInstance(final String elementName, final EntityInstance thingInstance,
+                               final XMLStreamWriter xmlWriter) throws XMLStreamException {
+
+        xmlWriter.writeStartElement(elementName);
+
+        writeFieldElements(thingInstance.getFields(), xmlWriter);
+
+        final Collection<RelationshipVectorDefinition> relationships = thingInstance.getEntity().related().getRelationships();
+        if(relationships.size()>0 && thingInstance.getRelationships().hasAnyRelationshipInstances()){
+            writeRelationships(thingInstance, relationships, xmlWriter);
+        }
+
+        xmlWriter.writeEndElement();
+    }
+
+    private void writeFieldElements(final InstanceFields fields,
+                                    final XMLStreamWriter xmlWriter) throws XMLStreamException {
+
+        if (fields == null) {
+            return;
+        }
+
+        for (String fieldName : fields.getDefinition().getFieldNames()) {
+            Field theField = fields.getDefinition().getField(fieldName);
+            if(!rules.willRender(theField))
+                continue;
+
+            final Object value;
+            try {
+                value = rules.renderedValue(fields, theField);
+            }catch(Exception e){
+                // ignore
+                continue;
+            }
+
+            if(value == InstanceRenderingRules.NO_OBJECT_VALUE){
+                continue;
+            }
+
+            if(theField.getType()==FieldType.OBJECT){
+                xmlWriter.writeStartElement(fieldName);
+                writeFieldElements((InstanceFields) value, xmlWriter);
+                xmlWriter.writeEndElement();
+            }else{
+                writeValueElement(fieldName, value==null ? "null" : value.toString(), xmlWriter);
+            }
+        }
+    }
+
+    private void writeValueElement(final String elementName, final String value,
+                                   final XMLStreamWriter xmlWriter) throws XMLStreamException {
+        if(value.isEmpty()){
+            xmlWriter.writeEmptyElement(elementName);
+        }else{
+            xmlWriter.writeStartElement(elementName);
+            xmlWriter.writeCharacters(value);
+            xmlWriter.writeEndElement();
+        }
+    }
+
+    private void writeRelationships(final EntityInstance thingInstance,
+                                    final Collection<RelationshipVectorDefinition> relationships,
+                                    final XMLStreamWriter xmlWriter) throws XMLStreamException {
+
+        boolean hasAnyComplexRelationships = false;
+
+        // compressed relationships repeat the relationship element for each item
+        // <task-of><id>1</id></task-of><task-of><id>2</id></task-of>
+        for(RelationshipVectorDefinition relationship : relationships){
+            final Collection<EntityInstance> relatedItems = thingInstance.getRelationships().getConnectedItems(relationship.getName());
+            if(relatedItems.size()>0) {
+                if (rules.isCompressed(thingInstance, relationship)) {
+                    writeRelatedItems(relationship.getName(), relatedItems, xmlWriter);
+                } else {
+                    hasAnyComplexRelationships = true;
+                }
+            }
+        }
+
+        if(!hasAnyComplexRelationships){
+            return;
+        }
+
+        // <relationships><relationship_name><typeofthingsplural><guid>value</guid></typeofthingsplural></relationship_name></relationships>
+        for(RelationshipVectorDefinition relationship : relationships){
+            final Collection<EntityInstance> relatedItems = thingInstance.getRelationships().getConnectedItems(relationship.getName());
+            if(relatedItems.size()>0 && !rules.isCompressed(thingInstance, relationship)) {
+                xmlWriter.writeStartElement(InstanceRenderingRules.RELATIONSHIPS);
+                xmlWriter.writeStartElement(relationship.getName());
+                writeRelatedItems(relationship.getTo().getPlural(), relatedItems, xmlWriter);
+                xmlWriter.writeEndElement();
+                xmlWriter.writeEndElement();
+            }
+        }
+    }
+
+    private void writeRelatedItems(final String elementName,
+                                   final Collection<EntityInstance> relatedItems,
+                                   final XMLStreamWriter xmlWriter) throws XMLStreamException {
+
+        for(EntityInstance item : relatedItems) {
+
+            final Map.Entry<String, String> uniqueId;
+            try {
+                uniqueId = rules.uniqueIdOf(item);
+            }catch(Exception e){
+                logger.warn("Error finding relationship for {}", item.getGUID());
+                continue;
+            }
+
+            xmlWriter.writeStartElement(elementName);
+            writeValueElement(uniqueId.getKey(),
+                    uniqueId.getValue()==null ? "null" : uniqueId.getValue(), xmlWriter);
+            xmlWriter.writeEndElement();
+        }
+    }
+}
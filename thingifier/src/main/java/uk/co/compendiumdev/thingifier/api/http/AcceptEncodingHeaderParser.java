@@ -0,0 +1,96 @@
+package uk.co.compendiumdev.thingifier.api.http;
+
+/*
+    Choose the content encoding for a response from the Accept-Encoding header e.g.
+
+        Accept-Encoding: gzip, deflate
+        Accept-Encoding: deflate;q=1.0, gzip;q=0.5
+        Accept-Encoding: *, gzip;q=0
+
+    gzip is preferred when gzip and deflate are equally acceptable.
+ */
+public class AcceptEncodingHeaderParser {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private double gzipQuality;
+    private double deflateQuality;
+
+    public AcceptEncodingHeaderParser(final String acceptEncodingHeader) {
+
+        // not listed means not acceptable
+        gzipQuality = 0;
+        deflateQuality = 0;
+
+        if(acceptEncodingHeader==null){
+            return;
+        }
+
+        double anyQuality = -1;
+        boolean gzipListed = false;
+        boolean deflateListed = false;
+
+        for(String coding : acceptEncodingHeader.split(",")){
+
+            final String[] parts = coding.split(";");
+            final String name = parts[0].trim().toLowerCase();
+            final double quality = qualityOf(parts);
+
+            switch (name){
+                case GZIP:
+                case "x-gzip":
+                    gzipQuality = quality;
+                    gzipListed = true;
+                    break;
+                case DEFLATE:
+                    deflateQuality = quality;
+                    deflateListed = true;
+                    break;
+                case "*":
+                    anyQuality = quality;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        if(anyQuality>=0){
+            if(!gzipListed){
+                gzipQuality = anyQuality;
+            }
+            if(!deflateListed){
+                deflateQuality = anyQuality;
+            }
+        }
+    }
+
+    private double qualityOf(final String[] parts){
+        for(int param=1; param<parts.length; param++){
+            final String[] nameValue = parts[param].split("=");
+            if(nameValue.length==2 && nameValue[0].trim().equalsIgnoreCase("q")){
+                try{
+                    return Double.parseDouble(nameValue[1].trim());
+                }catch(NumberFormatException e){
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    /**
+     * gzip, deflate, or null if the response should not be encoded
+     */
+    public String getPreferredEncoding(){
+        if(gzipQuality<=0 && deflateQuality<=0){
+            return null;
+        }
+
+        if(gzipQuality>=deflateQuality){
+            return GZIP;
+        }
+
+        return DEFLATE;
+    }
+}
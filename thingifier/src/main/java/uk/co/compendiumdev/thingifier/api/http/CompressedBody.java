@@ -0,0 +1,94 @@
+package uk.co.compendiumdev.thingifier.api.http;
+
+import uk.co.compendiumdev.thingifier.apiconfig.ResponseCompressionConfig;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/*
+    A response body which will be sent many times e.g. a cached response or the documentation,
+    stored compressed so the cost of compressing is paid once rather than on every response.
+
+    Only the gzip encoding is stored, it is the encoding almost every client asks for,
+    deflate is compressed when sent.
+ */
+public final class CompressedBody {
+
+    private final byte[] body;
+    private final byte[] gzipped; // null when the body is too small to compress
+
+    public CompressedBody(final String body, final ResponseCompressionConfig config) {
+        this.body = body.getBytes(StandardCharsets.UTF_8);
+        if(config.willCompress(this.body.length)){
+            gzipped = encode(this.body, AcceptEncodingHeaderParser.GZIP, config.getLevel());
+        }else{
+            gzipped = null;
+        }
+    }
+
+    public String getBody() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The stored compressed body, null if it has not been stored in this encoding
+     */
+    public byte[] getEncodedAs(final String encoding) {
+        if(AcceptEncodingHeaderParser.GZIP.equals(encoding)){
+            return gzipped;
+        }
+        return null;
+    }
+
+    public long sizeInBytes() {
+        return body.length + (gzipped==null ? 0 : gzipped.length);
+    }
+
+    /**
+     * Compress the bytes using the content encoding, gzip or deflate (zlib format)
+     */
+    public static byte[] encode(final byte[] bytes, final String encoding, final int level){
+
+        final ByteArrayOutputStream encoded = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+
+        try(OutputStream compressor = compressorFor(encoded, encoding, level)){
+            compressor.write(bytes);
+        }catch(IOException e){
+            // writing to a byte array does not throw
+            throw new UncheckedIOException(e);
+        }
+
+        return encoded.toByteArray();
+    }
+
+    private static OutputStream compressorFor(final OutputStream output, final String encoding, final int level)
+            throws IOException {
+
+        if(AcceptEncodingHeaderParser.GZIP.equals(encoding)){
+            return new GZIPOutputStream(output){
+                {
+                    def.setLevel(level);
+                }
+            };
+        }
+
+        if(AcceptEncodingHeaderParser.DEFLATE.equals(encoding)){
+            return new DeflaterOutputStream(output, new Deflater(level)){
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    // a deflater passed in is not ended by the stream
+                    def.end();
+                }
+            };
+        }
+
+        throw new IllegalArgumentException("Unknown content encoding " + encoding);
+    }
+}
@@ -0,0 +1,108 @@
+package uk.co.compendiumdev.thingifier.api.http;
+
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+    Conditional GET support using weak ETags.
+
+    The ETag is derived from what the response content depends on: the database (or other scope),
+    the path, the query params, the response content type, and the version of the data.
+    Versions only increase, so when the version is unchanged the content is unchanged and a
+    request with a matching If-None-Match can be answered with a 304 without querying or rendering.
+
+    A random value per process is included so tags issued before a restart never match.
+ */
+final public class ConditionalGet {
+
+    public static final String ETAG_HEADER = "ETag";
+    public static final String IF_NONE_MATCH_HEADER = "If-None-Match";
+
+    private static final String PROCESS = Long.toHexString(new SecureRandom().nextLong());
+
+    private final String etag;
+
+    public ConditionalGet(final String requestKey, final long version) {
+        // header values are lowercased by the HttpApiRequest so the tag is lowercase hex
+        etag = String.format("W/\"%s-%s-%s\"",
+                PROCESS, Long.toHexString(version), Long.toHexString(hash(requestKey)));
+    }
+
+    /**
+     * Identifies the content of a response: the scope e.g. the database, the path,
+     * the query params and the response content type
+     */
+    public static String requestKeyFor(final String scope,
+                                       final HttpApiRequest request,
+                                       final String responseType){
+        final StringBuilder key = new StringBuilder();
+        key.append(scope).append('\n');
+        key.append(request.getPath()).append('\n');
+        // sorted so the order of the params does not matter
+        for(Map.Entry<String, String> param : new TreeMap<>(request.getQueryParams()).entrySet()){
+            key.append(param.getKey()).append('=').append(param.getValue()).append('&');
+        }
+        key.append('\n').append(responseType);
+        return key.toString();
+    }
+
+    public String getETag() {
+        return etag;
+    }
+
+    /**
+     * true if the If-None-Match header of the request matches the ETag, comparison is weak
+     * i.e. the W/ prefix is ignored, the header may be * or a comma separated list of tags
+     */
+    public boolean isNotModifiedFor(final HttpApiRequest request){
+        final String ifNoneMatch = request.getHeader(IF_NONE_MATCH_HEADER);
+        if(ifNoneMatch==null || ifNoneMatch.trim().isEmpty()){
+            return false;
+        }
+
+        final String opaqueTag = opaqueTag(etag);
+        for(String tag : ifNoneMatch.split(",")){
+            final String aTag = tag.trim();
+            if(aTag.equals("*") || opaqueTag.equals(opaqueTag(aTag))){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public ApiResponse notModifiedResponse(){
+        final ApiResponse response = new ApiResponse(304);
+        response.setHeader(ETAG_HEADER, etag);
+        return response;
+    }
+
+    /**
+     * Successful responses are tagged so the client can make a conditional request next time
+     */
+    public ApiResponse tag(final ApiResponse response){
+        if(response!=null && response.getStatusCode()==200){
+            response.setHeader(ETAG_HEADER, etag);
+        }
+        return response;
+    }
+
+    private static String opaqueTag(final String tag){
+        if(tag.startsWith("W/") || tag.startsWith("w/")){
+            return tag.substring(2);
+        }
+        return tag;
+    }
+
+    // 64 bit FNV-1a, the tag does not need to be cryptographically strong
+    private static long hash(final CharSequence value){
+        long hash = 0xcbf29ce484222325L;
+        for(int i=0; i<value.length(); i++){
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
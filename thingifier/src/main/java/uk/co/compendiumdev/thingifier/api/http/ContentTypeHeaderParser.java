@@ -19,6 +19,11 @@ public class ContentTypeHeaderParser {
         return header.contains("application/json");
     }
 
+    // newline delimited json, only used for bulk requests
+    public boolean isNDJSON() {
+        return header.contains("application/x-ndjson") || header.contains("application/ndjson");
+    }
+
     public boolean isMissing() {
         return (header.length()==0);
     }
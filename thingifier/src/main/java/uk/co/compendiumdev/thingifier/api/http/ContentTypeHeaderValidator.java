@@ -11,6 +11,10 @@ public class ContentTypeHeaderValidator {
     }
 
     public ApiResponse validate(final String header) {
+        return validate(header, false);
+    }
+
+    public ApiResponse validate(final String header, final boolean allowNDJSON) {
         // we don't validate content type header
         if(!this.apiConfig.willApiEnforceContentTypeHeaderForRequests()){
             return null;
@@ -28,7 +32,9 @@ public class ContentTypeHeaderValidator {
         int statusContentTypeNotSupported = this.apiConfig.statusCodes().
                 contentTypeNotSupported();
 
-        if(!accept.isXML() && !accept.isJSON()){
+        final boolean isJSON = accept.isJSON() || (allowNDJSON && accept.isNDJSON());
+
+        if(!accept.isXML() && !isJSON){
             return ApiResponse.error(statusContentTypeNotSupported,
                     "Unsupported Content Type - " + header);
         }
@@ -37,7 +43,7 @@ public class ContentTypeHeaderValidator {
             return ApiResponse.error(statusContentTypeNotSupported, "XML Not Supported");
         }
 
-        if(accept.isJSON() && !this.apiConfig.willAcceptJSONContent()){
+        if(isJSON && !this.apiConfig.willAcceptJSONContent()){
             return ApiResponse.error(statusContentTypeNotSupported, "JSON Not Supported");
         }
 
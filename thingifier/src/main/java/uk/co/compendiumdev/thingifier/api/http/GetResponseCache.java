@@ -0,0 +1,159 @@
+package uk.co.compendiumdev.thingifier.api.http;
+
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.apiconfig.ResponseCompressionConfig;
+import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+    A bounded cache of rendered GET responses, keyed by the request key of the response
+    (database, path, query params and content type).
+
+    Each entry records the version of the data it was rendered from, an entry for an
+    older version is stale and is discarded when next looked up, so changes to the data
+    never need to find the entries they invalidate.
+
+    Entries are evicted least recently used first when the size of the cached bodies
+    would exceed the maximum set in the api config. Bodies are stored compressed as well,
+    so a cached response is only compressed once.
+ */
+final public class GetResponseCache {
+
+    // rough allowance for the entry, key and headers in addition to the body
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final ThingifierApiConfig apiConfig;
+    private final LinkedHashMap<String, CachedResponse> entries;
+
+    private long sizeInBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public GetResponseCache(final ThingifierApiConfig apiConfig) {
+        this.apiConfig = apiConfig;
+        // access order for least recently used eviction
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * The cached response for the key rendered from this version of the data, or null
+     */
+    public synchronized CachedResponse get(final String requestKey, final long version){
+
+        final CachedResponse cached = entries.get(requestKey);
+
+        if(cached!=null && cached.version!=version){
+            remove(requestKey);
+            misses++;
+            return null;
+        }
+
+        if(cached==null){
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return cached;
+    }
+
+    /**
+     * Render and compress the body and cache it if there is room, returns the response
+     * to send so the body is only rendered once
+     */
+    public CachedResponse put(final String requestKey, final long version, final HttpApiResponse response){
+
+        final CachedResponse cached = new CachedResponse(requestKey, version, response,
+                                                apiConfig.responseCompression());
+
+        synchronized (this) {
+            final long maxBytes = apiConfig.getResponseCacheMaxBytes();
+            if (cached.sizeInBytes <= maxBytes) {
+                remove(requestKey);
+                entries.put(requestKey, cached);
+                sizeInBytes += cached.sizeInBytes;
+                evictToFit(maxBytes);
+            }
+        }
+
+        return cached;
+    }
+
+    private void evictToFit(final long maxBytes){
+        final Iterator<CachedResponse> leastRecentlyUsedFirst = entries.values().iterator();
+        while(sizeInBytes > maxBytes && leastRecentlyUsedFirst.hasNext()){
+            sizeInBytes -= leastRecentlyUsedFirst.next().sizeInBytes;
+            leastRecentlyUsedFirst.remove();
+            evictions++;
+        }
+    }
+
+    private void remove(final String requestKey){
+        final CachedResponse removed = entries.remove(requestKey);
+        if(removed!=null){
+            sizeInBytes -= removed.sizeInBytes;
+        }
+    }
+
+    public synchronized void clear(){
+        entries.clear();
+        sizeInBytes = 0;
+    }
+
+    public synchronized int countEntries(){
+        return entries.size();
+    }
+
+    public synchronized long getSizeInBytes(){
+        return sizeInBytes;
+    }
+
+    public synchronized long getHits(){
+        return hits;
+    }
+
+    public synchronized long getMisses(){
+        return misses;
+    }
+
+    public synchronized long getEvictions(){
+        return evictions;
+    }
+
+    public static final class CachedResponse {
+
+        private final long version;
+        private final int statusCode;
+        private final Map<String, String> headers;
+        private final CompressedBody body;
+        private final long sizeInBytes;
+
+        CachedResponse(final String requestKey, final long version, final HttpApiResponse response,
+                       final ResponseCompressionConfig compression){
+            this.version = version;
+            this.statusCode = response.getStatusCode();
+            this.headers = new HashMap<>(response.getHeaders());
+            this.headers.put("Content-Type", response.getType());
+            this.body = new CompressedBody(response.getBody(), compression);
+            this.sizeInBytes = body.sizeInBytes() + (requestKey.length() * 2L) + ENTRY_OVERHEAD_BYTES;
+        }
+
+        public ApiResponse asApiResponse(){
+            final ApiResponse response = new ApiResponse(statusCode);
+            for(Map.Entry<String, String> header : headers.entrySet()){
+                response.setHeader(header.getKey(), header.getValue());
+            }
+            response.setBody(body.getBody());
+            return response;
+        }
+
+        public CompressedBody getCompressedBody(){
+            return body;
+        }
+    }
+}
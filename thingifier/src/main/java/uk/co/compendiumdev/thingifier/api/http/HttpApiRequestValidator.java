@@ -1,6 +1,7 @@
 package uk.co.compendiumdev.thingifier.api.http;
 
 import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 
@@ -17,6 +18,15 @@ public class HttpApiRequestValidator {
     }
 
     public boolean validateSyntax(final HttpApiRequest request, final ThingifierHttpApi.HttpVerb verb) {
+        return validateSyntax(request, verb, new BodyParser(request, new ArrayList<>()));
+    }
+
+    /**
+     * The body is validated with the given parser, which keeps the parsed body,
+     * so the same parser can be used to process the request without parsing the body again
+     */
+    public boolean validateSyntax(final HttpApiRequest request, final ThingifierHttpApi.HttpVerb verb,
+                                  final BodyParser parser) {
         // Config Validation
 
         ApiResponse apiResponse = new AcceptHeaderValidator(this.apiConfig).
@@ -24,14 +34,19 @@ public class HttpApiRequestValidator {
 
         if (apiResponse == null) {
             // only validate content if it contains content
-            if(verb == ThingifierHttpApi.HttpVerb.POST || verb == ThingifierHttpApi.HttpVerb.PUT || verb == ThingifierHttpApi.HttpVerb.PATCH) {
+            if(verb == ThingifierHttpApi.HttpVerb.POST && BulkBodyParser.isBulkPath(request.getPath())){
+
+                // each item in a bulk request is parsed and reported on separately
+                apiResponse = new ContentTypeHeaderValidator(this.apiConfig).
+                        validate(request.getContentTypeHeader(), true);
+
+            }else if(verb == ThingifierHttpApi.HttpVerb.POST || verb == ThingifierHttpApi.HttpVerb.PUT || verb == ThingifierHttpApi.HttpVerb.PATCH) {
 
                 apiResponse = new ContentTypeHeaderValidator(this.apiConfig).
                         validate(request.getContentTypeHeader());
 
                 // validate the content syntax format against content type
                 if(apiResponse==null){
-                    BodyParser parser = new BodyParser(request, new ArrayList<>());
                     String parsingError = parser.validBodyBasedOnContentType();
                     if(parsingError.length()!=0){
                         apiResponse = ApiResponse.error(400, parsingError);
@@ -6,6 +6,8 @@ import uk.co.compendiumdev.thingifier.api.response.ApiResponseAsXml;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -15,6 +17,9 @@ import java.util.Map;
  */
 final public class HttpApiResponse {
 
+    private static final String JSON_TYPE = "application/json";
+    private static final String XML_TYPE = "application/xml";
+
     private final ApiResponse apiResponse;
     private final HashMap<String, String> apiResponseHeaders;
     private final JsonThing jsonThing;
@@ -22,6 +27,7 @@ final public class HttpApiResponse {
 
     private String type;
     private boolean asJson;
+    private CompressedBody compressedBody;
 
     public HttpApiResponse(final Map<String, String> requestHeaders,
                            final ApiResponse anApiResponse,
@@ -44,9 +50,28 @@ final public class HttpApiResponse {
 
     private void configure(final Map<String, String> requestHeaders) {
 
-        String acceptHeader = getHeader("Accept", requestHeaders);
+        type = responseTypeFor(requestHeaders, apiConfig);
+        asJson = type.equals(JSON_TYPE);
+
+        // a response which has already decided its content e.g. a bulk response
+        if(apiResponse!=null && apiResponse.getHeaderValue("Content-Type")!=null){
+            type = apiResponse.getHeaderValue("Content-Type");
+        }
 
-        AcceptHeaderParser accept = new AcceptHeaderParser(acceptHeader);
+        apiResponseHeaders.put("Content-Type", type);
+        if(apiResponse!=null) {
+            apiResponseHeaders.putAll(apiResponse.getHeaders());
+        }
+    }
+
+    /**
+     * The content type a response to a request with these headers will have, based on the Accept header
+     */
+    public static String responseTypeFor(final Map<String, String> requestHeaders, final ThingifierApiConfig apiConfig){
+
+        boolean asJson = true;
+
+        AcceptHeaderParser accept = new AcceptHeaderParser(getHeader("Accept", requestHeaders));
 
         if(accept.hasAPreferenceForXml()){
             if(apiConfig.willApiAllowXmlForResponses()) {
@@ -59,15 +84,7 @@ final public class HttpApiResponse {
         }
 
         // TODO: handle text/plain, text/html
-        if (asJson) {
-            type = "application/json";
-        } else {
-            type = "application/xml";
-        }
-        apiResponseHeaders.put("Content-Type", type);
-        if(apiResponse!=null) {
-            apiResponseHeaders.putAll(apiResponse.getHeaders());
-        }
+        return asJson ? JSON_TYPE : XML_TYPE;
     }
 
     // TODO: handle text/plain, text/html
@@ -81,13 +98,30 @@ final public class HttpApiResponse {
         if (asJson) {
             returnBody = new ApiResponseAsJson(apiResponse, jsonThing).getJson();
         } else {
-            returnBody = new ApiResponseAsXml(apiResponse, jsonThing).getXml();
+            returnBody = new ApiResponseAsXml(apiResponse, jsonThing, apiConfig.willApiStreamXmlResponses()).getXml();
         }
 
         return returnBody;
     }
 
-    private String getHeader(final String name, Map<String, String> requestHeaders) {
+    /**
+     * Stream the body to the writer, json collections are written instance by instance
+     * rather than being built as a String first.
+     */
+    public void writeBody(final Writer writer) throws IOException {
+
+        if(apiResponse.hasABodyOverride()){
+            writer.write(apiResponse.getBody());
+            return;
+        }
+        if (asJson) {
+            new ApiResponseAsJson(apiResponse, jsonThing).writeJson(writer);
+        } else {
+            writer.write(new ApiResponseAsXml(apiResponse, jsonThing, apiConfig.willApiStreamXmlResponses()).getXml());
+        }
+    }
+
+    private static String getHeader(final String name, Map<String, String> requestHeaders) {
 
         if(requestHeaders==null){
             return "";
@@ -99,6 +133,19 @@ final public class HttpApiResponse {
         return "";
     }
 
+    /**
+     * A body which has already been compressed e.g. a cached response, the body of the
+     * api response is used when it is sent uncompressed
+     */
+    public HttpApiResponse withCompressedBody(final CompressedBody body) {
+        this.compressedBody = body;
+        return this;
+    }
+
+    public CompressedBody getCompressedBody() {
+        return compressedBody;
+    }
+
     public boolean hasType() {
         return this.type != null;
     }
@@ -0,0 +1,38 @@
+package uk.co.compendiumdev.thingifier.api.http;
+
+import uk.co.compendiumdev.thingifier.apiconfig.ResponseCompressionConfig;
+
+/*
+    The compressed form of the most recent body, for content which is generated on each request
+    but rarely changes e.g. the documentation, so it is only compressed again when it changes.
+ */
+public final class LatestCompressedBody {
+
+    private final ResponseCompressionConfig config;
+    private volatile Latest latest;
+
+    public LatestCompressedBody(final ResponseCompressionConfig config) {
+        this.config = config;
+    }
+
+    public CompressedBody of(final String body){
+        final Latest current = latest;
+        if(current!=null && current.body.equals(body)){
+            return current.compressed;
+        }
+
+        final Latest changed = new Latest(body, new CompressedBody(body, config));
+        latest = changed;
+        return changed.compressed;
+    }
+
+    private static final class Latest {
+        private final String body;
+        private final CompressedBody compressed;
+
+        private Latest(final String body, final CompressedBody compressed) {
+            this.body = body;
+            this.compressed = compressed;
+        }
+    }
+}
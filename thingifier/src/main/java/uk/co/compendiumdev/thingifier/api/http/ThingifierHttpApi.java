@@ -2,10 +2,14 @@ package uk.co.compendiumdev.thingifier.api.http;
 
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.restapihandlers.SessionHeaderParser;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -18,6 +22,7 @@ final public class ThingifierHttpApi {
 
     private final Thingifier thingifier;
     private final JsonThing jsonThing;
+    private final GetResponseCache responseCache;
     private List<HttpApiRequestHook> apiRequestHooks;
     private List<HttpApiResponseHook> apiResponseHooks;
 
@@ -51,6 +56,7 @@ final public class ThingifierHttpApi {
         }
 
         jsonThing = new JsonThing(thingifier.apiConfig().jsonOutput());
+        responseCache = new GetResponseCache(thingifier.apiConfig());
     }
 
 
@@ -64,19 +70,25 @@ final public class ThingifierHttpApi {
 
         // TODO: consider 'validation' hooks which can be used to override/augment validation
 
+        // the body is parsed once, during validation, and the parsed body is used to process the request
+        final BodyParser bodyParser = new BodyParser(request, thingifier.getThingNames());
+
         // validate request syntax
         if(httpResponse==null) {
-            httpResponse = validateRequestSyntax(request, verb);
+            httpResponse = validateRequestSyntax(request, verb, bodyParser);
         }
 
         // TODO: consider 'processing' hooks which can be used to override the generic processing
 
         // no httpResponse generated after validation so it is not in error
         if(httpResponse==null) {
-            apiResponse = routeAndProcessRequest(request, verb);
+            if(verb==HttpVerb.GET || verb==HttpVerb.HEAD){
+                httpResponse = processContentRequest(request, verb);
+            }else {
+                apiResponse = routeAndProcessRequest(request, verb, bodyParser);
 
-            httpResponse = new HttpApiResponse(request.getHeaders(), apiResponse,
-                    jsonThing, thingifier.apiConfig());
+                httpResponse = asHttpResponse(request, apiResponse);
+            }
         }
 
         // run any post processing response hooks
@@ -87,13 +99,18 @@ final public class ThingifierHttpApi {
      *  return an error response if the request is invalid, null if valid
      */
     public HttpApiResponse validateRequestSyntax(final HttpApiRequest request, final HttpVerb verb) {
+        return validateRequestSyntax(request, verb, new BodyParser(request, thingifier.getThingNames()));
+    }
+
+    private HttpApiResponse validateRequestSyntax(final HttpApiRequest request, final HttpVerb verb,
+                                                  final BodyParser bodyParser) {
 
         final HttpApiRequestValidator requestValidator =
                 new HttpApiRequestValidator(thingifier.apiConfig());
 
         HttpApiResponse httpResponse=null;
 
-        if(!requestValidator.validateSyntax(request, verb)){
+        if(!requestValidator.validateSyntax(request, verb, bodyParser)){
 
             httpResponse = new HttpApiResponse(
                                     request.getHeaders(),
@@ -104,6 +121,77 @@ final public class ThingifierHttpApi {
         return httpResponse;
     }
 
+    /*
+        GET and HEAD responses depend only on the database, the request and the Accept type,
+        so they are tagged with the version of the data for conditional requests,
+        and GET responses can be cached until that version changes.
+     */
+    private HttpApiResponse processContentRequest(final HttpApiRequest request, final HttpVerb verb){
+
+        createDatabaseBasedOnSessionHeaderUIfNecessary(request.getHeader(HTTP_SESSION_HEADER_NAME));
+
+        final String databaseName = SessionHeaderParser.getDatabaseNameFromHeaderValue(request.getHeaders());
+        final ERInstanceData database = thingifier.getERmodel().getInstanceData(databaseName);
+        if(database==null){
+            return asHttpResponse(request, routeAndProcessRequest(request, verb));
+        }
+
+        final String requestKey = ConditionalGet.requestKeyFor(databaseName, request,
+                                    HttpApiResponse.responseTypeFor(request.getHeaders(), thingifier.apiConfig()));
+        final long version = versionOfDataFor(request.getPath(), databaseName, database);
+        final ConditionalGet conditionalGet = new ConditionalGet(requestKey, version);
+
+        if(conditionalGet.isNotModifiedFor(request)){
+            // the content has not changed since the client last requested it
+            return asHttpResponse(request, conditionalGet.notModifiedResponse());
+        }
+
+        final boolean cacheable = verb==HttpVerb.GET && thingifier.apiConfig().willApiCacheGetResponses();
+        if(cacheable){
+            final GetResponseCache.CachedResponse cached = responseCache.get(requestKey, version);
+            if(cached!=null){
+                return asHttpResponse(request, cached);
+            }
+        }
+
+        final ApiResponse apiResponse = conditionalGet.tag(routeAndProcessRequest(request, verb));
+        final HttpApiResponse httpResponse = asHttpResponse(request, apiResponse);
+
+        if(cacheable && apiResponse.getStatusCode()==200){
+            return asHttpResponse(request, responseCache.put(requestKey, version, httpResponse));
+        }
+
+        return httpResponse;
+    }
+
+    /*
+        A request for things, or a thing, depends only on that collection,
+        other requests e.g. following relationships, depend on the whole database
+     */
+    private long versionOfDataFor(final String path, final String databaseName, final ERInstanceData database){
+        final String[] urlParts = path.split("/");
+        if(urlParts.length<=2){
+            final EntityInstanceCollection things =
+                    thingifier.getInstancesForSingularOrPluralNamedEntity(urlParts[0], databaseName);
+            if(things!=null){
+                return things.getVersion();
+            }
+        }
+        return database.getVersion();
+    }
+
+    private HttpApiResponse asHttpResponse(final HttpApiRequest request, final ApiResponse apiResponse){
+        return new HttpApiResponse(request.getHeaders(), apiResponse, jsonThing, thingifier.apiConfig());
+    }
+
+    private HttpApiResponse asHttpResponse(final HttpApiRequest request, final GetResponseCache.CachedResponse cached){
+        return asHttpResponse(request, cached.asApiResponse()).withCompressedBody(cached.getCompressedBody());
+    }
+
+    public GetResponseCache responseCache(){
+        return responseCache;
+    }
+
     private void createDatabaseBasedOnSessionHeaderUIfNecessary(final String sessionHeaderValue){
         if(sessionHeaderValue !=null){
             // make sure database exists
@@ -113,6 +201,11 @@ final public class ThingifierHttpApi {
 
     public ApiResponse routeAndProcessRequest(final HttpApiRequest request,
                                               HttpVerb verb) {
+        return routeAndProcessRequest(request, verb, new BodyParser(request, thingifier.getThingNames()));
+    }
+
+    private ApiResponse routeAndProcessRequest(final HttpApiRequest request,
+                                               final HttpVerb verb, final BodyParser bodyParser) {
 
         ApiResponse apiResponse=null;
 
@@ -134,13 +227,19 @@ final public class ThingifierHttpApi {
                 apiResponse = thingifier.api().delete(request.getPath(), request.getHeaders());
                 break;
             case POST:
+                if(BulkBodyParser.isBulkPath(request.getPath())){
+                    apiResponse = thingifier.api().bulkPost(request.getPath(),
+                                                    new BulkBodyParser(request, thingifier.getThingNames()),
+                                                    request.getHeaders());
+                    break;
+                }
                 apiResponse = thingifier.api().post(request.getPath(),
-                                                    new BodyParser(request, thingifier.getThingNames()),
+                                                    bodyParser,
                                                     request.getHeaders());
                 break;
             case PUT:
                 apiResponse = thingifier.api().put(request.getPath(),
-                                                    new BodyParser(request, thingifier.getThingNames()),
+                                                    bodyParser,
                                                     request.getHeaders()
                                                     );
                 break;
@@ -1,8 +1,9 @@
 package uk.co.compendiumdev.thingifier.api.http.bodyparser;
 
-import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserAbstraction;
-import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserUsingOrgJson;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserFactory;
 import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
 import uk.co.compendiumdev.thingifier.api.http.ContentTypeHeaderParser;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
@@ -14,18 +15,32 @@ import java.util.*;
 
 public class BodyParser {
 
+    private static final Logger logger = LoggerFactory.getLogger(BodyParser.class);
+
     private final HttpApiRequest request;
     private final List<String> thingNames;
     private final XMLParserAbstraction xmlParser;
     private Map<String, Object> args = null;
+    private List<Map.Entry<String,String>> flattenedArgs = null;
 
     public BodyParser(final HttpApiRequest aGivenRequest, final List<String> thingNames) {
         this.request = aGivenRequest;
         this.thingNames = thingNames;
-        this.xmlParser = new XMLParserUsingOrgJson(this.request.getBody(), this.thingNames);
+        this.xmlParser = XMLParserFactory.create(this.request.getBody(), this.thingNames);
         //this.xmlParser = new XMLParserUsingXstream(this.request.getBody(), this.thingNames);
     }
 
+    /**
+     * A body which has already been parsed e.g. an item from a bulk request,
+     * there is no request body to parse or validate against a content type
+     */
+    public BodyParser(final Map<String, Object> parsedArgs, final List<String> thingNames) {
+        this.request = null;
+        this.thingNames = thingNames;
+        this.xmlParser = null;
+        this.args = parsedArgs;
+    }
+
 
     /**
      * getStringMap returns the top level values as a map
@@ -60,16 +75,21 @@ public class BodyParser {
     // since complex keys can be duplicated,
     // we can't use a hashmap, so we are using a list of map entries
     // the map entries could be a custom Key Value Pair implementation if we wanted
+    // the validators and creation all use the flattened args, so it is only built once
+    // and each caller is given a copy they can remove entries from
     public List<Map.Entry<String,String>> getFlattenedStringMap() {
-        List<Map.Entry<String,String>> stringsInMap = flattenToStringMap("", getMap());
-        return stringsInMap;
+        if(flattenedArgs==null){
+            flattenedArgs = new ArrayList<>();
+            flattenToStringMap("", getMap(), flattenedArgs);
+        }
+        return new ArrayList<>(flattenedArgs);
     }
 
 
-    private List<Map.Entry<String,String>> flattenToStringMap(final String prefixkey, final Object theValue) {
+    private void flattenToStringMap(final String prefixkey, final Object theValue,
+                                    final List<Map.Entry<String,String>> stringsInMap) {
         // todo: configuration to reject if wrong types for field definitions
         // default should be to handle and convert
-        List<Map.Entry<String,String>> stringsInMap = new ArrayList<>();
         if (theValue instanceof String ) {
             stringsInMap.add(new AbstractMap.SimpleEntry<String,String>(prefixkey, (String)theValue));
         }
@@ -88,17 +108,14 @@ public class BodyParser {
             for (Map.Entry<String,Object> entry : ((Map<String,Object>)theValue).entrySet()) {
                 String key = entry.getKey();
                 Object aValue = entry.getValue();
-                List<Map.Entry<String,String>> nestedValues = flattenToStringMap(prefixkey + separator + key, aValue);
-                stringsInMap.addAll(nestedValues);
+                flattenToStringMap(prefixkey + separator + key, aValue, stringsInMap);
             }
         }
         if(theValue instanceof ArrayList) {
             for(Object aValue : (ArrayList)theValue){
-                List<Map.Entry<String,String>> nestedValues = flattenToStringMap(prefixkey + separator, aValue);
-                stringsInMap.addAll(nestedValues);
+                flattenToStringMap(prefixkey + separator, aValue, stringsInMap);
             }
         }
-        return stringsInMap;
     }
 
     public List<String> getObjectNames(){
@@ -120,8 +137,16 @@ public class BodyParser {
 
     /*
         valid if error message returned is empty
+
+        json is validated by parsing it, and the parsed map is kept, so a parser
+        used for validation does not parse the body again when the request is processed
      */
     public String validBodyBasedOnContentType(){
+        if(request==null){
+            // parsed before the parser was created
+            return "";
+        }
+
         final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
         if (contentTypeParser.isXML()) {
             String validateResultsErrorReport = this.xmlParser.validateXML();
@@ -132,7 +157,7 @@ public class BodyParser {
 
         if(contentTypeParser.isJSON()){
             try{
-                new Gson().fromJson(request.getBody(), Map.class);
+                parseMap();
             }catch(Exception e){
                 return e.getMessage();
             }
@@ -162,11 +187,11 @@ public class BodyParser {
         // TODO: BUG - since we remove the wrapper we might send in a POST <project><title>My posted to do on the project</title></project> to /todo and it will work fine if the fields are the same
         final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
         if (contentTypeParser.isXML()) {
-            System.out.println(request.getBody());
+            logger.debug("XML request {}", request.getBody());
             args = this.xmlParser.xmlAsMap();
         }else{
             // assume it is json
-            args = new Gson().fromJson(request.getBody(), Map.class);
+            args = SharedGson.GSON.fromJson(request.getBody(), Map.class);
         }
 
         if(args==null) {
@@ -223,6 +248,7 @@ public class BodyParser {
                 }else {
                     // enforce an int
                     arg.setValue(((Double) theValue).intValue());
+                    flattenedArgs = null;
                 }
             }
             if(field.getType()== FieldType.FLOAT){
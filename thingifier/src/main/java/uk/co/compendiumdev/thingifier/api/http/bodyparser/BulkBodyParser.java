@@ -0,0 +1,204 @@
+package uk.co.compendiumdev.thingifier.api.http.bodyparser;
+
+import uk.co.compendiumdev.thingifier.api.http.ContentTypeHeaderParser;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserAbstraction;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+    The body of a bulk request is a list of items, each item is the body that
+    would be used to create a single instance, or to amend an instance when the
+    item has its id or guid:
+
+        newline delimited json (application/x-ndjson), one object per line
+            {"title":"first todo"}
+            {"title":"second todo"}
+
+        a json array (application/json)
+            [{"title":"first todo"},{"title":"second todo"}]
+
+        an xml list (application/xml)
+            <todos><todo><title>first todo</title></todo><todo><title>second todo</title></todo></todos>
+
+    Each json item is parsed separately so that an item which can not be parsed
+    is reported without rejecting the rest of the items. An xml list is one document,
+    so a list which is not valid xml is reported as a single item which could not be parsed.
+ */
+public class BulkBodyParser {
+
+    public static final String BULK_URL_PART = "_bulk";
+
+    private final HttpApiRequest request;
+    private final List<String> thingNames;
+    private List<Item> items;
+
+    public BulkBodyParser(final HttpApiRequest request, final List<String> thingNames) {
+        this.request = request;
+        this.thingNames = thingNames;
+    }
+
+    /**
+     * Is the path for a bulk request e.g. todos/_bulk
+     */
+    public static boolean isBulkPath(final String path){
+        final String[] urlParts = path.split("/");
+        return urlParts.length == 2 && urlParts[1].equals(BULK_URL_PART);
+    }
+
+    /**
+     * Only parse the items once
+     */
+    public List<Item> getItems(final String itemName){
+
+        if(items!=null){
+            return items;
+        }
+
+        items = new ArrayList<>();
+
+        if(request.getBody().trim().isEmpty()){
+            return items;
+        }
+
+        final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
+        if(contentTypeParser.isXML()){
+            parseXmlList(itemName);
+        }else if(request.getBody().trim().startsWith("[")){
+            parseJsonArray();
+        }else{
+            // assume it is newline delimited json
+            parseJsonLines();
+        }
+
+        return items;
+    }
+
+    private void parseJsonLines() {
+        try(BufferedReader lines = new BufferedReader(new StringReader(request.getBody()))){
+            String line;
+            while((line = lines.readLine())!=null){
+                if(line.trim().isEmpty()){
+                    continue;
+                }
+                try{
+                    addItem(SharedGson.GSON.fromJson(line, Map.class));
+                }catch(Exception e){
+                    items.add(Item.notParsed(items.size(), e.getMessage()));
+                }
+            }
+        }catch(IOException e){
+            // reading from a String, so not expected
+            items.add(Item.notParsed(items.size(), e.getMessage()));
+        }
+    }
+
+    private void parseJsonArray() {
+        final List<Object> jsonItems;
+        try{
+            jsonItems = SharedGson.GSON.fromJson(request.getBody(), List.class);
+        }catch(Exception e){
+            items.add(Item.notParsed(0, e.getMessage()));
+            return;
+        }
+
+        for(Object jsonItem : jsonItems){
+            addItem(jsonItem);
+        }
+    }
+
+    /*
+        The list is read by the same xml parser as a single item body, so DTDs are rejected
+        and the -xmlparser configuration applies, each item in the list is then an object
+     */
+    private void parseXmlList(final String itemName) {
+        final XMLParserAbstraction xmlParser = XMLParserFactory.create(request.getBody(), thingNames);
+
+        final String invalid = xmlParser.validateXML();
+        if(!invalid.isEmpty()){
+            items.add(Item.notParsed(0, invalid));
+            return;
+        }
+
+        final Map<String, Object> list;
+        try{
+            list = xmlParser.xmlAsMap();
+        }catch(Exception e){
+            items.add(Item.notParsed(0, e.getMessage()));
+            return;
+        }
+
+        // <todos><todo>...</todo><todo>...</todo></todos>
+        Object listItems = list.get(itemName);
+        if(listItems==null && list.size()==1){
+            final Object wrapper = list.values().iterator().next();
+            if(wrapper instanceof Map){
+                listItems = ((Map<String, Object>) wrapper).get(itemName);
+            }
+        }
+
+        if(listItems==null){
+            items.add(Item.notParsed(0, String.format("Expected a list of %s", itemName)));
+            return;
+        }
+
+        if(listItems instanceof List){
+            for(Object xmlItem : (List<Object>) listItems){
+                addItem(xmlItem);
+            }
+        }else{
+            addItem(listItems);
+        }
+    }
+
+    private void addItem(final Object parsed){
+        if(parsed instanceof Map){
+            items.add(Item.parsed(items.size(), new BodyParser((Map<String, Object>) parsed, thingNames)));
+        }else{
+            items.add(Item.notParsed(items.size(), "Expected an object"));
+        }
+    }
+
+    public static final class Item {
+
+        private final int index;
+        private final BodyParser body;
+        private final String parseError;
+
+        private Item(final int index, final BodyParser body, final String parseError){
+            this.index = index;
+            this.body = body;
+            this.parseError = parseError;
+        }
+
+        static Item parsed(final int index, final BodyParser body){
+            return new Item(index, body, null);
+        }
+
+        static Item notParsed(final int index, final String parseError){
+            return new Item(index, null, parseError==null ? "Could not parse item" : parseError);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public boolean wasParsed() {
+            return body!=null;
+        }
+
+        public BodyParser getBody() {
+            return body;
+        }
+
+        public String getParseError() {
+            return parseError;
+        }
+    }
+}
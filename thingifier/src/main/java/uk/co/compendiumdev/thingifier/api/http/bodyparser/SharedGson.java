@@ -0,0 +1,15 @@
+package uk.co.compendiumdev.thingifier.api.http.bodyparser;
+
+import com.google.gson.Gson;
+
+/*
+    Gson is thread safe, so the body parsers share one instance rather than
+    creating one, and its type adapters, for every body they parse.
+ */
+public final class SharedGson {
+
+    public static final Gson GSON = new Gson();
+
+    private SharedGson(){
+    }
+}
@@ -4,7 +4,38 @@ import java.util.List;
 
 /* utility to make it easy to switch between parsers */
 public class XMLParserFactory {
+
+    public enum Parser {
+        // streams the XML straight to a Map, rejecting DTDs
+        STAX,
+        // converts the XML to a JSONObject then to a Map, more lenient about what it accepts
+        ORG_JSON;
+
+        // null when there is no parser with the name e.g. stax, org_json
+        public static Parser named(final String name){
+            for(Parser parser : values()){
+                if(parser.name().equalsIgnoreCase(name.trim())){
+                    return parser;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static volatile Parser parser = Parser.STAX;
+
+    public static void useParser(final Parser aParser){
+        parser = aParser;
+    }
+
+    public static Parser getParser(){
+        return parser;
+    }
+
     public static XMLParserAbstraction create(String xml, List<String> thingNames){
-        return new XMLParserUsingOrgJson(xml, thingNames);
+        if(parser == Parser.ORG_JSON){
+            return new XMLParserUsingOrgJson(xml, thingNames);
+        }
+        return new XMLParserUsingStax(xml, thingNames);
     }
 }
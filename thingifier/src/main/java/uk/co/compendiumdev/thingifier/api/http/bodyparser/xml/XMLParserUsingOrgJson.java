@@ -1,12 +1,16 @@
 package uk.co.compendiumdev.thingifier.api.http.bodyparser.xml;
 
-import com.google.gson.Gson;
 import org.json.JSONObject;
 import org.json.XML;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.SharedGson;
 
 import java.util.*;
 
 public class XMLParserUsingOrgJson implements XMLParserAbstraction {
+
+    private static final Logger logger = LoggerFactory.getLogger(XMLParserUsingOrgJson.class);
     private final String xml;
     private final List<String> thingNames;
 
@@ -30,8 +34,8 @@ public class XMLParserUsingOrgJson implements XMLParserAbstraction {
     }
 
     public Map<String, Object> xmlAsMap(){
-            System.out.println(XML.toJSONObject(this.xml).toString());
             JSONObject conv = XML.toJSONObject(this.xml);
+            logger.debug("XML request as JSON {}", conv);
             if (conv.keySet().size() == 1) {
                 // if the key is an entity type then we just want the body
                 ArrayList<String> keys = new ArrayList<String>(conv.keySet());
@@ -39,12 +43,12 @@ public class XMLParserUsingOrgJson implements XMLParserAbstraction {
                 if (thingNames.contains(keys.get(0))) {
                     // just the body
                     String justTheBody = conv.get(keys.get(0)).toString();
-                    System.out.println(justTheBody);
-                    return new Gson().fromJson(justTheBody, Map.class);
+                    logger.debug("XML request body as JSON {}", justTheBody);
+                    return SharedGson.GSON.fromJson(justTheBody, Map.class);
                 }
             }
 
-        return new Gson().fromJson(conv.toString(), Map.class);
+        return SharedGson.GSON.fromJson(conv.toString(), Map.class);
     }
 
     @Override
@@ -0,0 +1,263 @@
+package uk.co.compendiumdev.thingifier.api.http.bodyparser.xml;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.*;
+
+/*
+    Reads the XML as a stream of events, building the same map as XMLParserUsingOrgJson
+    without the intermediate JSONObject and json String.
+
+        <todo><title>a todo</title><doneStatus>false</doneStatus></todo>
+
+    becomes {"title":"a todo", "doneStatus":false} when todo is a thing name.
+
+    Values are converted as they are by org.json, "true", "false" and "null" become
+    Boolean or null, numbers become Double, repeated elements become a list
+    and attributes are values of the element.
+
+    The document is only parsed once, validateXML keeps the map for xmlAsMap.
+
+    DTDs are rejected and external entities are never resolved.
+ */
+public class XMLParserUsingStax implements XMLParserAbstraction {
+
+    private static final XMLInputFactory INPUT_FACTORY = secureInputFactory();
+
+    private final String xml;
+    private final List<String> thingNames;
+    private Map<String, Object> parsed;
+
+    public XMLParserUsingStax(String xml, List<String> thingNames){
+        this.xml = xml;
+        this.thingNames = thingNames;
+    }
+
+    private static XMLInputFactory secureInputFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        // element names are used as they are written e.g. ns:title
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        return factory;
+    }
+
+    public String validateXML(){
+        try{
+            parse();
+        }catch(XMLStreamException e){
+            return e.getMessage();
+        }
+        return "";
+    }
+
+    public Map<String, Object> xmlAsMap(){
+        try{
+            parse();
+        }catch(XMLStreamException e){
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+
+        if (parsed.size() == 1) {
+            // if the key is an entity type then we just want the body
+            final Map.Entry<String, Object> root = parsed.entrySet().iterator().next();
+            if (thingNames.contains(root.getKey())) {
+                if(root.getValue() instanceof Map){
+                    return (Map<String, Object>) root.getValue();
+                }
+                // an empty entity e.g. <todo/> is an empty body, as it was with org.json
+                return new LinkedHashMap<>();
+            }
+        }
+
+        return parsed;
+    }
+
+    private void parse() throws XMLStreamException {
+
+        if(parsed!=null){
+            return;
+        }
+
+        final Map<String, Object> document = new LinkedHashMap<>();
+        final Deque<Element> elements = new ArrayDeque<>();
+
+        if(xml.trim().isEmpty()){
+            parsed = document;
+            return;
+        }
+
+        final XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(xml));
+        try{
+            while(reader.hasNext()){
+                switch (reader.next()){
+                    case XMLStreamConstants.DTD:
+                        throw new XMLStreamException("DTDs are not allowed", reader.getLocation());
+                    case XMLStreamConstants.START_ELEMENT:
+                        if(!elements.isEmpty()){
+                            elements.peek().addText();
+                        }
+                        final Element element = new Element(reader.getLocalName());
+                        for(int attribute=0; attribute<reader.getAttributeCount(); attribute++){
+                            accumulate(element.fields,
+                                    qualifiedName(reader.getAttributePrefix(attribute),
+                                                    reader.getAttributeLocalName(attribute)),
+                                    asValue(reader.getAttributeValue(attribute)));
+                        }
+                        elements.push(element);
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        if(!elements.isEmpty()){
+                            elements.peek().text.append(reader.getText());
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        final Element ended = elements.pop();
+                        ended.addText();
+                        accumulate(elements.isEmpty() ? document : elements.peek().fields,
+                                    ended.name, ended.value());
+                        break;
+                    default:
+                        // comments and processing instructions are ignored
+                        break;
+                }
+            }
+        }finally {
+            reader.close();
+        }
+
+        parsed = document;
+    }
+
+    private static String qualifiedName(final String prefix, final String name){
+        if(prefix==null || prefix.isEmpty()){
+            return name;
+        }
+        return prefix + ":" + name;
+    }
+
+    // repeated names become a list of the values
+    private static void accumulate(final Map<String, Object> fields, final String name, final Object value){
+        if(!fields.containsKey(name)){
+            fields.put(name, value);
+            return;
+        }
+
+        final Object existing = fields.get(name);
+        if(existing instanceof ArrayList){
+            ((ArrayList<Object>) existing).add(value);
+        }else{
+            final ArrayList<Object> values = new ArrayList<>();
+            values.add(existing);
+            values.add(value);
+            fields.put(name, values);
+        }
+    }
+
+    /*
+        values are converted as org.json does, then as Gson reads them from json
+     */
+    static Object asValue(final String text){
+
+        if(text.isEmpty()){
+            return text;
+        }
+        if(text.equalsIgnoreCase("true")){
+            return Boolean.TRUE;
+        }
+        if(text.equalsIgnoreCase("false")){
+            return Boolean.FALSE;
+        }
+        if(text.equalsIgnoreCase("null")){
+            return null;
+        }
+
+        final char initial = text.charAt(0);
+        if((initial >= '0' && initial <= '9') || initial == '-'){
+            try{
+                if(text.indexOf('.') > -1 || text.indexOf('e') > -1 || text.indexOf('E') > -1 || "-0".equals(text)){
+                    final Double aDouble = Double.valueOf(text);
+                    if(!aDouble.isInfinite() && !aDouble.isNaN()){
+                        return aDouble;
+                    }
+                }else{
+                    // larger than a long is still a number e.g. 12345678901234567890
+                    final BigInteger aNumber = new BigInteger(text);
+                    // numbers with leading zeros are kept as text e.g. 007
+                    if(text.equals(aNumber.toString())){
+                        return aNumber.doubleValue();
+                    }
+                }
+            }catch(NumberFormatException e){
+                // not a number
+            }
+        }
+        return text;
+    }
+
+    private static final class Element {
+
+        private final String name;
+        private final Map<String, Object> fields;
+        private final StringBuilder text;
+
+        private Element(final String name){
+            this.name = name;
+            this.fields = new LinkedHashMap<>();
+            this.text = new StringBuilder();
+        }
+
+        // text between child elements is the content of the element
+        private void addText(){
+            final String content = text.toString().trim();
+            text.setLength(0);
+            if(!content.isEmpty()){
+                accumulate(fields, "content", asValue(content));
+            }
+        }
+
+        private Object value(){
+            if(fields.isEmpty()){
+                return "";
+            }
+            if(fields.size()==1 && fields.containsKey("content")){
+                return fields.get("content");
+            }
+            return fields;
+        }
+    }
+
+    @Override
+    public String getStringCollectionAsXML(final String plural, final String single, final Collection<String> strings) {
+        final StringBuilder output = new StringBuilder();
+        output.append("<").append(plural).append(">");
+        for(String string : strings){
+            output.append("<").append(single).append(">");
+            escape(string, output);
+            output.append("</").append(single).append(">");
+        }
+        output.append("</").append(plural).append(">");
+        return output.toString();
+    }
+
+    // escaped as org.json does, so responses are the same whichever parser is used
+    private static void escape(final String text, final StringBuilder output){
+        for(int index=0; index<text.length(); index++){
+            final char character = text.charAt(index);
+            switch (character){
+                case '&': output.append("&amp;"); break;
+                case '<': output.append("&lt;"); break;
+                case '>': output.append("&gt;"); break;
+                case '"': output.append("&quot;"); break;
+                case '\'': output.append("&apos;"); break;
+                default: output.append(character);
+            }
+        }
+    }
+}
@@ -4,9 +4,16 @@ import com.google.gson.Gson;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.*;
 
 public final class ApiResponseAsJson {
+
+    private static final Gson GSON = new Gson();
+
     private final ApiResponse apiResponse;
     private final JsonThing jsonThing;
 
@@ -17,20 +24,35 @@ public final class ApiResponseAsJson {
 
     public String getJson() {
 
+        final StringWriter output = new StringWriter();
+        try {
+            writeJson(output);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    /**
+     * Stream the json for the response to the writer, instances are written
+     * as they are visited rather than building the whole response in memory.
+     */
+    public void writeJson(final Writer output) throws IOException {
+
         if (!apiResponse.hasABody()) {
-            return "";
+            return;
         }
 
         if (apiResponse.isErrorResponse()) {
-            return getErrorMessageJson(apiResponse.getErrorMessages());
+            output.write(getErrorMessageJson(apiResponse.getErrorMessages()));
+            return;
         }
 
         // we always return an object
         // collections are named with their plural
         if (apiResponse.isCollection()) {
 
-            String output = "";
-
             final List<EntityInstance> things = apiResponse.getReturnedInstanceCollection();
 
             String typeName = "";
@@ -46,20 +68,18 @@ public final class ApiResponseAsJson {
             }
 
             if (typeName.length() > 0) {
-                output = jsonThing.asJsonTypedArrayWithContentsUntyped(apiResponse.getReturnedInstanceCollection(), typeName);
+                jsonThing.writeJsonTypedArrayWithContentsUntyped(things, typeName, output);
             } else {
                 if (things.size() == 0) {
-                    output = "{}";
+                    output.write("{}");
                 }
             }
 
-            return output;
-
         } else {
             EntityInstance instance = apiResponse.getReturnedInstance();
 
             //return JsonThing.asNamedJsonObject(instance).toString();
-            return jsonThing.asJsonObject(instance).toString();
+            jsonThing.writeJsonObject(instance, output);
         }
     }
 
@@ -73,6 +93,6 @@ public final class ApiResponseAsJson {
     public static String getErrorMessageJson(final Collection<String> myErrorMessages) {
         Map errorResponseBody = new HashMap<String, Collection<String>>();
         errorResponseBody.put("errorMessages", myErrorMessages);
-        return new Gson().toJson(errorResponseBody);
+        return GSON.toJson(errorResponseBody);
     }
 }
@@ -1,5 +1,7 @@
 package uk.co.compendiumdev.thingifier.api.response;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.StringToXML;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
@@ -9,14 +11,20 @@ import uk.co.compendiumdev.thingifier.api.ermodelconversion.XmlThing;
 import java.util.*;
 
 final public class ApiResponseAsXml {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiResponseAsXml.class);
     private final ApiResponse apiResponse;
     private final JsonThing jsonThing;
     private final XmlThing xmlThing;
 
     public ApiResponseAsXml(final ApiResponse apiResponse, final JsonThing aJsonThing) {
+        this(apiResponse, aJsonThing, false);
+    }
+
+    public ApiResponseAsXml(final ApiResponse apiResponse, final JsonThing aJsonThing, final boolean streamXml) {
         this.apiResponse = apiResponse;
         this.jsonThing = aJsonThing;
-        this.xmlThing = new XmlThing(jsonThing);
+        this.xmlThing = new XmlThing(jsonThing, streamXml);
     }
 
     public String getXml() {
@@ -64,7 +72,7 @@ final public class ApiResponseAsXml {
                 output = getErrorMessageXml(e.getMessage());
             }
 
-            System.out.println(output);
+            logger.debug("XML response {}", output);
 
             return output;
         } else {
@@ -79,7 +87,7 @@ final public class ApiResponseAsXml {
                 output = getErrorMessageXml(e.getMessage());
             }
 
-            System.out.println(output);
+            logger.debug("XML response {}", output);
 
             return output;
         }
@@ -0,0 +1,71 @@
+package uk.co.compendiumdev.thingifier.api.response;
+
+import com.google.gson.stream.JsonWriter;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.List;
+
+/*
+    The responses for the items in a bulk request as newline delimited json,
+    one line per item in the same order as the request:
+
+        {"index":0,"status":201,"todo":{"id":"1","title":"first todo",...}}
+        {"index":1,"status":400,"errorMessages":["title : field is mandatory"]}
+ */
+public final class BulkResponseAsNdJson {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final List<ApiResponse> itemResponses;
+    private final JsonThing jsonThing;
+
+    public BulkResponseAsNdJson(final List<ApiResponse> itemResponses, final JsonThing jsonThing) {
+        this.itemResponses = itemResponses;
+        this.jsonThing = jsonThing;
+    }
+
+    public String getNdJson() {
+        final StringWriter output = new StringWriter();
+        try {
+            writeNdJson(output);
+        } catch (IOException e) {
+            // a StringWriter does not throw
+            throw new UncheckedIOException(e);
+        }
+        return output.toString();
+    }
+
+    public void writeNdJson(final Writer output) throws IOException {
+        for(int index=0; index<itemResponses.size(); index++){
+            writeLine(index, itemResponses.get(index), output);
+            output.write("\n");
+        }
+    }
+
+    private void writeLine(final int index, final ApiResponse itemResponse, final Writer output) throws IOException {
+
+        final JsonWriter line = new JsonWriter(output);
+        line.beginObject();
+        line.name("index").value(index);
+        line.name("status").value(itemResponse.getStatusCode());
+
+        if(itemResponse.isErrorResponse()){
+            line.name("errorMessages").beginArray();
+            for(String errorMessage : itemResponse.getErrorMessages()){
+                line.value(errorMessage);
+            }
+            line.endArray();
+        }else if(itemResponse.hasABody()){
+            final StringWriter instance = new StringWriter();
+            jsonThing.writeJsonObject(itemResponse.getReturnedInstance(), instance);
+            line.name(itemResponse.getTypeOfThingReturned().getName()).jsonValue(instance.toString());
+        }
+
+        line.endObject();
+        line.flush();
+    }
+}
@@ -151,14 +151,10 @@ public class BodyRelationshipValidator {
             thingToRelateTo = things.findInstanceByGUID(uniqueId);
         }
 
-        // haven't found it yet
-        if(thingToRelateTo==null){
-            things = thingifier.getInstancesForSingularOrPluralNamedEntity(relationshipToPart, database);
-
-            if(things!=null) {
-                thingToRelateTo = things.findInstanceByField(
-                                        FieldValue.is(relationshipFieldPart, uniqueId));
-            }
+        // haven't found it yet, indexed fields e.g. id are looked up directly
+        if(thingToRelateTo==null && things!=null){
+            thingToRelateTo = things.findInstanceByField(
+                                    FieldValue.is(relationshipFieldPart, uniqueId));
         }
 
         if(thingToRelateTo==null){
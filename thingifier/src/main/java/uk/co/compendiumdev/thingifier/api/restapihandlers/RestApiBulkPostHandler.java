@@ -0,0 +1,50 @@
+package uk.co.compendiumdev.thingifier.api.restapihandlers;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.response.BulkResponseAsNdJson;
+import uk.co.compendiumdev.thingifier.api.restapihandlers.commonerrorresponse.NoSuchEntity;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+    POST things/_bulk creates an instance for each item in the body, or amends the instance
+    when the item has its id or guid, the response reports the outcome of each item as a
+    line of newline delimited json
+ */
+public class RestApiBulkPostHandler {
+    private final Thingifier thingifier;
+    private final JsonThing jsonThing;
+
+    public RestApiBulkPostHandler(final Thingifier aThingifier) {
+        thingifier = aThingifier;
+        jsonThing = new JsonThing(thingifier.apiConfig().jsonOutput());
+    }
+
+    public ApiResponse handle(final String url, final BulkBodyParser args, final Map<String, String> requestHeaders) {
+
+        String instanceDatabaseName = SessionHeaderParser.getDatabaseNameFromHeaderValue(requestHeaders);
+
+        final String thingName = url.split("/")[0];
+        final EntityInstanceCollection instancesCollection =
+                thingifier.getInstancesForSingularOrPluralNamedEntity(thingName, instanceDatabaseName);
+
+        if (instancesCollection == null) {
+            return NoSuchEntity.response(thingName);
+        }
+
+        final List<ApiResponse> itemResponses = new ThingBulkCreation(thingifier).with(
+                                                    args.getItems(instancesCollection.definition().getName()),
+                                                    instancesCollection, instanceDatabaseName);
+
+        // the status of each item is in the body
+        final ApiResponse response = new ApiResponse(200);
+        response.setHeader("Content-Type", BulkResponseAsNdJson.CONTENT_TYPE);
+        response.setBody(new BulkResponseAsNdJson(itemResponses, jsonThing).getNdJson());
+        return response;
+    }
+}
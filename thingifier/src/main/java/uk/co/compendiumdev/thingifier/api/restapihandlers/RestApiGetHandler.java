@@ -5,8 +5,14 @@ import uk.co.compendiumdev.thingifier.api.ThingifierRestAPIHandler;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.EntityListPageParamParser;
+import uk.co.compendiumdev.thingifier.core.query.PageCursor;
 import uk.co.compendiumdev.thingifier.core.query.SimpleQuery;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -14,6 +20,9 @@ import java.util.Map;
 import static uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi.HTTP_SESSION_HEADER_NAME;
 
 public class RestApiGetHandler {
+
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final Thingifier thingifier;
 
     public RestApiGetHandler(final Thingifier aThingifier) {
@@ -35,13 +44,18 @@ public class RestApiGetHandler {
         SimpleQuery queryResults;
 
         if(thingifier.apiConfig().forParams().willAllowFilteringThroughUrlParams()){
-           queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), thingifier.getERmodel().getInstanceData(instanceDatabaseName), url).performQuery(
-                   queryParams);
+           try {
+               final EntityListPageParamParser pageParams = new EntityListPageParamParser(queryParams);
+               queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), thingifier.getERmodel().getInstanceData(instanceDatabaseName), url).performQuery(
+                       queryParams, pageParams);
+           }catch(IllegalArgumentException e){
+               // page params, or a cursor which is not for the sort_by
+               return ApiResponse.error(400, e.getMessage());
+           }
         }else{
             queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), thingifier.getERmodel().getInstanceData(instanceDatabaseName), url).performQuery();
         }
 
-        // TODO: we should support pagination through query params
         // TODO: we should be able to sort using query params
         // TODO: api config should also support defining sorting for specific end points
         // e.g. ?sort_by=+id   or ?sort_by=-status  etc.
@@ -58,17 +72,73 @@ public class RestApiGetHandler {
         if (queryResults.lastMatchWasInstance()) {
             if (queryResults.isResultACollection()) {
                 // if we asked for /projects then we should always return a collection
-                return ApiResponse.success().
+                return withPageHeaders(ApiResponse.success().
                         returnInstanceCollection(
-                                queryResults.getListEntityInstances());
+                                queryResults.getListEntityInstances()), url, queryParams, queryResults);
             } else {
                 return ApiResponse.success().returnSingleInstance(queryResults.getLastInstance());
             }
         } else {
 
-            return ApiResponse.success().
+            return withPageHeaders(ApiResponse.success().
                     returnInstanceCollection(queryItems).
-                    resultContainsType(queryResults.resultContainsDefn());
+                    resultContainsType(queryResults.resultContainsDefn()), url, queryParams, queryResults);
+        }
+    }
+
+    /*
+        X-Total-Count: 12
+        Link: </todos?limit=5&cursor=YWZ0ZXIuMTAu...>; rel="next", </todos?limit=5&cursor=YmVmb3JlLjYu...>; rel="prev"
+     */
+    private ApiResponse withPageHeaders(final ApiResponse response, final String url,
+                                        final Map<String, String> queryParams, final SimpleQuery queryResults){
+
+        if(!queryResults.isResultPaged()){
+            return response;
+        }
+
+        response.setHeader(TOTAL_COUNT_HEADER, String.valueOf(queryResults.getTotalCount()));
+
+        final List<String> links = new ArrayList<>();
+        if(queryResults.getNextPageCursor()!=null){
+            links.add(String.format("<%s>; rel=\"next\"", pageUrl(url, queryParams, queryResults.getNextPageCursor())));
+        }
+        if(queryResults.getPreviousPageCursor()!=null){
+            links.add(String.format("<%s>; rel=\"prev\"", pageUrl(url, queryParams, queryResults.getPreviousPageCursor())));
+        }
+        if(!links.isEmpty()){
+            response.setHeader("Link", String.join(", ", links));
+        }
+
+        return response;
+    }
+
+    private String pageUrl(final String url, final Map<String, String> queryParams, final PageCursor cursor){
+
+        final StringBuilder pageUrl = new StringBuilder(url.startsWith("/") ? url : "/" + url);
+        String separator = "?";
+
+        for(Map.Entry<String, String> param : queryParams.entrySet()){
+            final String key = param.getKey();
+            if(key.equalsIgnoreCase(EntityListPageParamParser.OFFSET) ||
+                    key.equalsIgnoreCase(EntityListPageParamParser.CURSOR)){
+                continue;
+            }
+            pageUrl.append(separator).append(encoded(key)).append("=").append(encoded(param.getValue()));
+            separator = "&";
+        }
+
+        pageUrl.append(separator).append(EntityListPageParamParser.CURSOR).append("=").
+                append(cursor.token());
+
+        return pageUrl.toString();
+    }
+
+    private String encoded(final String value){
+        try {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
         }
     }
 
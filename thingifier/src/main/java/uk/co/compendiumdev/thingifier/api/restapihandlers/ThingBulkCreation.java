@@ -0,0 +1,244 @@
+package uk.co.compendiumdev.thingifier.api.restapihandlers;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
+
+import java.util.*;
+
+/*
+    Create many instances of a thing, each item is validated as it would be by ThingCreation
+    then all the valid items are added to the collection in a single batch.
+
+    An item with the id or guid of an existing instance amends that instance as a
+    POST to things/{id} would, the amendments are made in the order of the items.
+
+    The response for each item is in the same position as the item.
+ */
+public class ThingBulkCreation {
+
+    private final Thingifier thingifier;
+
+    public ThingBulkCreation(final Thingifier thingifier) {
+        this.thingifier = thingifier;
+    }
+
+    public List<ApiResponse> with(final List<BulkBodyParser.Item> items,
+                                  final EntityInstanceCollection thing,
+                                  final String database) {
+
+        final List<ApiResponse> responses = new ArrayList<>(items.size());
+        final List<PendingCreation> pending = new ArrayList<>();
+
+        for(BulkBodyParser.Item item : items){
+            if(!item.wasParsed()){
+                responses.add(ApiResponse.error(400, item.getParseError()));
+                continue;
+            }
+
+            final String key = keyOf(item.getBody(), thing.definition());
+            if(key!=null){
+                responses.add(amend(item.getBody(), key, thing, database));
+                continue;
+            }
+
+            final PendingCreation creation = new PendingCreation(item.getIndex(), item.getBody(), thing.definition());
+            final ApiResponse error = prepare(creation, thing, database);
+            responses.add(error);
+            if(error==null){
+                pending.add(creation);
+            }
+        }
+
+        addToCollection(pending, thing, responses);
+
+        createRelationships(pending, thing, database, responses);
+
+        return responses;
+    }
+
+    /*
+        the value of the id or guid in the item, null when the item has neither and is a new instance
+     */
+    private String keyOf(final BodyParser bodyargs, final EntityDefinition definition){
+        final Map<String, Object> bodyFields = bodyargs.getMap();
+        for(String keyFieldName : definition.getFieldNamesOfType(FieldType.ID, FieldType.GUID)){
+            final Object key = bodyFields.get(keyFieldName);
+            if(key instanceof Double && ((Double) key) == Math.rint((Double) key)){
+                // json numbers are parsed as Double e.g. 1.0 for the id 1
+                return String.valueOf(((Double) key).longValue());
+            }
+            if(key!=null){
+                return String.valueOf(key);
+            }
+        }
+        return null;
+    }
+
+    private ApiResponse amend(final BodyParser bodyargs, final String key,
+                              final EntityInstanceCollection thing, final String database){
+
+        final EntityInstance instance = thing.findInstanceByGUIDorID(key);
+        if(instance==null){
+            return ApiResponse.error404(String.format("No such %s entity instance with GUID or ID %s found",
+                                                        thing.definition().getName(), key));
+        }
+
+        // the id and guid identify the instance, they are not amended
+        final Map<String, Object> amendments = new LinkedHashMap<>(bodyargs.getMap());
+        amendments.keySet().removeAll(thing.definition().getFieldNamesOfType(FieldType.ID, FieldType.GUID));
+
+        return new ThingAmendment(thingifier).amendInstance(
+                            new BodyParser(amendments, thingifier.getThingNames()), instance, false, database);
+    }
+
+    /*
+        validate the item and create an instance which has not been added to the collection,
+        returns an error response if the item is not valid
+     */
+    private ApiResponse prepare(final PendingCreation creation, final EntityInstanceCollection thing,
+                                final String database){
+
+        final BodyParser bodyargs = creation.bodyargs;
+
+        ValidationReport validated = new BodyRelationshipValidator(thingifier).validate(bodyargs, thing, database);
+        if(!validated.isValid()){
+            return ApiResponse.error(400, String.format("Invalid relationships: %s",validated.getCombinedErrorMessages()));
+        }
+
+        validated = new BodyCreationValidator(thingifier).validate(bodyargs, thing);
+        if(!validated.isValid()){
+            return ApiResponse.error(400, String.format("Invalid Creation: %s",validated.getCombinedErrorMessages()));
+        }
+
+        final EntityInstance instance = creation.instance;
+
+        if(thingifier.apiConfig().willApiEnforceDeclaredTypesInInput()) {
+            ValidationReport validatedTypes = bodyargs.validateAgainstType(instance.getEntity());
+            if(!validatedTypes.isValid()){
+                return ApiResponse.error(400, validatedTypes.getCombinedErrorMessages());
+            }
+        }
+
+        try {
+            // the relationships are kept to create after the instance has been added
+            final List<Map.Entry<String,String>> fullargs = bodyargs.getFlattenedStringMap();
+            new BodyArgsProcessor(thingifier, bodyargs).identifyRelationships(
+                    fullargs, instance, creation.relationships, database);
+            fullargs.removeAll(creation.relationships.getRelationshipsKeys());
+
+            instance.setFieldValuesFrom(FieldValues.fromListMapEntryStringString(fullargs));
+        } catch (Exception e) {
+            return ApiResponse.error(400, e.getMessage());
+        }
+
+        final List<String> protectedFieldNames = instance.getEntity().
+                getFieldNamesOfType(FieldType.ID, FieldType.GUID);
+
+        final ValidationReport validation = instance.validateFieldValues(protectedFieldNames, false);
+        if(!validation.isValid()){
+            return ApiResponse.error(400, validation.getErrorMessages());
+        }
+
+        return null;
+    }
+
+    private void addToCollection(final List<PendingCreation> pending,
+                                 final EntityInstanceCollection thing,
+                                 final List<ApiResponse> responses){
+
+        final EntityDefinition definition = thing.definition();
+        if(definition.hasMaxInstanceLimit()){
+            final int spaceFor = Math.max(0, definition.getMaxInstanceLimit() - thing.countInstances());
+            while(pending.size() > spaceFor){
+                final PendingCreation rejected = pending.remove(pending.size()-1);
+                responses.set(rejected.index, ApiResponse.error(400, String.format(
+                        "ERROR: Cannot add instance, maximum limit of %d reached",
+                        definition.getMaxInstanceLimit())));
+            }
+        }
+
+        // ids are only allocated to the items which are valid, in the order they were sent
+        final List<EntityInstance> instances = new ArrayList<>(pending.size());
+        for(PendingCreation creation : pending){
+            creation.instance.addIdsToInstance();
+            instances.add(creation.instance);
+        }
+
+        try {
+            thing.addInstances(instances);
+        }catch(Exception e){
+            for(PendingCreation creation : pending){
+                // the batch may have been partly added before the error
+                if(thing.findInstanceByGUID(creation.instance.getGUID())==creation.instance){
+                    thing.deleteInstance(creation.instance);
+                }
+                responses.set(creation.index, ApiResponse.error(400, e.getMessage()));
+            }
+            pending.clear();
+        }
+    }
+
+    private void createRelationships(final List<PendingCreation> pending,
+                                     final EntityInstanceCollection thing,
+                                     final String database,
+                                     final List<ApiResponse> responses){
+
+        // many items usually relate to the same few instances, so each is only looked up once
+        final Map<String, EntityInstance> relatedInstances = new HashMap<>();
+
+        for(PendingCreation creation : pending){
+
+            final EntityInstance instance = creation.instance;
+
+            try {
+                for (RelationshipDetails relationship : creation.relationships.getRelationshipDetails()) {
+                    final String relatedKey = relationship.toType + "/" +
+                                                relationship.guidName + "/" + relationship.guidValue;
+                    final EntityInstance relatedTo = relatedInstances.computeIfAbsent(relatedKey,
+                            key -> thingifier.getInstancesForSingularOrPluralNamedEntity(relationship.toType, database).
+                                    findInstanceByField(
+                                            FieldValue.is(relationship.guidName, relationship.guidValue)));
+                    instance.getRelationships().connect(relationship.relationshipName, relatedTo);
+                }
+            }catch(Exception e){
+                thing.deleteInstance(instance);
+                responses.set(creation.index,
+                        ApiResponse.error(400, "Error creating relationships " + e.getMessage()));
+                continue;
+            }
+
+            final ValidationReport validity = instance.validateRelationships();
+            if(validity.isValid()){
+                responses.set(creation.index, ApiResponse.created(instance, thingifier.apiConfig()));
+            }else{
+                thing.deleteInstance(instance);
+                responses.set(creation.index,
+                        ApiResponse.error(400, validity.getErrorMessages()).
+                                addToErrorMessages("No new item created"));
+            }
+        }
+    }
+
+    private static final class PendingCreation {
+        private final int index;
+        private final BodyParser bodyargs;
+        private final EntityInstance instance;
+        private final RelationshipCollector relationships;
+
+        PendingCreation(final int index, final BodyParser bodyargs, final EntityDefinition definition){
+            this.index = index;
+            this.bodyargs = bodyargs;
+            this.instance = new EntityInstance(definition);
+            this.instance.addGUIDtoInstance();
+            this.relationships = new RelationshipCollector();
+        }
+    }
+}
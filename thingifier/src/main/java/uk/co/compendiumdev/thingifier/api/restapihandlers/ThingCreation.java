@@ -1,5 +1,7 @@
 package uk.co.compendiumdev.thingifier.api.restapihandlers;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
@@ -16,6 +18,8 @@ import java.util.UUID;
 
 public class ThingCreation {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThingCreation.class);
+
     private final Thingifier thingifier;
 
     public ThingCreation(final Thingifier thingifier) {
@@ -65,7 +69,7 @@ public class ThingCreation {
              aGUID= UUID.fromString(instanceGuid).toString();
         } catch (Exception e) {
             // that is not a valid guid
-            System.out.println(e.getMessage());
+            logger.debug("Invalid GUID {}: {}", instanceGuid, e.getMessage());
             return ApiResponse.error404(String.format("Invalid GUID for %s entity %s", instanceGuid, thing.definition().getName()));
         }
 
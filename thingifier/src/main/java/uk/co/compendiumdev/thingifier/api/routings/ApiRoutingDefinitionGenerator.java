@@ -2,6 +2,7 @@ package uk.co.compendiumdev.thingifier.api.routings;
 
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BulkBodyParser;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.api.response.ResponseHeader;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
@@ -126,6 +127,16 @@ public class ApiRoutingDefinitionGenerator {
                     addPossibleStatus(RoutingStatus.returnValue(
                             400, String.format("Error when creating a %s", entityDefn.getName())));
 
+            // defined before the GUID urls so it is matched first
+            defn.addRouting(
+                    String.format("create many %s from a body of newline delimited json objects, a json array or an xml list. " +
+                                    "An item with an id or guid amends that instance. " +
+                                    "The outcome of each item is returned as a line of newline delimited json. " + maxLimitInformation,
+                            entityDefn.getPlural()),
+                    RoutingVerb.POST, pluralUrl + "/" + BulkBodyParser.BULK_URL_PART, RoutingStatus.returnedFromCall()).
+                    addPossibleStatus(RoutingStatus.returnValue(
+                            200, "The status of each item is reported in the body"));
+
             defn.addRouting(
                     String.format("show all Options for endpoint of %s", pluralUrl),
                     RoutingVerb.OPTIONS, pluralUrl, RoutingStatus.returnValue(200, "the endpoint verb options"),
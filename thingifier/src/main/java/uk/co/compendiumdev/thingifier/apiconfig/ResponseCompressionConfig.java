@@ -0,0 +1,53 @@
+package uk.co.compendiumdev.thingifier.apiconfig;
+
+import java.util.zip.Deflater;
+
+public class ResponseCompressionConfig {
+
+    // compress response bodies when the client sends an Accept-Encoding for gzip or deflate (default: true)
+    private boolean compressResponses;
+    // bodies smaller than this are sent as they are, compressing them costs more than it saves (default: 1024)
+    private int minimumSizeInBytes;
+    // 1 (fastest) to 9 (smallest) (default: 6)
+    private int level;
+
+    public ResponseCompressionConfig(){
+        compressResponses = true;
+        minimumSizeInBytes = 1024;
+        level = 6;
+    }
+
+    public void setFrom(final ResponseCompressionConfig compressionConfig) {
+        compressResponses = compressionConfig.willCompressResponses();
+        minimumSizeInBytes = compressionConfig.getMinimumSizeInBytes();
+        level = compressionConfig.getLevel();
+    }
+
+    public void setCompressResponses(final boolean config) {
+        compressResponses = config;
+    }
+
+    public void setMinimumSizeInBytes(final int minimumSize) {
+        minimumSizeInBytes = Math.max(0, minimumSize);
+    }
+
+    public void setLevel(final int compressionLevel) {
+        level = Math.min(Deflater.BEST_COMPRESSION, Math.max(Deflater.BEST_SPEED, compressionLevel));
+    }
+
+    public boolean willCompressResponses() {
+        return compressResponses;
+    }
+
+    public int getMinimumSizeInBytes() {
+        return minimumSizeInBytes;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean willCompress(final int sizeInBytes) {
+        return compressResponses && sizeInBytes >= minimumSizeInBytes;
+    }
+}
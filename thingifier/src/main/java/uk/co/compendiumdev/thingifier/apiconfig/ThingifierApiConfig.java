@@ -18,6 +18,9 @@ public class ThingifierApiConfig {
     // XML
     // willApiAllowXMLResponses i.e. respond with XML if asked for, json otherwise (default: true)
     boolean willApiAllowXmlResponses;
+    // willApiStreamXmlResponses i.e. write XML directly from the instances rather than converting the JSON (default: false)
+    // the converted XML elements are in an arbitrary order, streamed XML elements are in field definition order
+    boolean willApiStreamXmlResponses;
     // todo: willApiAllowXMLRequests i.e. process when XML content submitted, if not then throw error (default: true)
 
     // JSON
@@ -49,6 +52,12 @@ public class ThingifierApiConfig {
 
     private final AdminConfig adminConfig;
 
+    // responseCacheMaxBytes i.e. cache rendered GET responses up to this many bytes, 0 to not cache (default: 0)
+    // configure the api before caching, a change to the config does not invalidate cached responses
+    private long responseCacheMaxBytes;
+
+    private final ResponseCompressionConfig responseCompressionConfig;
+
 
     // Requests
     // willEnforceDeclaredTypesInInput e.g. only accept if boolean is given as `true` indead of "true"
@@ -70,11 +79,13 @@ public class ThingifierApiConfig {
         willEnforceDeclaredTypesInInput = true;
 
         willApiAllowXmlResponses = true;
+        willApiStreamXmlResponses = false;
         willApiAllowJsonResponses = true;
         willApiEnforceAcceptHeaderForResponses = true; // 406 if not supported header
         willApiEnforceContentTypeHeaderForRequests = true;
         acceptXmlContent = true;
         acceptJsonContent = true;
+        responseCacheMaxBytes = 0;
 
         paramsConfig = new ParamConfig();
 
@@ -87,6 +98,8 @@ public class ThingifierApiConfig {
         statusCodeConfig = new StatusCodeConfig();
 
         adminConfig = new AdminConfig();
+
+        responseCompressionConfig = new ResponseCompressionConfig();
     }
 
     public void setFrom(final ThingifierApiConfig apiConfig) {
@@ -97,19 +110,26 @@ public class ThingifierApiConfig {
         willEnforceDeclaredTypesInInput = apiConfig.willApiEnforceDeclaredTypesInInput();
 
         willApiAllowXmlResponses = apiConfig.willApiAllowXmlForResponses();
+        willApiStreamXmlResponses = apiConfig.willApiStreamXmlResponses();
         willApiAllowJsonResponses = apiConfig.willApiAllowJsonForResponses();
         willApiEnforceAcceptHeaderForResponses = willApiEnforceAcceptHeaderForResponses();
+        responseCacheMaxBytes = apiConfig.getResponseCacheMaxBytes();
 
         paramsConfig.setFrom(apiConfig.forParams());
         statusCodeConfig.setFrom(apiConfig.statusCodes());
         jsonOutputConfig.setFrom(apiConfig.jsonOutput());
         adminConfig.setFrom(apiConfig.adminConfig());
+        responseCompressionConfig.setFrom(apiConfig.responseCompression());
     }
 
     public AdminConfig adminConfig() {
         return adminConfig;
     }
 
+    public ResponseCompressionConfig responseCompression() {
+        return responseCompressionConfig;
+    }
+
     public JsonOutputConfig jsonOutput() {
         return jsonOutputConfig;
     }
@@ -150,6 +170,11 @@ public class ThingifierApiConfig {
         return this;
     }
 
+    public ThingifierApiConfig setApiToStreamXmlResponses(boolean stream) {
+        willApiStreamXmlResponses = stream;
+        return this;
+    }
+
     public ThingifierApiConfig setApiToAllowJsonForResponses(boolean allow) {
         willApiAllowJsonResponses = allow;
         return this;
@@ -184,6 +209,10 @@ public class ThingifierApiConfig {
         return willApiAllowXmlResponses;
     }
 
+    public boolean willApiStreamXmlResponses() {
+        return willApiStreamXmlResponses;
+    }
+
     public boolean willApiAllowJsonForResponses() {
         return willApiAllowJsonResponses;
     }
@@ -196,6 +225,19 @@ public class ThingifierApiConfig {
         return willApiEnforceContentTypeHeaderForRequests;
     }
 
+    public ThingifierApiConfig setResponseCacheMaxBytes(long maxBytes) {
+        responseCacheMaxBytes = Math.max(0, maxBytes);
+        return this;
+    }
+
+    public long getResponseCacheMaxBytes() {
+        return responseCacheMaxBytes;
+    }
+
+    public boolean willApiCacheGetResponses() {
+        return responseCacheMaxBytes > 0;
+    }
+
     public ParamConfig forParams() {
         return paramsConfig;
     }
@@ -1,10 +1,15 @@
 package uk.co.compendiumdev.thingifier.apiconfig;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.ArrayList;
 import java.util.List;
 
 public class ThingifierApiConfigProfiles {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThingifierApiConfigProfiles.class);
+
     List<ThingifierApiConfigProfile> profiles;
     ThingifierApiConfigProfile defaultProfile;
 
@@ -45,11 +50,8 @@ public class ThingifierApiConfigProfiles {
     public ThingifierApiConfigProfile createDefaultProfile(final String name, final String description) {
         final ThingifierApiConfigProfile profile = create(name, description);
         if(defaultProfile!=null){
-            System.out.println(
-                String.format(
-                    "WARNING: overriding default profile from %s to %s",
-                    defaultProfile.getName(), name
-                ));
+            logger.warn("overriding default profile from {} to {}",
+                    defaultProfile.getName(), name);
         }
         defaultProfile = profile;
         return profile;
@@ -1,11 +1,15 @@
 package uk.co.compendiumdev.thingifier.application;
 
-import spark.Spark;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.XMLParserFactory;
 import uk.co.compendiumdev.thingifier.api.routings.RoutingDefinition;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfile;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfiles;
+import uk.co.compendiumdev.thingifier.application.httpengine.HttpEngine;
+import uk.co.compendiumdev.thingifier.application.httpengine.HttpEngineThreads;
+import uk.co.compendiumdev.thingifier.application.httpengine.HttpEngines;
+import uk.co.compendiumdev.thingifier.application.httpengine.SparkHttpEngine;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.ClearDataPreSparkRequestHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.LogTheSparkRequestHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.LogTheResponseHook;
@@ -13,6 +17,7 @@ import uk.co.compendiumdev.thingifier.application.routehandlers.ShutdownRouteHan
 import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUI;
 import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -32,6 +37,11 @@ public class MainImplementation {
     private Thingifier thingifier;
     private ThingifierApiConfigProfile profileToUse;
     ThingifierRestServer restServer;
+    // the web server used, configurable through arguments e.g. -engine=jdk
+    private HttpEngine httpEngine;
+    // the threads which handle requests, configurable through arguments e.g. -threads=virtual
+    // -threads=platform:50 when not set the engine default is used
+    private HttpEngineThreads httpEngineThreads;
     private String[] args;
     // prevent shutdown verb as configurable through arguments e.g. -noshutdown
     boolean allowShutdown;
@@ -73,6 +83,8 @@ public class MainImplementation {
         desiredVersionName=null;
 
         guiManagement = new DefaultGUIHTML();
+
+        httpEngine = new SparkHttpEngine();
     }
 
 
@@ -149,6 +161,53 @@ public class MainImplementation {
                 }
             }
 
+            if (arg.startsWith("-engine")) {
+                String[] details = arg.split("=");
+                if (details != null && details.length > 1) {
+                    final HttpEngine argEngine = HttpEngines.named(details[1]);
+                    if(argEngine!=null){
+                        httpEngine = argEngine;
+                        System.out.println("Will use http engine " + httpEngine.getName());
+                    }else{
+                        System.out.println(
+                                String.format("Invalid http engine %s, valid engines are %s, using %s",
+                                        details[1].trim(), String.join(", ", HttpEngines.names()),
+                                        httpEngine.getName()));
+                    }
+                }
+            }
+
+            if (arg.startsWith("-threads")) {
+                String[] details = arg.split("=");
+                if (details != null && details.length > 1) {
+                    final HttpEngineThreads argThreads = HttpEngineThreads.parse(details[1]);
+                    if(argThreads!=null){
+                        httpEngineThreads = argThreads;
+                        System.out.println("Will handle requests with threads " + httpEngineThreads);
+                    }else{
+                        System.out.println(
+                                String.format("Invalid threads %s, use virtual or platform:threads",
+                                        details[1].trim()));
+                    }
+                }
+            }
+
+            if (arg.startsWith("-xmlparser")) {
+                String[] details = arg.split("=");
+                if (details != null && details.length > 1) {
+                    final XMLParserFactory.Parser argParser = XMLParserFactory.Parser.named(details[1]);
+                    if(argParser!=null){
+                        XMLParserFactory.useParser(argParser);
+                        System.out.println("Will parse xml requests with " + argParser);
+                    }else{
+                        System.out.println(
+                                String.format("Invalid xml parser %s, valid parsers are %s, using %s",
+                                        details[1].trim(), Arrays.toString(XMLParserFactory.Parser.values()),
+                                        XMLParserFactory.getParser()));
+                    }
+                }
+            }
+
             if (arg.startsWith("-noshutdown")) {
                 allowShutdown = false;
             }
@@ -237,13 +296,27 @@ public class MainImplementation {
         clearDownMinutes=minutes;
     }
 
+    public void setHttpEngine(final HttpEngine engine){
+        httpEngine = engine;
+    }
+
+    public HttpEngine getHttpEngine() {
+        return httpEngine;
+    }
+
+    public void setHttpEngineThreads(final HttpEngineThreads threads){
+        httpEngineThreads = threads;
+    }
+
     public void configurePortAndDefaultRoutes() {
-        Spark.port(proxyport);
-        Spark.staticFileLocation(staticFilePath);
+        if(httpEngineThreads!=null){
+            httpEngine.configureThreads(httpEngineThreads);
+        }
+        httpEngine.configurePort(proxyport, staticFilePath);
     }
 
     public void setupBuiltInConfigurableRoutes() {
-        if(allowShutdown) {
+        if(allowShutdown && httpEngine.supportsSparkRoutes()) {
             apiDefn.addRoutesToDocumentation(
                 new ShutdownRouteHandler().
                     configureRoutes().
@@ -276,10 +349,16 @@ public class MainImplementation {
 
     public void setupDefaultGui() {
 
-            new DefaultGUI(thingifier, guiManagement).
+        if(!httpEngine.supportsSparkRoutes()){
+            System.out.println("The GUI is not available with http engine " + httpEngine.getName());
+            return;
+        }
+
+        new DefaultGUI(thingifier, guiManagement).
                 configureRoutes();
     }
 
+    // returns null when the http engine is not Spark
     public ThingifierRestServer startRestServer() {
 
         if(thingifier==null){
@@ -288,19 +367,29 @@ public class MainImplementation {
 
         apiDefn.setThingifier(thingifier);
 
-        restServer = new ThingifierRestServer( "",
-                                    thingifier,
-                                    apiDefn,
-                                    guiManagement);
+        httpEngine.start(thingifier, apiDefn, guiManagement);
+
+        // the Spark hooks can only be used by the Spark engine
+        if(httpEngine instanceof SparkHttpEngine){
+            restServer = ((SparkHttpEngine) httpEngine).getRestServer();
+        }
 
-        System.out.println("Running on " + Spark.port());
-        System.out.println(" e.g. http://localhost:" + Spark.port());
+        System.out.println("Running " + httpEngine.getName() + " on " + httpEngine.getPort());
+        System.out.println(" e.g. http://localhost:" + httpEngine.getPort());
 
         return restServer;
     }
 
     public void addBuiltInArgConfiguredHooks() {
 
+        if(restServer==null){
+            if(clearDataPeriodically || verboseMode){
+                System.out.println("-autocleardown and -verbose are not available with http engine " +
+                                    httpEngine.getName());
+            }
+            return;
+        }
+
         if(clearDataPeriodically) {
             restServer.registerPreRequestHook(
                     new ClearDataPreSparkRequestHook(clearDownMinutes, thingifier));
@@ -1,10 +1,13 @@
 package uk.co.compendiumdev.thingifier.application;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.LatestCompressedBody;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponseError;
 import uk.co.compendiumdev.thingifier.api.routings.ApiRoutingDefinition;
 import uk.co.compendiumdev.thingifier.api.routings.ApiRoutingDefinitionGenerator;
@@ -30,6 +33,8 @@ import static uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi.HTTP_SES
 
 public class ThingifierRestServer {
 
+    private static final Logger logger = LoggerFactory.getLogger(ThingifierRestServer.class);
+
 
     private final ThingifierApiDefn apiDefn;
     private String urlPath;
@@ -81,7 +86,7 @@ public class ThingifierRestServer {
                     final URL requestUrl = new URL(request.url());
                     this.urlPath = requestUrl.getProtocol() + "://" + requestUrl.getAuthority();
                 }catch(MalformedURLException e){
-                    System.out.println(request.url() + " " + e.getMessage());
+                    logger.warn("Could not capture url path from {}: {}", request.url(), e.getMessage());
                 }
             }
 
@@ -93,9 +98,9 @@ public class ThingifierRestServer {
                 }
             }
 
-            HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
-            // now run the HttpApiRequestHook hooks on this iRequest
-            if(preInternalHttpRequestHooks !=null){
+            // now run the HttpApiRequestHook hooks on the request shared with the route
+            if(preInternalHttpRequestHooks !=null && !preInternalHttpRequestHooks.isEmpty()){
+                HttpApiRequest iRequest = SparkRequestContext.of(request).getHttpApiRequest();
                 for(InternalHttpRequestHook hook : preInternalHttpRequestHooks){
                     // todo: catch exceptions and `halt`
                     hook.run(iRequest);
@@ -107,20 +112,19 @@ public class ThingifierRestServer {
 
             // now run the HttpApiResponseHook hooks
             // on this iRequest and iResponse
-            HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
-            InternalHttpResponse iResponse = SparkResponseToInternalHttpResponse.
-                                                   convert(response);
+            if(postInternalHttpResponseHooks !=null && !postInternalHttpResponseHooks.isEmpty()){
+                HttpApiRequest iRequest = SparkRequestContext.of(request).getHttpApiRequest();
+                InternalHttpResponse iResponse = SparkResponseToInternalHttpResponse.
+                                                       convert(response);
 
-            // now run the HttpApiRequestHook hooks on this iRequest
-            if(postInternalHttpResponseHooks !=null){
                 for(InternalHttpResponseHook hook : postInternalHttpResponseHooks){
                     // todo: catch exceptions and `halt`
                     hook.run(iRequest, iResponse);
                 }
-            }
 
-            SparkResponseToInternalHttpResponse.
-                    updateResponseFromInternal(response, iResponse);
+                SparkResponseToInternalHttpResponse.
+                        updateResponseFromInternal(response, iResponse);
+            }
 
 
             if(postSparkHttpResponseHooks !=null){
@@ -132,6 +136,17 @@ public class ThingifierRestServer {
         });
 
 
+        // compress the response bodies, after all the hooks have run
+        final SparkResponseCompression responseCompression =
+                new SparkResponseCompression(thingifier.apiConfig().responseCompression());
+        afterAfter(responseCompression::compress);
+
+        // the documentation rarely changes so keep it compressed
+        final LatestCompressedBody latestDocs =
+                new LatestCompressedBody(thingifier.apiConfig().responseCompression());
+        final LatestCompressedBody latestSwagger =
+                new LatestCompressedBody(thingifier.apiConfig().responseCompression());
+
         // configure it based on a thingifier
         ApiRoutingDefinition routingDefinitions = new ApiRoutingDefinitionGenerator(thingifier).generate();
 
@@ -141,8 +156,10 @@ public class ThingifierRestServer {
         get("/docs", (request, response) -> {
             response.type("text/html");
             response.status(200);
-            return new RestApiDocumentationGenerator(thingifier, guiManagement).
+            final String docs = new RestApiDocumentationGenerator(thingifier, guiManagement).
                     getApiDocumentation(routingDefinitions, apiDefn.getAdditionalRoutes(), this.urlPath);
+            SparkResponseCompression.offerPrecompressed(request, docs, latestDocs.of(docs));
+            return docs;
         });
 
         guiManagement.appendMenuItem("API documentation","/docs");
@@ -158,12 +175,14 @@ public class ThingifierRestServer {
                 nameprefix = apiDefn.getThingifier().getTitle().replace(" ", "-") + "-";
             }catch (Exception e){
                 // invalid apidefn setup
-                System.out.println("Possibly incomplete swagger generation, api not defined from model");
+                logger.warn("Possibly incomplete swagger generation, api not defined from model");
             }
             response.header("Content-Type", "application/octet-stream");
             response.header("Content-Disposition",
                     String.format("attachment; filename=\"%sswagger.json\"",nameprefix));
-            return new Swaggerizer(apiDefn).asJson();
+            final String swagger = new Swaggerizer(apiDefn).asJson();
+            SparkResponseCompression.offerPrecompressed(request, swagger, latestSwagger.of(swagger));
+            return swagger;
         });
 
 
@@ -174,7 +193,7 @@ public class ThingifierRestServer {
                     if (defn.status().isReturnedFromCall()) {
                         get(defn.url(), (request, response) -> {
                             //return apiBridge.get(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                            final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                             // TODO: allow amending the request and the response at a request level from framework
                             // .e.g
                             // Add the Challenger GUID identifier as a Thingifier HTTP Session header
@@ -182,7 +201,7 @@ public class ThingifierRestServer {
                             //runAnyCustomHttpApiRequestAmendmentHooks(theRequest)
                             final HttpApiResponse theResponse = apiBridge.get(theRequest);
                             // TODO: similarly allow amending the response from the API
-                            return HttpApiResponseToSpark.convert(theResponse, response);
+                            return HttpApiResponseToSpark.convert(theResponse, request, response);
                         });
                     }
                     break;
@@ -190,7 +209,7 @@ public class ThingifierRestServer {
                     if (defn.status().isReturnedFromCall()) {
                         post(defn.url(), (request, response) -> {
                             //return apiBridge.post(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                            final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                             final HttpApiResponse theResponse = apiBridge.post(theRequest);
                             return HttpApiResponseToSpark.convert(theResponse, response);
                         });
@@ -200,7 +219,7 @@ public class ThingifierRestServer {
                     if (defn.status().isReturnedFromCall()) {
                         head(defn.url(), (request, response) -> {
                             //return apiBridge.head(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                            final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                             final HttpApiResponse theResponse = apiBridge.head(theRequest);
                             return HttpApiResponseToSpark.convert(theResponse, response);
                         });
@@ -215,7 +234,7 @@ public class ThingifierRestServer {
                     } else {
                         delete(defn.url(), (request, response) -> {
                             //return apiBridge.delete(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                            final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                             final HttpApiResponse theResponse = apiBridge.delete(theRequest);
                             return HttpApiResponseToSpark.convert(theResponse, response);
                         });
@@ -238,7 +257,7 @@ public class ThingifierRestServer {
                     } else {
                         put(defn.url(), (request, response) -> {
                             //return apiBridge.put(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                            final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                             final HttpApiResponse theResponse = apiBridge.put(theRequest);
                             return HttpApiResponseToSpark.convert(theResponse, response);
                         });
@@ -260,7 +279,7 @@ public class ThingifierRestServer {
         if(thingifier.apiConfig().adminConfig().isAdminSearchAllowed()) {
             get(thingifier.apiConfig().adminConfig().getAdminSearchUrl(), (request, response) -> {
                 //return apiBridge.query(request, response, request.splat()[0]);
-                final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+                final HttpApiRequest theRequest = SparkRequestContext.of(request).getRoutedHttpApiRequest();
                 final HttpApiResponse theResponse = apiBridge.query(theRequest, request.splat()[0]);
                 return HttpApiResponseToSpark.convert(theResponse, response);
             });
@@ -0,0 +1,69 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import org.eclipse.jetty.util.BlockingArrayQueue;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Spark's Jetty thread pool with a fixed size queue, so a spike is rejected rather than
+    queued without limit, and with a count of the rejected requests to report saturation.
+
+    The maximum threads include the threads Jetty uses to accept and select connections,
+    and a reserved thread. Jetty refuses to start when those leave no thread for requests,
+    so fewer threads than that are raised to the minimum.
+ */
+final class BoundedJettyThreadPool extends QueuedThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedJettyThreadPool.class);
+
+    private final AtomicLong rejectedRequests;
+    private final RequestExecutor.SaturationWarning saturationWarning;
+
+    BoundedJettyThreadPool(final HttpEngineThreads threads) {
+        super(maxThreadsFor(threads), Math.min(8, maxThreadsFor(threads)), 60000,
+                new BlockingArrayQueue<>(threads.getMaxQueuedRequests()));
+        this.rejectedRequests = new AtomicLong();
+        this.saturationWarning = new RequestExecutor.SaturationWarning(logger);
+
+        if(threads.getMaxThreads() < getMaxThreads()){
+            logger.warn("{} is too few threads, Jetty needs at least {} to accept and select connections " +
+                            "and handle requests, using {} threads", threads, getMaxThreads(), getMaxThreads());
+        }
+    }
+
+    /*
+        Jetty leases an acceptor for every 8 cores (1 to 4), a selector and a reserved thread
+        from small pools, and needs a thread left over to handle requests
+     */
+    static int minimumThreads(){
+        final int acceptors = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()/8));
+        return acceptors + 3;
+    }
+
+    private static int maxThreadsFor(final HttpEngineThreads threads){
+        return Math.max(threads.getMaxThreads(), minimumThreads());
+    }
+
+    @Override
+    public void execute(final Runnable job) {
+        try{
+            super.execute(job);
+        }catch(RejectedExecutionException e){
+            rejectedRequests.incrementAndGet();
+            saturationWarning.warnIfSaturated(getStatus());
+            throw e;
+        }
+
+        if(getQueueSize()>0 && getIdleThreads()==0){
+            saturationWarning.warnIfSaturated(getStatus());
+        }
+    }
+
+    ThreadPoolStatus getStatus(){
+        return new ThreadPoolStatus(getBusyThreads(), getMaxThreads(), getQueueSize(), rejectedRequests.get());
+    }
+}
@@ -0,0 +1,49 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpRequestHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpResponseHook;
+import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
+
+/*
+    The web server which serves a Thingifier API.
+
+    The API itself only works with HttpApiRequest and HttpApiResponse, an engine
+    converts to and from those for the HTTP server it uses.
+
+    Spark is the default engine and the only one which supports the Spark routes
+    e.g. the GUI, shutdown and any custom routes added by an application.
+ */
+public interface HttpEngine {
+
+    String getName();
+
+    // called before any routes are configured
+    void configureThreads(HttpEngineThreads threads);
+
+    // called before any routes are configured
+    void configurePort(int port, String staticFilePath);
+
+    boolean supportsSparkRoutes();
+
+    void start(Thingifier thingifier, ThingifierApiDefn apiDefn, DefaultGUIHTML guiManagement);
+
+    int getPort();
+
+    // null if the engine does not know how busy its threads are
+    ThreadPoolStatus getThreadPoolStatus();
+
+    void stop();
+
+    // hooks which only use the internal representations so work with any engine
+    void registerHttpApiRequestHook(HttpApiRequestHook hook);
+
+    void registerHttpApiResponseHook(HttpApiResponseHook hook);
+
+    void registerInternalHttpRequestHook(InternalHttpRequestHook hook);
+
+    void registerInternalHttpResponseHook(InternalHttpResponseHook hook);
+}
@@ -0,0 +1,92 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+/*
+    The threads which handle requests, configurable through arguments
+    e.g. -threads=virtual for a virtual thread per request
+         -threads=platform:50 for a pool of 50 threads with a bounded queue of waiting requests
+         -threads=platform:50:500 for a pool of 50 threads with at most 500 waiting requests
+
+    Virtual threads need Java 21+, on older JVMs an unbounded pool of platform threads is used.
+ */
+public final class HttpEngineThreads {
+
+    public static final int DEFAULT_MAX_QUEUED_REQUESTS = 1000;
+
+    private final boolean virtual;
+    private final int maxThreads;
+    private final int maxQueuedRequests;
+
+    private HttpEngineThreads(final boolean virtual, final int maxThreads, final int maxQueuedRequests) {
+        this.virtual = virtual;
+        this.maxThreads = maxThreads;
+        this.maxQueuedRequests = maxQueuedRequests;
+    }
+
+    public static HttpEngineThreads virtual(){
+        return new HttpEngineThreads(true, -1, -1);
+    }
+
+    public static HttpEngineThreads platform(final int maxThreads){
+        return platform(maxThreads, DEFAULT_MAX_QUEUED_REQUESTS);
+    }
+
+    public static HttpEngineThreads platform(final int maxThreads, final int maxQueuedRequests){
+        if(maxThreads<1 || maxQueuedRequests<1){
+            throw new IllegalArgumentException(
+                    String.format("Thread pool needs at least one thread and queued request, not %d and %d",
+                            maxThreads, maxQueuedRequests));
+        }
+        return new HttpEngineThreads(false, maxThreads, maxQueuedRequests);
+    }
+
+    /**
+     * @param config virtual, platform:threads or platform:threads:queued
+     * @return the threads described by the config, or null if the config is not valid
+     */
+    public static HttpEngineThreads parse(final String config){
+
+        if(config==null){
+            return null;
+        }
+
+        final String[] details = config.trim().toLowerCase().split(":");
+
+        if(details.length==1 && details[0].equals("virtual")){
+            return virtual();
+        }
+
+        if(details[0].equals("platform") && (details.length==2 || details.length==3)){
+            try{
+                final int threads = Integer.parseInt(details[1].trim());
+                if(details.length==2){
+                    return platform(threads);
+                }
+                return platform(threads, Integer.parseInt(details[2].trim()));
+            }catch(IllegalArgumentException e){
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    @Override
+    public String toString() {
+        if(virtual){
+            return "virtual";
+        }
+        return String.format("platform:%d:%d", maxThreads, maxQueuedRequests);
+    }
+}
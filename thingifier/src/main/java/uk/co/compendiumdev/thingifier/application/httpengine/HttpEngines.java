@@ -0,0 +1,33 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+/*
+    The engines which can be chosen with the -engine= argument
+ */
+public final class HttpEngines {
+
+    private HttpEngines(){
+    }
+
+    public static String[] names(){
+        return new String[]{SparkHttpEngine.NAME, JdkHttpEngine.NAME};
+    }
+
+    /**
+     * @return a new engine with the given name, or null if there is no engine with that name
+     */
+    public static HttpEngine named(final String name){
+
+        if(name==null){
+            return null;
+        }
+
+        switch (name.trim().toLowerCase()){
+            case SparkHttpEngine.NAME:
+                return new SparkHttpEngine();
+            case JdkHttpEngine.NAME:
+                return new JdkHttpEngine();
+            default:
+                return null;
+        }
+    }
+}
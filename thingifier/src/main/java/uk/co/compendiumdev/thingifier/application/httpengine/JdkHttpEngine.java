@@ -0,0 +1,139 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import com.sun.net.httpserver.HttpServer;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpRequestHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpResponseHook;
+import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/*
+    Serves the API with the JDK built in HttpServer, requests are converted
+    straight from the exchange to an HttpApiRequest without going through Spark and Jetty.
+
+    Only the API, documentation and admin routes are served, there is no GUI, static files or shutdown.
+
+    By default each request runs on a virtual thread when the JVM supports them,
+    otherwise on a cached thread pool.
+ */
+public class JdkHttpEngine implements HttpEngine {
+
+    public static final String NAME = "jdk";
+
+    private int port;
+    private HttpServer server;
+    private HttpEngineThreads threads;
+    private RequestExecutor executor;
+
+    private final List<HttpApiRequestHook> httpApiRequestHooks;
+    private final List<HttpApiResponseHook> httpApiResponseHooks;
+    private final List<InternalHttpRequestHook> preInternalHttpRequestHooks;
+    private final List<InternalHttpResponseHook> postInternalHttpResponseHooks;
+
+    public JdkHttpEngine(){
+        port = 4567;
+        threads = HttpEngineThreads.virtual();
+        // hooks can be registered while requests are being handled
+        httpApiRequestHooks = new CopyOnWriteArrayList<>();
+        httpApiResponseHooks = new CopyOnWriteArrayList<>();
+        preInternalHttpRequestHooks = new CopyOnWriteArrayList<>();
+        postInternalHttpResponseHooks = new CopyOnWriteArrayList<>();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void configureThreads(final HttpEngineThreads threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    public void configurePort(final int port, final String staticFilePath) {
+        // static files are not served
+        this.port = port;
+    }
+
+    @Override
+    public boolean supportsSparkRoutes() {
+        return false;
+    }
+
+    @Override
+    public void start(final Thingifier thingifier, final ThingifierApiDefn apiDefn,
+                      final DefaultGUIHTML guiManagement) {
+
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start server on port " + port, e);
+        }
+
+        server.createContext("/", new JdkThingifierHttpHandler(
+                                        thingifier, apiDefn, guiManagement,
+                                        httpApiRequestHooks, httpApiResponseHooks,
+                                        preInternalHttpRequestHooks, postInternalHttpResponseHooks));
+
+        executor = RequestExecutor.forThreads(threads);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    @Override
+    public int getPort() {
+        if(server!=null){
+            return server.getAddress().getPort();
+        }
+        return port;
+    }
+
+    @Override
+    public ThreadPoolStatus getThreadPoolStatus() {
+        if(executor==null){
+            return null;
+        }
+        return executor.getStatus();
+    }
+
+    @Override
+    public void stop() {
+        if(server!=null){
+            server.stop(0);
+            server = null;
+        }
+        if(executor!=null){
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+    @Override
+    public void registerHttpApiRequestHook(final HttpApiRequestHook hook) {
+        httpApiRequestHooks.add(hook);
+    }
+
+    @Override
+    public void registerHttpApiResponseHook(final HttpApiResponseHook hook) {
+        httpApiResponseHooks.add(hook);
+    }
+
+    @Override
+    public void registerInternalHttpRequestHook(final InternalHttpRequestHook hook) {
+        preInternalHttpRequestHooks.add(hook);
+    }
+
+    @Override
+    public void registerInternalHttpResponseHook(final InternalHttpResponseHook hook) {
+        postInternalHttpResponseHooks.add(hook);
+    }
+}
@@ -0,0 +1,80 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+    A route matched the way Spark matches them, so the routing definitions can be reused
+    e.g. todos/:id matches todos/1 with the url param :id and admin/query/* matches any
+    remaining path as the splat
+ */
+final class JdkRoute {
+
+    interface Handler {
+        RoutedResponse handle(HttpApiRequest request, String splat);
+    }
+
+    private final HttpApiRequest.VERB verb;
+    private final String[] segments;
+    private final Handler handler;
+
+    JdkRoute(final HttpApiRequest.VERB verb, final String url, final Handler handler) {
+        this.verb = verb;
+        this.segments = pathSegments(url);
+        this.handler = handler;
+    }
+
+    /**
+     * @return the response when the route matches the request, otherwise null
+     */
+    RoutedResponse handleIfMatched(final HttpApiRequest request, final String[] requestSegments) {
+
+        if(request.getVerb()!=verb){
+            return null;
+        }
+
+        final Map<String, String> urlParams = new HashMap<>();
+        String splat = null;
+
+        for(int segment=0; segment<segments.length; segment++){
+            final String routeSegment = segments[segment];
+
+            if(routeSegment.equals("*")){
+                splat = String.join("/", Arrays.copyOfRange(requestSegments,
+                                Math.min(segment, requestSegments.length), requestSegments.length));
+                break;
+            }
+
+            if(segment>=requestSegments.length){
+                return null;
+            }
+
+            if(routeSegment.startsWith(":")){
+                urlParams.put(routeSegment.toLowerCase(), requestSegments[segment]);
+            }else if(!routeSegment.equals(requestSegments[segment])){
+                return null;
+            }
+        }
+
+        if(splat==null && segments.length!=requestSegments.length){
+            return null;
+        }
+
+        request.setUrlParams(urlParams);
+        return handler.handle(request, splat);
+    }
+
+    static String[] pathSegments(final String path) {
+        String trimmed = path;
+        while(trimmed.startsWith("/")){
+            trimmed = trimmed.substring(1);
+        }
+        if(trimmed.isEmpty()){
+            return new String[0];
+        }
+        return trimmed.split("/");
+    }
+}
@@ -0,0 +1,299 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.api.http.AcceptEncodingHeaderParser;
+import uk.co.compendiumdev.thingifier.api.http.AcceptHeaderParser;
+import uk.co.compendiumdev.thingifier.api.http.CompressedBody;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.LatestCompressedBody;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponseError;
+import uk.co.compendiumdev.thingifier.api.routings.ApiRoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.routings.ApiRoutingDefinitionGenerator;
+import uk.co.compendiumdev.thingifier.api.routings.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.apiconfig.ResponseCompressionConfig;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
+import uk.co.compendiumdev.thingifier.application.internalhttpconversion.HttpExchangeToHttpApiRequest;
+import uk.co.compendiumdev.thingifier.application.internalhttpconversion.InternalHttpResponse;
+import uk.co.compendiumdev.thingifier.application.internalhttpconversion.ThingifierHttpApiBridge;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpRequestHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpResponseHook;
+import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
+import uk.co.compendiumdev.thingifier.htmlgui.RestApiDocumentationGenerator;
+import uk.co.compendiumdev.thingifier.swaggerizer.Swaggerizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static uk.co.compendiumdev.thingifier.api.http.HttpApiRequest.VERB.*;
+
+/*
+    Serves the same API routes as the ThingifierRestServer does with Spark:
+    the documentation, the routing definitions, the admin routes and a 404 for anything else.
+ */
+final class JdkThingifierHttpHandler implements HttpHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdkThingifierHttpHandler.class);
+
+    private final ResponseCompressionConfig compressionConfig;
+    private final List<InternalHttpRequestHook> preInternalHttpRequestHooks;
+    private final List<InternalHttpResponseHook> postInternalHttpResponseHooks;
+    private final List<JdkRoute> routes;
+    private volatile String urlPath;
+
+    JdkThingifierHttpHandler(final Thingifier thingifier,
+                             final ThingifierApiDefn apiDefn,
+                             final DefaultGUIHTML guiManagement,
+                             final List<HttpApiRequestHook> httpApiRequestHooks,
+                             final List<HttpApiResponseHook> httpApiResponseHooks,
+                             final List<InternalHttpRequestHook> preInternalHttpRequestHooks,
+                             final List<InternalHttpResponseHook> postInternalHttpResponseHooks) {
+
+        this.compressionConfig = thingifier.apiConfig().responseCompression();
+        this.preInternalHttpRequestHooks = preInternalHttpRequestHooks;
+        this.postInternalHttpResponseHooks = postInternalHttpResponseHooks;
+        this.routes = new ArrayList<>();
+
+        final ThingifierHttpApiBridge apiBridge = new ThingifierHttpApiBridge(
+                                                    thingifier,
+                                                    httpApiRequestHooks, httpApiResponseHooks);
+
+        final ApiRoutingDefinition routingDefinitions = new ApiRoutingDefinitionGenerator(thingifier).generate();
+
+        // the documentation rarely changes so keep it compressed
+        final LatestCompressedBody latestDocs = new LatestCompressedBody(compressionConfig);
+        final LatestCompressedBody latestSwagger = new LatestCompressedBody(compressionConfig);
+
+        routes.add(new JdkRoute(GET, "/docs", (request, splat) -> {
+            final String docs = new RestApiDocumentationGenerator(thingifier, guiManagement).
+                    getApiDocumentation(routingDefinitions, apiDefn.getAdditionalRoutes(), this.urlPath);
+            return RoutedResponse.of(
+                    new InternalHttpResponse().setStatus(200).setType("text/html").setBody(docs),
+                    latestDocs.of(docs));
+        }));
+
+        guiManagement.appendMenuItem("API documentation","/docs");
+
+        routes.add(new JdkRoute(GET, "/docs/swagger", (request, splat) -> {
+            String nameprefix = "";
+            try {
+                nameprefix = apiDefn.getThingifier().getTitle().replace(" ", "-") + "-";
+            }catch (Exception e){
+                // invalid apidefn setup
+                logger.warn("Possibly incomplete swagger generation, api not defined from model");
+            }
+            final String swagger = new Swaggerizer(apiDefn).asJson();
+            return RoutedResponse.of(
+                    new InternalHttpResponse().setStatus(200).
+                            setType("application/octet-stream").
+                            setHeader("Content-Disposition",
+                                String.format("attachment; filename=\"%sswagger.json\"",nameprefix)).
+                            setBody(swagger),
+                    latestSwagger.of(swagger));
+        }));
+
+        for (RoutingDefinition defn : routingDefinitions.definitions()) {
+            final int status = defn.status().value();
+            switch (defn.verb()) {
+                case GET:
+                    if (defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(GET, defn.url(),
+                                (request, splat) -> RoutedResponse.from(apiBridge.get(request))));
+                    }
+                    break;
+                case POST:
+                    if (defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(POST, defn.url(),
+                                (request, splat) -> RoutedResponse.from(apiBridge.post(request))));
+                    }
+                    break;
+                case HEAD:
+                    if (defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(HEAD, defn.url(),
+                                (request, splat) -> RoutedResponse.from(apiBridge.head(request))));
+                    }
+                    break;
+                case DELETE:
+                    if (!defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(DELETE, defn.url(),
+                                (request, splat) -> RoutedResponse.status(status)));
+                    } else {
+                        routes.add(new JdkRoute(DELETE, defn.url(),
+                                (request, splat) -> RoutedResponse.from(apiBridge.delete(request))));
+                    }
+                    break;
+                case PATCH:
+                    if (!defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(PATCH, defn.url(),
+                                (request, splat) -> RoutedResponse.status(status)));
+                    }
+                    break;
+                case PUT:
+                    if (!defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(PUT, defn.url(),
+                                (request, splat) -> RoutedResponse.status(status)));
+                    } else {
+                        routes.add(new JdkRoute(PUT, defn.url(),
+                                (request, splat) -> RoutedResponse.from(apiBridge.put(request))));
+                    }
+                    break;
+                case OPTIONS:
+                    if (!defn.status().isReturnedFromCall()) {
+                        routes.add(new JdkRoute(OPTIONS, defn.url(), (request, splat) -> {
+                            final RoutedResponse response = RoutedResponse.status(status);
+                            response.getResponse().setHeader(defn.header(), defn.headerValue());
+                            return response;
+                        }));
+                    }
+                    break;
+            }
+        }
+
+        // Undocumented admin interface
+        if(thingifier.apiConfig().adminConfig().isAdminSearchAllowed()) {
+            routes.add(new JdkRoute(GET, thingifier.apiConfig().adminConfig().getAdminSearchUrl(),
+                    (request, splat) -> RoutedResponse.from(apiBridge.query(request, splat))));
+        }
+
+        // Undocumented admin interface
+        if(thingifier.apiConfig().adminConfig().isAdminDataClearAllowed()) {
+            routes.add(new JdkRoute(POST, thingifier.apiConfig().adminConfig().getAdminDataClearUrl(),
+                    (request, splat) -> {
+                        thingifier.clearAllData();
+                        return RoutedResponse.status(200);
+                    }));
+        }
+    }
+
+    @Override
+    public void handle(final HttpExchange exchange) throws IOException {
+
+        try{
+            HttpApiRequest request = null;
+            InternalHttpResponse response;
+            CompressedBody compressed = null;
+
+            try{
+                request = HttpExchangeToHttpApiRequest.convert(exchange);
+                captureUrlPath(request);
+
+                for(InternalHttpRequestHook hook : preInternalHttpRequestHooks){
+                    hook.run(request);
+                }
+
+                final RoutedResponse routed = route(request);
+                response = routed.getResponse();
+
+                for(InternalHttpResponseHook hook : postInternalHttpResponseHooks){
+                    hook.run(request, response);
+                }
+                compressed = routed.getCompressedBody();
+
+            }catch(RuntimeException e){
+                response = errorResponse(400, e, exchange);
+            }catch(Exception e){
+                response = errorResponse(500, e, exchange);
+            }
+
+            send(exchange, request, response, compressed);
+
+        }finally {
+            exchange.close();
+        }
+    }
+
+    private void captureUrlPath(final HttpApiRequest request) {
+        if(this.urlPath==null){
+            // capture the protocol and authority to use as rendered urls
+            final String host = request.getHeader("host");
+            if(host!=null){
+                this.urlPath = "http://" + host;
+            }
+        }
+    }
+
+    private RoutedResponse route(final HttpApiRequest request) {
+
+        final String[] requestSegments = JdkRoute.pathSegments(request.getPath());
+
+        for(JdkRoute route : routes){
+            final RoutedResponse response = route.handleIfMatched(request, requestSegments);
+            if(response!=null){
+                return response;
+            }
+        }
+
+        // nothing else is supported
+        final AcceptHeaderParser acceptParser = new AcceptHeaderParser(request.getHeader("accept"));
+        String preferred = acceptParser.getPreferredType();
+        if(preferred == null || preferred.trim().length()==0 || acceptParser.willAcceptAnything()){
+            preferred="application/json"; // hard coded default
+        }
+        return RoutedResponse.of(new InternalHttpResponse().setStatus(404).setType(preferred).setBody(""));
+    }
+
+    private InternalHttpResponse errorResponse(final int status, final Exception e, final HttpExchange exchange) {
+        final String accept = exchange.getRequestHeaders().getFirst("Accept");
+        final String message = e.getMessage()==null ? e.toString() : e.getMessage();
+        return new InternalHttpResponse().setStatus(status).
+                    setBody(ApiResponseError.asAppropriate(accept, message));
+    }
+
+    private void send(final HttpExchange exchange, final HttpApiRequest request,
+                      final InternalHttpResponse response, final CompressedBody compressed) throws IOException {
+
+        final Headers headers = exchange.getResponseHeaders();
+        for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+            headers.set(header.getKey(), header.getValue());
+        }
+        if (response.hasType()) {
+            headers.set("Content-Type", response.getType());
+        }
+
+        final int status = response.getStatusCode();
+        final String body = response.getBody();
+
+        if(exchange.getRequestMethod().equalsIgnoreCase("HEAD") ||
+                status==204 || status==304 || body==null || body.isEmpty()){
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        if(compressionConfig.willCompressResponses() &&
+                !headers.containsKey("Content-Encoding") &&
+                compressionConfig.willCompress(bytes.length)){
+
+            // the response depends on the Accept-Encoding
+            headers.set("Vary", "Accept-Encoding");
+
+            final String encoding = new AcceptEncodingHeaderParser(
+                    request==null ? null : request.getHeader("accept-encoding")).getPreferredEncoding();
+
+            if(encoding!=null){
+                byte[] encoded = compressed==null ? null : compressed.getEncodedAs(encoding);
+                if(encoded==null){
+                    encoded = CompressedBody.encode(bytes, encoding, compressionConfig.getLevel());
+                }
+                headers.set("Content-Encoding", encoding);
+                bytes = encoded;
+            }
+        }
+
+        exchange.sendResponseHeaders(status, bytes.length);
+        try(OutputStream output = exchange.getResponseBody()){
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Runs requests on virtual threads, or a fixed pool of platform threads with a bounded queue,
+    and keeps count of the busy threads and rejected requests to report saturation.
+ */
+public final class RequestExecutor implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestExecutor.class);
+
+    private final ExecutorService executor;
+    private final ThreadPoolExecutor pool; // null when the threads are not pooled
+    private final int maxThreads;
+    private final AtomicInteger busyThreads;
+    private final AtomicLong rejectedRequests;
+    private final SaturationWarning saturationWarning;
+
+    private RequestExecutor(final ExecutorService executor, final ThreadPoolExecutor pool, final int maxThreads) {
+        this.executor = executor;
+        this.pool = pool;
+        this.maxThreads = maxThreads;
+        this.busyThreads = new AtomicInteger();
+        this.rejectedRequests = new AtomicLong();
+        this.saturationWarning = new SaturationWarning(logger);
+    }
+
+    public static RequestExecutor forThreads(final HttpEngineThreads threads){
+
+        if(!threads.isVirtual()){
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    threads.getMaxThreads(), threads.getMaxThreads(),
+                    60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(threads.getMaxQueuedRequests()));
+            pool.allowCoreThreadTimeOut(true);
+            return new RequestExecutor(pool, pool, threads.getMaxThreads());
+        }
+
+        try {
+            // Java 21+, looked up so the code still builds for Java 8
+            final ExecutorService virtualThreads = (ExecutorService) Executors.class.
+                                    getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Handling requests on virtual threads");
+            return new RequestExecutor(virtualThreads, null, -1);
+        } catch (ReflectiveOperationException e) {
+            logger.info("Virtual threads are not available, handling requests on a cached thread pool");
+            return new RequestExecutor(Executors.newCachedThreadPool(), null, -1);
+        }
+    }
+
+    @Override
+    public void execute(final Runnable request) {
+        try{
+            executor.execute(() -> {
+                busyThreads.incrementAndGet();
+                try{
+                    request.run();
+                }finally {
+                    busyThreads.decrementAndGet();
+                }
+            });
+        }catch(RejectedExecutionException e){
+            rejectedRequests.incrementAndGet();
+            saturationWarning.warnIfSaturated(getStatus());
+            throw e;
+        }
+
+        if(pool!=null && !pool.getQueue().isEmpty()){
+            saturationWarning.warnIfSaturated(getStatus());
+        }
+    }
+
+    public ThreadPoolStatus getStatus(){
+        return new ThreadPoolStatus(busyThreads.get(), maxThreads,
+                                    pool==null ? 0 : pool.getQueue().size(),
+                                    rejectedRequests.get());
+    }
+
+    public void shutdown(){
+        executor.shutdown();
+    }
+
+    public void shutdownNow(){
+        executor.shutdownNow();
+    }
+
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /*
+        Log saturation at most every 10 seconds so a spike does not flood the log
+     */
+    static final class SaturationWarning {
+
+        private static final long WARNING_INTERVAL_MILLIS = 10_000;
+
+        private final Logger logger;
+        private final AtomicLong lastWarned;
+
+        SaturationWarning(final Logger logger) {
+            this.logger = logger;
+            this.lastWarned = new AtomicLong(0);
+        }
+
+        void warnIfSaturated(final ThreadPoolStatus status){
+            if(!status.isSaturated() && status.getRejectedRequests()==0){
+                return;
+            }
+            final long now = System.currentTimeMillis();
+            final long last = lastWarned.get();
+            if(now - last >= WARNING_INTERVAL_MILLIS && lastWarned.compareAndSet(last, now)){
+                logger.warn("Request threads are saturated: {}", status);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import uk.co.compendiumdev.thingifier.api.http.CompressedBody;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.application.internalhttpconversion.InternalHttpResponse;
+
+import java.util.Map;
+
+/*
+    The response from a route, with any body the route has already compressed
+ */
+final class RoutedResponse {
+
+    private final InternalHttpResponse response;
+    private final String offeredBody;
+    private final CompressedBody compressed;
+
+    private RoutedResponse(final InternalHttpResponse response, final String offeredBody,
+                           final CompressedBody compressed) {
+        this.response = response;
+        this.offeredBody = offeredBody;
+        this.compressed = compressed;
+    }
+
+    static RoutedResponse status(final int statusCode){
+        return new RoutedResponse(new InternalHttpResponse().setStatus(statusCode).setBody(""), null, null);
+    }
+
+    static RoutedResponse of(final InternalHttpResponse response){
+        return new RoutedResponse(response, null, null);
+    }
+
+    static RoutedResponse of(final InternalHttpResponse response, final CompressedBody compressed){
+        return new RoutedResponse(response, response.getBody(), compressed);
+    }
+
+    static RoutedResponse from(final HttpApiResponse apiResponse){
+
+        final InternalHttpResponse response = new InternalHttpResponse().
+                                                    setStatus(apiResponse.getStatusCode()).
+                                                    setBody(apiResponse.getBody());
+        if (apiResponse.hasType()) {
+            response.setType(apiResponse.getType());
+        }
+        for (Map.Entry<String, String> header : apiResponse.getHeaders().entrySet()) {
+            response.setHeader(header.getKey(), header.getValue());
+        }
+
+        return new RoutedResponse(response, response.getBody(), apiResponse.getCompressedBody());
+    }
+
+    InternalHttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * @return the compressed body when the response body has not been changed since it was routed
+     */
+    CompressedBody getCompressedBody() {
+        if(compressed==null || offeredBody==null || !offeredBody.equals(response.getBody())){
+            return null;
+        }
+        return compressed;
+    }
+}
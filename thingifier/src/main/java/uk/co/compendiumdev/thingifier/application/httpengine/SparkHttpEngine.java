@@ -0,0 +1,120 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import spark.Spark;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.application.ThingifierRestServer;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpRequestHook;
+import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpResponseHook;
+import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
+
+import java.util.function.Supplier;
+
+/*
+    The default engine, the API routes are Spark routes configured by the ThingifierRestServer
+ */
+public class SparkHttpEngine implements HttpEngine {
+
+    public static final String NAME = "spark";
+
+    private ThingifierRestServer restServer;
+    private Supplier<ThreadPoolStatus> threadPoolStatus;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void configureThreads(final HttpEngineThreads threads) {
+
+        // without configuring, Spark uses the Jetty default pool of 200 threads and an unbounded queue
+        if(threads.isVirtual()){
+            final VirtualJettyThreadPool pool = new VirtualJettyThreadPool(threads);
+            useJettyThreadPool(new EmbeddedJettyFactory().withThreadPool(pool));
+            threadPoolStatus = pool::getStatus;
+        }else{
+            final BoundedJettyThreadPool pool = new BoundedJettyThreadPool(threads);
+            useJettyThreadPool(new EmbeddedJettyFactory().withThreadPool(pool));
+            threadPoolStatus = pool::getStatus;
+        }
+    }
+
+    private void useJettyThreadPool(final EmbeddedJettyFactory jettyFactory) {
+        // replaces the Jetty server Spark creates when the first route is added
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, jettyFactory);
+    }
+
+    @Override
+    public void configurePort(final int port, final String staticFilePath) {
+        Spark.port(port);
+        Spark.staticFileLocation(staticFilePath);
+    }
+
+    @Override
+    public boolean supportsSparkRoutes() {
+        return true;
+    }
+
+    @Override
+    public void start(final Thingifier thingifier, final ThingifierApiDefn apiDefn,
+                      final DefaultGUIHTML guiManagement) {
+        restServer = new ThingifierRestServer( "",
+                                    thingifier,
+                                    apiDefn,
+                                    guiManagement);
+    }
+
+    public ThingifierRestServer getRestServer() {
+        return restServer;
+    }
+
+    @Override
+    public int getPort() {
+        return Spark.port();
+    }
+
+    @Override
+    public ThreadPoolStatus getThreadPoolStatus() {
+        if(threadPoolStatus==null){
+            return null;
+        }
+        return threadPoolStatus.get();
+    }
+
+    @Override
+    public void stop() {
+        Spark.stop();
+    }
+
+    @Override
+    public void registerHttpApiRequestHook(final HttpApiRequestHook hook) {
+        startedRestServer().registerHttpApiRequestHook(hook);
+    }
+
+    @Override
+    public void registerHttpApiResponseHook(final HttpApiResponseHook hook) {
+        startedRestServer().registerHttpApiResponseHook(hook);
+    }
+
+    @Override
+    public void registerInternalHttpRequestHook(final InternalHttpRequestHook hook) {
+        startedRestServer().registerInternalHttpRequestHook(hook);
+    }
+
+    @Override
+    public void registerInternalHttpResponseHook(final InternalHttpResponseHook hook) {
+        startedRestServer().registerInternalHttpResponseHook(hook);
+    }
+
+    private ThingifierRestServer startedRestServer() {
+        if(restServer==null){
+            throw new IllegalStateException("Spark engine has not been started");
+        }
+        return restServer;
+    }
+}
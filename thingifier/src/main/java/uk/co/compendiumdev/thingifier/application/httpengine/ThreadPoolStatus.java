@@ -0,0 +1,51 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+/*
+    A snapshot of how busy the request threads are
+ */
+public final class ThreadPoolStatus {
+
+    private final int busyThreads;
+    private final int maxThreads;
+    private final int queuedRequests;
+    private final long rejectedRequests;
+
+    /**
+     * @param maxThreads -1 when the threads are not limited
+     */
+    public ThreadPoolStatus(final int busyThreads, final int maxThreads,
+                            final int queuedRequests, final long rejectedRequests) {
+        this.busyThreads = busyThreads;
+        this.maxThreads = maxThreads;
+        this.queuedRequests = queuedRequests;
+        this.rejectedRequests = rejectedRequests;
+    }
+
+    public int getBusyThreads() {
+        return busyThreads;
+    }
+
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public int getQueuedRequests() {
+        return queuedRequests;
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests;
+    }
+
+    // every thread is busy or requests are waiting for a thread
+    public boolean isSaturated() {
+        return queuedRequests > 0 || (maxThreads > 0 && busyThreads >= maxThreads);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("busy threads %d of %s, queued requests %d, rejected requests %d",
+                busyThreads, maxThreads > 0 ? String.valueOf(maxThreads) : "unlimited",
+                queuedRequests, rejectedRequests);
+    }
+}
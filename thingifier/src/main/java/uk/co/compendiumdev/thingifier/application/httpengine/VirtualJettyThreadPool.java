@@ -0,0 +1,83 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+    Lets Spark's Jetty run each request, and its acceptor and selector, on a virtual thread
+
+    The Jetty server starts and stops the pool with the server, so the threads end when
+    Spark is stopped. Spark can start the server again, so each start has a new executor.
+ */
+final class VirtualJettyThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualJettyThreadPool.class);
+
+    private final HttpEngineThreads threads;
+    private volatile RequestExecutor executor;
+
+    VirtualJettyThreadPool(final HttpEngineThreads threads) {
+        this.threads = threads;
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        executor = RequestExecutor.forThreads(threads);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        final RequestExecutor stopping = executor;
+        stopping.shutdown();
+        if(!stopping.awaitTermination(getStopTimeout(), TimeUnit.MILLISECONDS)){
+            logger.warn("Requests did not complete within {}ms of stopping, interrupting them", getStopTimeout());
+            stopping.shutdownNow();
+        }
+        super.doStop();
+    }
+
+    @Override
+    public void execute(final Runnable job) {
+        executor.execute(job);
+    }
+
+    @Override
+    public void join() throws InterruptedException {
+        // as QueuedThreadPool, wait until the pool is stopped and every job completed
+        while(isRunning()){
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        }
+        while(isStopping()){
+            Thread.sleep(1);
+        }
+    }
+
+    @Override
+    public int getThreads() {
+        return getStatus().getBusyThreads();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        // a thread is started for each job
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    ThreadPoolStatus getStatus(){
+        final RequestExecutor running = executor;
+        if(running==null){
+            return new ThreadPoolStatus(0, -1, 0, 0);
+        }
+        return running.getStatus();
+    }
+}
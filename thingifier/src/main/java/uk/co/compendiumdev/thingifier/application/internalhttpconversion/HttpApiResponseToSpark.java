@@ -1,5 +1,6 @@
 package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
 
+import spark.Request;
 import spark.Response;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
 
@@ -12,6 +13,15 @@ public class HttpApiResponseToSpark {
         return internalResponse.getBody();
     }
 
+    /**
+     * As convert, also offering any body the response has already compressed
+     */
+    public static String convert(HttpApiResponse internalResponse, Request request, Response response){
+        final String body = convert(internalResponse, response);
+        SparkResponseCompression.offerPrecompressed(request, body, internalResponse.getCompressedBody());
+        return body;
+    }
+
     private static void updateResponseFromHttpResponse(final HttpApiResponse httpResponse,
                                                        final Response response) {
 
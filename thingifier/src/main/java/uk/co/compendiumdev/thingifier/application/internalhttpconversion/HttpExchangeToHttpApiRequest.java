@@ -0,0 +1,91 @@
+package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
+
+import com.sun.net.httpserver.HttpExchange;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Build the HttpApiRequest directly from the JDK HttpServer exchange,
+    the body is read once as bytes and decoded as UTF-8
+ */
+public class HttpExchangeToHttpApiRequest {
+
+    public static HttpApiRequest convert(final HttpExchange exchange) throws IOException {
+
+        final String path = exchange.getRequestURI().getRawPath();
+        final Map<String, String> queryParams = queryParamsAsMap(exchange.getRequestURI().getRawQuery());
+        final String host = exchange.getRequestHeaders().getFirst("Host");
+
+        return new HttpApiRequest(exchange.getRequestURI().getPath()).
+                    setHeaders(headersAsMap(exchange)).
+                    setBody(bodyAsString(exchange.getRequestBody())).
+                    setQueryParams(queryParams).
+                    setRawQueryParams(new HashMap<>(queryParams)).
+                    setVerb(exchange.getRequestMethod()).
+                    setUrl("http://" + (host==null ? "localhost" : host) + path).
+                    setIP(exchange.getRemoteAddress().getAddress().getHostAddress());
+    }
+
+    private static Map<String, String> headersAsMap(final HttpExchange exchange) {
+        final Map<String, String> headers = new HashMap<>();
+
+        for (Map.Entry<String, List<String>> header : exchange.getRequestHeaders().entrySet()) {
+            if(!header.getValue().isEmpty()){
+                headers.put(header.getKey(), header.getValue().get(0));
+            }
+        }
+        return headers;
+    }
+
+    // query params request?param1=value&param2=value, only the first value of a param is used
+    private static Map<String, String> queryParamsAsMap(final String rawQuery) {
+
+        final Map<String, String> params = new HashMap<>();
+
+        if(rawQuery==null || rawQuery.isEmpty()){
+            return params;
+        }
+
+        for(String param : rawQuery.split("&")){
+            if(param.isEmpty()){
+                continue;
+            }
+            final int equals = param.indexOf('=');
+            final String name = decode(equals==-1 ? param : param.substring(0, equals));
+            final String value = equals==-1 ? "" : decode(param.substring(equals+1));
+            if(!params.containsKey(name)){
+                params.put(name, value);
+            }
+        }
+
+        return params;
+    }
+
+    private static String bodyAsString(final InputStream body) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while((read = body.read(buffer)) != -1){
+            bytes.write(buffer, 0, read);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String decode(final String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            // UTF-8 is always supported
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
+
+import spark.Request;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+
+/*
+    The HttpApiRequest for a Spark request, stored as a request attribute so the request is
+    converted at most once, when first needed, and the filters, hooks and route all share it.
+
+    Changes made by the request hooks are seen by the route and the response hooks.
+ */
+public final class SparkRequestContext {
+
+    private static final String CONTEXT_ATTRIBUTE = "thingifier.request.context";
+
+    private final Request request;
+    private HttpApiRequest httpApiRequest;
+
+    private SparkRequestContext(final Request request) {
+        this.request = request;
+    }
+
+    public static SparkRequestContext of(final Request request){
+        SparkRequestContext context = request.attribute(CONTEXT_ATTRIBUTE);
+        if(context==null){
+            context = new SparkRequestContext(request);
+            request.attribute(CONTEXT_ATTRIBUTE, context);
+        }
+        return context;
+    }
+
+    public HttpApiRequest getHttpApiRequest() {
+        if(httpApiRequest==null){
+            httpApiRequest = SparkToHttpApiRequest.convert(request);
+        }
+        return httpApiRequest;
+    }
+
+    /**
+     * The url params are only known when a route matches, so are added in the route
+     */
+    public HttpApiRequest getRoutedHttpApiRequest() {
+        return getHttpApiRequest().setUrlParams(request.params());
+    }
+}
@@ -0,0 +1,92 @@
+package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
+
+import spark.Request;
+import spark.Response;
+import uk.co.compendiumdev.thingifier.api.http.AcceptEncodingHeaderParser;
+import uk.co.compendiumdev.thingifier.api.http.CompressedBody;
+import uk.co.compendiumdev.thingifier.apiconfig.ResponseCompressionConfig;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/*
+    Content encoding negotiation for every Spark response, run as the last filter so that
+    the response hooks see the uncompressed body.
+
+    The compressed body is written directly and the response committed, so Spark does not
+    serialize the body again. Routes can offer a body they have already compressed
+    e.g. from the response cache, which is used when the body is sent unchanged.
+ */
+public class SparkResponseCompression {
+
+    private static final String PRECOMPRESSED_BODY_ATTRIBUTE = "thingifier.precompressed.body";
+
+    private final ResponseCompressionConfig config;
+
+    public SparkResponseCompression(final ResponseCompressionConfig config) {
+        this.config = config;
+    }
+
+    public static void offerPrecompressed(final Request request, final String body, final CompressedBody compressed){
+        if(compressed!=null) {
+            request.attribute(PRECOMPRESSED_BODY_ATTRIBUTE, new PrecompressedBody(body, compressed));
+        }
+    }
+
+    public void compress(final Request request, final Response response) throws IOException {
+
+        final HttpServletResponse raw = response.raw();
+
+        if(!config.willCompressResponses() || raw.isCommitted() ||
+                raw.getHeader("Content-Encoding")!=null ||
+                request.requestMethod().equalsIgnoreCase("HEAD") ||
+                response.status()==204 || response.status()==304){
+            return;
+        }
+
+        final String body = response.body();
+        if(body==null || body.isEmpty()){
+            return;
+        }
+
+        final PrecompressedBody offered = request.attribute(PRECOMPRESSED_BODY_ATTRIBUTE);
+        final String encoding = new AcceptEncodingHeaderParser(request.headers("Accept-Encoding")).
+                                        getPreferredEncoding();
+
+        byte[] encoded = null;
+
+        if(offered!=null && encoding!=null && offered.body.equals(body)){
+            encoded = offered.compressed.getEncodedAs(encoding);
+        }
+
+        if(encoded==null){
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            if(!config.willCompress(bytes.length)){
+                return;
+            }
+            // the response depends on the Accept-Encoding
+            raw.setHeader("Vary", "Accept-Encoding");
+            if(encoding==null){
+                return;
+            }
+            encoded = CompressedBody.encode(bytes, encoding, config.getLevel());
+        }
+
+        raw.setHeader("Vary", "Accept-Encoding");
+        raw.setHeader("Content-Encoding", encoding);
+        raw.setContentLength(encoded.length);
+        raw.getOutputStream().write(encoded);
+        raw.flushBuffer();
+    }
+
+    private static final class PrecompressedBody {
+        private final String body;
+        private final CompressedBody compressed;
+
+        private PrecompressedBody(final String body, final CompressedBody compressed) {
+            this.body = body;
+            this.compressed = compressed;
+        }
+    }
+}
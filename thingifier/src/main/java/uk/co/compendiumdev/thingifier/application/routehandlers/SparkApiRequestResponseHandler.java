@@ -3,6 +3,7 @@ package uk.co.compendiumdev.thingifier.application.routehandlers;
 import spark.Request;
 import spark.Response;
 import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.ConditionalGet;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
 import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
@@ -18,6 +19,8 @@ public class SparkApiRequestResponseHandler {
     private final ThingifierHttpApi httpApi;
     private HttpApiRequestHandler handler;
     private boolean validate=true; // validate message by default
+    private String conditionalScope; // null when the response is not conditional
+    private long conditionalVersion;
 
     public SparkApiRequestResponseHandler(final Request request,
                                           final Response result,
@@ -38,6 +41,16 @@ public class SparkApiRequestResponseHandler {
         return this;
     }
 
+    /**
+     * The response content depends only on the request and the version of the scope e.g. a challenger status,
+     * If-None-Match requests for an unchanged version get a 304 without calling the handler
+     */
+    public SparkApiRequestResponseHandler conditionalOn(final String scope, final long version){
+        this.conditionalScope = scope;
+        this.conditionalVersion = version;
+        return this;
+    }
+
     public String handle(){
 
         final HttpApiRequest myRequest = SparkToHttpApiRequest.convert(request);
@@ -51,7 +64,22 @@ public class SparkApiRequestResponseHandler {
                                                 ThingifierHttpApi.HttpVerb.GET);
 
         if(httpApiResponse == null) {
-            apiResponse = handler.handle(myRequest);
+            ConditionalGet conditionalGet = null;
+            if(conditionalScope!=null){
+                conditionalGet = new ConditionalGet(
+                        ConditionalGet.requestKeyFor(conditionalScope, myRequest,
+                            HttpApiResponse.responseTypeFor(myRequest.getHeaders(), thingifier.apiConfig())),
+                        conditionalVersion);
+            }
+
+            if(conditionalGet!=null && conditionalGet.isNotModifiedFor(myRequest)){
+                apiResponse = conditionalGet.notModifiedResponse();
+            }else{
+                apiResponse = handler.handle(myRequest);
+                if(conditionalGet!=null){
+                    conditionalGet.tag(apiResponse);
+                }
+            }
 
             httpApiResponse = new HttpApiResponse(myRequest.getHeaders(), apiResponse,
                     jsonThing, thingifier.apiConfig());
@@ -1,10 +1,14 @@
 package uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 import spark.Response;
 import uk.co.compendiumdev.thingifier.Thingifier;
 
 public class ClearDataPreSparkRequestHook implements SparkRequestResponseHook {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClearDataPreSparkRequestHook.class);
     private long lastReset;
     private final Thingifier thingifier;
     private final long maxgap;
@@ -22,12 +26,12 @@ public class ClearDataPreSparkRequestHook implements SparkRequestResponseHook {
         if(gap>maxgap){
             // reset the thingifier data
             this.lastReset=currentTime;
-            System.out.println("Clearing all data");
+            logger.info("Clearing all data");
             thingifier.clearAllData();
-            System.out.println("Cleared all data");
-            System.out.println("Adding test data");
+            logger.info("Cleared all data");
+            logger.info("Adding test data");
             thingifier.generateData();
-            System.out.println("Added test data");
+            logger.info("Added test data");
         }
     }
 }
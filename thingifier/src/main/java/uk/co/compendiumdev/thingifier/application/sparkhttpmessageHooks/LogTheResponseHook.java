@@ -1,17 +1,20 @@
 package uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 import spark.Response;
 
 public class LogTheResponseHook implements SparkRequestResponseHook {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTheResponseHook.class);
     @Override
     public void run(final Request request, final Response response) {
         try {
-                System.out.println("**RESPONSE**");
-                System.out.println(response.status());
-                System.out.println(response.body());
+                logger.info("**RESPONSE** {}", response.status());
+                logger.debug("**RESPONSE BODY** {}", response.body());
         } catch (Exception e) {
-            System.out.println(e);
+            logger.warn("Could not log response", e);
         }
     }
 }
@@ -1,20 +1,22 @@
 package uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import spark.Request;
 import spark.Response;
 
 public class LogTheSparkRequestHook implements SparkRequestResponseHook {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogTheSparkRequestHook.class);
     @Override
     public void run(final Request request, final Response response) {
         try {
 
-                System.out.println("**REQUEST**");
-                System.out.println(request.url());
-                System.out.println(request.pathInfo());
-                System.out.println(request.body());
+                logger.info("**REQUEST** {} {}", request.url(), request.pathInfo());
+                logger.debug("**REQUEST BODY** {}", request.body());
 
         } catch (Exception e) {
-            System.out.println(e);
+            logger.warn("Could not log request", e);
         }
     }
 }
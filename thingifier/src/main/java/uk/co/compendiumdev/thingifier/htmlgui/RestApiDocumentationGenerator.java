@@ -110,6 +110,8 @@ public class RestApiDocumentationGenerator {
             if(thingifier.apiConfig().forParams().willAllowFilteringThroughUrlParams()){
                 output.append(paragraph("Some requests can be filtered by adding query params of fieldname=value. Where only matching items will be returned."));
                 output.append(paragraph("e.g. <i>/items?size=2&status=true</i><br/><br/>\n"));
+                output.append(paragraph("Collections can be paged with the limit and offset query params, the X-Total-Count header has the number of matching items and the Link header has the next and previous pages."));
+                output.append(paragraph("e.g. <i>/items?limit=10&offset=20</i><br/><br/>\n"));
             }
 
             output.append(paragraph("All data lives in memory and is not persisted so the application is cleared everytime you start it. It does have some test data in here when you start"));
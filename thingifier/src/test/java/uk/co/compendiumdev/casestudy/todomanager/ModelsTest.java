@@ -47,6 +47,9 @@ public class ModelsTest {
         todoManager.clearAllData();
 
         Assertions.assertEquals(0, todos.countInstances());
+
+        // ids start again once all the data is cleared
+        Assertions.assertEquals("1", todos.createManagedInstance().getFieldValue("id").asString());
     }
 
     @Test
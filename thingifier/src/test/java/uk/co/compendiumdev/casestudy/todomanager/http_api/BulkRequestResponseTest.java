@@ -0,0 +1,197 @@
+package uk.co.compendiumdev.casestudy.todomanager.http_api;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.casestudy.todomanager.TodoManagerModel;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class BulkRequestResponseTest {
+
+    private Thingifier todoManager;
+
+    EntityInstanceCollection todo;
+    EntityInstanceCollection estimate;
+
+    @BeforeEach
+    public void createDefinitions() {
+
+        todoManager = TodoManagerModel.definedAsThingifier();
+
+        todoManager.apiConfig().setApiToEnforceAcceptHeaderForResponses(false);
+        todo = todoManager.getThingInstancesNamed("todo");
+        estimate = todoManager.getThingInstancesNamed("estimate");
+    }
+
+    private HttpApiResponse bulkPost(final String path, final String contentType, final String body){
+        HttpApiRequest request = new HttpApiRequest(path);
+        request.addHeader("content-type", contentType);
+        request.setBody(body);
+        return new ThingifierHttpApi(todoManager).post(request);
+    }
+
+    private List<Map> itemResponses(final HttpApiResponse response){
+        Assertions.assertEquals(200, response.getStatusCode());
+        Assertions.assertEquals("application/x-ndjson", response.getType());
+
+        final String[] lines = response.getBody().split("\n");
+        final List<Map> items = new ArrayList<>();
+        for(String line : lines){
+            items.add(new Gson().fromJson(line, Map.class));
+        }
+        return items;
+    }
+
+    @Test
+    public void canCreateTodosFromNewlineDelimitedJson() {
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/x-ndjson",
+                "{\"title\":\"first todo\"}\n" +
+                "\n" +
+                "{\"title\":\"second todo\", \"doneStatus\":true}\n");
+
+        System.out.println(response.getBody());
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(2, items.size());
+        Assertions.assertEquals(201.0, items.get(0).get("status"));
+        Assertions.assertEquals(201.0, items.get(1).get("status"));
+        Assertions.assertEquals("first todo", ((Map)items.get(0).get("todo")).get("title"));
+
+        Assertions.assertEquals(2, todo.countInstances());
+        Assertions.assertEquals("true", todo.findInstanceByGUIDorID("2").getFieldValue("doneStatus").asString());
+    }
+
+    @Test
+    public void invalidItemsAreReportedAndDoNotUseAnId() {
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/json",
+                "{\"title\":\"first todo\"}\n" +
+                "{\"title\":\"\"}\n" +
+                "{\"title\": not json\n" +
+                "{\"id\":\"12\", \"title\":\"with an id\"}\n" +
+                "{\"title\":\"last todo\"}");
+
+        System.out.println(response.getBody());
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(5, items.size());
+        Assertions.assertEquals(201.0, items.get(0).get("status"));
+        Assertions.assertEquals(400.0, items.get(1).get("status"));
+        Assertions.assertEquals(400.0, items.get(2).get("status"));
+        // an item with an id amends an instance, there is no todo 12
+        Assertions.assertEquals(404.0, items.get(3).get("status"));
+        Assertions.assertEquals("No such todo entity instance with GUID or ID 12 found",
+                ((List)items.get(3).get("errorMessages")).get(0));
+        Assertions.assertEquals(201.0, items.get(4).get("status"));
+        Assertions.assertEquals(4.0, items.get(4).get("index"));
+
+        Assertions.assertEquals(2, todo.countInstances());
+        Assertions.assertEquals("last todo", todo.findInstanceByGUIDorID("2").getFieldValue("title").asString());
+    }
+
+    @Test
+    public void canCreateTodosFromAJsonArray() {
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/json",
+                "[{\"title\":\"first todo\"},{\"title\":\"second todo\"}]");
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(2, items.size());
+        Assertions.assertEquals(2, todo.countInstances());
+    }
+
+    @Test
+    public void canCreateTodosFromAnXmlList() {
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/xml",
+                "<todos><todo><title>first todo</title></todo><todo><title>second todo</title></todo></todos>");
+
+        System.out.println(response.getBody());
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(2, items.size());
+        Assertions.assertEquals("second todo", ((Map)items.get(1).get("todo")).get("title"));
+        Assertions.assertEquals(2, todo.countInstances());
+    }
+
+    @Test
+    public void xmlListIsParsedAsASingleXmlBodyIs() {
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/xml",
+                "<?xml version=\"1.0\"?>" +
+                "<!DOCTYPE todos [<!ENTITY title \"from the dtd\">]>" +
+                "<todos><todo><title>&title;</title></todo></todos>");
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(1, items.size());
+        Assertions.assertEquals(400.0, items.get(0).get("status"));
+        Assertions.assertTrue(((List)items.get(0).get("errorMessages")).get(0).toString().contains("DTDs are not allowed"));
+        Assertions.assertEquals(0, todo.countInstances());
+    }
+
+    @Test
+    public void canAmendTodosByIdOrGuid() {
+
+        final EntityInstance first = todo.createManagedInstance().setValue("title", "first todo");
+        final EntityInstance second = todo.createManagedInstance().setValue("title", "second todo");
+
+        final HttpApiResponse response = bulkPost("todos/_bulk", "application/x-ndjson",
+                "{\"id\":" + first.getFieldValue("id").asString() + ", \"title\":\"amended todo\"}\n" +
+                "{\"guid\":\"" + second.getGUID() + "\", \"doneStatus\":true}\n" +
+                "{\"title\":\"new todo\"}\n");
+
+        System.out.println(response.getBody());
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(200.0, items.get(0).get("status"));
+        Assertions.assertEquals("amended todo", ((Map)items.get(0).get("todo")).get("title"));
+        Assertions.assertEquals(200.0, items.get(1).get("status"));
+        Assertions.assertEquals(201.0, items.get(2).get("status"));
+
+        Assertions.assertEquals(3, todo.countInstances());
+        Assertions.assertEquals("amended todo", first.getFieldValue("title").asString());
+        Assertions.assertEquals("second todo", second.getFieldValue("title").asString());
+        Assertions.assertEquals("true", second.getFieldValue("doneStatus").asString());
+    }
+
+    @Test
+    public void canCreateRelationshipsAndEnforceMandatoryRelationships() {
+
+        final EntityInstance aTodo = todo.createManagedInstance().setValue("title", "estimated todo");
+
+        final HttpApiResponse response = bulkPost("estimates/_bulk", "application/x-ndjson",
+                "{\"duration\":\"2\", \"estimate\":{\"guid\":\"" + aTodo.getGUID() + "\"}}\n" +
+                "{\"duration\":\"3\"}\n" +
+                "{\"duration\":\"4\", \"estimate\":{\"guid\":\"" + aTodo.getGUID() + "\"}}\n");
+
+        System.out.println(response.getBody());
+
+        final List<Map> items = itemResponses(response);
+        Assertions.assertEquals(201.0, items.get(0).get("status"));
+        Assertions.assertEquals(400.0, items.get(1).get("status"));
+        Assertions.assertEquals(201.0, items.get(2).get("status"));
+
+        Assertions.assertEquals(2, estimate.countInstances());
+        Assertions.assertEquals(2, aTodo.getRelationships().getConnectedItems("estimates").size());
+    }
+
+    @Test
+    public void cannotBulkCreateUnknownThings() {
+
+        final HttpApiResponse response = bulkPost("bobs/_bulk", "application/x-ndjson",
+                "{\"title\":\"first bob\"}");
+
+        Assertions.assertEquals(404, response.getStatusCode());
+    }
+}
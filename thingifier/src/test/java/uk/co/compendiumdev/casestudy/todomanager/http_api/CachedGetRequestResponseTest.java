@@ -0,0 +1,190 @@
+package uk.co.compendiumdev.casestudy.todomanager.http_api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.casestudy.todomanager.TodoManagerModel;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.GetResponseCache;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+public class CachedGetRequestResponseTest {
+
+    private Thingifier todoManager;
+    private ThingifierHttpApi httpApi;
+
+    EntityInstanceCollection todo;
+    EntityInstanceCollection category;
+
+    @BeforeEach
+    public void createDefinitions() {
+
+        todoManager = TodoManagerModel.definedAsThingifier();
+        todoManager.apiConfig().setResponseCacheMaxBytes(1024*1024);
+
+        todo = todoManager.getThingInstancesNamed("todo");
+        category = todoManager.getThingInstancesNamed("category");
+
+        todo.createManagedInstance().setValue("title", "my todo");
+
+        httpApi = new ThingifierHttpApi(todoManager);
+    }
+
+    private HttpApiResponse get(final String path, final String accept){
+        return get(path, accept, new HashMap<>());
+    }
+
+    private HttpApiResponse get(final String path, final String accept, final Map<String, String> queryParams){
+        HttpApiRequest request = new HttpApiRequest(path);
+        request.addHeader("accept", accept);
+        request.setQueryParams(queryParams);
+        return httpApi.get(request);
+    }
+
+    @Test
+    public void repeatedGetsAreServedFromTheCache() {
+
+        final GetResponseCache cache = httpApi.responseCache();
+
+        final HttpApiResponse response = get("todos", "application/json");
+        final String body = response.getBody();
+        Assertions.assertEquals(0, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(1, cache.countEntries());
+
+        final HttpApiResponse cached = get("todos", "application/json");
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(200, cached.getStatusCode());
+        Assertions.assertEquals("application/json", cached.getType());
+        Assertions.assertEquals(body, cached.getBody());
+        Assertions.assertEquals(response.getHeaders().get("ETag"), cached.getHeaders().get("ETag"));
+    }
+
+    @Test
+    public void cachedResponsesAreStoredCompressed() throws IOException {
+
+        todoManager.apiConfig().responseCompression().setMinimumSizeInBytes(0);
+
+        get("todos", "application/json");
+        final HttpApiResponse cached = get("todos", "application/json");
+
+        final byte[] gzipped = cached.getCompressedBody().getEncodedAs("gzip");
+        Assertions.assertNotNull(gzipped);
+
+        final ByteArrayOutputStream unzipped = new ByteArrayOutputStream();
+        try(GZIPInputStream unzip = new GZIPInputStream(new ByteArrayInputStream(gzipped))){
+            final byte[] buffer = new byte[1024];
+            int read;
+            while((read = unzip.read(buffer)) > 0){
+                unzipped.write(buffer, 0, read);
+            }
+        }
+        Assertions.assertEquals(cached.getBody(), new String(unzipped.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void contentTypePathAndQueryAreCachedSeparately() {
+
+        get("todos", "application/json");
+        final HttpApiResponse xml = get("todos", "application/xml");
+        Assertions.assertEquals("application/xml", xml.getType());
+        Assertions.assertTrue(xml.getBody().startsWith("<todos>"), xml.getBody());
+
+        get("todos/1", "application/json");
+
+        final Map<String, String> params = new HashMap<>();
+        params.put("title", "my todo");
+        get("todos", "application/json", params);
+
+        Assertions.assertEquals(4, httpApi.responseCache().countEntries());
+        Assertions.assertEquals(0, httpApi.responseCache().getHits());
+    }
+
+    @Test
+    public void changesToTheCollectionInvalidateCachedResponses() {
+
+        get("todos", "application/json");
+
+        todo.findInstanceByGUIDorID("1").setValue("title", "amended todo");
+
+        final HttpApiResponse response = get("todos", "application/json");
+        Assertions.assertEquals(0, httpApi.responseCache().getHits());
+        Assertions.assertTrue(response.getBody().contains("amended todo"));
+
+        // other collections do not invalidate a collection
+        category.createManagedInstance().setValue("title", "a category");
+        get("todos", "application/json");
+        Assertions.assertEquals(1, httpApi.responseCache().getHits());
+    }
+
+    @Test
+    public void relationshipRequestsAreInvalidatedByAnyChange() {
+
+        final EntityInstance aCategory = category.createManagedInstance().setValue("title", "a category");
+        todo.findInstanceByGUIDorID("1").getRelationships().connect("categories", aCategory);
+
+        get("todos/1/categories", "application/json");
+
+        aCategory.setValue("title", "amended category");
+
+        final HttpApiResponse response = get("todos/1/categories", "application/json");
+        Assertions.assertEquals(0, httpApi.responseCache().getHits());
+        Assertions.assertTrue(response.getBody().contains("amended category"));
+    }
+
+    @Test
+    public void errorResponsesAreNotCached() {
+
+        get("todos/99", "application/json");
+
+        Assertions.assertEquals(0, httpApi.responseCache().countEntries());
+    }
+
+    @Test
+    public void leastRecentlyUsedResponsesAreEvictedToStayWithinTheMaximum() {
+
+        final long oneResponse;
+        get("todos", "application/json");
+        oneResponse = httpApi.responseCache().getSizeInBytes();
+
+        // room for the todos response and one more
+        todoManager.apiConfig().setResponseCacheMaxBytes(oneResponse * 2 + 100);
+
+        get("todos/1", "application/json");
+        get("todos", "application/json");
+        get("todos", "application/xml");
+
+        final GetResponseCache cache = httpApi.responseCache();
+        Assertions.assertEquals(2, cache.countEntries());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertTrue(cache.getSizeInBytes() <= oneResponse * 2 + 100);
+
+        // todos/1 was least recently used
+        get("todos", "application/json");
+        Assertions.assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void responsesAreNotCachedByDefault() {
+
+        todoManager.apiConfig().setResponseCacheMaxBytes(0);
+
+        get("todos", "application/json");
+        get("todos", "application/json");
+
+        Assertions.assertEquals(0, httpApi.responseCache().countEntries());
+        Assertions.assertEquals(0, httpApi.responseCache().getHits());
+    }
+}
@@ -0,0 +1,127 @@
+package uk.co.compendiumdev.casestudy.todomanager.http_api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.casestudy.todomanager.TodoManagerModel;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConditionalGetRequestResponseTest {
+
+    private Thingifier todoManager;
+
+    EntityInstanceCollection todo;
+    EntityInstanceCollection category;
+
+    @BeforeEach
+    public void createDefinitions() {
+
+        todoManager = TodoManagerModel.definedAsThingifier();
+
+        todo = todoManager.getThingInstancesNamed("todo");
+        category = todoManager.getThingInstancesNamed("category");
+
+        todo.createManagedInstance().setValue("title", "my todo");
+    }
+
+    private HttpApiResponse get(final String path, final String accept, final String ifNoneMatch){
+        return get(path, accept, ifNoneMatch, new HashMap<>());
+    }
+
+    private HttpApiResponse get(final String path, final String accept, final String ifNoneMatch,
+                                final Map<String, String> queryParams){
+        HttpApiRequest request = new HttpApiRequest(path);
+        request.addHeader("accept", accept);
+        if(ifNoneMatch!=null){
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        request.setQueryParams(queryParams);
+        return new ThingifierHttpApi(todoManager).get(request);
+    }
+
+    @Test
+    public void getResponsesHaveAWeakETag() {
+
+        final HttpApiResponse response = get("todos", "application/json", null);
+
+        Assertions.assertEquals(200, response.getStatusCode());
+        final String etag = response.getHeaders().get("ETag");
+        Assertions.assertTrue(etag.startsWith("W/\""), etag);
+
+        // unchanged data, same tag
+        Assertions.assertEquals(etag, get("todos", "application/json", null).getHeaders().get("ETag"));
+    }
+
+    @Test
+    public void matchingIfNoneMatchIsNotModified() {
+
+        final String etag = get("todos", "application/json", null).getHeaders().get("ETag");
+
+        final HttpApiResponse response = get("todos", "application/json", etag);
+
+        Assertions.assertEquals(304, response.getStatusCode());
+        Assertions.assertEquals(etag, response.getHeaders().get("ETag"));
+        Assertions.assertEquals("", response.getBody());
+
+        // one of a list of tags, with or without the weak prefix
+        Assertions.assertEquals(304,
+                get("todos", "application/json", "W/\"other\", " + etag.substring(2)).getStatusCode());
+        Assertions.assertEquals(304, get("todos", "application/json", "*").getStatusCode());
+    }
+
+    @Test
+    public void tagsDifferForPathQueryAndAcceptType() {
+
+        final String etag = get("todos", "application/json", null).getHeaders().get("ETag");
+
+        Assertions.assertEquals(200, get("todos", "application/xml", etag).getStatusCode());
+        Assertions.assertEquals(200, get("todos/1", "application/json", etag).getStatusCode());
+
+        final Map<String, String> params = new HashMap<>();
+        params.put("title", "my todo");
+        Assertions.assertEquals(200, get("todos", "application/json", etag, params).getStatusCode());
+    }
+
+    @Test
+    public void changesToTheDataChangeTheTag() {
+
+        final String etag = get("todos", "application/json", null).getHeaders().get("ETag");
+
+        todo.findInstanceByGUIDorID("1").setValue("title", "amended todo");
+
+        final HttpApiResponse response = get("todos", "application/json", etag);
+        Assertions.assertEquals(200, response.getStatusCode());
+        Assertions.assertNotEquals(etag, response.getHeaders().get("ETag"));
+        Assertions.assertTrue(response.getBody().contains("amended todo"));
+    }
+
+    @Test
+    public void changesToRelatedDataChangeTheTag() {
+
+        final String etag = get("todos/1/categories", "application/json", null).getHeaders().get("ETag");
+
+        final EntityInstance aCategory = category.createManagedInstance().setValue("title", "a category");
+        Assertions.assertEquals(200, get("todos/1/categories", "application/json", etag).getStatusCode());
+
+        final String categoryEtag = get("todos/1/categories", "application/json", null).getHeaders().get("ETag");
+        todo.findInstanceByGUIDorID("1").getRelationships().connect("categories", aCategory);
+        Assertions.assertEquals(200, get("todos/1/categories", "application/json", categoryEtag).getStatusCode());
+    }
+
+    @Test
+    public void errorResponsesAreNotTagged() {
+
+        final HttpApiResponse response = get("todos/99", "application/json", null);
+
+        Assertions.assertEquals(404, response.getStatusCode());
+        Assertions.assertNull(response.getHeaders().get("ETag"));
+    }
+}
@@ -126,6 +126,21 @@ public class XmlRequestResponseTest {
 
     }
 
+    @Test
+    public void canPostAndCreateAnItemWithAnEmptyXmlElement(){
+
+        HttpApiRequest request = new HttpApiRequest("projects");
+        request.getHeaders().putAll(HeadersSupport.acceptXml());
+        request.getHeaders().putAll(HeadersSupport.containsXml());
+
+        request.setBody("<project/>");
+
+        final HttpApiResponse response = new ThingifierHttpApi(todoManager).post(request);
+
+        Assertions.assertEquals(201, response.getStatusCode(), response.getBody());
+        Assertions.assertEquals(1, project.countInstances());
+    }
+
     @Test
     public void canPostAndAmendAnItemWithXml(){
 
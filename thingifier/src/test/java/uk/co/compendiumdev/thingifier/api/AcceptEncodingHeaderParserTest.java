@@ -0,0 +1,40 @@
+package uk.co.compendiumdev.thingifier.api;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.api.http.AcceptEncodingHeaderParser;
+
+public class AcceptEncodingHeaderParserTest {
+
+    @Test
+    public void gzipPreferredWhenEquallyAcceptable(){
+        Assertions.assertEquals("gzip",
+                new AcceptEncodingHeaderParser("deflate, gzip").getPreferredEncoding());
+        Assertions.assertEquals("gzip",
+                new AcceptEncodingHeaderParser("gzip,deflate,br").getPreferredEncoding());
+    }
+
+    @Test
+    public void qualityValuesAreUsed(){
+        Assertions.assertEquals("deflate",
+                new AcceptEncodingHeaderParser("gzip;q=0.5, deflate;q=1.0").getPreferredEncoding());
+        Assertions.assertEquals("deflate",
+                new AcceptEncodingHeaderParser("gzip;q=0, deflate").getPreferredEncoding());
+    }
+
+    @Test
+    public void anyEncodingMatchesUnlistedEncodings(){
+        Assertions.assertEquals("gzip",
+                new AcceptEncodingHeaderParser("*").getPreferredEncoding());
+        Assertions.assertEquals("deflate",
+                new AcceptEncodingHeaderParser("*, gzip;q=0").getPreferredEncoding());
+    }
+
+    @Test
+    public void noEncodingWhenNoneAcceptable(){
+        Assertions.assertNull(new AcceptEncodingHeaderParser(null).getPreferredEncoding());
+        Assertions.assertNull(new AcceptEncodingHeaderParser("").getPreferredEncoding());
+        Assertions.assertNull(new AcceptEncodingHeaderParser("identity").getPreferredEncoding());
+        Assertions.assertNull(new AcceptEncodingHeaderParser("br, *;q=0").getPreferredEncoding());
+    }
+}
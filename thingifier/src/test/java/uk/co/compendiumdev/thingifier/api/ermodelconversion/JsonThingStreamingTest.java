@@ -0,0 +1,164 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonThingStreamingTest {
+
+    private List<EntityInstance> todos;
+    private List<EntityInstance> projects;
+    private List<EntityInstance> notes;
+
+    @BeforeEach
+    public void createModelWithRelationships(){
+
+        final EntityRelModel erm = new EntityRelModel();
+
+        final EntityDefinition todo = erm.createEntityDefinition("todo", "todos");
+        todo.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("estimate", FieldType.FLOAT),
+                Field.is("priority", FieldType.INTEGER),
+                Field.is("person", FieldType.OBJECT).
+                        withField(Field.is("firstname", FieldType.STRING)));
+
+        final EntityDefinition project = erm.createEntityDefinition("project", "projects");
+        project.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("related", FieldType.STRING));
+
+        // a note has a field named relationships so cannot stream the relationships
+        final EntityDefinition note = erm.createEntityDefinition("note", "notes");
+        note.addFields(Field.is("relationships", FieldType.STRING));
+
+        erm.createRelationshipDefinition(project, todo, "tasks", Cardinality.ONE_TO_MANY()).
+                whenReversed(Cardinality.ONE_TO_MANY(),"task-of");
+        // same name as a field so never compressed
+        erm.createRelationshipDefinition(project, note, "related", Cardinality.ONE_TO_MANY());
+        erm.createRelationshipDefinition(note, todo, "about", Cardinality.ONE_TO_MANY());
+
+        final EntityInstanceCollection todoInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("todo");
+        final EntityInstanceCollection projectInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("project");
+        final EntityInstanceCollection noteInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("note");
+
+        todos = new ArrayList<>();
+        projects = new ArrayList<>();
+        notes = new ArrayList<>();
+
+        todos.add(todoInstances.createManagedInstance().
+                setValue("title", "<b>escape</b> & \"quote\" 'it' é  ").
+                setValue("done", "true").
+                setValue("estimate", "2.5").
+                setValue("priority", "3").
+                setValue("person.firstname", "Connie"));
+        todos.add(todoInstances.createManagedInstance().
+                setValue("title", "not a number").
+                setValue("estimate", "0.1"));
+        todos.add(todoInstances.createManagedInstance().
+                setValue("title", "unconnected"));
+
+        projects.add(projectInstances.createManagedInstance().
+                setValue("title", "project with tasks"));
+        projects.add(projectInstances.createManagedInstance().
+                setValue("title", "project without tasks"));
+
+        notes.add(noteInstances.createManagedInstance().
+                setValue("relationships", "a field value"));
+
+        projects.get(0).getRelationships().connect("tasks", todos.get(0));
+        projects.get(0).getRelationships().connect("tasks", todos.get(1));
+        projects.get(0).getRelationships().connect("related", notes.get(0));
+        notes.get(0).getRelationships().connect("about", todos.get(0));
+    }
+
+    private List<JsonOutputConfig> everyOutputConfig(){
+        final List<JsonOutputConfig> configs = new ArrayList<>();
+        for(int combination=0; combination<16; combination++){
+            final JsonOutputConfig config = new JsonOutputConfig();
+            config.setCompressRelationships((combination & 1) != 0);
+            config.setRelationshipsUseIdsIfAvailable((combination & 2) != 0);
+            config.setShowGuidsInResponse((combination & 4) != 0);
+            config.setConvertFieldsToDefinedTypes((combination & 8) != 0);
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    private String streamed(final JsonThing jsonThing, final List<EntityInstance> things, final String typeName) throws IOException {
+        final StringWriter output = new StringWriter();
+        jsonThing.writeJsonTypedArrayWithContentsUntyped(things, typeName, output);
+        return output.toString();
+    }
+
+    private String streamed(final JsonThing jsonThing, final EntityInstance thing) throws IOException {
+        final StringWriter output = new StringWriter();
+        jsonThing.writeJsonObject(thing, output);
+        return output.toString();
+    }
+
+    @Test
+    public void streamedCollectionsAreIdenticalToJsonObjectOutput() throws IOException {
+
+        for(JsonOutputConfig config : everyOutputConfig()){
+            final JsonThing jsonThing = new JsonThing(config);
+
+            Assertions.assertEquals(jsonThing.asJsonTypedArrayWithContentsUntyped(todos, "todos"),
+                                    streamed(jsonThing, todos, "todos"));
+            Assertions.assertEquals(jsonThing.asJsonTypedArrayWithContentsUntyped(projects, "projects"),
+                                    streamed(jsonThing, projects, "projects"));
+            Assertions.assertEquals(jsonThing.asJsonTypedArrayWithContentsUntyped(notes, "notes"),
+                                    streamed(jsonThing, notes, "notes"));
+            Assertions.assertEquals(jsonThing.asJsonTypedArrayWithContentsUntyped(new ArrayList<>(), "todos"),
+                                    streamed(jsonThing, new ArrayList<>(), "todos"));
+        }
+    }
+
+    @Test
+    public void streamedInstancesAreIdenticalToJsonObjectOutput() throws IOException {
+
+        final List<EntityInstance> everything = new ArrayList<>();
+        everything.addAll(todos);
+        everything.addAll(projects);
+        everything.addAll(notes);
+
+        for(JsonOutputConfig config : everyOutputConfig()){
+            final JsonThing jsonThing = new JsonThing(config);
+
+            for(EntityInstance instance : everything){
+                Assertions.assertEquals(jsonThing.asJsonObject(instance).toString(),
+                                        streamed(jsonThing, instance));
+            }
+            Assertions.assertEquals("{}", streamed(jsonThing, null));
+        }
+    }
+
+    @Test
+    public void invalidTypedValuesAreSkippedLikeJsonObjectOutput() throws IOException {
+
+        todos.get(1).overrideValue("priority", "not a number");
+
+        final JsonThing jsonThing = new JsonThing(new JsonOutputConfig());
+
+        final String output = streamed(jsonThing, todos.get(1));
+        Assertions.assertEquals(jsonThing.asJsonObject(todos.get(1)).toString(), output);
+        Assertions.assertFalse(output.contains("priority"));
+    }
+}
@@ -0,0 +1,145 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import org.json.XML;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class XmlThingStreamingTest {
+
+    private EntityDefinition todo;
+    private EntityDefinition project;
+    private List<EntityInstance> todos;
+    private List<EntityInstance> projects;
+
+    @BeforeEach
+    public void createModelWithRelationships(){
+
+        final EntityRelModel erm = new EntityRelModel();
+
+        todo = erm.createEntityDefinition("todo", "todos");
+        todo.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("estimate", FieldType.FLOAT),
+                Field.is("person", FieldType.OBJECT).
+                        withField(Field.is("firstname", FieldType.STRING)));
+
+        project = erm.createEntityDefinition("project", "projects");
+        project.addFields(Field.is("id", FieldType.ID),
+                Field.is("title", FieldType.STRING),
+                Field.is("categories", FieldType.STRING));
+
+        final EntityDefinition category = erm.createEntityDefinition("category", "categories");
+        category.addFields(Field.is("title", FieldType.STRING));
+
+        erm.createRelationshipDefinition(project, todo, "tasks", Cardinality.ONE_TO_MANY()).
+                whenReversed(Cardinality.ONE_TO_MANY(),"task-of");
+        // same name as a field so never compressed
+        erm.createRelationshipDefinition(project, category, "categories", Cardinality.ONE_TO_MANY());
+
+        final EntityInstanceCollection todoInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("todo");
+        final EntityInstanceCollection projectInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("project");
+        final EntityInstanceCollection categoryInstances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("category");
+
+        todos = new ArrayList<>();
+        projects = new ArrayList<>();
+
+        todos.add(todoInstances.createManagedInstance().
+                setValue("title", "<b>escape</b> & \"quote\" 'it'").
+                setValue("done", "true").
+                setValue("estimate", "2.5").
+                setValue("person.firstname", "Connie"));
+        todos.add(todoInstances.createManagedInstance());
+
+        projects.add(projectInstances.createManagedInstance().
+                setValue("title", "project with tasks"));
+        projects.add(projectInstances.createManagedInstance().
+                setValue("title", "project without tasks"));
+
+        projects.get(0).getRelationships().connect("tasks", todos.get(0));
+        projects.get(0).getRelationships().connect("tasks", todos.get(1));
+        projects.get(0).getRelationships().connect("categories",
+                categoryInstances.createManagedInstance().setValue("title", "home"));
+    }
+
+    private List<JsonOutputConfig> everyOutputConfig(){
+        final List<JsonOutputConfig> configs = new ArrayList<>();
+        for(int combination=0; combination<16; combination++){
+            final JsonOutputConfig config = new JsonOutputConfig();
+            config.setCompressRelationships((combination & 1) != 0);
+            config.setRelationshipsUseIdsIfAvailable((combination & 2) != 0);
+            config.setShowGuidsInResponse((combination & 4) != 0);
+            config.setConvertFieldsToDefinedTypes((combination & 8) != 0);
+            configs.add(config);
+        }
+        return configs;
+    }
+
+    // the org.json conversion does not keep element order so compare the content
+    private void assertSameXmlContent(final String expected, final String actual){
+        Assertions.assertTrue(XML.toJSONObject(expected).similar(XML.toJSONObject(actual)),
+                String.format("expected %s but was %s", expected, actual));
+    }
+
+    @Test
+    public void streamedXmlHasSameContentAsConvertedJson(){
+
+        for(JsonOutputConfig config : everyOutputConfig()){
+            final JsonThing jsonThing = new JsonThing(config);
+            final XmlThing converted = new XmlThing(jsonThing);
+            final XmlThing streamed = new XmlThing(jsonThing, true);
+
+            assertSameXmlContent(converted.getCollectionOfThings(todos, todo),
+                                streamed.getCollectionOfThings(todos, todo));
+            assertSameXmlContent(converted.getCollectionOfThings(projects, project),
+                                streamed.getCollectionOfThings(projects, project));
+
+            for(EntityInstance instance : projects){
+                assertSameXmlContent(converted.getSingleObjectXml(instance),
+                                    streamed.getSingleObjectXml(instance));
+            }
+        }
+    }
+
+    private XmlThing streamedWithoutGuids(){
+        final JsonOutputConfig config = new JsonOutputConfig();
+        config.setShowGuidsInResponse(false);
+        return new XmlThing(new JsonThing(config), true);
+    }
+
+    @Test
+    public void streamedXmlIsWrittenInFieldOrder(){
+
+        final XmlThing streamed = streamedWithoutGuids();
+
+        final String xml = streamed.getSingleObjectXml(todos.get(0));
+
+        Assertions.assertTrue(xml.startsWith("<todo><id>1</id><title>&lt;b&gt;escape&lt;/b&gt; &amp; \"quote\" 'it'</title><done>true</done><estimate>2.5</estimate><person><firstname>Connie</firstname></person>"), xml);
+        Assertions.assertTrue(xml.endsWith("<task-of><id>1</id></task-of></todo>"), xml);
+    }
+
+    @Test
+    public void emptyValuesAreEmptyElements(){
+
+        final XmlThing streamed = streamedWithoutGuids();
+
+        final String xml = streamed.getCollectionOfThings(todos.subList(1,2), todo);
+
+        Assertions.assertTrue(xml.startsWith("<todos><todo><id>2</id><title/>"), xml);
+    }
+}
@@ -205,4 +205,50 @@ public class BodyParserTest {
 
         // estimate is a LinkedTreeMap of LinkedTreeMap "to do" of ArrayList of LinkedTreeMap
     }
+
+    @Test
+    public void validatingJsonKeepsTheParsedBody(){
+
+        HttpApiRequest request = new HttpApiRequest("/estimates");
+        request.addHeader("Content-Type", "application/json");
+        request.setBody("{'duration':'5'}");
+
+        final BodyParser bodyParser = new BodyParser(request, new ArrayList<>());
+
+        Assertions.assertEquals("", bodyParser.validBodyBasedOnContentType());
+
+        // the body is not parsed again after validation
+        request.setBody("{'duration':'6'}");
+        Assertions.assertEquals("5", bodyParser.getStringMap().get("duration"));
+    }
+
+    @Test
+    public void validatingInvalidJsonReportsTheError(){
+
+        HttpApiRequest request = new HttpApiRequest("/estimates");
+        request.addHeader("Content-Type", "application/json");
+        request.setBody("{'duration':'5'");
+
+        final BodyParser bodyParser = new BodyParser(request, new ArrayList<>());
+
+        Assertions.assertNotEquals("", bodyParser.validBodyBasedOnContentType());
+    }
+
+    @Test
+    public void eachFlattenedStringMapCanBeAmendedSeparately(){
+
+        HttpApiRequest request = new HttpApiRequest("/estimates");
+        request.setBody("{'duration':'5', 'estimate' : [{'guid' : '1234567890'}, {'guid' : '12345678901234567890'}]}");
+
+        final BodyParser bodyParser = new BodyParser(request, new ArrayList<>());
+
+        final List<Map.Entry<String, String>> flattened = bodyParser.getFlattenedStringMap();
+        Assertions.assertEquals(3, flattened.size());
+        Assertions.assertEquals("estimate.guid", flattened.get(1).getKey());
+        Assertions.assertEquals("estimate.guid", flattened.get(2).getKey());
+
+        flattened.remove(0);
+
+        Assertions.assertEquals(3, bodyParser.getFlattenedStringMap().size());
+    }
 }
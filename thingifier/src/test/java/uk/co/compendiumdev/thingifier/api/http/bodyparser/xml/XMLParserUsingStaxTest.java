@@ -0,0 +1,130 @@
+package uk.co.compendiumdev.thingifier.api.http.bodyparser.xml;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+public class XMLParserUsingStaxTest {
+
+    private final List<String> thingNames = Arrays.asList("todo", "project");
+
+    @Test
+    public void entityElementIsUnwrapped(){
+
+        final Map<String, Object> map = new XMLParserUsingStax(
+                "<todo><title>a todo</title><doneStatus>false</doneStatus></todo>",
+                thingNames).xmlAsMap();
+
+        Assertions.assertEquals(2, map.size());
+        Assertions.assertEquals("a todo", map.get("title"));
+        Assertions.assertEquals(false, map.get("doneStatus"));
+    }
+
+    @Test
+    public void unknownElementIsNotUnwrapped(){
+
+        final Map<String, Object> map = new XMLParserUsingStax(
+                "<other><title>a todo</title></other>", thingNames).xmlAsMap();
+
+        Assertions.assertEquals(1, map.size());
+        Assertions.assertTrue(map.get("other") instanceof Map);
+    }
+
+    @Test
+    public void valuesAreConvertedTheSameAsOrgJson(){
+
+        final String xml = "<todo a=\"1\"><title>  spaced text </title><id>007</id><priority>5</priority>" +
+                "<empty/><nothing>null</nothing><ratio>1.5</ratio></todo>";
+
+        final Map<String, Object> stax = new XMLParserUsingStax(xml, thingNames).xmlAsMap();
+        final Map<String, Object> orgJson = new XMLParserUsingOrgJson(xml, thingNames).xmlAsMap();
+
+        Assertions.assertEquals(orgJson, stax);
+        Assertions.assertEquals(5.0, stax.get("priority"));
+        Assertions.assertEquals("007", stax.get("id"));
+        Assertions.assertEquals("spaced text", stax.get("title"));
+        Assertions.assertEquals(1.0, stax.get("a"));
+        Assertions.assertEquals("", stax.get("empty"));
+        Assertions.assertTrue(stax.containsKey("nothing"));
+        Assertions.assertNull(stax.get("nothing"));
+    }
+
+    @Test
+    public void emptyEntityElementIsAnEmptyBody(){
+
+        for(String xml : Arrays.asList("<todo/>", "<todo></todo>")){
+
+            final Map<String, Object> stax = new XMLParserUsingStax(xml, thingNames).xmlAsMap();
+
+            Assertions.assertTrue(stax.isEmpty(), xml);
+            // org.json returns null, which the BodyParser treats as an empty body
+            final Map<String, Object> orgJson = new XMLParserUsingOrgJson(xml, thingNames).xmlAsMap();
+            Assertions.assertTrue(orgJson==null || orgJson.isEmpty(), xml);
+        }
+    }
+
+    @Test
+    public void numbersLargerThanALongAreConvertedTheSameAsOrgJson(){
+
+        final String xml = "<todo><big>12345678901234567890</big></todo>";
+
+        final Map<String, Object> stax = new XMLParserUsingStax(xml, thingNames).xmlAsMap();
+
+        Assertions.assertEquals(new XMLParserUsingOrgJson(xml, thingNames).xmlAsMap(), stax);
+        Assertions.assertEquals(1.2345678901234567E19, stax.get("big"));
+    }
+
+    @Test
+    public void repeatedElementsAreAList(){
+
+        final String xml = "<project><title>p</title><tasks><todo><guid>1</guid></todo><todo><guid>2</guid></todo></tasks></project>";
+
+        final Map<String, Object> stax = new XMLParserUsingStax(xml, thingNames).xmlAsMap();
+
+        Assertions.assertEquals(new XMLParserUsingOrgJson(xml, thingNames).xmlAsMap(), stax);
+        final Object todos = ((Map<String, Object>) stax.get("tasks")).get("todo");
+        Assertions.assertTrue(todos instanceof ArrayList);
+        Assertions.assertEquals(2, ((List) todos).size());
+    }
+
+    @Test
+    public void invalidXmlIsReported(){
+
+        Assertions.assertNotEquals("",
+                new XMLParserUsingStax("<todo><title>x</todo>", thingNames).validateXML());
+    }
+
+    @Test
+    public void emptyBodyIsValid(){
+
+        final XMLParserUsingStax parser = new XMLParserUsingStax("", thingNames);
+
+        Assertions.assertEquals("", parser.validateXML());
+        Assertions.assertTrue(parser.xmlAsMap().isEmpty());
+    }
+
+    @Test
+    public void externalEntitiesAreRejected(){
+
+        final String xml = "<!DOCTYPE todo [<!ENTITY secret SYSTEM \"file:///etc/passwd\">]>" +
+                            "<todo><title>&secret;</title></todo>";
+
+        final String error = new XMLParserUsingStax(xml, thingNames).validateXML();
+
+        Assertions.assertTrue(error.contains("DTDs are not allowed"), error);
+    }
+
+    @Test
+    public void stringCollectionIsEscapedTheSameAsOrgJson(){
+
+        final List<String> messages = Arrays.asList("a <b> & 'c' \"d\"", "e");
+
+        Assertions.assertEquals(
+                new XMLParserUsingOrgJson("", thingNames).getStringCollectionAsXML("errorMessages", "errorMessage", messages),
+                new XMLParserUsingStax("", thingNames).getStringCollectionAsXML("errorMessages", "errorMessage", messages));
+    }
+}
@@ -0,0 +1,145 @@
+package uk.co.compendiumdev.thingifier.api.non_http;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.restapihandlers.RestApiGetHandler;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PagedCollectionNonHttpTest {
+
+    private Thingifier thingifier;
+
+    @BeforeEach
+    public void createThings() {
+        thingifier = new Thingifier();
+
+        EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addFields(Field.is("title", FieldType.STRING),
+                        Field.is("id", FieldType.ID));
+
+        final EntityInstanceCollection things = thingifier.getThingInstancesNamed("thing");
+        for(int count=1; count<=12; count++){
+            things.createManagedInstance().setValue("title", "thing " + count);
+        }
+    }
+
+    private ApiResponse get(Map<String, String> params){
+        return thingifier.api().get("/things", params, new HashMap<>());
+    }
+
+    private String cursorFrom(String link, String rel){
+        final Matcher matcher = Pattern.compile("cursor=([^>]*)>; rel=\"" + rel + "\"").matcher(link);
+        Assertions.assertTrue(matcher.find(), link);
+        return matcher.group(1);
+    }
+
+    @Test
+    public void pagedCollectionsHaveTotalCountAndLinkHeaders(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "5");
+        params.put("offset", "5");
+
+        final ApiResponse response = get(params);
+
+        Assertions.assertEquals(200, response.getStatusCode());
+        Assertions.assertEquals(5, response.getReturnedInstanceCollection().size());
+        Assertions.assertEquals("thing 6", response.getReturnedInstanceCollection().get(0).getFieldValue("title").asString());
+        Assertions.assertEquals("12", response.getHeaderValue(RestApiGetHandler.TOTAL_COUNT_HEADER));
+
+        final String link = response.getHeaderValue("Link");
+        Assertions.assertTrue(link.contains("</things?limit=5&cursor="), link);
+        Assertions.assertTrue(link.contains("rel=\"next\""), link);
+        Assertions.assertTrue(link.contains("rel=\"prev\""), link);
+
+        params.remove("offset");
+        params.put("cursor", cursorFrom(link, "next"));
+        final ApiResponse nextPage = get(params);
+        Assertions.assertEquals("thing 11", nextPage.getReturnedInstanceCollection().get(0).getFieldValue("title").asString());
+
+        params.put("cursor", cursorFrom(link, "prev"));
+        final ApiResponse previousPage = get(params);
+        Assertions.assertEquals("thing 1", previousPage.getReturnedInstanceCollection().get(0).getFieldValue("title").asString());
+    }
+
+    @Test
+    public void lastPageHasNoNextLink(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "5");
+        params.put("offset", "5");
+
+        params.put("cursor", cursorFrom(get(params).getHeaderValue("Link"), "next"));
+        params.remove("offset");
+        final ApiResponse response = get(params);
+
+        Assertions.assertEquals(2, response.getReturnedInstanceCollection().size());
+        final String link = response.getHeaderValue("Link");
+        Assertions.assertFalse(link.contains("rel=\"next\""), link);
+        Assertions.assertTrue(link.contains("rel=\"prev\""), link);
+    }
+
+    @Test
+    public void cursorFromADifferentSortIsABadRequest(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "5");
+        params.put("sort_by", "-title");
+
+        params.put("cursor", cursorFrom(get(params).getHeaderValue("Link"), "next"));
+        params.remove("sort_by");
+        final ApiResponse response = get(params);
+
+        Assertions.assertEquals(400, response.getStatusCode());
+    }
+
+    @Test
+    public void cursorFromADifferentSortWithTheSameNumberOfFieldsIsABadRequest(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "5");
+        params.put("sort_by", "+title");
+
+        params.put("cursor", cursorFrom(get(params).getHeaderValue("Link"), "next"));
+        params.put("sort_by", "-id");
+        final ApiResponse response = get(params);
+
+        Assertions.assertEquals(400, response.getStatusCode());
+        Assertions.assertEquals("Invalid cursor, it is not for this sort_by",
+                response.getErrorMessages().iterator().next());
+    }
+
+    @Test
+    public void unpagedCollectionsHaveNoPagingHeaders(){
+
+        final ApiResponse response = get(new HashMap<>());
+
+        Assertions.assertEquals(12, response.getReturnedInstanceCollection().size());
+        Assertions.assertNull(response.getHeaderValue(RestApiGetHandler.TOTAL_COUNT_HEADER));
+        Assertions.assertNull(response.getHeaderValue("Link"));
+    }
+
+    @Test
+    public void invalidPageParamsAreABadRequest(){
+
+        Map<String, String> params = new HashMap<>();
+        params.put("limit", "lots");
+
+        final ApiResponse response = get(params);
+
+        Assertions.assertEquals(400, response.getStatusCode());
+        Assertions.assertEquals("Invalid limit lots, expected a number 0 or above",
+                response.getErrorMessages().iterator().next());
+    }
+}
@@ -0,0 +1,161 @@
+package uk.co.compendiumdev.thingifier.application.httpengine;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class HttpEngineThreadsTest {
+
+    @Test
+    public void canParseThreadsArguments(){
+
+        Assertions.assertTrue(HttpEngineThreads.parse("virtual").isVirtual());
+
+        final HttpEngineThreads platform = HttpEngineThreads.parse("platform:50");
+        Assertions.assertFalse(platform.isVirtual());
+        Assertions.assertEquals(50, platform.getMaxThreads());
+        Assertions.assertEquals(HttpEngineThreads.DEFAULT_MAX_QUEUED_REQUESTS, platform.getMaxQueuedRequests());
+
+        final HttpEngineThreads queued = HttpEngineThreads.parse("Platform:10:20");
+        Assertions.assertEquals(10, queued.getMaxThreads());
+        Assertions.assertEquals(20, queued.getMaxQueuedRequests());
+        Assertions.assertEquals("platform:10:20", queued.toString());
+    }
+
+    @Test
+    public void invalidThreadsArgumentsAreIgnored(){
+        Assertions.assertNull(HttpEngineThreads.parse(null));
+        Assertions.assertNull(HttpEngineThreads.parse("platform"));
+        Assertions.assertNull(HttpEngineThreads.parse("platform:0"));
+        Assertions.assertNull(HttpEngineThreads.parse("platform:many"));
+        Assertions.assertNull(HttpEngineThreads.parse("virtual:10"));
+        Assertions.assertNull(HttpEngineThreads.parse("green"));
+    }
+
+    @Test
+    public void platformThreadsReportSaturationAndRejectWhenTheQueueIsFull() throws InterruptedException {
+
+        final RequestExecutor executor = RequestExecutor.forThreads(HttpEngineThreads.platform(1, 1));
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            executor.execute(() -> {
+                running.countDown();
+                awaitQuietly(release);
+            });
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, executor.getStatus().getQueuedRequests());
+
+            executor.execute(() -> awaitQuietly(release));
+
+            ThreadPoolStatus status = executor.getStatus();
+            Assertions.assertTrue(status.isSaturated());
+            Assertions.assertEquals(1, status.getBusyThreads());
+            Assertions.assertEquals(1, status.getMaxThreads());
+            Assertions.assertEquals(1, status.getQueuedRequests());
+
+            Assertions.assertThrows(RejectedExecutionException.class,
+                    () -> executor.execute(() -> awaitQuietly(release)));
+            Assertions.assertEquals(1, executor.getStatus().getRejectedRequests());
+
+        }finally {
+            release.countDown();
+            executor.shutdown();
+        }
+
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, executor.getStatus().getBusyThreads());
+    }
+
+    @Test
+    public void virtualThreadsAreNotLimited() throws InterruptedException {
+
+        final RequestExecutor executor = RequestExecutor.forThreads(HttpEngineThreads.virtual());
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch running = new CountDownLatch(100);
+
+        try {
+            for (int request = 0; request < 100; request++) {
+                executor.execute(() -> {
+                    running.countDown();
+                    awaitQuietly(release);
+                });
+            }
+            Assertions.assertTrue(running.await(5, TimeUnit.SECONDS));
+
+            final ThreadPoolStatus status = executor.getStatus();
+            Assertions.assertEquals(100, status.getBusyThreads());
+            Assertions.assertEquals(-1, status.getMaxThreads());
+            Assertions.assertFalse(status.isSaturated());
+        }finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void platformPoolsTooSmallForJettyAreRaisedToTheMinimum() throws Exception {
+
+        final BoundedJettyThreadPool pool = new BoundedJettyThreadPool(HttpEngineThreads.platform(1));
+        Assertions.assertEquals(BoundedJettyThreadPool.minimumThreads(), pool.getMaxThreads());
+
+        final Server server = jettyServerWith(pool);
+        try{
+            server.start();
+            Assertions.assertTrue(server.isStarted());
+        }finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void virtualPoolStopsWithTheServer() throws Exception {
+
+        final VirtualJettyThreadPool pool = new VirtualJettyThreadPool(HttpEngineThreads.virtual());
+        final Server server = jettyServerWith(pool);
+
+        // Spark can stop and start the server again
+        for(int start=0; start<2; start++){
+            server.start();
+            Assertions.assertTrue(pool.isStarted());
+
+            final CountDownLatch joined = new CountDownLatch(1);
+            final Thread joining = new Thread(() -> {
+                try {
+                    server.join();
+                    joined.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            joining.start();
+
+            server.stop();
+            Assertions.assertTrue(pool.isStopped());
+            Assertions.assertTrue(joined.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static Server jettyServerWith(final ThreadPool pool){
+        final Server server = new Server(pool);
+        final ServerConnector connector = new ServerConnector(server);
+        connector.setPort(0);
+        server.addConnector(connector);
+        return server;
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch){
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
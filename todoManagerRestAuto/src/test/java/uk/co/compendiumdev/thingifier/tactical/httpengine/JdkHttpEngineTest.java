@@ -0,0 +1,154 @@
+package uk.co.compendiumdev.thingifier.tactical.httpengine;
+
+import io.restassured.http.ContentType;
+import io.restassured.specification.RequestSpecification;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import spark.Spark;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ThingifierApiDefn;
+import uk.co.compendiumdev.thingifier.application.examples.TodoManagerThingifier;
+import uk.co.compendiumdev.thingifier.application.httpengine.JdkHttpEngine;
+import uk.co.compendiumdev.thingifier.application.httpengine.ThreadPoolStatus;
+import uk.co.compendiumdev.thingifier.htmlgui.DefaultGUIHTML;
+import uk.co.compendiumdev.thingifier.tactical.postmanreplication.CreateTodosTiming;
+import uk.co.compendiumdev.thingifier.tactical.postmanreplication.Environment;
+
+import java.util.HashMap;
+
+import static io.restassured.RestAssured.given;
+
+public class JdkHttpEngineTest {
+
+    // the same todo manager api served by the JDK HttpServer instead of Spark
+    // the throughput test compares the two engines, timings vary on a shared machine so it is
+    // excluded from the build, run it with: mvn test -Dtest=JdkHttpEngineTest -DexcludedTestGroups=none
+    // one at a time, single cpu: spark ~95 todos per second, jdk ~165 todos per second
+    private static final int NUMBER_OF_TODOS = 1000;
+
+    private static JdkHttpEngine engine;
+
+    @BeforeAll
+    public static void startJdkEngine(){
+
+        final Thingifier thingifier = new TodoManagerThingifier().get();
+        thingifier.apiConfig().adminConfig().enableAdminDataClear();
+        thingifier.apiConfig().adminConfig().enableAdminSearch();
+
+        engine = new JdkHttpEngine();
+        // any free port
+        engine.configurePort(0, "/public");
+        engine.start(thingifier, new ThingifierApiDefn().setThingifier(thingifier), new DefaultGUIHTML());
+    }
+
+    @AfterAll
+    public static void stopJdkEngine(){
+        engine.stop();
+    }
+
+    private static String jdkUri(){
+        return "http://localhost:" + engine.getPort();
+    }
+
+    private static RequestSpecification jdk(){
+        return request(jdkUri());
+    }
+
+    private static RequestSpecification request(final String baseUri){
+        return given().noFilters().baseUri(baseUri);
+    }
+
+    @Test
+    public void canCreateAndGetTodos(){
+
+        jdk().when().post("/admin/data/thingifier").then().statusCode(200);
+
+        final HashMap<String, String> givenBody = new HashMap<String, String>();
+        givenBody.put("title", "a jdk todo");
+
+        final String id = jdk().body(givenBody).
+                when().post("/todos").
+                then().statusCode(201).
+                    contentType(ContentType.JSON).
+                    extract().jsonPath().getString("id");
+
+        final String title = jdk().
+                when().get("/todos/" + id).
+                then().statusCode(200).
+                    extract().jsonPath().getString("todos[0].title");
+        Assertions.assertEquals("a jdk todo", title);
+
+        Assertions.assertEquals(1, jdk().queryParam("title", "a jdk todo").
+                when().get("/todos").
+                then().statusCode(200).
+                    extract().jsonPath().getList("todos").size());
+
+        jdk().when().delete("/todos/" + id).then().statusCode(200);
+        jdk().when().get("/todos/" + id).then().statusCode(404);
+    }
+
+    @Test
+    public void unsupportedRequestsAreRejected(){
+
+        jdk().when().patch("/todos").then().statusCode(405);
+        jdk().accept(ContentType.XML).when().get("/nothing/here").
+                then().statusCode(404).contentType(ContentType.XML);
+    }
+
+    @Test
+    public void threadPoolStatusIsReported(){
+
+        jdk().when().get("/todos").then().statusCode(200);
+
+        final ThreadPoolStatus status = engine.getThreadPoolStatus();
+        Assertions.assertEquals(-1, status.getMaxThreads());
+        Assertions.assertEquals(0, status.getRejectedRequests());
+        Assertions.assertFalse(status.isSaturated());
+    }
+
+    @Test
+    public void documentationIsServedCompressed(){
+
+        final String docs = jdk().header("Accept-Encoding", "gzip").
+                when().get("/docs").
+                then().statusCode(200).
+                    header("Content-Encoding", "gzip").
+                    contentType(ContentType.HTML).
+                    extract().body().asString();
+
+        Assertions.assertTrue(docs.contains("</html>"));
+    }
+
+    @Test
+    @Tag("throughput")
+    public void canCreateALotOfTodosAsFastAsSpark(){
+
+        final String spark = Environment.getBaseUri();
+        Spark.awaitInitialization();
+
+        final double sparkTodosPerSecond = createTodosOneAtATime("spark", spark);
+        final double jdkTodosPerSecond = createTodosOneAtATime("jdk", jdkUri());
+
+        // only fail if it is much slower
+        Assertions.assertTrue(jdkTodosPerSecond > sparkTodosPerSecond / 2,
+                String.format("jdk %.0f spark %.0f", jdkTodosPerSecond, sparkTodosPerSecond));
+    }
+
+    private double createTodosOneAtATime(final String engineName, final String baseUri){
+
+        request(baseUri).when().post("/admin/data/thingifier").then().statusCode(200);
+
+        final double todosPerSecond = CreateTodosTiming.createTodosOneAtATime(
+                baseUri, NUMBER_OF_TODOS, "with " + engineName);
+
+        Assertions.assertEquals(NUMBER_OF_TODOS, request(baseUri).
+                when().get("/todos").
+                then().statusCode(200).
+                    extract().jsonPath().getList("todos").size());
+
+        return todosPerSecond;
+    }
+}
@@ -0,0 +1,51 @@
+package uk.co.compendiumdev.thingifier.tactical.postmanreplication;
+
+import io.restassured.http.ContentType;
+
+import java.util.HashMap;
+
+import static io.restassured.RestAssured.given;
+
+/*
+    Times creating todos so the throughput of different ways of creating them can be compared.
+    Request and response logging is switched off for the timed requests so it does not dominate the timings.
+ */
+public final class CreateTodosTiming {
+
+    private CreateTodosTiming(){
+    }
+
+    /**
+     * POST numberOfTodos todos, one request at a time, and report the throughput
+     * @return todos created per second
+     */
+    public static double createTodosOneAtATime(final String baseUri, final int numberOfTodos, final String how){
+
+        final HashMap<String, String> givenBody = new HashMap<String, String>();
+
+        final long start = System.nanoTime();
+
+        for(int i=0; i<numberOfTodos; i++){
+            givenBody.put("title", "a title " + i);
+
+            given().noFilters().baseUri(baseUri).body(givenBody).
+                    when().post("/todos").
+                    then().
+                    statusCode(201).
+                    contentType(ContentType.JSON);
+        }
+
+        return reportThroughput(numberOfTodos, how, System.nanoTime() - start);
+    }
+
+    /**
+     * @return todos created per second
+     */
+    public static double reportThroughput(final int numberOfTodos, final String how, final long nanos){
+        final double millis = nanos / 1_000_000.0;
+        final double todosPerSecond = numberOfTodos / (millis / 1000.0);
+        System.out.println(String.format("Created %d todos %s in %.0f ms, %.0f todos per second",
+                numberOfTodos, how, millis, todosPerSecond));
+        return todosPerSecond;
+    }
+}
@@ -52,6 +52,8 @@ public class Environment {
 
             ThingifierApiDefn apiDefn = new ThingifierApiDefn().setThingifier(thingifier);
             new ThingifierRestServer("", thingifier, apiDefn, new DefaultGUIHTML());
+            // Spark starts in the background, wait so the next test finds the port in use
+            Spark.awaitInitialization();
             return "http://localhost:4567";
         }
 
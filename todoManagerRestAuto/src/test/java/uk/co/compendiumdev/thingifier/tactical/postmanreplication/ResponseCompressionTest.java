@@ -0,0 +1,103 @@
+package uk.co.compendiumdev.thingifier.tactical.postmanreplication;
+
+import io.restassured.RestAssured;
+import io.restassured.config.DecoderConfig;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.when;
+
+public class ResponseCompressionTest {
+
+    // bodies of 1024 bytes or more are compressed when the client accepts gzip or deflate
+
+    @BeforeAll
+    public static void createEnoughTodosToCompress(){
+
+        RestAssured.baseURI = Environment.getBaseUri();
+
+        when().post("/admin/data/thingifier").then().statusCode(200);
+
+        final HashMap<String, String> givenBody = new HashMap<String, String>();
+        for(int i=0; i<20; i++){
+            givenBody.put("title", "a todo title long enough to make the response worth compressing " + i);
+            given().body(givenBody).when().post("/todos").then().statusCode(201);
+        }
+    }
+
+    @Test
+    public void largeResponsesAreCompressedWithGzip(){
+
+        final Response response = given().
+                header("Accept-Encoding", "gzip").
+                when().get("/todos").
+                then().statusCode(200).
+                    header("Content-Encoding", "gzip").
+                    header("Vary", "Accept-Encoding").
+                    extract().response();
+
+        // rest assured decompresses
+        Assertions.assertEquals(20, response.jsonPath().getList("todos").size());
+    }
+
+    @Test
+    public void largeResponsesAreCompressedWithDeflate(){
+
+        final Response response = given().
+                config(RestAssured.config().decoderConfig(
+                        DecoderConfig.decoderConfig().contentDecoders(DecoderConfig.ContentDecoder.DEFLATE))).
+                header("Accept-Encoding", "deflate").
+                when().get("/todos").
+                then().statusCode(200).
+                    header("Content-Encoding", "deflate").
+                    extract().response();
+
+        Assertions.assertEquals(20, response.jsonPath().getList("todos").size());
+    }
+
+    @Test
+    public void responsesAreNotCompressedWhenNotAccepted(){
+
+        final Response response = given().
+                config(RestAssured.config().decoderConfig(
+                        DecoderConfig.decoderConfig().noContentDecoders())).
+                when().get("/todos").
+                then().statusCode(200).
+                    extract().response();
+
+        Assertions.assertNull(response.getHeader("Content-Encoding"));
+        Assertions.assertEquals(20, response.jsonPath().getList("todos").size());
+    }
+
+    @Test
+    public void smallResponsesAreNotCompressed(){
+
+        final Response response = given().
+                header("Accept-Encoding", "gzip").
+                when().get("/todos/1").
+                then().statusCode(200).
+                    extract().response();
+
+        Assertions.assertNull(response.getHeader("Content-Encoding"));
+    }
+
+    @Test
+    public void documentationIsCompressed(){
+
+        for(int repeat=0; repeat<2; repeat++) {
+            final String docs = given().
+                    header("Accept-Encoding", "gzip").
+                    when().get("/docs").
+                    then().statusCode(200).
+                    header("Content-Encoding", "gzip").
+                    extract().body().asString();
+
+            Assertions.assertTrue(docs.contains("</html>"));
+        }
+    }
+}